@@ -0,0 +1,78 @@
+package com.example.devicemanagement.benchmark;
+
+import com.example.devicemanagement.dto.DeviceDTO;
+import com.example.devicemanagement.dto.DevicePatch;
+import com.example.devicemanagement.model.Device;
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Benchmarks for the entity to DTO mapping and for reading the body of a partial update.
+ *
+ * {@code readMergePatch} streams the body into a {@link DevicePatch}; {@code readMapThenConvert} takes the former
+ * route of reading it into a map of boxed values first and converting the fields from there.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class DeviceMappingBenchmark {
+
+    private Device device;
+
+    private final ObjectMapper objectMapper = new ObjectMapper().findAndRegisterModules();
+
+    private byte[] patch;
+
+    /**
+     * Creates the device and the patch body that are mapped in every invocation.
+     */
+    @Setup
+    public void setUp() {
+        LocalDateTime now = LocalDateTime.now();
+        device = Device.builder()
+                .id(1L)
+                .name("Device1")
+                .brand("BrandA")
+                .creationTime(now)
+                .build();
+        patch = ("{\"name\":\"Device1 Updated\",\"brand\":\"BrandB\",\"creationTime\":\"" + now.minusDays(1) + "\"}")
+                .getBytes(StandardCharsets.UTF_8);
+    }
+
+    @Benchmark
+    public DeviceDTO fromEntity() {
+        return DeviceDTO.fromEntity(device);
+    }
+
+    @Benchmark
+    public DevicePatch readMergePatch() throws IOException {
+        return objectMapper.readValue(patch, DevicePatch.class);
+    }
+
+    @Benchmark
+    public DevicePatch readMapThenConvert() throws IOException {
+        Map<String, Object> fields = objectMapper.readValue(patch, new TypeReference<>() {
+        });
+        return new DevicePatch((String) fields.get("name"), (String) fields.get("brand"),
+                LocalDateTime.parse((String) fields.get("creationTime")));
+    }
+}
@@ -0,0 +1,137 @@
+package com.example.devicemanagement.benchmark;
+
+import com.example.devicemanagement.DeviceManagementApplication;
+import com.example.devicemanagement.config.CacheConfiguration;
+import com.example.devicemanagement.dto.BrandMatch;
+import com.example.devicemanagement.dto.DeviceDTO;
+import com.example.devicemanagement.dto.DevicePage;
+import com.example.devicemanagement.service.DeviceService;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.boot.WebApplicationType;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.cache.Cache;
+import org.springframework.cache.CacheManager;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Benchmarks for the DeviceService read and write paths.
+ *
+ * The service runs in a full application context (without the web server) against an
+ * embedded H2 database that is seeded with the given number of devices.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class DeviceServiceBenchmark {
+
+    private static final int BRANDS = 10;
+
+    private static final int HOT_DEVICES = 100;
+
+    @Param("10000")
+    private int devices;
+
+    private ConfigurableApplicationContext context;
+
+    private DeviceService deviceService;
+
+    private Cache cache;
+
+    private List<Long> ids;
+
+    /**
+     * Starts the application and seeds the database.
+     */
+    @Setup(Level.Trial)
+    public void setUp() {
+        context = new SpringApplicationBuilder(DeviceManagementApplication.class)
+                .web(WebApplicationType.NONE)
+                .properties(
+                        "spring.datasource.url=jdbc:h2:mem:benchmark;DB_CLOSE_DELAY=-1",
+                        "spring.jpa.show-sql=false",
+                        "spring.jpa.properties.hibernate.jdbc.batch_size=50", // Same batching as the application
+                        "spring.jpa.properties.hibernate.order_inserts=true",
+                        "logging.level.root=WARN")
+                .run();
+        deviceService = context.getBean(DeviceService.class);
+        cache = context.getBean(CacheManager.class).getCache(CacheConfiguration.DEVICES_CACHE);
+
+        List<DeviceDTO> seed = new ArrayList<>(devices);
+        for (int i = 0; i < devices; i++) {
+            seed.add(device(i));
+        }
+        ids = deviceService.addDevices(seed);
+        for (Long id : ids.subList(0, HOT_DEVICES)) {
+            deviceService.getDeviceById(id); // Primes the cache for the cached lookups.
+        }
+    }
+
+    /**
+     * Stops the application.
+     */
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        context.close();
+    }
+
+    @Benchmark
+    public DeviceDTO getDeviceByIdCached() {
+        return deviceService.getDeviceById(ids.get(ThreadLocalRandom.current().nextInt(HOT_DEVICES)));
+    }
+
+    @Benchmark
+    public DeviceDTO getDeviceByIdUncached() {
+        Long id = ids.get(ThreadLocalRandom.current().nextInt(ids.size()));
+        cache.evict(id); // Forces the lookup to reach the database.
+        return deviceService.getDeviceById(id);
+    }
+
+    @Benchmark
+    public DevicePage getAllDevicesFirstPage() {
+        return deviceService.getAllDevices(null, 100);
+    }
+
+    @Benchmark
+    public DevicePage searchDevicesByBrandFirstPage() {
+        return deviceService.searchDevicesByBrand("Brand3", BrandMatch.EXACT, null, 100);
+    }
+
+    @Benchmark
+    public DeviceDTO addDevice() {
+        return deviceService.addDevice(device(ThreadLocalRandom.current().nextInt()));
+    }
+
+    @Benchmark
+    public List<Long> addDevicesBatchOf100() {
+        List<DeviceDTO> batch = new ArrayList<>(100);
+        for (int i = 0; i < 100; i++) {
+            batch.add(device(i));
+        }
+        return deviceService.addDevices(batch);
+    }
+
+    private static DeviceDTO device(int i) {
+        return new DeviceDTO(null, "Device" + i, "Brand" + Math.floorMod(i, BRANDS), LocalDateTime.now());
+    }
+}
@@ -0,0 +1,123 @@
+package com.example.devicemanagement.benchmark;
+
+import com.example.devicemanagement.config.DeviceProtobufHttpMessageConverter;
+import com.example.devicemanagement.dto.DeviceDTO;
+import com.example.devicemanagement.dto.DevicePage;
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import com.fasterxml.jackson.dataformat.cbor.CBORFactory;
+import com.fasterxml.jackson.dataformat.smile.SmileFactory;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.http.MediaType;
+import org.springframework.http.converter.HttpMessageConverter;
+import org.springframework.http.converter.cbor.MappingJackson2CborHttpMessageConverter;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+import org.springframework.http.converter.json.MappingJackson2HttpMessageConverter;
+import org.springframework.http.converter.smile.MappingJackson2SmileHttpMessageConverter;
+import org.springframework.mock.http.MockHttpOutputMessage;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * Benchmarks for writing a page of devices in each encoding the device API can negotiate.
+ *
+ * The converters are configured like the ones registered by WebConfiguration. The bytes on the wire,
+ * plain and gzip-compressed, are printed once per trial, as JMH only measures time.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class PayloadEncodingBenchmark {
+
+    @Param({"json", "cbor", "smile", "protobuf"})
+    private String format;
+
+    @Param({"100", "1000"})
+    private int size;
+
+    private HttpMessageConverter<Object> converter;
+
+    private MediaType mediaType;
+
+    private DevicePage page;
+
+    /**
+     * Creates the converter of the format and the page that is written in every invocation.
+     */
+    @Setup
+    public void setUp() throws IOException {
+        switch (format) {
+            case "json" -> {
+                converter = new MappingJackson2HttpMessageConverter(Jackson2ObjectMapperBuilder.json().build());
+                mediaType = MediaType.APPLICATION_JSON;
+            }
+            case "cbor" -> {
+                converter = new MappingJackson2CborHttpMessageConverter(binaryObjectMapper(new CBORFactory()));
+                mediaType = MediaType.APPLICATION_CBOR;
+            }
+            case "smile" -> {
+                converter = new MappingJackson2SmileHttpMessageConverter(binaryObjectMapper(new SmileFactory()));
+                mediaType = new MediaType("application", "x-jackson-smile");
+            }
+            default -> {
+                converter = new DeviceProtobufHttpMessageConverter();
+                mediaType = DeviceProtobufHttpMessageConverter.PROTOBUF;
+            }
+        }
+        LocalDateTime now = LocalDateTime.now();
+        List<DeviceDTO> devices = new ArrayList<>(size);
+        for (int i = 0; i < size; i++) {
+            devices.add(new DeviceDTO((long) i, "Device" + i, "Brand" + i % 10, now.minusSeconds(i), (long) i % 3));
+        }
+        page = new DevicePage(devices, "aWQ6MTAwMA");
+        byte[] encoded = encode();
+        System.out.printf("%n%s, %d devices: %d bytes, %d bytes gzipped%n", format, size, encoded.length, gzip(encoded).length);
+    }
+
+    @Benchmark
+    public byte[] encode() throws IOException {
+        MockHttpOutputMessage output = new MockHttpOutputMessage();
+        converter.write(page, mediaType, output);
+        return output.getBodyAsBytes();
+    }
+
+    @Benchmark
+    public byte[] encodeAndGzip() throws IOException {
+        return gzip(encode());
+    }
+
+    private static ObjectMapper binaryObjectMapper(JsonFactory factory) {
+        return Jackson2ObjectMapperBuilder.json()
+                .factory(factory)
+                .featuresToEnable(SerializationFeature.WRITE_DATES_AS_TIMESTAMPS)
+                .build();
+    }
+
+    private static byte[] gzip(byte[] bytes) throws IOException {
+        ByteArrayOutputStream compressed = new ByteArrayOutputStream(bytes.length / 4);
+        try (GZIPOutputStream gzip = new GZIPOutputStream(compressed)) {
+            gzip.write(bytes);
+        }
+        return compressed.toByteArray();
+    }
+}
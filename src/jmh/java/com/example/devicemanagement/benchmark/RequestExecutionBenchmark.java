@@ -0,0 +1,166 @@
+package com.example.devicemanagement.benchmark;
+
+import com.example.devicemanagement.DeviceManagementApplication;
+import com.example.devicemanagement.dto.DeviceDTO;
+import com.example.devicemanagement.service.DeviceService;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.beans.factory.config.BeanPostProcessor;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.boot.web.context.WebServerApplicationContext;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.jdbc.datasource.DelegatingDataSource;
+
+import javax.sql.DataSource;
+import java.io.IOException;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Load test comparing platform-thread and virtual-thread request execution.
+ *
+ * Starts the application on a random port with a simulated database round trip on every
+ * connection, and lets 400 clients (JMH threads, {@code -t}) call {@code GET /devices} back to back.
+ * The database can serve more requests at once than Tomcat has request threads, so in platform mode
+ * the thread pool is the limit, while in virtual mode every client is in flight. Sample-time mode
+ * reports the latency percentiles (p0.99 is the p99) and the sample count; throughput times the
+ * database latency is the number of requests the server was processing at the same time.
+ *
+ * The virtual mode needs Maven to run on Java 21:
+ * {@code JAVA_HOME=<jdk21> mvn -Pbenchmark,jdk21 -DskipTests verify -Djmh.args=RequestExecutionBenchmark}
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.SampleTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Threads(400)
+@Warmup(iterations = 2, time = 5)
+@Measurement(iterations = 3, time = 10)
+@Fork(1)
+public class RequestExecutionBenchmark {
+
+    private static final int DATABASE_CONNECTIONS = 1000;
+
+    @Param({"platform", "virtual"})
+    private String threads;
+
+    /**
+     * Size of Tomcat's request thread pool in platform mode.
+     */
+    @Param("200")
+    private int platformRequestThreads;
+
+    @Param("50")
+    private int databaseLatencyMillis;
+
+    private ConfigurableApplicationContext context;
+
+    private HttpClient httpClient;
+
+    private HttpRequest request;
+
+    /**
+     * Starts the application in the requested execution mode and seeds the database.
+     */
+    @Setup(Level.Trial)
+    public void setUp() {
+        boolean virtual = "virtual".equals(threads);
+        if (virtual && Runtime.version().feature() < 21) {
+            throw new IllegalStateException("Virtual threads require Java 21, Maven runs on " + Runtime.version());
+        }
+        context = new SpringApplicationBuilder(DeviceManagementApplication.class)
+                .profiles(virtual ? "virtual-threads" : "default")
+                .initializers(ctx -> ctx.getBeanFactory().addBeanPostProcessor(new SlowDatabasePostProcessor(databaseLatencyMillis)))
+                .run("--server.port=0",
+                        "--spring.datasource.url=jdbc:h2:mem:load;DB_CLOSE_DELAY=-1",
+                        "--server.tomcat.threads.max=" + platformRequestThreads,
+                        "--spring.datasource.hikari.maximum-pool-size=" + DATABASE_CONNECTIONS, // The database is not the bottleneck.
+                        "--device.virtual-threads.max-concurrent-connections=" + DATABASE_CONNECTIONS,
+                        "--device.request-limits.enabled=false", // All clients share one address; measure the server, not the limits.
+                        "--spring.jpa.show-sql=false",
+                        "--logging.level.root=WARN");
+
+        List<DeviceDTO> devices = new ArrayList<>();
+        for (int i = 0; i < 100; i++) {
+            devices.add(new DeviceDTO(null, "Device" + i, "Brand" + i % 10, LocalDateTime.now()));
+        }
+        context.getBean(DeviceService.class).addDevices(devices);
+
+        int port = ((WebServerApplicationContext) context).getWebServer().getPort();
+        httpClient = HttpClient.newBuilder().version(HttpClient.Version.HTTP_1_1).build();
+        request = HttpRequest.newBuilder(URI.create("http://localhost:" + port + "/devices?limit=10")).GET().build();
+    }
+
+    /**
+     * Stops the application.
+     */
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        context.close();
+    }
+
+    @Benchmark
+    public int getAllDevices() throws IOException, InterruptedException {
+        return httpClient.send(request, HttpResponse.BodyHandlers.discarding()).statusCode();
+    }
+
+    /**
+     * Adds a fixed delay to every connection, standing in for the round trip to a remote database.
+     */
+    private static class SlowDatabasePostProcessor implements BeanPostProcessor {
+
+        private final long latencyMillis;
+
+        SlowDatabasePostProcessor(long latencyMillis) {
+            this.latencyMillis = latencyMillis;
+        }
+
+        @Override
+        public Object postProcessAfterInitialization(Object bean, String beanName) {
+            if (!(bean instanceof DataSource dataSource) || bean instanceof SlowDataSource) {
+                return bean;
+            }
+            return new SlowDataSource(dataSource, latencyMillis);
+        }
+    }
+
+    private static class SlowDataSource extends DelegatingDataSource {
+
+        private final long latencyMillis;
+
+        SlowDataSource(DataSource targetDataSource, long latencyMillis) {
+            super(targetDataSource);
+            this.latencyMillis = latencyMillis;
+        }
+
+        @Override
+        public Connection getConnection() throws SQLException {
+            Connection connection = super.getConnection();
+            try {
+                Thread.sleep(latencyMillis); // Holds the connection, like a slow query would.
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            return connection;
+        }
+    }
+}
@@ -0,0 +1,140 @@
+package com.example.devicemanagement.benchmark;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.io.IOException;
+import java.net.ConnectException;
+import java.net.ServerSocket;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Stream;
+
+/**
+ * Cold start of DeviceManagementApplication: the time from launching a new JVM until {@code GET /devices}
+ * is answered with 200.
+ *
+ * Every invocation starts the application from the jar in {@code target/cds} in a process of its own, so
+ * that neither the JIT nor loaded classes carry over between measurements, and stops it afterwards.
+ * The variants add one step of the fast startup at a time:
+ * <ul>
+ *     <li>{@code default}: the default configuration;</li>
+ *     <li>{@code fast-startup}: the fast-startup Spring profile, i.e. lazy infrastructure and no developer tools;</li>
+ *     <li>{@code aot}: the profile with the bean definitions generated at build time;</li>
+ *     <li>{@code aot-cds}: all of the above, with classes mapped from the class data sharing archive.</li>
+ * </ul>
+ * The jar, its libraries and the archive are built by the fast-startup Maven profile:
+ * {@code mvn -Pfast-startup,benchmark -DskipTests verify -Djmh.args=StartupBenchmark}
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.SingleShotTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 1)
+@Measurement(iterations = 5)
+@Fork(1)
+public class StartupBenchmark {
+
+    private static final Path CDS_DIRECTORY = Path.of("target", "cds");
+
+    private static final String ARCHIVE = "application.jsa";
+
+    @Param({"default", "fast-startup", "aot", "aot-cds"})
+    private String variant;
+
+    private String jar;
+
+    private HttpClient httpClient;
+
+    private Process process;
+
+    /**
+     * Finds the application jar built by the fast-startup Maven profile.
+     */
+    @Setup(Level.Trial)
+    public void setUp() throws IOException {
+        if (!Files.isRegularFile(CDS_DIRECTORY.resolve(ARCHIVE))) {
+            throw new IllegalStateException(CDS_DIRECTORY.toAbsolutePath() + " has no " + ARCHIVE
+                    + ", build with: mvn -Pfast-startup,benchmark -DskipTests verify");
+        }
+        try (Stream<Path> files = Files.list(CDS_DIRECTORY)) {
+            jar = files.map(file -> file.getFileName().toString())
+                    .filter(name -> name.endsWith("-cds.jar"))
+                    .findFirst()
+                    .orElseThrow();
+        }
+        httpClient = HttpClient.newBuilder().version(HttpClient.Version.HTTP_1_1).build();
+    }
+
+    /**
+     * Stops the application started by the last invocation.
+     */
+    @TearDown(Level.Invocation)
+    public void tearDown() throws InterruptedException {
+        process.destroy();
+        process.waitFor();
+    }
+
+    @Benchmark
+    public int timeToFirstRequest() throws IOException, InterruptedException {
+        int port = freePort();
+        process = new ProcessBuilder(command(port))
+                .directory(CDS_DIRECTORY.toFile())
+                .redirectErrorStream(true)
+                .redirectOutput(ProcessBuilder.Redirect.DISCARD)
+                .start();
+        HttpRequest request = HttpRequest.newBuilder(URI.create("http://localhost:" + port + "/devices?limit=1")).GET().build();
+        while (true) {
+            if (!process.isAlive()) {
+                throw new IllegalStateException("The application exited with " + process.exitValue());
+            }
+            try {
+                int status = httpClient.send(request, HttpResponse.BodyHandlers.discarding()).statusCode();
+                if (status == 200) {
+                    return status;
+                }
+            } catch (ConnectException e) {
+                // Not listening yet.
+            }
+            Thread.sleep(5);
+        }
+    }
+
+    private List<String> command(int port) {
+        List<String> command = new ArrayList<>(List.of(Path.of(System.getProperty("java.home"), "bin", "java").toString()));
+        if (variant.equals("aot-cds")) {
+            command.add("-XX:SharedArchiveFile=" + ARCHIVE);
+        }
+        if (variant.startsWith("aot")) {
+            command.add("-Dspring.aot.enabled=true");
+        }
+        command.addAll(List.of("-jar", jar, "--server.port=" + port, "--logging.level.root=WARN"));
+        if (!variant.equals("default")) {
+            command.add("--spring.profiles.active=fast-startup");
+        }
+        return command;
+    }
+
+    private static int freePort() throws IOException {
+        try (ServerSocket socket = new ServerSocket(0)) {
+            return socket.getLocalPort();
+        }
+    }
+}
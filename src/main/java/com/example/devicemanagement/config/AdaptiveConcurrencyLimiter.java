@@ -0,0 +1,122 @@
+package com.example.devicemanagement.config;
+
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
+
+/**
+ * Limits the number of requests in flight, adapting the limit to the observed latency.
+ *
+ * Every completed request updates two moving averages of the latency: a short one over roughly the last
+ * ten requests and a long one over roughly the last five hundred, which serves as the baseline. While the
+ * short average stays within {@code tolerance} times the baseline, the limit grows by about its square
+ * root, leaving room for a small queue; once the database slows down and the short average rises above
+ * that, the limit shrinks in proportion (by up to a tenth per request), and the requests beyond it are
+ * shed instead of queueing for connections. The limit only grows while at least half of it is in use,
+ * so a quiet period does not inflate it.
+ *
+ * The counter of requests in flight and the limit state are kept in atomics, so admitting and completing
+ * requests never block.
+ */
+public class AdaptiveConcurrencyLimiter {
+
+    private static final double SHORT_WEIGHT = 0.1;
+
+    private static final double LONG_WEIGHT = 0.002;
+
+    private static final double SMOOTHING = 0.2; // How much of the new limit is applied per request.
+
+    private final int minLimit;
+
+    private final int maxLimit;
+
+    private final double tolerance;
+
+    private final AtomicInteger inFlight = new AtomicInteger();
+
+    private final AtomicReference<State> state;
+
+    /**
+     * The current limit and the latency averages it was derived from, replaced as a whole.
+     */
+    private record State(double limit, double shortLatency, double longLatency) {
+    }
+
+    /**
+     * Creates a limiter that starts at the largest limit.
+     * @param minLimit  The smallest limit, kept however slow requests get.
+     * @param maxLimit  The largest limit.
+     * @param tolerance How many times the baseline latency the recent latency may reach before the limit shrinks.
+     * @throws IllegalArgumentException if the limits are not positive and ordered, or the tolerance is below 1.
+     */
+    public AdaptiveConcurrencyLimiter(int minLimit, int maxLimit, double tolerance) {
+        if (minLimit < 1 || maxLimit < minLimit || tolerance < 1) {
+            throw new IllegalArgumentException("Invalid concurrency limits " + minLimit + ".." + maxLimit
+                    + " or latency tolerance " + tolerance);
+        }
+        this.minLimit = minLimit;
+        this.maxLimit = maxLimit;
+        this.tolerance = tolerance;
+        this.state = new AtomicReference<>(new State(maxLimit, 0, 0));
+    }
+
+    /**
+     * Admits a request if fewer requests than the limit are in flight.
+     * @return {@code true} if admitted; the caller must then call {@link #release(long)} once it completes.
+     */
+    public boolean tryAcquire() {
+        int limit = getLimit();
+        while (true) {
+            int current = inFlight.get();
+            if (current >= limit) {
+                return false;
+            }
+            if (inFlight.compareAndSet(current, current + 1)) {
+                return true;
+            }
+        }
+    }
+
+    /**
+     * Completes an admitted request and adapts the limit to its latency.
+     * @param latencyNanos The time the request took, in nanoseconds.
+     */
+    public void release(long latencyNanos) {
+        int current = inFlight.getAndDecrement(); // Including this request.
+        long latency = Math.max(1, latencyNanos); // Keeps the latency ratio defined.
+        state.updateAndGet(previous -> next(previous, latency, current));
+    }
+
+    /**
+     * Returns the current limit.
+     * @return The number of requests that may be in flight.
+     */
+    public int getLimit() {
+        return (int) state.get().limit();
+    }
+
+    /**
+     * Returns the number of requests in flight.
+     * @return The number of admitted requests that have not completed yet.
+     */
+    public int getInFlight() {
+        return inFlight.get();
+    }
+
+    private State next(State previous, long latency, int inFlight) {
+        double shortLatency = previous.shortLatency() == 0 ? latency
+                : previous.shortLatency() + (latency - previous.shortLatency()) * SHORT_WEIGHT;
+        double longLatency = previous.longLatency() == 0 ? latency
+                : previous.longLatency() + (latency - previous.longLatency()) * LONG_WEIGHT;
+        if (longLatency > 2 * shortLatency) {
+            longLatency *= 0.95; // Lets the baseline come back down after a long period of slow requests.
+        }
+        if (inFlight < previous.limit() / 2) {
+            return new State(previous.limit(), shortLatency, longLatency); // Too little load to tell anything about the limit.
+        }
+        double gradient = Math.max(0.5, Math.min(1.0, tolerance * longLatency / shortLatency));
+        double headroom = gradient == 1.0 ? Math.sqrt(previous.limit()) : 0; // Probes upwards only while latency is normal.
+        double target = previous.limit() * gradient + headroom;
+        double limit = previous.limit() * (1 - SMOOTHING) + target * SMOOTHING;
+        return new State(Math.max(minLimit, Math.min(maxLimit, limit)), shortLatency, longLatency);
+    }
+}
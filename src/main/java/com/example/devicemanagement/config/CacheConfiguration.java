@@ -0,0 +1,62 @@
+package com.example.devicemanagement.config;
+
+import com.github.benmanes.caffeine.cache.Caffeine;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.boot.context.properties.bind.DefaultValue;
+import org.springframework.cache.Cache;
+import org.springframework.cache.CacheManager;
+import org.springframework.cache.annotation.EnableCaching;
+import org.springframework.cache.caffeine.CaffeineCacheManager;
+import org.springframework.cache.transaction.TransactionAwareCacheManagerProxy;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import java.time.Duration;
+import java.util.List;
+
+/**
+ * Configures the in-process cache that sits in front of device lookups by id.
+ *
+ * The cache is bounded in size and entries expire after a fixed time. It is wrapped in a
+ * transaction-aware proxy, so evictions issued inside a transaction are only applied once that
+ * transaction commits, and a rolled back update never invalidates. Delaying the eviction alone does
+ * not stop a reader that loaded the old row before the commit from storing it after the eviction;
+ * {@link StampedCaffeineCache} drops such stores.
+ */
+@Configuration
+@EnableCaching
+@EnableConfigurationProperties(CacheConfiguration.DeviceCacheProperties.class)
+public class CacheConfiguration {
+
+    /**
+     * Name of the cache holding devices by id.
+     */
+    public static final String DEVICES_CACHE = "devices";
+
+    @Bean
+    public CacheManager cacheManager(DeviceCacheProperties properties) {
+        CaffeineCacheManager caffeineCacheManager = new CaffeineCacheManager() {
+            @Override
+            protected Cache adaptCaffeineCache(String name, com.github.benmanes.caffeine.cache.Cache<Object, Object> cache) {
+                return new StampedCaffeineCache(name, cache);
+            }
+        };
+        caffeineCacheManager.setCaffeine(Caffeine.newBuilder()
+                .maximumSize(properties.maximumSize())
+                .expireAfterWrite(properties.expireAfterWrite())
+                .recordStats()); // Feeds the cache.gets / cache.evictions metrics.
+        caffeineCacheManager.setCacheNames(List.of(DEVICES_CACHE)); // Fixed set of caches, none created on demand.
+        return new TransactionAwareCacheManagerProxy(caffeineCacheManager);
+    }
+
+    /**
+     * Settings of the device cache.
+     * @param maximumSize      Maximum number of devices kept in the cache.
+     * @param expireAfterWrite Time after which a cached device is dropped, even if it is still being read.
+     */
+    @ConfigurationProperties(prefix = "device.cache")
+    public record DeviceCacheProperties(@DefaultValue("10000") long maximumSize,
+                                        @DefaultValue("10m") Duration expireAfterWrite) {
+    }
+}
@@ -0,0 +1,22 @@
+package com.example.devicemanagement.config;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.boot.context.properties.bind.DefaultValue;
+import org.springframework.context.annotation.Configuration;
+
+/**
+ * Settings of the feed of device changes, see {@link com.example.devicemanagement.service.DeviceChangeFeed}.
+ */
+@Configuration
+@EnableConfigurationProperties(ChangeFeedConfiguration.DeviceChangeFeedProperties.class)
+public class ChangeFeedConfiguration {
+
+    /**
+     * Settings of the change feed.
+     * @param capacity Number of most recent changes kept in memory; a client that falls further behind has to resync.
+     */
+    @ConfigurationProperties(prefix = "device.changes")
+    public record DeviceChangeFeedProperties(@DefaultValue("10000") int capacity) {
+    }
+}
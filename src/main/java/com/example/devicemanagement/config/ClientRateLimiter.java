@@ -0,0 +1,91 @@
+package com.example.devicemanagement.config;
+
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.LongSupplier;
+
+/**
+ * Token bucket per client, stored without locks.
+ *
+ * Implemented as the generic cell rate algorithm: instead of a token count and a refill time, each client
+ * only has the time at which its bucket would be full again (its "theoretical arrival time"), kept in an
+ * {@link AtomicLong} and advanced by one emission interval per admitted request with a compare-and-set.
+ * A request is admitted while that time is at most {@code burst - 1} intervals ahead of now, which is the
+ * same as a bucket of {@code burst} tokens refilled at {@code rate} tokens per second.
+ *
+ * Clients whose bucket is full again are equivalent to unknown clients, so they are swept out of the map
+ * at most once per second by whichever request comes first. A request racing with the sweep may be
+ * counted against the removed entry; the client then gets at most one request more than its limit.
+ */
+public class ClientRateLimiter {
+
+    private static final long SWEEP_INTERVAL = TimeUnit.SECONDS.toNanos(1);
+
+    private final long emissionInterval; // Nanoseconds per token.
+
+    private final long tolerance; // How far ahead of now the arrival time may be: the burst, in nanoseconds.
+
+    private final LongSupplier nanoTime;
+
+    private final ConcurrentHashMap<String, AtomicLong> arrivals = new ConcurrentHashMap<>(); // Theoretical arrival time by client.
+
+    private final AtomicLong nextSweep;
+
+    /**
+     * Creates a rate limiter.
+     * @param rate     The sustained number of requests per second allowed to each client.
+     * @param burst    The number of requests a client may make at once after being idle.
+     * @param nanoTime The clock, such as {@link System#nanoTime()}.
+     * @throws IllegalArgumentException if the rate or the burst is not positive.
+     */
+    public ClientRateLimiter(double rate, int burst, LongSupplier nanoTime) {
+        if (rate <= 0 || burst < 1) {
+            throw new IllegalArgumentException("The rate and the burst must be positive, not " + rate + " and " + burst);
+        }
+        this.emissionInterval = Math.max(1, Math.round(TimeUnit.SECONDS.toNanos(1) / rate));
+        this.tolerance = emissionInterval * (burst - 1);
+        this.nanoTime = nanoTime;
+        this.nextSweep = new AtomicLong(nanoTime.getAsLong() + SWEEP_INTERVAL);
+    }
+
+    /**
+     * Takes a token from the client's bucket, if it has one.
+     * @param client The key of the client, such as its user name or IP address.
+     * @return 0 if the request is admitted, otherwise the nanoseconds until the client has a token again.
+     */
+    public long tryAcquire(String client) {
+        long now = nanoTime.getAsLong();
+        sweepIfDue(now);
+        AtomicLong arrival = arrivals.get(client); // Lock-free for known clients; computeIfAbsent locks a bin.
+        if (arrival == null) {
+            arrival = arrivals.computeIfAbsent(client, key -> new AtomicLong(now));
+        }
+        while (true) {
+            long current = arrival.get();
+            long start = Math.max(current, now);
+            long ahead = start - now;
+            if (ahead > tolerance) {
+                return ahead - tolerance;
+            }
+            if (arrival.compareAndSet(current, start + emissionInterval)) {
+                return 0;
+            }
+        }
+    }
+
+    /**
+     * Returns the number of clients whose bucket is not known to be full.
+     * @return The number of tracked clients.
+     */
+    public int clients() {
+        return arrivals.size();
+    }
+
+    private void sweepIfDue(long now) {
+        long due = nextSweep.get();
+        if (now - due >= 0 && nextSweep.compareAndSet(due, now + SWEEP_INTERVAL)) {
+            arrivals.values().removeIf(arrival -> arrival.get() - now <= 0);
+        }
+    }
+}
@@ -0,0 +1,185 @@
+package com.example.devicemanagement.config;
+
+import com.example.devicemanagement.dto.DeviceDTO;
+import com.example.devicemanagement.dto.DevicePage;
+import com.google.protobuf.CodedInputStream;
+import com.google.protobuf.CodedOutputStream;
+import com.google.protobuf.InvalidProtocolBufferException;
+import com.google.protobuf.WireFormat;
+import org.springframework.http.HttpInputMessage;
+import org.springframework.http.HttpOutputMessage;
+import org.springframework.http.MediaType;
+import org.springframework.http.converter.AbstractHttpMessageConverter;
+import org.springframework.http.converter.HttpMessageNotReadableException;
+
+import java.io.IOException;
+import java.time.DateTimeException;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+
+/**
+ * Reads and writes devices and pages of devices as Protocol Buffers, following {@code src/main/proto/device.proto}.
+ *
+ * The messages are encoded field by field with protobuf's coded streams rather than through generated
+ * classes, so no copy of every device into a generated message is made, and the build needs no protoc.
+ * Only {@link DeviceDTO} can be read; {@link DeviceDTO} and {@link DevicePage} can be written. Other
+ * response types have no schema and are answered with {@code 406 Not Acceptable}.
+ */
+public class DeviceProtobufHttpMessageConverter extends AbstractHttpMessageConverter<Object> {
+
+    /**
+     * Media type of Protocol Buffers payloads.
+     */
+    public static final MediaType PROTOBUF = new MediaType("application", "x-protobuf");
+
+    // Field numbers of the Device message.
+    private static final int DEVICE_ID = 1;
+    private static final int DEVICE_NAME = 2;
+    private static final int DEVICE_BRAND = 3;
+    private static final int DEVICE_CREATION_TIME = 4;
+    private static final int DEVICE_VERSION = 5;
+
+    // Field numbers of the DevicePage message.
+    private static final int PAGE_ITEMS = 1;
+    private static final int PAGE_NEXT_CURSOR = 2;
+
+    // Field numbers of google.protobuf.Timestamp.
+    private static final int TIMESTAMP_SECONDS = 1;
+    private static final int TIMESTAMP_NANOS = 2;
+
+    public DeviceProtobufHttpMessageConverter() {
+        super(PROTOBUF);
+    }
+
+    @Override
+    protected boolean supports(Class<?> clazz) {
+        return clazz == DeviceDTO.class || clazz == DevicePage.class;
+    }
+
+    @Override
+    public boolean canRead(Class<?> clazz, MediaType mediaType) {
+        return clazz == DeviceDTO.class && canRead(mediaType);
+    }
+
+    @Override
+    protected Object readInternal(Class<?> clazz, HttpInputMessage inputMessage) throws IOException {
+        try {
+            return readDevice(CodedInputStream.newInstance(inputMessage.getBody()));
+        } catch (InvalidProtocolBufferException | DateTimeException e) {
+            throw new HttpMessageNotReadableException("Invalid device: " + e.getMessage(), e, inputMessage);
+        }
+    }
+
+    @Override
+    protected void writeInternal(Object value, HttpOutputMessage outputMessage) throws IOException {
+        CodedOutputStream output = CodedOutputStream.newInstance(outputMessage.getBody());
+        if (value instanceof DevicePage page) {
+            for (DeviceDTO device : page.items()) {
+                output.writeTag(PAGE_ITEMS, WireFormat.WIRETYPE_LENGTH_DELIMITED);
+                output.writeUInt32NoTag(deviceSize(device));
+                writeDevice(device, output);
+            }
+            if (page.nextCursor() != null) {
+                output.writeString(PAGE_NEXT_CURSOR, page.nextCursor());
+            }
+        } else {
+            writeDevice((DeviceDTO) value, output);
+        }
+        output.flush();
+    }
+
+    private static void writeDevice(DeviceDTO device, CodedOutputStream output) throws IOException {
+        if (device.id() != null) {
+            output.writeInt64(DEVICE_ID, device.id());
+        }
+        if (device.name() != null && !device.name().isEmpty()) { // proto3 leaves out empty strings.
+            output.writeString(DEVICE_NAME, device.name());
+        }
+        if (device.brand() != null && !device.brand().isEmpty()) {
+            output.writeString(DEVICE_BRAND, device.brand());
+        }
+        if (device.creationTime() != null) {
+            long seconds = device.creationTime().toEpochSecond(ZoneOffset.UTC);
+            int nanos = device.creationTime().getNano();
+            output.writeTag(DEVICE_CREATION_TIME, WireFormat.WIRETYPE_LENGTH_DELIMITED);
+            output.writeUInt32NoTag(timestampSize(seconds, nanos));
+            if (seconds != 0) {
+                output.writeInt64(TIMESTAMP_SECONDS, seconds);
+            }
+            if (nanos != 0) {
+                output.writeInt32(TIMESTAMP_NANOS, nanos);
+            }
+        }
+        if (device.version() != null) {
+            output.writeInt64(DEVICE_VERSION, device.version());
+        }
+    }
+
+    /**
+     * Computes the encoded size of a device, which precedes it when it is embedded in a page.
+     */
+    private static int deviceSize(DeviceDTO device) {
+        int size = 0;
+        if (device.id() != null) {
+            size += CodedOutputStream.computeInt64Size(DEVICE_ID, device.id());
+        }
+        if (device.name() != null && !device.name().isEmpty()) {
+            size += CodedOutputStream.computeStringSize(DEVICE_NAME, device.name());
+        }
+        if (device.brand() != null && !device.brand().isEmpty()) {
+            size += CodedOutputStream.computeStringSize(DEVICE_BRAND, device.brand());
+        }
+        if (device.creationTime() != null) {
+            int timestampSize = timestampSize(device.creationTime().toEpochSecond(ZoneOffset.UTC), device.creationTime().getNano());
+            size += CodedOutputStream.computeTagSize(DEVICE_CREATION_TIME)
+                    + CodedOutputStream.computeUInt32SizeNoTag(timestampSize) + timestampSize;
+        }
+        if (device.version() != null) {
+            size += CodedOutputStream.computeInt64Size(DEVICE_VERSION, device.version());
+        }
+        return size;
+    }
+
+    private static int timestampSize(long seconds, int nanos) {
+        return (seconds != 0 ? CodedOutputStream.computeInt64Size(TIMESTAMP_SECONDS, seconds) : 0)
+                + (nanos != 0 ? CodedOutputStream.computeInt32Size(TIMESTAMP_NANOS, nanos) : 0);
+    }
+
+    private static DeviceDTO readDevice(CodedInputStream input) throws IOException {
+        Long id = null;
+        String name = "";
+        String brand = "";
+        LocalDateTime creationTime = null;
+        Long version = null;
+        int tag;
+        while ((tag = input.readTag()) != 0) {
+            switch (tag >>> 3) {
+                case DEVICE_ID -> id = input.readInt64();
+                case DEVICE_NAME -> name = input.readString();
+                case DEVICE_BRAND -> brand = input.readString();
+                case DEVICE_CREATION_TIME -> {
+                    int limit = input.pushLimit(input.readRawVarint32());
+                    creationTime = readTimestamp(input);
+                    input.popLimit(limit);
+                }
+                case DEVICE_VERSION -> version = input.readInt64();
+                default -> input.skipField(tag); // Fields of newer clients.
+            }
+        }
+        return new DeviceDTO(id, name, brand, creationTime, version);
+    }
+
+    private static LocalDateTime readTimestamp(CodedInputStream input) throws IOException {
+        long seconds = 0;
+        int nanos = 0;
+        int tag;
+        while ((tag = input.readTag()) != 0) {
+            switch (tag >>> 3) {
+                case TIMESTAMP_SECONDS -> seconds = input.readInt64();
+                case TIMESTAMP_NANOS -> nanos = input.readInt32();
+                default -> input.skipField(tag);
+            }
+        }
+        return LocalDateTime.ofEpochSecond(seconds, nanos, ZoneOffset.UTC); // Rejects nanos out of range.
+    }
+}
@@ -0,0 +1,26 @@
+package com.example.devicemanagement.config;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.boot.context.properties.bind.DefaultValue;
+import org.springframework.context.annotation.Configuration;
+
+/**
+ * Settings of the filter that answers lookups of unknown device ids, see {@link com.example.devicemanagement.service.DeviceIdFilter}.
+ */
+@Configuration
+@EnableConfigurationProperties(IdFilterConfiguration.DeviceIdFilterProperties.class)
+public class IdFilterConfiguration {
+
+    /**
+     * Settings of the Bloom filter over device ids.
+     * @param enabled                  Whether lookups are filtered at all; if not, every lookup queries the database.
+     * @param expectedDevices          Minimum number of ids the filter is sized for; it is rebuilt larger when the table grows.
+     * @param falsePositiveProbability Share of unknown ids that are still looked up in the database when the filter is full.
+     */
+    @ConfigurationProperties(prefix = "device.id-filter")
+    public record DeviceIdFilterProperties(@DefaultValue("true") boolean enabled,
+                                           @DefaultValue("1000000") long expectedDevices,
+                                           @DefaultValue("0.01") double falsePositiveProbability) {
+    }
+}
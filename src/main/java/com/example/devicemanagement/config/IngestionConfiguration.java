@@ -0,0 +1,30 @@
+package com.example.devicemanagement.config;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.boot.context.properties.bind.DefaultValue;
+import org.springframework.context.annotation.Configuration;
+
+import java.time.Duration;
+
+/**
+ * Settings of the write-behind ingestion of new devices, see {@link com.example.devicemanagement.service.DeviceIngestionService}.
+ */
+@Configuration
+@EnableConfigurationProperties(IngestionConfiguration.DeviceIngestionProperties.class)
+public class IngestionConfiguration {
+
+    /**
+     * Settings of the ingestion queue and its writer.
+     * @param enabled         Whether devices can be created asynchronously at all.
+     * @param capacity        Maximum number of accepted devices waiting to be written; further requests are rejected.
+     * @param batchSize       Maximum number of devices written and committed together.
+     * @param shutdownTimeout How long shutdown waits for the queue to be written before giving up.
+     */
+    @ConfigurationProperties(prefix = "device.ingestion")
+    public record DeviceIngestionProperties(@DefaultValue("false") boolean enabled,
+                                            @DefaultValue("10000") int capacity,
+                                            @DefaultValue("500") int batchSize,
+                                            @DefaultValue("30s") Duration shutdownTimeout) {
+    }
+}
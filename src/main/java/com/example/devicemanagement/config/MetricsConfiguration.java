@@ -0,0 +1,33 @@
+package com.example.devicemanagement.config;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import org.hibernate.cfg.AvailableSettings;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnWebApplication;
+import org.springframework.boot.autoconfigure.orm.jpa.HibernatePropertiesCustomizer;
+import org.springframework.boot.web.servlet.FilterRegistrationBean;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+/**
+ * Configures the metrics that are not covered by Spring Boot's auto-configuration.
+ *
+ * Request latencies ({@code http.server.requests}), service method timers ({@code device.service}),
+ * Hibernate statistics ({@code hibernate.*}) and connection pool metrics ({@code hikaricp.*}) are
+ * auto-configured from application.properties. This class adds the SQL statement count per request.
+ */
+@Configuration
+public class MetricsConfiguration {
+
+    @Bean
+    public HibernatePropertiesCustomizer queryCounterCustomizer() {
+        return properties -> properties.put(AvailableSettings.STATEMENT_INSPECTOR, new QueryCounter());
+    }
+
+    @Bean
+    @ConditionalOnWebApplication(type = ConditionalOnWebApplication.Type.SERVLET)
+    public FilterRegistrationBean<QueryCountFilter> queryCountFilter(MeterRegistry meterRegistry) {
+        FilterRegistrationBean<QueryCountFilter> registration = new FilterRegistrationBean<>(new QueryCountFilter(meterRegistry));
+        registration.addUrlPatterns("/devices", "/devices/*"); // Only the API, not actuator or Swagger.
+        return registration;
+    }
+}
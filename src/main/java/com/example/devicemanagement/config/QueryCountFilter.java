@@ -0,0 +1,52 @@
+package com.example.devicemanagement.config;
+
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import lombok.RequiredArgsConstructor;
+import org.springframework.web.filter.OncePerRequestFilter;
+import org.springframework.web.servlet.HandlerMapping;
+
+import java.io.IOException;
+
+/**
+ * Records the number of SQL statements issued while handling a request.
+ *
+ * The count is published as the {@value #METRIC_NAME} distribution summary, tagged with the HTTP
+ * method and the URI template of the endpoint, so it lines up with {@code http.server.requests}.
+ * Statements issued on other threads (for example by the streaming export) are not included.
+ */
+@RequiredArgsConstructor
+public class QueryCountFilter extends OncePerRequestFilter {
+
+    /**
+     * Name of the distribution summary holding the statements per request.
+     */
+    public static final String METRIC_NAME = "hibernate.request.queries";
+
+    private static final String UNKNOWN_URI = "UNKNOWN";
+
+    private final MeterRegistry meterRegistry;
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain filterChain)
+            throws ServletException, IOException {
+        QueryCounter.reset();
+        try {
+            filterChain.doFilter(request, response);
+        } finally {
+            Object uri = request.getAttribute(HandlerMapping.BEST_MATCHING_PATTERN_ATTRIBUTE);
+            DistributionSummary.builder(METRIC_NAME)
+                    .description("SQL statements issued per request")
+                    .baseUnit("statements")
+                    .tag("method", request.getMethod())
+                    .tag("uri", uri != null ? uri.toString() : UNKNOWN_URI) // Templates only, to keep the tag bounded.
+                    .serviceLevelObjectives(1, 2, 5, 10, 50, 100)
+                    .register(meterRegistry)
+                    .record(QueryCounter.count());
+        }
+    }
+}
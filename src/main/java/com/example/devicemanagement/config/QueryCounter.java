@@ -0,0 +1,41 @@
+package com.example.devicemanagement.config;
+
+import org.hibernate.resource.jdbc.spi.StatementInspector;
+
+/**
+ * Counts the SQL statements Hibernate prepares on the current thread.
+ *
+ * Registered as Hibernate's statement inspector, so every statement passes through
+ * {@link #inspect(String)} before it is prepared. The count is kept in a thread-local
+ * mutable holder, which keeps the cost per statement to a thread-local lookup and an increment.
+ */
+public class QueryCounter implements StatementInspector {
+
+    private static final ThreadLocal<int[]> COUNT = ThreadLocal.withInitial(() -> new int[1]);
+
+    /**
+     * Counts the statement and hands it back unchanged.
+     * @param sql The SQL statement about to be prepared.
+     * @return The same statement.
+     */
+    @Override
+    public String inspect(String sql) {
+        COUNT.get()[0]++;
+        return sql;
+    }
+
+    /**
+     * Starts counting from zero on the current thread.
+     */
+    public static void reset() {
+        COUNT.get()[0] = 0;
+    }
+
+    /**
+     * Returns the number of statements prepared on the current thread since the last reset.
+     * @return The statement count.
+     */
+    public static int count() {
+        return COUNT.get()[0];
+    }
+}
@@ -0,0 +1,71 @@
+package com.example.devicemanagement.config;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.dataformat.smile.SmileFactory;
+import io.r2dbc.spi.ConnectionFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.r2dbc.ConnectionFactoryBuilder;
+import org.springframework.boot.web.codec.CodecCustomizer;
+import org.springframework.boot.web.embedded.netty.NettyReactiveWebServerFactory;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Profile;
+import org.springframework.http.MediaType;
+import org.springframework.http.codec.json.Jackson2SmileDecoder;
+import org.springframework.http.codec.json.Jackson2SmileEncoder;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+import org.springframework.r2dbc.connection.R2dbcTransactionManager;
+import org.springframework.r2dbc.core.DatabaseClient;
+import org.springframework.transaction.reactive.TransactionalOperator;
+
+/**
+ * Configures the reactive variant of the device API (profile {@code reactive}).
+ *
+ * Requests are served by WebFlux on Netty, and devices are read and written over R2DBC on the same
+ * {@code devices} table that JPA maps. JPA stays in place to create the schema, so the R2DBC
+ * transaction manager is not registered as a bean: it would replace the JPA transaction manager.
+ * Reactive transactions go through the {@link TransactionalOperator} instead.
+ */
+@Configuration
+@Profile("reactive")
+public class ReactiveConfiguration {
+
+    private static final MediaType SMILE = new MediaType("application", "x-jackson-smile");
+
+    @Bean
+    public DatabaseClient databaseClient(@Value("${spring.r2dbc.url}") String url,
+                                         @Value("${spring.r2dbc.username}") String username,
+                                         @Value("${spring.r2dbc.password}") String password) {
+        // Not a bean of its own: a ConnectionFactory bean makes Spring Boot back off from the DataSource JPA needs.
+        ConnectionFactory connectionFactory = ConnectionFactoryBuilder.withUrl(url)
+                .username(username)
+                .password(password)
+                .build();
+        return DatabaseClient.create(connectionFactory);
+    }
+
+    @Bean
+    public TransactionalOperator reactiveTransactionalOperator(DatabaseClient databaseClient) {
+        return TransactionalOperator.create(new R2dbcTransactionManager(databaseClient.getConnectionFactory()));
+    }
+
+    /**
+     * Encodes Smile with the application's Jackson settings, like {@link WebConfiguration} does for the blocking API.
+     * CBOR and Protocol Buffers are only offered by the blocking API: WebFlux's CBOR encoder cannot write the
+     * response publishers, and its Protobuf codecs require generated message classes.
+     */
+    @Bean
+    public CodecCustomizer smileCodecCustomizer(Jackson2ObjectMapperBuilder objectMapperBuilder) {
+        ObjectMapper smile = WebConfiguration.binaryObjectMapper(objectMapperBuilder, new SmileFactory());
+        // Without explicit media types, the codecs would claim the JSON types.
+        return configurer -> {
+            configurer.defaultCodecs().jackson2SmileEncoder(new Jackson2SmileEncoder(smile, SMILE));
+            configurer.defaultCodecs().jackson2SmileDecoder(new Jackson2SmileDecoder(smile, SMILE));
+        };
+    }
+
+    @Bean
+    public NettyReactiveWebServerFactory nettyReactiveWebServerFactory() {
+        return new NettyReactiveWebServerFactory(); // Preferred over Tomcat, which is also on the classpath.
+    }
+}
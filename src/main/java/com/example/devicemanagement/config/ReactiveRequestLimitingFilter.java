@@ -0,0 +1,70 @@
+package com.example.devicemanagement.config;
+
+import lombok.RequiredArgsConstructor;
+import org.springframework.core.io.buffer.DataBuffer;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.server.reactive.ServerHttpResponse;
+import org.springframework.security.authentication.AnonymousAuthenticationToken;
+import org.springframework.web.server.ServerWebExchange;
+import org.springframework.web.server.WebFilter;
+import org.springframework.web.server.WebFilterChain;
+import reactor.core.publisher.Mono;
+
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+
+/**
+ * WebFlux counterpart of {@link RequestLimitingFilter}, added to the security filter chain of the reactive profile.
+ * The concurrency permit is held until the response completes, errors or is cancelled.
+ */
+@RequiredArgsConstructor
+public class ReactiveRequestLimitingFilter implements WebFilter {
+
+    private final RequestLimits requestLimits;
+
+    @Override
+    public Mono<Void> filter(ServerWebExchange exchange, WebFilterChain chain) {
+        String path = exchange.getRequest().getPath().pathWithinApplication().value();
+        if (!path.equals("/devices") && !path.startsWith("/devices/")) {
+            return chain.filter(exchange);
+        }
+        RequestLimits.EndpointClass endpointClass =
+                RequestLimits.EndpointClass.of(exchange.getRequest().getMethod().name());
+        return client(exchange).flatMap(client -> {
+            Duration wait = requestLimits.tryAcquireRate(endpointClass, client);
+            if (wait != null) {
+                return reject(exchange.getResponse(), HttpStatus.TOO_MANY_REQUESTS, wait, "Too many requests, retry later");
+            }
+            if (RequestLimits.isStream(path)) {
+                return chain.filter(exchange);
+            }
+            AdaptiveConcurrencyLimiter limiter = requestLimits.tryAcquireConcurrency(endpointClass);
+            if (limiter == null) {
+                return reject(exchange.getResponse(), HttpStatus.SERVICE_UNAVAILABLE, RequestLimits.OVERLOAD_RETRY_AFTER,
+                        "The service is overloaded, retry later");
+            }
+            long start = System.nanoTime();
+            return chain.filter(exchange).doFinally(signal -> limiter.release(System.nanoTime() - start));
+        });
+    }
+
+    private static Mono<String> client(ServerWebExchange exchange) {
+        InetSocketAddress address = exchange.getRequest().getRemoteAddress();
+        String ip = "ip:" + (address != null ? address.getHostString() : "unknown");
+        return exchange.getPrincipal()
+                .filter(principal -> !(principal instanceof AnonymousAuthenticationToken))
+                .map(principal -> "user:" + principal.getName())
+                .defaultIfEmpty(ip);
+    }
+
+    private static Mono<Void> reject(ServerHttpResponse response, HttpStatus status, Duration wait, String message) {
+        response.setStatusCode(status);
+        response.getHeaders().set(HttpHeaders.RETRY_AFTER, RequestLimits.retryAfter(wait));
+        response.getHeaders().setContentType(MediaType.TEXT_PLAIN);
+        DataBuffer body = response.bufferFactory().wrap(message.getBytes(StandardCharsets.UTF_8));
+        return response.writeWith(Mono.just(body));
+    }
+}
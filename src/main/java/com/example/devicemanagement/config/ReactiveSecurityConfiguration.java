@@ -0,0 +1,42 @@
+package com.example.devicemanagement.config;
+
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Profile;
+import org.springframework.http.HttpMethod;
+import org.springframework.security.config.Customizer;
+import org.springframework.security.config.annotation.web.reactive.EnableWebFluxSecurity;
+import org.springframework.security.config.web.server.SecurityWebFiltersOrder;
+import org.springframework.security.config.web.server.ServerHttpSecurity;
+import org.springframework.security.web.server.SecurityWebFilterChain;
+import org.springframework.security.web.server.context.NoOpServerSecurityContextRepository;
+
+/**
+ * WebFlux counterpart of {@link SecurityConfiguration}, with the same access rules, for the reactive profile.
+ */
+@EnableWebFluxSecurity
+@Configuration
+@Profile("reactive")
+public class ReactiveSecurityConfiguration {
+
+    @Bean
+    public SecurityWebFilterChain securityWebFilterChain(ServerHttpSecurity http, ObjectProvider<RequestLimits> requestLimits) {
+        http.csrf(ServerHttpSecurity.CsrfSpec::disable) // Disable CSRF protection for simplicity
+                .authorizeExchange(authorize -> authorize
+                        // Permit all requests to the Swagger UI and API docs
+                        .pathMatchers("/swagger-ui/**", "/swagger-ui.html", "/v3/**", "/webjars/**").permitAll()
+                        // Permit read access to health and metrics (including the Prometheus scrape endpoint) for monitoring
+                        .pathMatchers(HttpMethod.GET, "/actuator/health/**", "/actuator/metrics/**", "/actuator/prometheus").permitAll()
+                        // Permit all requests to /devices endpoints
+                        .pathMatchers("/devices", "/devices/**").permitAll()
+                        .anyExchange().authenticated()) // Require authentication for any other requests
+                .httpBasic(Customizer.withDefaults()) // Use basic HTTP authentication
+                .securityContextRepository(NoOpServerSecurityContextRepository.getInstance()); // Stateless, no session
+        // Rate and concurrency limits for /devices, after authentication so credentials identify the client
+        requestLimits.ifAvailable(limits -> http.addFilterAfter(new ReactiveRequestLimitingFilter(limits),
+                SecurityWebFiltersOrder.AUTHENTICATION));
+
+        return http.build();
+    }
+}
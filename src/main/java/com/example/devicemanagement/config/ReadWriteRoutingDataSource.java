@@ -0,0 +1,48 @@
+package com.example.devicemanagement.config;
+
+import org.springframework.jdbc.datasource.lookup.AbstractRoutingDataSource;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import javax.sql.DataSource;
+import java.util.Map;
+import java.util.function.BooleanSupplier;
+
+/**
+ * Sends read-only transactions to the replica and everything else to the primary.
+ *
+ * The decision is made when a connection is first needed, so this data source must be wrapped in a
+ * {@link org.springframework.jdbc.datasource.LazyConnectionDataSourceProxy}: the transaction manager asks
+ * for a connection when the transaction begins, before the read-only flag of the transaction is visible.
+ * A read-only transaction still goes to the primary while the replica has not applied every committed
+ * change, so a client always reads its own writes.
+ */
+public class ReadWriteRoutingDataSource extends AbstractRoutingDataSource {
+
+    /**
+     * The data sources a connection can come from.
+     */
+    public enum Target {
+        PRIMARY, REPLICA
+    }
+
+    private final BooleanSupplier replicaCaughtUp;
+
+    /**
+     * Creates the routing data source.
+     * @param primary         The data source of writes, and of reads while the replica lags behind.
+     * @param replica         The data source of read-only transactions.
+     * @param replicaCaughtUp Whether the replica has applied every change committed on the primary.
+     */
+    public ReadWriteRoutingDataSource(DataSource primary, DataSource replica, BooleanSupplier replicaCaughtUp) {
+        this.replicaCaughtUp = replicaCaughtUp;
+        setTargetDataSources(Map.of(Target.PRIMARY, primary, Target.REPLICA, replica));
+        setDefaultTargetDataSource(primary);
+        afterPropertiesSet();
+    }
+
+    @Override
+    protected Target determineCurrentLookupKey() {
+        return TransactionSynchronizationManager.isCurrentTransactionReadOnly() && replicaCaughtUp.getAsBoolean()
+                ? Target.REPLICA : Target.PRIMARY;
+    }
+}
@@ -0,0 +1,76 @@
+package com.example.devicemanagement.config;
+
+import com.example.devicemanagement.service.DeviceReplicator;
+import com.zaxxer.hikari.HikariDataSource;
+import org.flywaydb.core.Flyway;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.autoconfigure.jdbc.DataSourceProperties;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.boot.context.properties.bind.DefaultValue;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Primary;
+import org.springframework.jdbc.datasource.LazyConnectionDataSourceProxy;
+
+import javax.sql.DataSource;
+
+/**
+ * Read replica of the devices table, enabled by setting {@code device.datasource.replica.url} (see the {@code replica} profile).
+ *
+ * The application then has three data sources: the primary pool configured with {@code spring.datasource.*},
+ * a replica pool, and the one everything else uses, which routes read-only transactions to the replica
+ * ({@link ReadWriteRoutingDataSource}). The replica gets the same Flyway migrations as the primary and is
+ * kept in sync by the {@link DeviceReplicator}.
+ */
+@Configuration
+@ConditionalOnProperty(prefix = "device.datasource.replica", name = "url")
+@EnableConfigurationProperties(ReplicaConfiguration.ReplicaDataSourceProperties.class)
+public class ReplicaConfiguration {
+
+    /**
+     * Name of the pool of the primary database.
+     */
+    public static final String PRIMARY_DATA_SOURCE = "primaryDataSource";
+
+    /**
+     * Name of the pool of the replica database.
+     */
+    public static final String REPLICA_DATA_SOURCE = "replicaDataSource";
+
+    @Bean(PRIMARY_DATA_SOURCE)
+    @ConfigurationProperties(prefix = "spring.datasource.hikari")
+    public HikariDataSource primaryDataSource(DataSourceProperties properties) {
+        HikariDataSource dataSource = properties.initializeDataSourceBuilder().type(HikariDataSource.class).build();
+        dataSource.setPoolName("primary");
+        return dataSource;
+    }
+
+    @Bean(REPLICA_DATA_SOURCE)
+    public HikariDataSource replicaDataSource(DataSourceProperties properties, ReplicaDataSourceProperties replica) {
+        HikariDataSource dataSource = properties.initializeDataSourceBuilder().type(HikariDataSource.class)
+                .url(replica.url())
+                .build();
+        dataSource.setPoolName("replica");
+        dataSource.setMaximumPoolSize(replica.maximumPoolSize());
+        Flyway.configure().dataSource(dataSource).load().migrate(); // Same schema as the primary, from the same migrations.
+        return dataSource;
+    }
+
+    @Bean
+    @Primary
+    public DataSource dataSource(@Qualifier(PRIMARY_DATA_SOURCE) DataSource primary,
+                                 @Qualifier(REPLICA_DATA_SOURCE) DataSource replica, DeviceReplicator replicator) {
+        return new LazyConnectionDataSourceProxy(new ReadWriteRoutingDataSource(primary, replica, replicator::isCaughtUp));
+    }
+
+    /**
+     * Settings of the read replica.
+     * @param url             JDBC URL of the replica; the user name and password are those of the primary.
+     * @param maximumPoolSize Maximum number of connections to the replica.
+     */
+    @ConfigurationProperties(prefix = "device.datasource.replica")
+    public record ReplicaDataSourceProperties(String url, @DefaultValue("10") int maximumPoolSize) {
+    }
+}
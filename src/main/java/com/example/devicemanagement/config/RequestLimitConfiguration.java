@@ -0,0 +1,52 @@
+package com.example.devicemanagement.config;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.boot.context.properties.bind.DefaultValue;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+/**
+ * Rate limits per client and adaptive concurrency limits for the {@code /devices} API, see {@link RequestLimits}.
+ * The limits are applied by a filter in the security filter chain of either profile, after authentication,
+ * so clients that send credentials are limited by user name rather than by address.
+ */
+@Configuration
+@EnableConfigurationProperties(RequestLimitConfiguration.RequestLimitProperties.class)
+public class RequestLimitConfiguration {
+
+    @Bean
+    @ConditionalOnProperty(prefix = "device.request-limits", name = "enabled")
+    public RequestLimits requestLimits(RequestLimitProperties properties, MeterRegistry meterRegistry) {
+        return new RequestLimits(properties, System::nanoTime, meterRegistry);
+    }
+
+    /**
+     * Settings of the request limits.
+     * @param enabled          Whether requests are limited at all. Off by default, see {@code server.forward-headers-strategy}.
+     * @param latencyTolerance How many times its usual latency an endpoint class may take before its concurrency limit shrinks.
+     * @param read             The limits of reads: GET, HEAD and OPTIONS requests.
+     * @param write            The limits of writes: every other request.
+     */
+    @ConfigurationProperties(prefix = "device.request-limits")
+    public record RequestLimitProperties(@DefaultValue("false") boolean enabled,
+                                         @DefaultValue("2.0") double latencyTolerance,
+                                         @DefaultValue EndpointLimits read,
+                                         @DefaultValue EndpointLimits write) {
+    }
+
+    /**
+     * Limits of one endpoint class.
+     * @param rate           The sustained requests per second allowed to each client.
+     * @param burst          The requests a client may make at once after being idle.
+     * @param minConcurrency The smallest number of requests in flight the adaptive limit may shrink to.
+     * @param maxConcurrency The largest number of requests in flight, and the limit to start with.
+     */
+    public record EndpointLimits(@DefaultValue("100") double rate,
+                                 @DefaultValue("200") int burst,
+                                 @DefaultValue("4") int minConcurrency,
+                                 @DefaultValue("100") int maxConcurrency) {
+    }
+}
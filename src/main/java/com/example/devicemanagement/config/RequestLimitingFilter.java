@@ -0,0 +1,82 @@
+package com.example.devicemanagement.config;
+
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import lombok.RequiredArgsConstructor;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.security.authentication.AnonymousAuthenticationToken;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+import java.io.IOException;
+import java.time.Duration;
+
+/**
+ * Applies the {@link RequestLimits} to the {@code /devices} API in the security filter chain.
+ * Added after authentication, so the client is its user name when it sent valid credentials and its
+ * address otherwise. Behind a proxy, set {@code server.forward-headers-strategy} so the address is the client's.
+ */
+@RequiredArgsConstructor
+public class RequestLimitingFilter extends OncePerRequestFilter {
+
+    private final RequestLimits requestLimits;
+
+    @Override
+    protected boolean shouldNotFilter(HttpServletRequest request) {
+        String path = path(request);
+        return !path.equals("/devices") && !path.startsWith("/devices/");
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain filterChain)
+            throws ServletException, IOException {
+        RequestLimits.EndpointClass endpointClass = RequestLimits.EndpointClass.of(request.getMethod());
+        Duration wait = requestLimits.tryAcquireRate(endpointClass, client(request));
+        if (wait != null) {
+            reject(response, HttpStatus.TOO_MANY_REQUESTS, wait, "Too many requests, retry later");
+            return;
+        }
+        if (RequestLimits.isStream(path(request))) {
+            filterChain.doFilter(request, response);
+            return;
+        }
+        AdaptiveConcurrencyLimiter limiter = requestLimits.tryAcquireConcurrency(endpointClass);
+        if (limiter == null) {
+            reject(response, HttpStatus.SERVICE_UNAVAILABLE, RequestLimits.OVERLOAD_RETRY_AFTER,
+                    "The service is overloaded, retry later");
+            return;
+        }
+        long start = System.nanoTime();
+        try {
+            filterChain.doFilter(request, response);
+        } finally {
+            limiter.release(System.nanoTime() - start);
+        }
+    }
+
+    private static String path(HttpServletRequest request) {
+        return request.getRequestURI().substring(request.getContextPath().length());
+    }
+
+    private static String client(HttpServletRequest request) {
+        Authentication authentication = SecurityContextHolder.getContext().getAuthentication();
+        if (authentication != null && authentication.isAuthenticated()
+                && !(authentication instanceof AnonymousAuthenticationToken)) {
+            return "user:" + authentication.getName();
+        }
+        return "ip:" + request.getRemoteAddr();
+    }
+
+    private static void reject(HttpServletResponse response, HttpStatus status, Duration wait, String message)
+            throws IOException {
+        response.setStatus(status.value());
+        response.setHeader(HttpHeaders.RETRY_AFTER, RequestLimits.retryAfter(wait));
+        response.setContentType(MediaType.TEXT_PLAIN_VALUE);
+        response.getWriter().write(message);
+    }
+}
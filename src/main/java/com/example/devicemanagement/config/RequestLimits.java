@@ -0,0 +1,156 @@
+package com.example.devicemanagement.config;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.http.HttpMethod;
+
+import java.time.Duration;
+import java.util.EnumMap;
+import java.util.Locale;
+import java.util.Map;
+import java.util.function.LongSupplier;
+
+/**
+ * The request limits of the {@code /devices} API, shared by the servlet and the WebFlux filter.
+ *
+ * Requests are split into two endpoint classes, reads and writes, each with its own token bucket per
+ * client ({@link ClientRateLimiter}) and its own {@link AdaptiveConcurrencyLimiter}. A client over its rate
+ * gets 429 Too Many Requests; a request that finds its endpoint class at its concurrency limit, because the
+ * database has slowed down, gets 503 Service Unavailable. Both carry a Retry-After header.
+ *
+ * The long-lived streams ({@code /devices/changes} and {@code /devices/export}) are rate limited like any
+ * other request, but do not take a concurrency permit: they stay open for minutes and would hold it all
+ * that time. Rejections are counted in the {@value #REJECTED_METRIC} counter, and the current limits are
+ * published as the {@value #LIMIT_METRIC} gauge.
+ */
+public class RequestLimits {
+
+    /**
+     * Name of the counter of rejected requests, tagged with the endpoint class and the reason.
+     */
+    public static final String REJECTED_METRIC = "device.requests.rejected";
+
+    /**
+     * Name of the gauge of the adaptive concurrency limit, tagged with the endpoint class.
+     */
+    public static final String LIMIT_METRIC = "device.requests.concurrency.limit";
+
+    /**
+     * How long a client shed for overload is asked to wait; the limit adapts within a few requests.
+     */
+    public static final Duration OVERLOAD_RETRY_AFTER = Duration.ofSeconds(1);
+
+    private static final String[] STREAMS = {"/devices/changes", "/devices/export"};
+
+    /**
+     * The endpoint classes, limited separately.
+     */
+    public enum EndpointClass {
+        READ, WRITE;
+
+        /**
+         * Returns the endpoint class of a request.
+         * @param method The HTTP method of the request.
+         * @return {@link #READ} for safe methods, {@link #WRITE} for every other one.
+         */
+        public static EndpointClass of(String method) {
+            return HttpMethod.GET.matches(method) || HttpMethod.HEAD.matches(method) || HttpMethod.OPTIONS.matches(method)
+                    ? READ : WRITE;
+        }
+    }
+
+    private final Map<EndpointClass, ClientRateLimiter> rateLimiters = new EnumMap<>(EndpointClass.class);
+
+    private final Map<EndpointClass, AdaptiveConcurrencyLimiter> concurrencyLimiters = new EnumMap<>(EndpointClass.class);
+
+    private final Map<EndpointClass, Counter> rateLimited = new EnumMap<>(EndpointClass.class);
+
+    private final Map<EndpointClass, Counter> overloaded = new EnumMap<>(EndpointClass.class);
+
+    /**
+     * Creates the limiters of every endpoint class.
+     * @param properties    The configured limits.
+     * @param nanoTime      The clock of the rate limiters, such as {@link System#nanoTime()}.
+     * @param meterRegistry The registry of the rejection counters and limit gauges.
+     */
+    public RequestLimits(RequestLimitConfiguration.RequestLimitProperties properties, LongSupplier nanoTime,
+                         MeterRegistry meterRegistry) {
+        for (EndpointClass endpointClass : EndpointClass.values()) {
+            RequestLimitConfiguration.EndpointLimits limits =
+                    endpointClass == EndpointClass.READ ? properties.read() : properties.write();
+            String tag = endpointClass.name().toLowerCase(Locale.ROOT);
+            rateLimiters.put(endpointClass, new ClientRateLimiter(limits.rate(), limits.burst(), nanoTime));
+            AdaptiveConcurrencyLimiter limiter = new AdaptiveConcurrencyLimiter(limits.minConcurrency(),
+                    limits.maxConcurrency(), properties.latencyTolerance());
+            concurrencyLimiters.put(endpointClass, limiter);
+            Gauge.builder(LIMIT_METRIC, limiter, AdaptiveConcurrencyLimiter::getLimit)
+                    .description("Requests allowed in flight before excess requests are shed")
+                    .tag("endpoint", tag)
+                    .register(meterRegistry);
+            rateLimited.put(endpointClass, rejections(meterRegistry, tag, "rate-limit"));
+            overloaded.put(endpointClass, rejections(meterRegistry, tag, "overload"));
+        }
+    }
+
+    /**
+     * Checks whether a path is one of the long-lived streams, which are not concurrency limited.
+     * @param path The path of the request.
+     * @return {@code true} for the change feed and the export.
+     */
+    public static boolean isStream(String path) {
+        for (String stream : STREAMS) {
+            if (path.equals(stream)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Takes a token from the client's bucket for the endpoint class.
+     * @param endpointClass The endpoint class of the request.
+     * @param client        The key of the client: its user name if authenticated, otherwise its address.
+     * @return {@code null} if admitted, otherwise how long the client has to wait.
+     */
+    public Duration tryAcquireRate(EndpointClass endpointClass, String client) {
+        long wait = rateLimiters.get(endpointClass).tryAcquire(client);
+        if (wait == 0) {
+            return null;
+        }
+        rateLimited.get(endpointClass).increment();
+        return Duration.ofNanos(wait);
+    }
+
+    /**
+     * Admits a request of the endpoint class if it is below its concurrency limit.
+     * @param endpointClass The endpoint class of the request.
+     * @return The limiter to release once the request completes, or {@code null} if the request is shed.
+     */
+    public AdaptiveConcurrencyLimiter tryAcquireConcurrency(EndpointClass endpointClass) {
+        AdaptiveConcurrencyLimiter limiter = concurrencyLimiters.get(endpointClass);
+        if (limiter.tryAcquire()) {
+            return limiter;
+        }
+        overloaded.get(endpointClass).increment();
+        return null;
+    }
+
+    /**
+     * Formats a wait as the value of a Retry-After header.
+     * @param wait How long to wait.
+     * @return The wait in whole seconds, rounded up and at least 1.
+     */
+    public static String retryAfter(Duration wait) {
+        long seconds = wait.getSeconds() + (wait.getNano() > 0 ? 1 : 0);
+        return Long.toString(Math.max(1, seconds));
+    }
+
+    private static Counter rejections(MeterRegistry meterRegistry, String endpoint, String reason) {
+        return Counter.builder(REJECTED_METRIC)
+                .description("Requests rejected by the rate or concurrency limits")
+                .tag("endpoint", endpoint)
+                .tag("reason", reason)
+                .register(meterRegistry);
+    }
+}
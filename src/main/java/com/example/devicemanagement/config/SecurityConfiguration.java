@@ -1,7 +1,9 @@
 package com.example.devicemanagement.config;
 
+import org.springframework.beans.factory.ObjectProvider;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Profile;
 import org.springframework.http.HttpMethod;
 import org.springframework.security.config.Customizer;
 import org.springframework.security.config.annotation.web.builders.HttpSecurity;
@@ -10,15 +12,18 @@ import org.springframework.security.config.annotation.web.configurers.AbstractHt
 import org.springframework.security.config.annotation.web.configurers.HeadersConfigurer;
 import org.springframework.security.config.http.SessionCreationPolicy;
 import org.springframework.security.web.SecurityFilterChain;
+import org.springframework.security.web.authentication.www.BasicAuthenticationFilter;
 
 import static org.springframework.security.web.util.matcher.AntPathRequestMatcher.antMatcher;
 
 @EnableWebSecurity
 @Configuration
+@Profile("!reactive") // See ReactiveSecurityConfiguration.
 public class SecurityConfiguration {
 
     @Bean
-    public SecurityFilterChain filterChain(HttpSecurity httpSecurity) throws Exception {
+    public SecurityFilterChain filterChain(HttpSecurity httpSecurity, ObjectProvider<RequestLimits> requestLimits)
+            throws Exception {
         httpSecurity.csrf(AbstractHttpConfigurer::disable) // Disable CSRF protection for simplicity
                 .authorizeHttpRequests(authorize -> {
                     // Permit all requests to the Swagger UI, API docs, and H2 console
@@ -26,6 +31,10 @@ public class SecurityConfiguration {
                                     antMatcher("/swagger-ui.html"),
                                     antMatcher("/v3/**"),
                                     antMatcher("/h2-console/**")).permitAll()
+                            // Permit read access to health and metrics (including the Prometheus scrape endpoint) for monitoring
+                            .requestMatchers(antMatcher(HttpMethod.GET, "/actuator/health/**"),
+                                    antMatcher(HttpMethod.GET, "/actuator/metrics/**"),
+                                    antMatcher(HttpMethod.GET, "/actuator/prometheus")).permitAll()
                             // Permit all GET, PUT, POST, PATCH, and DELETE requests to /devices endpoints
                             .requestMatchers(antMatcher(HttpMethod.GET, "/devices")).permitAll()
                             .requestMatchers(antMatcher(HttpMethod.GET, "/devices/**")).permitAll()
@@ -39,6 +48,9 @@ public class SecurityConfiguration {
                         HeadersConfigurer.FrameOptionsConfig::sameOrigin)) // Allow H2 console to be embedded in a frame
                 .httpBasic(Customizer.withDefaults()) // Use basic HTTP authentication
                 .sessionManagement(session -> session.sessionCreationPolicy(SessionCreationPolicy.STATELESS)); // Use stateless session management
+        // Rate and concurrency limits for /devices, after authentication so credentials identify the client
+        requestLimits.ifAvailable(limits -> httpSecurity.addFilterAfter(new RequestLimitingFilter(limits),
+                BasicAuthenticationFilter.class));
 
         return httpSecurity.build();
     }
@@ -0,0 +1,85 @@
+package com.example.devicemanagement.config;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import org.springframework.cache.caffeine.CaffeineCache;
+
+import java.util.concurrent.Callable;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * Caffeine cache that does not store a value loaded before an eviction of its key.
+ *
+ * A miss is loaded inside {@code asMap().computeIfAbsent}, so concurrent misses of one key wait for a single
+ * load, as {@code @Cacheable(sync = true)} promises. A reader that loads the old row while a writer commits
+ * must not cache it: every eviction therefore bumps an invalidation stamp for its key before removing it, and
+ * the load only stores its value if the stamp did not change meanwhile. An eviction that reaches the key while
+ * the load is still running waits for it to finish, so a value stored before the stamp was bumped is removed
+ * right after.
+ *
+ * The stamps are striped: keys that share a stripe only cost each other a skipped store, never a stale one.
+ */
+class StampedCaffeineCache extends CaffeineCache {
+
+    private static final int STRIPES = 1024; // A power of two.
+
+    private final AtomicLongArray stamps = new AtomicLongArray(STRIPES);
+
+    StampedCaffeineCache(String name, Cache<Object, Object> cache) {
+        super(name, cache, false);
+    }
+
+    /**
+     * Returns the cached value, or loads it once for all concurrent callers and stores it unless the key was
+     * evicted while loading. This is the path of {@code @Cacheable(sync = true)}.
+     */
+    @Override
+    @SuppressWarnings("unchecked")
+    public <T> T get(Object key, Callable<T> valueLoader) {
+        Object[] loaded = new Object[1];
+        Object cached = getNativeCache().asMap().computeIfAbsent(key, k -> {
+            long stamp = stamps.get(stripe(k));
+            try {
+                loaded[0] = valueLoader.call();
+            } catch (Exception e) {
+                throw new ValueRetrievalException(k, valueLoader, e);
+            }
+            return stamps.get(stripe(k)) == stamp ? loaded[0] : null; // null stores nothing.
+        });
+        return (T) (cached != null ? cached : loaded[0]);
+    }
+
+    @Override
+    public void evict(Object key) {
+        stamps.incrementAndGet(stripe(key)); // Before the removal, so a load still running sees the new stamp.
+        super.evict(key);
+    }
+
+    @Override
+    public boolean evictIfPresent(Object key) {
+        stamps.incrementAndGet(stripe(key));
+        return super.evictIfPresent(key);
+    }
+
+    @Override
+    public void clear() {
+        bumpAll();
+        super.clear();
+    }
+
+    @Override
+    public boolean invalidate() {
+        bumpAll();
+        return super.invalidate();
+    }
+
+    private void bumpAll() {
+        for (int i = 0; i < STRIPES; i++) {
+            stamps.incrementAndGet(i);
+        }
+    }
+
+    private static int stripe(Object key) {
+        int hash = key.hashCode();
+        return (hash ^ (hash >>> 16)) & (STRIPES - 1);
+    }
+}
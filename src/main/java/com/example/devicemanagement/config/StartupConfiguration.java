@@ -0,0 +1,24 @@
+package com.example.devicemanagement.config;
+
+import com.example.devicemanagement.DeviceManagementApplication;
+import org.springframework.boot.LazyInitializationExcludeFilter;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+/**
+ * Decides which beans stay eager when {@code spring.main.lazy-initialization} is on (see the {@code fast-startup} profile).
+ *
+ * The application's own beans, and everything they depend on (the data source, Hibernate, the repositories and
+ * the cache), are still created at startup, so the first request does not pay for them and the in-memory indexes
+ * are loaded before the server accepts requests. Infrastructure that is off the request path, such as the
+ * actuator endpoints, is only created when first used.
+ */
+@Configuration(proxyBeanMethods = false)
+public class StartupConfiguration {
+
+    @Bean
+    public static LazyInitializationExcludeFilter applicationBeansExcludeFilter() {
+        String applicationPackage = DeviceManagementApplication.class.getPackageName();
+        return (beanName, beanDefinition, beanType) -> beanType.getName().startsWith(applicationPackage + ".");
+    }
+}
@@ -0,0 +1,66 @@
+package com.example.devicemanagement.config;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.config.BeanPostProcessor;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnThreading;
+import org.springframework.boot.autoconfigure.thread.Threading;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.boot.context.properties.bind.DefaultValue;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import javax.sql.DataSource;
+import java.time.Duration;
+
+/**
+ * Configures the virtual-thread execution mode.
+ *
+ * Active when {@code spring.threads.virtual.enabled=true} on Java 21 or later (see the
+ * {@code virtual-threads} profile). Spring Boot then serves requests, and with them every
+ * DeviceService call, on virtual threads. This class guards the DataSource against pinning:
+ * JDBC drivers block inside synchronized code, which pins a virtual thread to its carrier, so the
+ * number of connections in use at the same time is capped by a {@link ConnectionLimitingDataSource}.
+ */
+@Slf4j
+@Configuration
+@ConditionalOnThreading(Threading.VIRTUAL)
+@EnableConfigurationProperties(VirtualThreadConfiguration.VirtualThreadProperties.class)
+public class VirtualThreadConfiguration {
+
+    @Bean
+    public static BeanPostProcessor connectionLimitingDataSourcePostProcessor(ObjectProvider<VirtualThreadProperties> properties) {
+        return new BeanPostProcessor() {
+            @Override
+            public Object postProcessAfterInitialization(Object bean, String beanName) {
+                if (bean instanceof DataSource dataSource && !(bean instanceof ConnectionLimitingDataSource)) {
+                    return limit(dataSource, properties.getObject()); // Resolved lazily, so the properties bean is fully processed.
+                }
+                return bean;
+            }
+        };
+    }
+
+    private static DataSource limit(DataSource dataSource, VirtualThreadProperties properties) {
+        int carriers = Integer.getInteger("jdk.virtualThreadScheduler.parallelism", Runtime.getRuntime().availableProcessors());
+        if (properties.maxConcurrentConnections() >= carriers) {
+            log.warn("{} concurrent connections can pin all {} carrier threads; "
+                            + "lower device.virtual-threads.max-concurrent-connections or raise -Djdk.virtualThreadScheduler.parallelism",
+                    properties.maxConcurrentConnections(), carriers);
+        }
+        return new ConnectionLimitingDataSource(dataSource, properties.maxConcurrentConnections(),
+                properties.connectionTimeout().toMillis());
+    }
+
+    /**
+     * Settings of the virtual-thread execution mode.
+     * @param maxConcurrentConnections Maximum number of connections in use at the same time, i.e. the maximum
+     *                                 number of virtual threads that can be pinned inside the JDBC driver.
+     * @param connectionTimeout        Time a request waits for a connection before it fails.
+     */
+    @ConfigurationProperties(prefix = "device.virtual-threads")
+    public record VirtualThreadProperties(@DefaultValue("10") int maxConcurrentConnections,
+                                          @DefaultValue("30s") Duration connectionTimeout) {
+    }
+}
@@ -0,0 +1,81 @@
+package com.example.devicemanagement.config;
+
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import com.fasterxml.jackson.dataformat.cbor.CBORFactory;
+import com.fasterxml.jackson.dataformat.smile.SmileFactory;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Profile;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.converter.HttpMessageConverter;
+import org.springframework.http.converter.cbor.MappingJackson2CborHttpMessageConverter;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+import org.springframework.http.converter.smile.MappingJackson2SmileHttpMessageConverter;
+import org.springframework.web.servlet.HandlerInterceptor;
+import org.springframework.web.servlet.config.annotation.InterceptorRegistry;
+import org.springframework.web.servlet.config.annotation.WebMvcConfigurer;
+
+import java.util.List;
+
+/**
+ * Configures the encodings the blocking device API can answer in, chosen by the request's Accept header.
+ *
+ * JSON stays the default. CBOR ({@code application/cbor}) and Smile ({@code application/x-jackson-smile})
+ * go through the same Jackson configuration as JSON, except that creation times are written as numbers
+ * instead of ISO strings, which saves formatting them. Protocol Buffers ({@code application/x-protobuf})
+ * are available for devices and pages of devices, see {@link DeviceProtobufHttpMessageConverter}.
+ * Compression of large responses is configured through {@code server.compression.*}.
+ */
+@Configuration
+@Profile("!reactive") // The reactive API negotiates through WebFlux codecs.
+public class WebConfiguration implements WebMvcConfigurer {
+
+    private final ObjectProvider<Jackson2ObjectMapperBuilder> objectMapperBuilder;
+
+    public WebConfiguration(ObjectProvider<Jackson2ObjectMapperBuilder> objectMapperBuilder) {
+        this.objectMapperBuilder = objectMapperBuilder;
+    }
+
+    @Override
+    public void extendMessageConverters(List<HttpMessageConverter<?>> converters) {
+        // Spring registers CBOR and Smile converters with its own defaults; replace them in place, after JSON.
+        converters.replaceAll(converter -> {
+            if (converter instanceof MappingJackson2CborHttpMessageConverter) {
+                return new MappingJackson2CborHttpMessageConverter(binaryObjectMapper(objectMapperBuilder.getObject(), new CBORFactory()));
+            }
+            if (converter instanceof MappingJackson2SmileHttpMessageConverter) {
+                return new MappingJackson2SmileHttpMessageConverter(binaryObjectMapper(objectMapperBuilder.getObject(), new SmileFactory()));
+            }
+            return converter;
+        });
+        converters.add(new DeviceProtobufHttpMessageConverter()); // Last, so clients accepting anything still get JSON.
+    }
+
+    @Override
+    public void addInterceptors(InterceptorRegistry registry) {
+        registry.addInterceptor(new HandlerInterceptor() {
+            @Override
+            public boolean preHandle(HttpServletRequest request, HttpServletResponse response, Object handler) {
+                response.addHeader(HttpHeaders.VARY, HttpHeaders.ACCEPT); // Shared caches must keep the encodings apart.
+                return true;
+            }
+        }).addPathPatterns("/devices/**");
+    }
+
+    /**
+     * Builds the object mapper of a binary encoding from the application's Jackson settings.
+     * @param builder The builder configured by Spring Boot, as used for JSON.
+     * @param factory The factory of the encoding, such as a {@link CBORFactory}.
+     * @return The object mapper, writing date-times as numbers.
+     */
+    static ObjectMapper binaryObjectMapper(Jackson2ObjectMapperBuilder builder, JsonFactory factory) {
+        return builder
+                .factory(factory)
+                .featuresToEnable(SerializationFeature.WRITE_DATES_AS_TIMESTAMPS)
+                .build();
+    }
+}
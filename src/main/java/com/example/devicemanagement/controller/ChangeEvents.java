@@ -0,0 +1,74 @@
+package com.example.devicemanagement.controller;
+
+import com.example.devicemanagement.dto.DeviceChange;
+import com.example.devicemanagement.exception.DeviceChangesLostException;
+import com.example.devicemanagement.exception.InvalidRequestException;
+import org.springframework.http.codec.ServerSentEvent;
+import reactor.core.publisher.Flux;
+
+import java.time.Duration;
+
+/**
+ * Turns the device change feed into Server-Sent Events, for both the blocking and the reactive controller.
+ *
+ * Each change is sent as an event named after its type, with the sequence number as event id, so a
+ * browser's {@code EventSource} resumes on its own by sending the {@code Last-Event-ID} header when it
+ * reconnects. A client that fell too far behind receives one {@link #RESET} event and the stream ends.
+ */
+public final class ChangeEvents {
+
+    /**
+     * Name of the request header with which a reconnecting client tells the last event it received.
+     */
+    public static final String LAST_EVENT_ID = "Last-Event-ID";
+
+    /**
+     * Name of the event that tells the client to reload the devices before following the feed again.
+     */
+    public static final String RESET = "reset";
+
+    /**
+     * Interval of the comments sent while nothing changes, so proxies do not close an idle connection.
+     */
+    static final Duration HEARTBEAT = Duration.ofSeconds(15);
+
+    private ChangeEvents() {
+    }
+
+    /**
+     * Chooses the position to resume from: the query parameter wins over the header of a reconnect.
+     * @param after       The {@code after} query parameter, or {@code null}.
+     * @param lastEventId The {@code Last-Event-ID} header, or {@code null}.
+     * @return The sequence number of the last change the client has seen, or {@code null} to start at the current position.
+     * @throws InvalidRequestException if the header is not a sequence number.
+     */
+    public static Long position(Long after, String lastEventId) {
+        if (after != null || lastEventId == null || lastEventId.isBlank()) {
+            return after;
+        }
+        try {
+            return Long.valueOf(lastEventId.trim());
+        } catch (NumberFormatException e) {
+            throw new InvalidRequestException("Invalid " + LAST_EVENT_ID + ": " + lastEventId);
+        }
+    }
+
+    /**
+     * Converts the changes into events and adds heartbeats.
+     * @param changes The changes, as followed from the feed.
+     * @return The events: changes as JSON, a {@link #RESET} event with an explanation as its data, and heartbeat comments.
+     */
+    public static Flux<ServerSentEvent<Object>> of(Flux<DeviceChange> changes) {
+        Flux<ServerSentEvent<Object>> events = changes
+                .map(change -> ServerSentEvent.<Object>builder(change)
+                        .id(Long.toString(change.sequence()))
+                        .event(change.type().name())
+                        .build())
+                .onErrorResume(DeviceChangesLostException.class, e -> Flux.just(ServerSentEvent.<Object>builder(e.getMessage())
+                        .event(RESET)
+                        .build()));
+        Flux<ServerSentEvent<Object>> heartbeats = Flux.interval(HEARTBEAT)
+                .map(tick -> ServerSentEvent.builder().comment("heartbeat").build());
+        return Flux.merge(events, heartbeats).takeUntil(event -> RESET.equals(event.event()));
+    }
+}
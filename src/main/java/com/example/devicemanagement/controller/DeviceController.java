@@ -1,18 +1,50 @@
 package com.example.devicemanagement.controller;
 
+import com.example.devicemanagement.dto.ArchiveResult;
+import com.example.devicemanagement.dto.BrandCount;
+import com.example.devicemanagement.dto.BrandMatch;
+import com.example.devicemanagement.dto.DeleteResult;
 import com.example.devicemanagement.dto.DeviceDTO;
+import com.example.devicemanagement.dto.DevicePage;
+import com.example.devicemanagement.dto.DevicePatch;
+import com.example.devicemanagement.dto.IngestionStatus;
 import com.example.devicemanagement.exception.DeviceNotFoundException;
+import com.example.devicemanagement.exception.DeviceVersionMismatchException;
+import com.example.devicemanagement.service.BrandStatisticsService;
+import com.example.devicemanagement.service.DeviceChangeFeed;
+import com.example.devicemanagement.service.DeviceArchiveService;
+import com.example.devicemanagement.service.DeviceIngestionService;
+import com.example.devicemanagement.service.DeviceNameIndex;
 import com.example.devicemanagement.service.DeviceService;
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import com.fasterxml.jackson.databind.SerializationFeature;
 import io.swagger.v3.oas.annotations.Operation;
 import io.swagger.v3.oas.annotations.responses.ApiResponse;
 import io.swagger.v3.oas.annotations.responses.ApiResponses;
 import io.swagger.v3.oas.annotations.tags.Tag;
 import jakarta.validation.Valid;
-import org.springframework.beans.factory.annotation.Autowired;
+import jakarta.validation.constraints.NotEmpty;
+import jakarta.validation.constraints.Size;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.context.annotation.Profile;
+import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
+import org.springframework.http.codec.ServerSentEvent;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+import reactor.core.publisher.Flux;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.net.URI;
+import java.time.LocalDateTime;
+import java.time.YearMonth;
 import java.util.List;
-import java.util.Map;
+import java.util.function.Consumer;
 
 /**
  * REST controller for managing devices.
@@ -20,150 +52,510 @@ import java.util.Map;
  */
 @RestController
 @RequestMapping("/devices")
+@Profile("!reactive") // See ReactiveDeviceController.
 @Tag(name = "Device Management", description = "APIs for managing devices")
 public class DeviceController {
 
+    /**
+     * Number of exported records written between two explicit flushes of the response.
+     */
+    private static final int EXPORT_FLUSH_INTERVAL = 1000;
+
     private final DeviceService deviceService;
 
-    public DeviceController(DeviceService deviceService) {
+    private final ObjectMapper objectMapper;
+
+    private final ObjectProvider<DeviceIngestionService> ingestionService; // Only available if ingestion is enabled.
+
+    private final BrandStatisticsService brandStatisticsService;
+
+    private final DeviceArchiveService archiveService;
+
+    private final DeviceChangeFeed changeFeed;
+
+    public DeviceController(DeviceService deviceService, ObjectMapper objectMapper,
+                            ObjectProvider<DeviceIngestionService> ingestionService,
+                            BrandStatisticsService brandStatisticsService, DeviceArchiveService archiveService,
+                            DeviceChangeFeed changeFeed) {
         this.deviceService = deviceService;
+        this.objectMapper = objectMapper;
+        this.ingestionService = ingestionService;
+        this.brandStatisticsService = brandStatisticsService;
+        this.archiveService = archiveService;
+        this.changeFeed = changeFeed;
     }
     /**
      * Adds a new device.
+     * With {@code Prefer: respond-async} and ingestion enabled, the device is only queued; the response
+     * carries its id and points to the status of the write.
      * @param deviceDTO Data transfer object containing device details.
-     * @return The created device.
+     * @param prefer The client's preferences; {@code respond-async} asks for write-behind creation.
+     * @return The created device, or the accepted device if it is written asynchronously.
      */
     @PostMapping
-    @Operation(summary = "Add a new device", description = "Creates a new device and returns the created device.")
+    @Operation(summary = "Add a new device", description = "Creates a new device and returns the created device. "
+            + "Send 'Prefer: respond-async' to have it written in the background, if ingestion is enabled.")
     @ApiResponses(value = {
             @ApiResponse(responseCode = "201", description = "Device successfully created"),
+            @ApiResponse(responseCode = "202", description = "Device accepted and queued for creation"),
             @ApiResponse(responseCode = "400", description = "Invalid input"),
+            @ApiResponse(responseCode = "429", description = "Ingestion queue is full"),
             @ApiResponse(responseCode = "500", description = "Error adding device")
     })
-    public ResponseEntity<DeviceDTO> addDevice(@Valid @RequestBody DeviceDTO deviceDTO) {
+    public ResponseEntity<DeviceDTO> addDevice(@Valid @RequestBody DeviceDTO deviceDTO,
+                                               @RequestHeader(name = Preferences.PREFER, required = false) String prefer) {
+        DeviceIngestionService ingestion = ingestionService.getIfAvailable();
+        if (ingestion != null && Preferences.contains(prefer, Preferences.RESPOND_ASYNC)) {
+            DeviceDTO acceptedDevice = ingestion.submit(deviceDTO);
+            return ResponseEntity.accepted()
+                    .location(URI.create("/devices/ingestion/" + acceptedDevice.id()))
+                    .header(Preferences.PREFERENCE_APPLIED, Preferences.RESPOND_ASYNC)
+                    .body(acceptedDevice);
+        }
         DeviceDTO createdDevice = deviceService.addDevice(deviceDTO);
         return ResponseEntity.status(201).body(createdDevice);
     }
     /**
-     * Retrieves a device by its ID.
+     * Tells whether a device accepted for asynchronous creation has been written.
+     * @param id The id returned when the device was accepted.
+     * @return The state of the write.
+     */
+
+    @GetMapping("/ingestion/{id}")
+    @Operation(summary = "Get the ingestion status of a device", description = "Tells whether a device accepted with "
+            + "'Prefer: respond-async' is still pending, has been persisted or could not be written.")
+    @ApiResponses(value = {
+            @ApiResponse(responseCode = "200", description = "Status retrieved successfully"),
+            @ApiResponse(responseCode = "404", description = "Unknown id, or ingestion is disabled")
+    })
+    public ResponseEntity<IngestionStatus> getIngestionStatus(@PathVariable("id") Long id) {
+        DeviceIngestionService ingestion = ingestionService.getIfAvailable();
+        if (ingestion == null) {
+            return ResponseEntity.status(404).build();
+        }
+        try {
+            return ResponseEntity.ok(ingestion.getStatus(id));
+        } catch (DeviceNotFoundException e) {
+            return ResponseEntity.status(404).build();
+        }
+    }
+    /**
+     * Adds several devices in one request.
+     * @param deviceDTOs Data transfer objects containing the device details.
+     * @return The ids of the created devices, in the order of the request.
+     */
+    @PostMapping("/batch")
+    @Operation(summary = "Add devices in bulk", description = "Creates up to " + DeviceService.MAX_BATCH_SIZE
+            + " devices in one transaction using batched inserts and returns their ids in request order.")
+    @ApiResponses(value = {
+            @ApiResponse(responseCode = "201", description = "Devices successfully created"),
+            @ApiResponse(responseCode = "400", description = "Invalid input"),
+            @ApiResponse(responseCode = "500", description = "Error adding devices")
+    })
+    public ResponseEntity<List<Long>> addDevices(
+            @RequestBody @NotEmpty @Size(max = DeviceService.MAX_BATCH_SIZE) List<@Valid DeviceDTO> deviceDTOs) {
+        List<Long> ids = deviceService.addDevices(deviceDTOs);
+        return ResponseEntity.status(201).body(ids);
+    }
+    /**
+     * Retrieves a device by its ID. Archived devices are answered with 404, like deleted ones.
+     * The response carries the device's version as ETag; a request whose If-None-Match still matches
+     * it is answered with 304 and no body. The version comes from the device cache when possible.
      * @param id The ID of the device.
+     * @param ifNoneMatch The ETag of the client's copy, if any.
      * @return The device data.
      */
 
     @GetMapping("/{id}")
-    @Operation(summary = "Get a device by ID", description = "Retrieves a device by its ID.")
+    @Operation(summary = "Get a device by ID", description = "Retrieves a device by its ID. "
+            + "Archived devices are not found; they are only exported and searched by creation time.")
     @ApiResponses(value = {
             @ApiResponse(responseCode = "200", description = "Device found"),
-            @ApiResponse(responseCode = "404", description = "Device not found"),
+            @ApiResponse(responseCode = "304", description = "Device not modified"),
+            @ApiResponse(responseCode = "404", description = "Device not found or archived"),
             @ApiResponse(responseCode = "500", description = "Error retrieving device by ID")
     })
-    public ResponseEntity<DeviceDTO> getDeviceById(@PathVariable("id") Long id) {
+    public ResponseEntity<DeviceDTO> getDeviceById(@PathVariable("id") Long id,
+                                                   @RequestHeader(name = HttpHeaders.IF_NONE_MATCH, required = false) String ifNoneMatch) {
         try {
             DeviceDTO deviceDTO = deviceService.getDeviceById(id);
-            return ResponseEntity.ok(deviceDTO);
+            String eTag = ETags.of(deviceDTO);
+            if (ETags.matches(ifNoneMatch, eTag)) {
+                return ResponseEntity.status(304).eTag(eTag).build();
+            }
+            return ResponseEntity.ok().eTag(eTag).body(deviceDTO);
         } catch (DeviceNotFoundException e) {
             return ResponseEntity.status(404).body(null);
         }
     }
     /**
-     * Retrieves all devices.
-     * @return A list of all devices.
+     * Retrieves a page of devices, ordered by id. Archived devices are not listed.
+     * @param after Opaque cursor from the previous page; omit it to start at the beginning.
+     * @param limit The maximum number of devices to return.
+     * @param ifNoneMatch The ETag of the client's copy of the page, if any.
+     * @return A page of devices and the cursor for the next page.
      */
 
     @GetMapping
-    @Operation(summary = "Get all devices", description = "Retrieves all devices.")
+    @Operation(summary = "Get all devices", description = "Retrieves devices page by page, ordered by id; archived devices are not listed. "
+            + "Pass the returned nextCursor as 'after' to read the next page.")
     @ApiResponses(value = {
             @ApiResponse(responseCode = "200", description = "Devices retrieved successfully"),
+            @ApiResponse(responseCode = "304", description = "Page not modified"),
+            @ApiResponse(responseCode = "400", description = "Invalid cursor"),
             @ApiResponse(responseCode = "500", description = "Error retrieving devices")
     })
-    public ResponseEntity<List<DeviceDTO>> getAllDevices() {
-        List<DeviceDTO> devices = deviceService.getAllDevices();
-        return ResponseEntity.ok(devices);
+    public ResponseEntity<DevicePage> getAllDevices(@RequestParam(name = "after", required = false) String after,
+                                                    @RequestParam(name = "limit", defaultValue = "100") int limit,
+                                                    @RequestHeader(name = HttpHeaders.IF_NONE_MATCH, required = false) String ifNoneMatch) {
+        DevicePage devices = deviceService.getAllDevices(after, limit);
+        String eTag = ETags.of(devices);
+        if (ETags.matches(ifNoneMatch, eTag)) {
+            return ResponseEntity.status(304).eTag(eTag).build(); // Skips serializing and sending the page.
+        }
+        return ResponseEntity.ok().eTag(eTag).body(devices);
     }
 
     /**
-     * Updates an existing device.
+     * Exports all devices as newline-delimited JSON, archived ones included.
+     * Each device is written to the response as soon as it is read from the database,
+     * so the export never holds the whole table in memory.
+     * @return A streaming body producing one JSON document per line.
+     */
+
+    @GetMapping(value = "/export", produces = MediaType.APPLICATION_NDJSON_VALUE)
+    @Operation(summary = "Export all devices", description = "Streams all devices as newline-delimited JSON: "
+            + "those of the devices table ordered by id, then the archived ones, month by month.")
+    @ApiResponses(value = {
+            @ApiResponse(responseCode = "200", description = "Devices streamed successfully"),
+            @ApiResponse(responseCode = "500", description = "Error exporting devices")
+    })
+    public ResponseEntity<StreamingResponseBody> exportDevices() {
+        StreamingResponseBody body = outputStream -> {
+            ObjectWriter writer = objectMapper.writerFor(DeviceDTO.class)
+                    .without(SerializationFeature.FLUSH_AFTER_WRITE_VALUE);
+            try (JsonGenerator generator = objectMapper.getFactory().createGenerator(outputStream)) {
+                generator.setRootValueSeparator(null); // Records are separated by newlines only.
+                int[] written = {0};
+                deviceService.exportDevices(device -> {
+                    try {
+                        writer.writeValue(generator, device);
+                        generator.writeRaw('\n');
+                        if (++written[0] % EXPORT_FLUSH_INTERVAL == 0) {
+                            generator.flush();
+                        }
+                    } catch (IOException e) {
+                        throw new UncheckedIOException(e);
+                    }
+                });
+            }
+        };
+        return ResponseEntity.ok().contentType(MediaType.APPLICATION_NDJSON).body(body);
+    }
+
+    /**
+     * Updates an existing device. Archived devices are answered with 404, like deleted ones.
      * @param id The ID of the device to update.
      * @param updatedDeviceDTO Data transfer object containing updated device details.
-     * @return The updated device data.
+     * @param ifMatch The ETag the update is conditional on, if any.
+     * @param prefer The client's preferences; {@code return=minimal} skips reading the device back.
+     * @return The updated device data, or no content if a minimal response was preferred.
      */
 
     @PutMapping("/{id}")
-    @Operation(summary = "Update a device", description = "Updates an existing device with new data.")
+    @Operation(summary = "Update a device", description = "Updates an existing device with new data; archived devices are not found. "
+            + "Send 'Prefer: return=minimal' to get 204 without the updated device.")
     @ApiResponses(value = {
             @ApiResponse(responseCode = "200", description = "Device updated successfully"),
-            @ApiResponse(responseCode = "404", description = "Device not found"),
+            @ApiResponse(responseCode = "204", description = "Device updated successfully, minimal response"),
+            @ApiResponse(responseCode = "404", description = "Device not found or archived"),
+            @ApiResponse(responseCode = "412", description = "Device no longer matches If-Match"),
             @ApiResponse(responseCode = "500", description = "Error updating device")
     })
-    public ResponseEntity<DeviceDTO> updateDevice(@PathVariable("id") Long id, @Valid @RequestBody DeviceDTO updatedDeviceDTO) {
+    public ResponseEntity<DeviceDTO> updateDevice(@PathVariable("id") Long id, @Valid @RequestBody DeviceDTO updatedDeviceDTO,
+                                                  @RequestHeader(name = HttpHeaders.IF_MATCH, required = false) String ifMatch,
+                                                  @RequestHeader(name = Preferences.PREFER, required = false) String prefer) {
         try {
-            DeviceDTO deviceDTO = deviceService.updateDevice(id, updatedDeviceDTO);
-            return ResponseEntity.ok(deviceDTO);
+            Long matchedVersion = writeIfMatch(ifMatch, version -> deviceService.updateDevice(id, updatedDeviceDTO, version));
+            return updated(id, matchedVersion, prefer);
         } catch (DeviceNotFoundException e) {
             return ResponseEntity.status(404).body(null);
         }
     }
 
     /**
-     * Partially updates an existing device.
+     * Partially updates an existing device with a JSON Merge Patch (RFC 7396): the fields present in the
+     * body replace those of the device, with one UPDATE statement that sets only those columns.
+     * Archived devices are answered with 404, like deleted ones.
      * @param id The ID of the device to update.
-     * @param fields A map containing the fields to update.
-     * @return The updated device data.
+     * @param patch The fields to update.
+     * @param ifMatch The ETag the update is conditional on, if any.
+     * @param prefer The client's preferences; {@code return=minimal} skips reading the device back.
+     * @return The updated device data, or no content if a minimal response was preferred.
      */
-    @PatchMapping("/{id}")
-    @Operation(summary = "Partially update a device", description = "Partially updates an existing device with new data.")
+    @PatchMapping(path = "/{id}", consumes = {DevicePatch.MEDIA_TYPE, MediaType.APPLICATION_JSON_VALUE})
+    @Operation(summary = "Partially update a device", description = "Partially updates an existing device with a JSON "
+            + "Merge Patch (" + DevicePatch.MEDIA_TYPE + "); fields cannot be removed, and archived devices are not found. "
+            + "Send 'Prefer: return=minimal' to get 204 without the updated device.")
     @ApiResponses(value = {
             @ApiResponse(responseCode = "200", description = "Device partially updated successfully"),
-            @ApiResponse(responseCode = "404", description = "Device not found"),
+            @ApiResponse(responseCode = "204", description = "Device partially updated successfully, minimal response"),
+            @ApiResponse(responseCode = "400", description = "Unknown, duplicate or null field, or invalid value"),
+            @ApiResponse(responseCode = "404", description = "Device not found or archived"),
+            @ApiResponse(responseCode = "412", description = "Device no longer matches If-Match"),
+            @ApiResponse(responseCode = "415", description = "Body is neither a merge patch nor JSON"),
             @ApiResponse(responseCode = "500", description = "Error partially updating device")
     })
-    public ResponseEntity<DeviceDTO> updateDevicePartially(@PathVariable("id") Long id, @RequestBody Map<String, Object> fields) {
+    public ResponseEntity<DeviceDTO> updateDevicePartially(@PathVariable("id") Long id, @RequestBody @Valid DevicePatch patch,
+                                                           @RequestHeader(name = HttpHeaders.IF_MATCH, required = false) String ifMatch,
+                                                           @RequestHeader(name = Preferences.PREFER, required = false) String prefer) {
         try {
-            DeviceDTO updatedDeviceDTO = deviceService.updateDevicePartially(id, fields);
-            return ResponseEntity.ok(updatedDeviceDTO);
+            Long matchedVersion = writeIfMatch(ifMatch, version -> deviceService.updateDevicePartially(id, patch, version));
+            return updated(id, matchedVersion, prefer);
         } catch (DeviceNotFoundException e) {
             return ResponseEntity.status(404).body(null);
         }
     }
+
     /**
-     * Deletes a device by its ID.
+     * Runs a write conditional on each version listed in the If-Match header in turn, until one matches.
+     * Each attempt is a conditional write of its own, so a version that changes in between is never overwritten.
+     * @return The version the write matched, or {@code null} if it was unconditional.
+     * @throws DeviceVersionMismatchException if no listed version matched.
+     */
+    private static Long writeIfMatch(String ifMatch, Consumer<Long> write) {
+        List<Long> versions = ETags.versions(ifMatch);
+        if (versions.isEmpty()) {
+            write.accept(null);
+            return null;
+        }
+        for (Long version : versions.subList(0, versions.size() - 1)) {
+            try {
+                write.accept(version);
+                return version;
+            } catch (DeviceVersionMismatchException e) {
+                // Try the next listed version.
+            }
+        }
+        Long last = versions.get(versions.size() - 1);
+        write.accept(last);
+        return last;
+    }
+
+    /**
+     * Answers a successful update. The device is only read back, from the cache where possible, if the
+     * client wants it; a conditional update knows the new version without reading.
+     */
+    private ResponseEntity<DeviceDTO> updated(Long id, Long matchedVersion, String prefer) {
+        if (Preferences.contains(prefer, Preferences.RETURN_MINIMAL)) {
+            ResponseEntity.HeadersBuilder<?> response = ResponseEntity.noContent()
+                    .header(Preferences.PREFERENCE_APPLIED, Preferences.RETURN_MINIMAL);
+            if (matchedVersion != null) {
+                response.eTag(ETags.of(matchedVersion + 1));
+            }
+            return response.build();
+        }
+        DeviceDTO deviceDTO = deviceService.getDeviceById(id);
+        return ResponseEntity.ok().eTag(ETags.of(deviceDTO)).body(deviceDTO);
+    }
+    /**
+     * Deletes a device by its ID. Archived devices are answered with 404, like deleted ones.
      * @param id The ID of the device to delete.
+     * @param ifMatch The ETag the delete is conditional on, if any.
      * @return Response entity with status.
      */
 
     @DeleteMapping("/{id}")
-    @Operation(summary = "Delete a device", description = "Deletes a device by its ID.")
+    @Operation(summary = "Delete a device", description = "Deletes a device by its ID; archived devices are not found.")
     @ApiResponses(value = {
             @ApiResponse(responseCode = "204", description = "Device successfully deleted"),
-            @ApiResponse(responseCode = "404", description = "Device not found"),
+            @ApiResponse(responseCode = "404", description = "Device not found or archived"),
+            @ApiResponse(responseCode = "412", description = "Device no longer matches If-Match"),
             @ApiResponse(responseCode = "500", description = "Error deleting device")
     })
-    public ResponseEntity<Void> deleteDevice(@PathVariable("id") Long id) {
+    public ResponseEntity<Void> deleteDevice(@PathVariable("id") Long id,
+                                             @RequestHeader(name = HttpHeaders.IF_MATCH, required = false) String ifMatch) {
         try {
-            deviceService.deleteDevice(id);
+            writeIfMatch(ifMatch, version -> deviceService.deleteDevice(id, version));
             return ResponseEntity.noContent().build();
         } catch (DeviceNotFoundException e) {
             return ResponseEntity.status(404).build();
         }
     }
     /**
-     * Searches devices by brand.
-     * @param brand The brand of the devices to search for.
-     * @return A list of devices with the specified brand.
+     * Deletes several devices by their IDs in one transaction.
+     * @param ids The IDs of the devices to delete; unknown IDs are ignored.
+     * @return The number of deleted devices.
+     */
+
+    @DeleteMapping
+    @Operation(summary = "Delete devices in bulk", description = "Deletes up to " + DeviceService.MAX_BATCH_SIZE
+            + " devices by id in one transaction using set-based deletes and returns how many were deleted.")
+    @ApiResponses(value = {
+            @ApiResponse(responseCode = "200", description = "Devices successfully deleted"),
+            @ApiResponse(responseCode = "400", description = "Missing or invalid ids"),
+            @ApiResponse(responseCode = "500", description = "Error deleting devices")
+    })
+    public ResponseEntity<DeleteResult> deleteDevices(
+            @RequestParam("ids") @NotEmpty @Size(max = DeviceService.MAX_BATCH_SIZE) List<Long> ids) {
+        return ResponseEntity.ok(new DeleteResult(deviceService.deleteDevices(ids)));
+    }
+    /**
+     * Deletes every device of a brand.
+     * @param brand The brand of the devices to delete, matched exactly.
+     * @return The number of deleted devices.
+     */
+
+    @DeleteMapping("/search/brand/{brand}")
+    @Operation(summary = "Delete devices by brand", description = "Deletes all devices with exactly the given brand "
+            + "in chunks, each in its own transaction, and returns how many were deleted.")
+    @ApiResponses(value = {
+            @ApiResponse(responseCode = "200", description = "Devices successfully deleted"),
+            @ApiResponse(responseCode = "500", description = "Error deleting devices by brand")
+    })
+    public ResponseEntity<DeleteResult> deleteDevicesByBrand(@PathVariable("brand") String brand) {
+        return ResponseEntity.ok(new DeleteResult(deviceService.deleteDevicesByBrand(brand)));
+    }
+    /**
+     * Searches devices by brand, one page at a time.
+     * @param brand The brand, or brand prefix, of the devices to search for.
+     * @param match How the brand is matched: exactly, ignoring case, or as a case-insensitive prefix.
+     * @param after Opaque cursor from the previous page; omit it to start at the beginning.
+     * @param limit The maximum number of devices to return.
+     * @return A page of devices with the specified brand.
      */
 
     @GetMapping("/search/brand/{brand}")
-    @Operation(summary = "Search devices by brand", description = "Searches for devices by their brand.")
+    @Operation(summary = "Search devices by brand", description = "Searches for devices by their brand. "
+            + "Supports exact, case-insensitive and prefix matching, page by page.")
     @ApiResponses(value = {
             @ApiResponse(responseCode = "200", description = "Devices retrieved successfully"),
+            @ApiResponse(responseCode = "400", description = "Invalid match mode or cursor"),
             @ApiResponse(responseCode = "404", description = "Devices not found"),
             @ApiResponse(responseCode = "500", description = "Error searching devices by brand")
     })
-    public ResponseEntity<List<DeviceDTO>> searchDevicesByBrand(@PathVariable("brand") String brand) {
-        List<DeviceDTO> devices = deviceService.searchDevicesByBrand(brand);
-        if (devices.isEmpty()) {
+    public ResponseEntity<DevicePage> searchDevicesByBrand(@PathVariable("brand") String brand,
+                                                           @RequestParam(name = "match", defaultValue = "EXACT") BrandMatch match,
+                                                           @RequestParam(name = "after", required = false) String after,
+                                                           @RequestParam(name = "limit", defaultValue = "100") int limit) {
+        DevicePage devices = deviceService.searchDevicesByBrand(brand, match, after, limit);
+        if (devices.items().isEmpty()) {
+            return ResponseEntity.status(404).build();
+        }
+        return ResponseEntity.ok(devices);
+    }
+    /**
+     * Searches devices whose name contains the given text, one page at a time.
+     * @param name The text to search for, ignoring case.
+     * @param after Opaque cursor from the previous page; omit it to start at the beginning.
+     * @param limit The maximum number of devices to return.
+     * @return A page of devices with a matching name, best matches first.
+     */
+
+    @GetMapping("/search/name/{name}")
+    @Operation(summary = "Search devices by name", description = "Searches for devices whose name contains the given "
+            + "text, ignoring case, using an in-memory trigram index. Exact matches come first, then prefixes, then "
+            + "matches at a word start, then any other match. The text must have at least "
+            + DeviceNameIndex.MIN_QUERY_LENGTH + " characters.")
+    @ApiResponses(value = {
+            @ApiResponse(responseCode = "200", description = "Devices retrieved successfully"),
+            @ApiResponse(responseCode = "400", description = "Text too short or invalid cursor"),
+            @ApiResponse(responseCode = "404", description = "Devices not found"),
+            @ApiResponse(responseCode = "500", description = "Error searching devices by name")
+    })
+    public ResponseEntity<DevicePage> searchDevicesByName(@PathVariable("name") String name,
+                                                          @RequestParam(name = "after", required = false) String after,
+                                                          @RequestParam(name = "limit", defaultValue = "100") int limit) {
+        DevicePage devices = deviceService.searchDevicesByName(name, after, limit);
+        if (devices.items().isEmpty()) {
+            return ResponseEntity.status(404).build();
+        }
+        return ResponseEntity.ok(devices);
+    }
+    /**
+     * Searches devices created in a time range, one page at a time.
+     * @param from The start of the range, inclusive.
+     * @param to The end of the range, exclusive.
+     * @param brand The brand of the devices, matched exactly; omit it for every brand.
+     * @param after Opaque cursor from the previous page; omit it to start at the beginning.
+     * @param limit The maximum number of devices to return.
+     * @return A page of devices created in the range, ordered by creation time.
+     */
+
+    @GetMapping("/search/created")
+    @Operation(summary = "Search devices by creation time", description = "Searches for devices created in a time "
+            + "range, optionally of one brand, ordered by creation time and id, page by page. Archived months "
+            + "in the range are included.")
+    @ApiResponses(value = {
+            @ApiResponse(responseCode = "200", description = "Devices retrieved successfully"),
+            @ApiResponse(responseCode = "400", description = "Invalid range or cursor"),
+            @ApiResponse(responseCode = "404", description = "Devices not found"),
+            @ApiResponse(responseCode = "500", description = "Error searching devices by creation time")
+    })
+    public ResponseEntity<DevicePage> searchDevicesByCreationTime(
+            @RequestParam("from") @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime from,
+            @RequestParam("to") @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime to,
+            @RequestParam(name = "brand", required = false) String brand,
+            @RequestParam(name = "after", required = false) String after,
+            @RequestParam(name = "limit", defaultValue = "100") int limit) {
+        DevicePage devices = deviceService.searchDevicesByCreationTime(from, to, brand, after, limit);
+        if (devices.items().isEmpty()) {
             return ResponseEntity.status(404).build();
         }
         return ResponseEntity.ok(devices);
     }
+    /**
+     * Moves the devices of past months into monthly archive tables.
+     * @param before The first month to keep, such as 2024-06; devices created earlier are archived.
+     * @return The number of archived devices and their months.
+     */
+
+    @PostMapping("/archive")
+    @Operation(summary = "Archive old devices", description = "Moves every device created before the given month "
+            + "into the archive table of its month, in chunks, each in its own transaction. Archived devices are "
+            + "only found by creation time searches.")
+    @ApiResponses(value = {
+            @ApiResponse(responseCode = "200", description = "Devices archived successfully"),
+            @ApiResponse(responseCode = "400", description = "Invalid or future month"),
+            @ApiResponse(responseCode = "500", description = "Error archiving devices")
+    })
+    public ResponseEntity<ArchiveResult> archiveDevices(@RequestParam("before") YearMonth before) {
+        return ResponseEntity.ok(archiveService.archiveBefore(before));
+    }
+    /**
+     * Returns the number of devices per brand.
+     * The counts are kept in memory and maintained by every write, so this never queries the devices table.
+     * @return The brands that have devices, ordered by brand, with their device counts.
+     */
+
+    @GetMapping("/stats/brands")
+    @Operation(summary = "Count devices per brand", description = "Returns the number of devices of every brand "
+            + "from in-memory counters that are maintained by each committed write.")
+    @ApiResponses(value = {
+            @ApiResponse(responseCode = "200", description = "Counts retrieved successfully")
+    })
+    public ResponseEntity<List<BrandCount>> getDeviceCountsByBrand() {
+        return ResponseEntity.ok(brandStatisticsService.getDeviceCountsByBrand());
+    }
+
+    /**
+     * Follows the committed device changes as Server-Sent Events.
+     * Each event carries the sequence number of its change as id; a client resumes after the last one it
+     * received through the {@code after} parameter or the {@code Last-Event-ID} header of a reconnect.
+     * @param after       The sequence number of the last change the client has seen; without it, only new changes are sent.
+     * @param lastEventId The id of the last event received before reconnecting, as sent by {@code EventSource}.
+     * @return The stream of changes, ending with a {@code reset} event if the client fell too far behind.
+     */
+    @GetMapping(value = "/changes", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+    @Operation(summary = "Follow device changes", description = "Streams created, updated, deleted and archived "
+            + "devices as Server-Sent Events once their transaction has committed, each with an increasing "
+            + "sequence number as event id to resume from.")
+    @ApiResponses(value = {
+            @ApiResponse(responseCode = "200", description = "Changes streamed successfully"),
+            @ApiResponse(responseCode = "400", description = "Invalid Last-Event-ID")
+    })
+    public Flux<ServerSentEvent<Object>> getChanges(@RequestParam(name = "after", required = false) Long after,
+                                                    @RequestHeader(name = ChangeEvents.LAST_EVENT_ID, required = false) String lastEventId) {
+        return ChangeEvents.of(changeFeed.changesAfter(ChangeEvents.position(after, lastEventId)));
+    }
 }
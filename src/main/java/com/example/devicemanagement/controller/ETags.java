@@ -0,0 +1,149 @@
+package com.example.devicemanagement.controller;
+
+import com.example.devicemanagement.dto.DeviceDTO;
+import com.example.devicemanagement.dto.DevicePage;
+import com.example.devicemanagement.exception.InvalidRequestException;
+import org.springframework.util.DigestUtils;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * Entity tags for devices and pages of devices, and evaluation of the conditional request headers.
+ *
+ * A device's tag is its version, so it is known without serializing the device; it is a strong tag,
+ * as writes are made conditional on it. A page's tag is a digest of the ids and versions of its
+ * devices and of the next cursor, which together determine the content of the page. It is a weak tag,
+ * since the same page is sent in several encodings and compressions; servers do not compress
+ * responses with a strong tag.
+ */
+public final class ETags {
+
+    /**
+     * A version no device has: a write conditional on it fails with 412, or with 404 if the device does not exist.
+     */
+    public static final long NO_VERSION = -1L;
+
+    private ETags() {
+    }
+
+    /**
+     * Returns the entity tag of a device.
+     * @param device The device, including its version.
+     * @return The quoted entity tag.
+     */
+    public static String of(DeviceDTO device) {
+        return of(device.version());
+    }
+
+    /**
+     * Returns the entity tag of a device at a given version.
+     * @param version The version of the device.
+     * @return The quoted entity tag.
+     */
+    public static String of(Long version) {
+        return "\"" + version + "\"";
+    }
+
+    /**
+     * Returns the entity tag of a page of devices.
+     * @param page The page, whose devices include their versions.
+     * @return The weak entity tag.
+     */
+    public static String of(DevicePage page) {
+        byte[] cursor = page.nextCursor() != null ? page.nextCursor().getBytes(StandardCharsets.UTF_8) : new byte[0];
+        ByteBuffer buffer = ByteBuffer.allocate(page.items().size() * 2 * Long.BYTES + cursor.length);
+        for (DeviceDTO device : page.items()) {
+            buffer.putLong(device.id()).putLong(device.version() != null ? device.version() : -1L);
+        }
+        buffer.put(cursor);
+        return "W/\"" + DigestUtils.md5DigestAsHex(buffer.array()) + "\"";
+    }
+
+    /**
+     * Checks an If-None-Match header against the current entity tag, using weak comparison.
+     * @param ifNoneMatch The header value, or {@code null} if the request has none.
+     * @param eTag        The current entity tag.
+     * @return {@code true} if the client's copy is current and a 304 can be sent.
+     */
+    public static boolean matches(String ifNoneMatch, String eTag) {
+        if (ifNoneMatch == null) {
+            return false;
+        }
+        String opaqueTag = opaque(eTag);
+        for (String candidate : ifNoneMatch.split(",")) {
+            String tag = candidate.trim();
+            if (tag.equals("*") || opaque(tag).equals(opaqueTag)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private static String opaque(String tag) {
+        return tag.startsWith("W/") ? tag.substring(2) : tag;
+    }
+
+    /**
+     * Extracts the device versions a write is conditional on from an If-Match header.
+     * If-Match uses strong comparison, so a weak tag never matches, and neither does a strong tag that is not
+     * a device version; a list matches if any of its tags does.
+     * @param ifMatch The header value, or {@code null} if the request has none.
+     * @return The listed versions, in order and without repeats; empty if the write is unconditional, and only
+     *         {@link #NO_VERSION} if no listed tag can match.
+     * @throws InvalidRequestException if the header is neither {@code *} nor a list of entity tags.
+     */
+    public static List<Long> versions(String ifMatch) {
+        if (ifMatch == null || ifMatch.trim().equals("*")) {
+            return List.of();
+        }
+        Set<Long> versions = new LinkedHashSet<>();
+        int i = 0;
+        int length = ifMatch.length();
+        while (i < length) {
+            char c = ifMatch.charAt(i);
+            if (c == ',' || c == ' ' || c == '\t') { // Empty list elements are allowed.
+                i++;
+                continue;
+            }
+            boolean weak = ifMatch.startsWith("W/", i);
+            int open = weak ? i + 2 : i;
+            int close = open < length && ifMatch.charAt(open) == '"' ? ifMatch.indexOf('"', open + 1) : -1;
+            if (close < 0) {
+                throw new InvalidRequestException("Invalid If-Match header: " + ifMatch);
+            }
+            Long version = weak ? null : parseVersion(ifMatch.substring(open + 1, close));
+            if (version != null) {
+                versions.add(version);
+            }
+            i = close + 1;
+            while (i < length && (ifMatch.charAt(i) == ' ' || ifMatch.charAt(i) == '\t')) {
+                i++;
+            }
+            if (i < length && ifMatch.charAt(i) != ',') {
+                throw new InvalidRequestException("Invalid If-Match header: " + ifMatch);
+            }
+        }
+        if (versions.isEmpty()) {
+            return List.of(NO_VERSION);
+        }
+        return List.copyOf(versions);
+    }
+
+    /**
+     * Parses the opaque part of a strong tag as a device version, or returns {@code null} if it is not one.
+     */
+    private static Long parseVersion(String opaque) {
+        if (opaque.isEmpty() || !opaque.chars().allMatch(c -> c >= '0' && c <= '9')) {
+            return null;
+        }
+        try {
+            return Long.parseLong(opaque);
+        } catch (NumberFormatException e) {
+            return null; // Too large to be a version.
+        }
+    }
+}
@@ -0,0 +1,50 @@
+package com.example.devicemanagement.controller;
+
+/**
+ * Evaluation of the RFC 7240 {@code Prefer} request header.
+ */
+public final class Preferences {
+
+    /**
+     * Name of the request header carrying the client's preferences.
+     */
+    public static final String PREFER = "Prefer";
+
+    /**
+     * Name of the response header listing the preferences that were honoured.
+     */
+    public static final String PREFERENCE_APPLIED = "Preference-Applied";
+
+    /**
+     * Asks for a write to be answered without a representation of the resource.
+     */
+    public static final String RETURN_MINIMAL = "return=minimal";
+
+    /**
+     * Asks for a request to be accepted now and processed later.
+     */
+    public static final String RESPOND_ASYNC = "respond-async";
+
+    private Preferences() {
+    }
+
+    /**
+     * Checks whether a Prefer header contains a preference, ignoring case, whitespace and preference parameters.
+     * @param prefer     The header value, or {@code null} if the request has none.
+     * @param preference The preference, e.g. {@link #RETURN_MINIMAL}.
+     * @return {@code true} if the client asked for the preference.
+     */
+    public static boolean contains(String prefer, String preference) {
+        if (prefer == null) {
+            return false;
+        }
+        for (String candidate : prefer.split(",")) {
+            int parameters = candidate.indexOf(';');
+            String token = (parameters < 0 ? candidate : candidate.substring(0, parameters)).replace(" ", "");
+            if (token.equalsIgnoreCase(preference)) {
+                return true;
+            }
+        }
+        return false;
+    }
+}
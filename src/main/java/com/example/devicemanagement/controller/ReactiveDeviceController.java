@@ -0,0 +1,502 @@
+package com.example.devicemanagement.controller;
+
+import com.example.devicemanagement.dto.ArchiveResult;
+import com.example.devicemanagement.dto.BrandCount;
+import com.example.devicemanagement.dto.BrandMatch;
+import com.example.devicemanagement.dto.DeleteResult;
+import com.example.devicemanagement.dto.DeviceDTO;
+import com.example.devicemanagement.dto.DevicePage;
+import com.example.devicemanagement.dto.DevicePatch;
+import com.example.devicemanagement.exception.DeviceNotFoundException;
+import com.example.devicemanagement.exception.DeviceVersionMismatchException;
+import com.example.devicemanagement.service.BrandStatisticsService;
+import com.example.devicemanagement.service.DeviceArchiveService;
+import com.example.devicemanagement.service.DeviceChangeFeed;
+import com.example.devicemanagement.service.DeviceService;
+import com.example.devicemanagement.service.DeviceNameIndex;
+import com.example.devicemanagement.service.ReactiveDeviceService;
+import io.swagger.v3.oas.annotations.Operation;
+import io.swagger.v3.oas.annotations.responses.ApiResponse;
+import io.swagger.v3.oas.annotations.responses.ApiResponses;
+import io.swagger.v3.oas.annotations.tags.Tag;
+import jakarta.validation.Valid;
+import jakarta.validation.constraints.NotEmpty;
+import jakarta.validation.constraints.Size;
+import org.springframework.context.annotation.Profile;
+import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.http.codec.ServerSentEvent;
+import org.springframework.web.bind.annotation.*;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.core.scheduler.Schedulers;
+
+import java.time.LocalDateTime;
+import java.time.YearMonth;
+import java.util.List;
+import java.util.Optional;
+import java.util.function.Function;
+
+/**
+ * Non-blocking REST controller for managing devices, active with the reactive profile.
+ * Mirrors {@link DeviceController}: same paths, payloads and status codes.
+ * The list and search endpoints additionally stream newline-delimited JSON when asked for
+ * {@code application/x-ndjson}; devices are then written as they are read, at the pace of the client.
+ */
+@RestController
+@RequestMapping("/devices")
+@Profile("reactive")
+@Tag(name = "Device Management", description = "APIs for managing devices")
+public class ReactiveDeviceController {
+
+    private final ReactiveDeviceService deviceService;
+
+    private final BrandStatisticsService brandStatisticsService;
+
+    private final DeviceArchiveService archiveService;
+
+    private final DeviceChangeFeed changeFeed;
+
+    public ReactiveDeviceController(ReactiveDeviceService deviceService, BrandStatisticsService brandStatisticsService,
+                                    DeviceArchiveService archiveService, DeviceChangeFeed changeFeed) {
+        this.deviceService = deviceService;
+        this.brandStatisticsService = brandStatisticsService;
+        this.archiveService = archiveService;
+        this.changeFeed = changeFeed;
+    }
+    /**
+     * Adds a new device.
+     * @param deviceDTO Data transfer object containing device details.
+     * @return The created device.
+     */
+    @PostMapping
+    @Operation(summary = "Add a new device", description = "Creates a new device and returns the created device.")
+    @ApiResponses(value = {
+            @ApiResponse(responseCode = "201", description = "Device successfully created"),
+            @ApiResponse(responseCode = "400", description = "Invalid input"),
+            @ApiResponse(responseCode = "500", description = "Error adding device")
+    })
+    public Mono<ResponseEntity<DeviceDTO>> addDevice(@Valid @RequestBody DeviceDTO deviceDTO) {
+        return deviceService.addDevice(deviceDTO)
+                .map(createdDevice -> ResponseEntity.status(201).body(createdDevice));
+    }
+    /**
+     * Adds several devices in one request.
+     * @param deviceDTOs Data transfer objects containing the device details.
+     * @return The ids of the created devices, in the order of the request.
+     */
+    @PostMapping("/batch")
+    @Operation(summary = "Add devices in bulk", description = "Creates up to " + DeviceService.MAX_BATCH_SIZE
+            + " devices in one transaction and returns their ids in request order.")
+    @ApiResponses(value = {
+            @ApiResponse(responseCode = "201", description = "Devices successfully created"),
+            @ApiResponse(responseCode = "400", description = "Invalid input"),
+            @ApiResponse(responseCode = "500", description = "Error adding devices")
+    })
+    public Mono<ResponseEntity<List<Long>>> addDevices(
+            @RequestBody @NotEmpty @Size(max = DeviceService.MAX_BATCH_SIZE) List<@Valid DeviceDTO> deviceDTOs) {
+        return deviceService.addDevices(deviceDTOs)
+                .map(ids -> ResponseEntity.status(201).body(ids));
+    }
+    /**
+     * Retrieves a device by its ID, answering 304 if If-None-Match still matches its ETag.
+     * Archived devices are answered with 404, like deleted ones.
+     * @param id The ID of the device.
+     * @param ifNoneMatch The ETag of the client's copy, if any.
+     * @return The device data.
+     */
+
+    @GetMapping("/{id}")
+    @Operation(summary = "Get a device by ID", description = "Retrieves a device by its ID. "
+            + "Archived devices are not found; they are only exported and searched by creation time.")
+    @ApiResponses(value = {
+            @ApiResponse(responseCode = "200", description = "Device found"),
+            @ApiResponse(responseCode = "304", description = "Device not modified"),
+            @ApiResponse(responseCode = "404", description = "Device not found or archived"),
+            @ApiResponse(responseCode = "500", description = "Error retrieving device by ID")
+    })
+    public Mono<ResponseEntity<DeviceDTO>> getDeviceById(@PathVariable("id") Long id,
+                                                         @RequestHeader(name = HttpHeaders.IF_NONE_MATCH, required = false) String ifNoneMatch) {
+        return deviceService.getDeviceById(id)
+                .map(deviceDTO -> notModifiedOrOk(ifNoneMatch, ETags.of(deviceDTO), deviceDTO))
+                .onErrorResume(DeviceNotFoundException.class, e -> Mono.just(ResponseEntity.status(404).body(null)));
+    }
+    /**
+     * Retrieves a page of devices, ordered by id. Archived devices are not listed.
+     * @param after Opaque cursor from the previous page; omit it to start at the beginning.
+     * @param limit The maximum number of devices to return.
+     * @param ifNoneMatch The ETag of the client's copy of the page, if any.
+     * @return A page of devices and the cursor for the next page.
+     */
+
+    @GetMapping
+    @Operation(summary = "Get all devices", description = "Retrieves devices page by page, ordered by id; archived devices are not listed. "
+            + "Pass the returned nextCursor as 'after' to read the next page.")
+    @ApiResponses(value = {
+            @ApiResponse(responseCode = "200", description = "Devices retrieved successfully"),
+            @ApiResponse(responseCode = "304", description = "Page not modified"),
+            @ApiResponse(responseCode = "400", description = "Invalid cursor"),
+            @ApiResponse(responseCode = "500", description = "Error retrieving devices")
+    })
+    public Mono<ResponseEntity<DevicePage>> getAllDevices(@RequestParam(name = "after", required = false) String after,
+                                                          @RequestParam(name = "limit", defaultValue = "100") int limit,
+                                                          @RequestHeader(name = HttpHeaders.IF_NONE_MATCH, required = false) String ifNoneMatch) {
+        return deviceService.getAllDevices(after, limit)
+                .map(devices -> notModifiedOrOk(ifNoneMatch, ETags.of(devices), devices));
+    }
+
+    /**
+     * Streams the devices after the cursor, ordered by id, as newline-delimited JSON.
+     * @param after Opaque cursor from a page; omit it to start at the beginning.
+     * @return The devices, one JSON document per line.
+     */
+
+    @GetMapping(produces = MediaType.APPLICATION_NDJSON_VALUE)
+    @Operation(summary = "Stream all devices", description = "Streams the devices after the cursor, ordered by id, "
+            + "as newline-delimited JSON, at the pace the client reads them.")
+    @ApiResponses(value = {
+            @ApiResponse(responseCode = "200", description = "Devices streamed successfully"),
+            @ApiResponse(responseCode = "400", description = "Invalid cursor"),
+            @ApiResponse(responseCode = "500", description = "Error retrieving devices")
+    })
+    public Flux<DeviceDTO> streamDevices(@RequestParam(name = "after", required = false) String after) {
+        return deviceService.streamDevices(after);
+    }
+
+    /**
+     * Exports all devices as newline-delimited JSON, archived ones included.
+     * @return The devices, one JSON document per line.
+     */
+
+    @GetMapping(value = "/export", produces = MediaType.APPLICATION_NDJSON_VALUE)
+    @Operation(summary = "Export all devices", description = "Streams all devices as newline-delimited JSON: "
+            + "those of the devices table ordered by id, then the archived ones, month by month.")
+    @ApiResponses(value = {
+            @ApiResponse(responseCode = "200", description = "Devices streamed successfully"),
+            @ApiResponse(responseCode = "500", description = "Error exporting devices")
+    })
+    public Flux<DeviceDTO> exportDevices() {
+        return deviceService.exportDevices();
+    }
+
+    /**
+     * Updates an existing device. Archived devices are answered with 404, like deleted ones.
+     * @param id The ID of the device to update.
+     * @param updatedDeviceDTO Data transfer object containing updated device details.
+     * @param ifMatch The ETag the update is conditional on, if any.
+     * @param prefer The client's preferences; {@code return=minimal} skips reading the device back.
+     * @return The updated device data, or no content if a minimal response was preferred.
+     */
+
+    @PutMapping("/{id}")
+    @Operation(summary = "Update a device", description = "Updates an existing device with new data; archived devices are not found. "
+            + "Send 'Prefer: return=minimal' to get 204 without the updated device.")
+    @ApiResponses(value = {
+            @ApiResponse(responseCode = "200", description = "Device updated successfully"),
+            @ApiResponse(responseCode = "204", description = "Device updated successfully, minimal response"),
+            @ApiResponse(responseCode = "404", description = "Device not found or archived"),
+            @ApiResponse(responseCode = "412", description = "Device no longer matches If-Match"),
+            @ApiResponse(responseCode = "500", description = "Error updating device")
+    })
+    public Mono<ResponseEntity<DeviceDTO>> updateDevice(@PathVariable("id") Long id, @Valid @RequestBody DeviceDTO updatedDeviceDTO,
+                                                        @RequestHeader(name = HttpHeaders.IF_MATCH, required = false) String ifMatch,
+                                                        @RequestHeader(name = Preferences.PREFER, required = false) String prefer) {
+        return writeIfMatch(ifMatch, version -> deviceService.updateDevice(id, updatedDeviceDTO, version))
+                .flatMap(matchedVersion -> updated(id, matchedVersion.orElse(null), prefer))
+                .onErrorResume(DeviceNotFoundException.class, e -> Mono.just(ResponseEntity.status(404).body(null)));
+    }
+
+    /**
+     * Partially updates an existing device with a JSON Merge Patch (RFC 7396): the fields present in the
+     * body replace those of the device, with one UPDATE statement that sets only those columns.
+     * Archived devices are answered with 404, like deleted ones.
+     * @param id The ID of the device to update.
+     * @param patch The fields to update.
+     * @param ifMatch The ETag the update is conditional on, if any.
+     * @param prefer The client's preferences; {@code return=minimal} skips reading the device back.
+     * @return The updated device data, or no content if a minimal response was preferred.
+     */
+    @PatchMapping(path = "/{id}", consumes = {DevicePatch.MEDIA_TYPE, MediaType.APPLICATION_JSON_VALUE})
+    @Operation(summary = "Partially update a device", description = "Partially updates an existing device with a JSON "
+            + "Merge Patch (" + DevicePatch.MEDIA_TYPE + "); fields cannot be removed, and archived devices are not found. "
+            + "Send 'Prefer: return=minimal' to get 204 without the updated device.")
+    @ApiResponses(value = {
+            @ApiResponse(responseCode = "200", description = "Device partially updated successfully"),
+            @ApiResponse(responseCode = "204", description = "Device partially updated successfully, minimal response"),
+            @ApiResponse(responseCode = "400", description = "Unknown, duplicate or null field, or invalid value"),
+            @ApiResponse(responseCode = "404", description = "Device not found or archived"),
+            @ApiResponse(responseCode = "412", description = "Device no longer matches If-Match"),
+            @ApiResponse(responseCode = "415", description = "Body is neither a merge patch nor JSON"),
+            @ApiResponse(responseCode = "500", description = "Error partially updating device")
+    })
+    public Mono<ResponseEntity<DeviceDTO>> updateDevicePartially(@PathVariable("id") Long id, @RequestBody @Valid DevicePatch patch,
+                                                                 @RequestHeader(name = HttpHeaders.IF_MATCH, required = false) String ifMatch,
+                                                                 @RequestHeader(name = Preferences.PREFER, required = false) String prefer) {
+        return writeIfMatch(ifMatch, version -> deviceService.updateDevicePartially(id, patch, version))
+                .flatMap(matchedVersion -> updated(id, matchedVersion.orElse(null), prefer))
+                .onErrorResume(DeviceNotFoundException.class, e -> Mono.just(ResponseEntity.status(404).body(null)));
+    }
+
+    /**
+     * Runs a write conditional on each version listed in the If-Match header in turn, until one matches.
+     * Each attempt is a conditional write of its own, so a version that changes in between is never overwritten.
+     * @return The version the write matched, or empty if it was unconditional; a
+     *         {@link DeviceVersionMismatchException} if no listed version matched.
+     */
+    private static Mono<Optional<Long>> writeIfMatch(String ifMatch, Function<Long, Mono<Void>> write) {
+        List<Long> versions = ETags.versions(ifMatch);
+        if (versions.isEmpty()) {
+            return Mono.defer(() -> write.apply(null)).thenReturn(Optional.empty());
+        }
+        Long last = versions.get(versions.size() - 1);
+        Mono<Optional<Long>> attempt = Mono.defer(() -> write.apply(last)).thenReturn(Optional.of(last));
+        for (int i = versions.size() - 2; i >= 0; i--) {
+            Long version = versions.get(i);
+            Mono<Optional<Long>> next = attempt;
+            attempt = Mono.defer(() -> write.apply(version)).thenReturn(Optional.of(version))
+                    .onErrorResume(DeviceVersionMismatchException.class, e -> next);
+        }
+        return attempt;
+    }
+
+    /**
+     * Answers a successful update, reading the device back only if the client wants it.
+     */
+    private Mono<ResponseEntity<DeviceDTO>> updated(Long id, Long matchedVersion, String prefer) {
+        if (Preferences.contains(prefer, Preferences.RETURN_MINIMAL)) {
+            ResponseEntity.HeadersBuilder<?> response = ResponseEntity.noContent()
+                    .header(Preferences.PREFERENCE_APPLIED, Preferences.RETURN_MINIMAL);
+            if (matchedVersion != null) {
+                response.eTag(ETags.of(matchedVersion + 1));
+            }
+            return Mono.just(response.build());
+        }
+        return deviceService.getDeviceById(id)
+                .map(deviceDTO -> ResponseEntity.ok().eTag(ETags.of(deviceDTO)).body(deviceDTO));
+    }
+    /**
+     * Deletes a device by its ID. Archived devices are answered with 404, like deleted ones.
+     * @param id The ID of the device to delete.
+     * @param ifMatch The ETag the delete is conditional on, if any.
+     * @return Response entity with status.
+     */
+
+    @DeleteMapping("/{id}")
+    @Operation(summary = "Delete a device", description = "Deletes a device by its ID; archived devices are not found.")
+    @ApiResponses(value = {
+            @ApiResponse(responseCode = "204", description = "Device successfully deleted"),
+            @ApiResponse(responseCode = "404", description = "Device not found or archived"),
+            @ApiResponse(responseCode = "412", description = "Device no longer matches If-Match"),
+            @ApiResponse(responseCode = "500", description = "Error deleting device")
+    })
+    public Mono<ResponseEntity<Void>> deleteDevice(@PathVariable("id") Long id,
+                                                   @RequestHeader(name = HttpHeaders.IF_MATCH, required = false) String ifMatch) {
+        return writeIfMatch(ifMatch, version -> deviceService.deleteDevice(id, version))
+                .thenReturn(ResponseEntity.noContent().<Void>build())
+                .onErrorResume(DeviceNotFoundException.class, e -> Mono.just(ResponseEntity.status(404).build()));
+    }
+    /**
+     * Deletes several devices by their IDs in one transaction.
+     * @param ids The IDs of the devices to delete; unknown IDs are ignored.
+     * @return The number of deleted devices.
+     */
+
+    @DeleteMapping
+    @Operation(summary = "Delete devices in bulk", description = "Deletes up to " + DeviceService.MAX_BATCH_SIZE
+            + " devices by id in one transaction using set-based deletes and returns how many were deleted.")
+    @ApiResponses(value = {
+            @ApiResponse(responseCode = "200", description = "Devices successfully deleted"),
+            @ApiResponse(responseCode = "400", description = "Missing or invalid ids"),
+            @ApiResponse(responseCode = "500", description = "Error deleting devices")
+    })
+    public Mono<DeleteResult> deleteDevices(
+            @RequestParam("ids") @NotEmpty @Size(max = DeviceService.MAX_BATCH_SIZE) List<Long> ids) {
+        return deviceService.deleteDevices(ids).map(DeleteResult::new);
+    }
+    /**
+     * Deletes every device of a brand.
+     * @param brand The brand of the devices to delete, matched exactly.
+     * @return The number of deleted devices.
+     */
+
+    @DeleteMapping("/search/brand/{brand}")
+    @Operation(summary = "Delete devices by brand", description = "Deletes all devices with exactly the given brand "
+            + "in chunks, each in its own transaction, and returns how many were deleted.")
+    @ApiResponses(value = {
+            @ApiResponse(responseCode = "200", description = "Devices successfully deleted"),
+            @ApiResponse(responseCode = "500", description = "Error deleting devices by brand")
+    })
+    public Mono<DeleteResult> deleteDevicesByBrand(@PathVariable("brand") String brand) {
+        return deviceService.deleteDevicesByBrand(brand).map(DeleteResult::new);
+    }
+    /**
+     * Searches devices by brand, one page at a time.
+     * @param brand The brand, or brand prefix, of the devices to search for.
+     * @param match How the brand is matched: exactly, ignoring case, or as a case-insensitive prefix.
+     * @param after Opaque cursor from the previous page; omit it to start at the beginning.
+     * @param limit The maximum number of devices to return.
+     * @return A page of devices with the specified brand.
+     */
+
+    @GetMapping("/search/brand/{brand}")
+    @Operation(summary = "Search devices by brand", description = "Searches for devices by their brand. "
+            + "Supports exact, case-insensitive and prefix matching, page by page.")
+    @ApiResponses(value = {
+            @ApiResponse(responseCode = "200", description = "Devices retrieved successfully"),
+            @ApiResponse(responseCode = "400", description = "Invalid match mode or cursor"),
+            @ApiResponse(responseCode = "404", description = "Devices not found"),
+            @ApiResponse(responseCode = "500", description = "Error searching devices by brand")
+    })
+    public Mono<ResponseEntity<DevicePage>> searchDevicesByBrand(@PathVariable("brand") String brand,
+                                                                 @RequestParam(name = "match", defaultValue = "EXACT") BrandMatch match,
+                                                                 @RequestParam(name = "after", required = false) String after,
+                                                                 @RequestParam(name = "limit", defaultValue = "100") int limit) {
+        return deviceService.searchDevicesByBrand(brand, match, after, limit)
+                .map(devices -> devices.items().isEmpty()
+                        ? ResponseEntity.status(404).<DevicePage>build()
+                        : ResponseEntity.ok(devices));
+    }
+
+    /**
+     * Streams the devices with a matching brand as newline-delimited JSON.
+     * @param brand The brand, or brand prefix, of the devices to search for.
+     * @param match How the brand is matched: exactly, ignoring case, or as a case-insensitive prefix.
+     * @param after Opaque cursor from a page; omit it to start at the beginning.
+     * @return The matching devices, one JSON document per line; an empty body if there are none.
+     */
+
+    @GetMapping(value = "/search/brand/{brand}", produces = MediaType.APPLICATION_NDJSON_VALUE)
+    @Operation(summary = "Stream devices by brand", description = "Streams the devices with a matching brand "
+            + "as newline-delimited JSON, at the pace the client reads them.")
+    @ApiResponses(value = {
+            @ApiResponse(responseCode = "200", description = "Devices streamed successfully"),
+            @ApiResponse(responseCode = "400", description = "Invalid match mode or cursor"),
+            @ApiResponse(responseCode = "500", description = "Error searching devices by brand")
+    })
+    public Flux<DeviceDTO> streamDevicesByBrand(@PathVariable("brand") String brand,
+                                                @RequestParam(name = "match", defaultValue = "EXACT") BrandMatch match,
+                                                @RequestParam(name = "after", required = false) String after) {
+        return deviceService.streamDevicesByBrand(brand, match, after);
+    }
+    /**
+     * Searches devices whose name contains the given text, one page at a time.
+     * @param name The text to search for, ignoring case.
+     * @param after Opaque cursor from the previous page; omit it to start at the beginning.
+     * @param limit The maximum number of devices to return.
+     * @return A page of devices with a matching name, best matches first.
+     */
+
+    @GetMapping("/search/name/{name}")
+    @Operation(summary = "Search devices by name", description = "Searches for devices whose name contains the given "
+            + "text, ignoring case, using an in-memory trigram index. Exact matches come first, then prefixes, then "
+            + "matches at a word start, then any other match. The text must have at least "
+            + DeviceNameIndex.MIN_QUERY_LENGTH + " characters.")
+    @ApiResponses(value = {
+            @ApiResponse(responseCode = "200", description = "Devices retrieved successfully"),
+            @ApiResponse(responseCode = "400", description = "Text too short or invalid cursor"),
+            @ApiResponse(responseCode = "404", description = "Devices not found"),
+            @ApiResponse(responseCode = "500", description = "Error searching devices by name")
+    })
+    public Mono<ResponseEntity<DevicePage>> searchDevicesByName(@PathVariable("name") String name,
+                                                                @RequestParam(name = "after", required = false) String after,
+                                                                @RequestParam(name = "limit", defaultValue = "100") int limit) {
+        return deviceService.searchDevicesByName(name, after, limit)
+                .map(devices -> devices.items().isEmpty()
+                        ? ResponseEntity.status(404).<DevicePage>build()
+                        : ResponseEntity.ok(devices));
+    }
+    /**
+     * Searches devices created in a time range, one page at a time.
+     * @param from The start of the range, inclusive.
+     * @param to The end of the range, exclusive.
+     * @param brand The brand of the devices, matched exactly; omit it for every brand.
+     * @param after Opaque cursor from the previous page; omit it to start at the beginning.
+     * @param limit The maximum number of devices to return.
+     * @return A page of devices created in the range, ordered by creation time.
+     */
+
+    @GetMapping("/search/created")
+    @Operation(summary = "Search devices by creation time", description = "Searches for devices created in a time "
+            + "range, optionally of one brand, ordered by creation time and id, page by page. Archived months "
+            + "in the range are included.")
+    @ApiResponses(value = {
+            @ApiResponse(responseCode = "200", description = "Devices retrieved successfully"),
+            @ApiResponse(responseCode = "400", description = "Invalid range or cursor"),
+            @ApiResponse(responseCode = "404", description = "Devices not found"),
+            @ApiResponse(responseCode = "500", description = "Error searching devices by creation time")
+    })
+    public Mono<ResponseEntity<DevicePage>> searchDevicesByCreationTime(
+            @RequestParam("from") @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime from,
+            @RequestParam("to") @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime to,
+            @RequestParam(name = "brand", required = false) String brand,
+            @RequestParam(name = "after", required = false) String after,
+            @RequestParam(name = "limit", defaultValue = "100") int limit) {
+        return deviceService.searchDevicesByCreationTime(from, to, brand, after, limit)
+                .map(devices -> devices.items().isEmpty()
+                        ? ResponseEntity.status(404).<DevicePage>build()
+                        : ResponseEntity.ok(devices));
+    }
+
+    /**
+     * Moves the devices of past months into monthly archive tables.
+     * @param before The first month to keep, such as 2024-06; devices created earlier are archived.
+     * @return The number of archived devices and their months.
+     */
+
+    @PostMapping("/archive")
+    @Operation(summary = "Archive old devices", description = "Moves every device created before the given month "
+            + "into the archive table of its month, in chunks, each in its own transaction. Archived devices are "
+            + "only found by creation time searches.")
+    @ApiResponses(value = {
+            @ApiResponse(responseCode = "200", description = "Devices archived successfully"),
+            @ApiResponse(responseCode = "400", description = "Invalid or future month"),
+            @ApiResponse(responseCode = "500", description = "Error archiving devices")
+    })
+    public Mono<ArchiveResult> archiveDevices(@RequestParam("before") YearMonth before) {
+        // Archiving is a rare, long-running maintenance job on JDBC, so it runs off the event loop.
+        return Mono.fromCallable(() -> archiveService.archiveBefore(before)).subscribeOn(Schedulers.boundedElastic());
+    }
+
+    private static <T> ResponseEntity<T> notModifiedOrOk(String ifNoneMatch, String eTag, T body) {
+        return ETags.matches(ifNoneMatch, eTag) ? ResponseEntity.status(304).eTag(eTag).<T>build()
+                : ResponseEntity.ok().eTag(eTag).body(body);
+    }
+    /**
+     * Returns the number of devices per brand.
+     * The counts are kept in memory and maintained by every write, so this never queries the devices table.
+     * @return The brands that have devices, ordered by brand, with their device counts.
+     */
+
+    @GetMapping("/stats/brands")
+    @Operation(summary = "Count devices per brand", description = "Returns the number of devices of every brand "
+            + "from in-memory counters that are maintained by each committed write.")
+    @ApiResponses(value = {
+            @ApiResponse(responseCode = "200", description = "Counts retrieved successfully")
+    })
+    public List<BrandCount> getDeviceCountsByBrand() {
+        return brandStatisticsService.getDeviceCountsByBrand(); // In memory, nothing to wait for.
+    }
+
+    /**
+     * Follows the committed device changes as Server-Sent Events.
+     * Each event carries the sequence number of its change as id; a client resumes after the last one it
+     * received through the {@code after} parameter or the {@code Last-Event-ID} header of a reconnect.
+     * @param after       The sequence number of the last change the client has seen; without it, only new changes are sent.
+     * @param lastEventId The id of the last event received before reconnecting, as sent by {@code EventSource}.
+     * @return The stream of changes, ending with a {@code reset} event if the client fell too far behind.
+     */
+    @GetMapping(value = "/changes", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+    @Operation(summary = "Follow device changes", description = "Streams created, updated, deleted and archived "
+            + "devices as Server-Sent Events once their transaction has committed, each with an increasing "
+            + "sequence number as event id to resume from.")
+    @ApiResponses(value = {
+            @ApiResponse(responseCode = "200", description = "Changes streamed successfully"),
+            @ApiResponse(responseCode = "400", description = "Invalid Last-Event-ID")
+    })
+    public Flux<ServerSentEvent<Object>> getChanges(@RequestParam(name = "after", required = false) Long after,
+                                                    @RequestHeader(name = ChangeEvents.LAST_EVENT_ID, required = false) String lastEventId) {
+        return ChangeEvents.of(changeFeed.changesAfter(ChangeEvents.position(after, lastEventId)));
+    }
+}
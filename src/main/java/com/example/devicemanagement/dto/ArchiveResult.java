@@ -0,0 +1,13 @@
+package com.example.devicemanagement.dto;
+
+import java.time.YearMonth;
+import java.util.List;
+
+/**
+ * Outcome of archiving old devices.
+ *
+ * @param archived The number of devices that were moved to archive tables.
+ * @param months   The months whose devices were moved, oldest first.
+ */
+public record ArchiveResult(int archived, List<YearMonth> months) {
+}
@@ -0,0 +1,10 @@
+package com.example.devicemanagement.dto;
+
+/**
+ * Number of devices of one brand.
+ *
+ * @param brand The brand, as stored.
+ * @param count The number of devices with exactly that brand.
+ */
+public record BrandCount(String brand, long count) {
+}
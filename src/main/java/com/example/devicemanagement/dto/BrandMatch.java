@@ -0,0 +1,23 @@
+package com.example.devicemanagement.dto;
+
+/**
+ * How the brand given to the brand search is matched against stored brands.
+ * Every mode is answered with an index seek on the devices table.
+ */
+public enum BrandMatch {
+
+    /**
+     * The brand must be equal, including case.
+     */
+    EXACT,
+
+    /**
+     * The brand must be equal, ignoring case.
+     */
+    IGNORE_CASE,
+
+    /**
+     * The brand must start with the given value, ignoring case.
+     */
+    PREFIX
+}
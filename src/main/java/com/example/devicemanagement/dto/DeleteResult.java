@@ -0,0 +1,9 @@
+package com.example.devicemanagement.dto;
+
+/**
+ * Outcome of a bulk delete.
+ *
+ * @param deleted The number of devices that were deleted.
+ */
+public record DeleteResult(int deleted) {
+}
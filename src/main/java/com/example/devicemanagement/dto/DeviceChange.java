@@ -0,0 +1,37 @@
+package com.example.devicemanagement.dto;
+
+/**
+ * One committed change of a device, as sent by the change feed.
+ *
+ * @param sequence The position of the change in the feed; increases by one with every change.
+ * @param type     What happened to the device.
+ * @param id       The id of the device; its current state can be read with {@code GET /devices/{id}}.
+ */
+public record DeviceChange(long sequence, Type type, long id) {
+
+    /**
+     * Kinds of device changes.
+     */
+    public enum Type {
+
+        /**
+         * The device was created.
+         */
+        CREATED,
+
+        /**
+         * One or more fields of the device were updated.
+         */
+        UPDATED,
+
+        /**
+         * The device was deleted.
+         */
+        DELETED,
+
+        /**
+         * The device was moved to a monthly archive table; it is only found by creation time from now on.
+         */
+        ARCHIVED
+    }
+}
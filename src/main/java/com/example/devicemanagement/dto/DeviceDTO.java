@@ -1,11 +1,10 @@
 package com.example.devicemanagement.dto;
 
+import com.example.devicemanagement.model.Device;
 import jakarta.validation.constraints.NotEmpty;
-import jakarta.validation.constraints.NotNull;
 import jakarta.validation.constraints.PastOrPresent;
 
 import java.time.LocalDateTime;
-import java.util.Map;
 
 /**
  * Data Transfer Object (DTO) for Device.
@@ -15,25 +14,34 @@ import java.util.Map;
  * enhance security by exposing only necessary data, and include validation.
  *
  * This class follows the Data Transfer Object (DTO) pattern.
+ * The version is assigned by the server and changes with every update; it is ignored on input.
  */
 public record DeviceDTO(
         Long id,
         @NotEmpty(message = "Name is mandatory") String name,
         @NotEmpty(message = "Brand is mandatory") String brand,
-        @NotNull(message = "Creation time is mandatory")
-        @PastOrPresent(message = "Creation time must be in the past or present") LocalDateTime creationTime) {
+        @PastOrPresent(message = "Creation time must be in the past or present") LocalDateTime creationTime,
+        Long version) {
 
     /**
-     * Updates the fields of the DeviceDTO with the values from the provided map.
-     * If a value is not present in the map, the existing value is retained.
+     * Creates a DeviceDTO without a version, e.g. for a device that has not been stored yet.
      *
-     * @param updates A map containing the fields to update.
-     * @return A new DeviceDTO instance with the updated fields.
+     * @param id           The id of the device.
+     * @param name         The name of the device.
+     * @param brand        The brand of the device.
+     * @param creationTime The creation time of the device.
      */
-    public DeviceDTO withUpdates(Map<String, Object> updates) {
-        String newName = updates.getOrDefault("name", name) != null ? (String) updates.get("name") : name;
-        String newBrand = updates.getOrDefault("brand", brand) != null ? (String) updates.get("brand") : brand;
-        LocalDateTime newCreationTime = updates.getOrDefault("creationTime", creationTime) != null ? (LocalDateTime) updates.get("creationTime") : creationTime;
-        return new DeviceDTO(id, newName, newBrand, newCreationTime);
+    public DeviceDTO(Long id, String name, String brand, LocalDateTime creationTime) {
+        this(id, name, brand, creationTime, null);
+    }
+
+    /**
+     * Creates a DeviceDTO from a Device entity.
+     *
+     * @param device The entity to copy the fields from.
+     * @return A new DeviceDTO instance with the entity's fields.
+     */
+    public static DeviceDTO fromEntity(Device device) {
+        return new DeviceDTO(device.getId(), device.getName(), device.getBrand(), device.getCreationTime(), device.getVersion());
     }
 }
@@ -0,0 +1,16 @@
+package com.example.devicemanagement.dto;
+
+import java.util.List;
+
+/**
+ * A single page of devices returned by the cursor-based list endpoints.
+ *
+ * The {@code nextCursor} is an opaque token that can be passed back as the
+ * {@code after} parameter to fetch the following page. It is {@code null}
+ * when there are no more devices to read.
+ *
+ * @param items      The devices on this page, ordered by id.
+ * @param nextCursor Opaque cursor for the next page, or {@code null} on the last page.
+ */
+public record DevicePage(List<DeviceDTO> items, String nextCursor) {
+}
@@ -0,0 +1,51 @@
+package com.example.devicemanagement.dto;
+
+import com.fasterxml.jackson.databind.annotation.JsonDeserialize;
+import jakarta.validation.constraints.PastOrPresent;
+import jakarta.validation.constraints.Size;
+
+import java.time.LocalDateTime;
+
+/**
+ * The fields to change on a device, as applied by a single UPDATE statement.
+ *
+ * A {@code null} field is left unchanged. A full update sets every field. A PATCH request carries it as a
+ * JSON Merge Patch ({@value #MEDIA_TYPE}), read by {@link DevicePatchDeserializer}; the values are checked
+ * like those of a {@link DeviceDTO}.
+ *
+ * @param name         The new name, or {@code null} to keep the current one.
+ * @param brand        The new brand, or {@code null} to keep the current one.
+ * @param creationTime The new creation time, or {@code null} to keep the current one.
+ */
+@JsonDeserialize(using = DevicePatchDeserializer.class)
+public record DevicePatch(
+        @Size(min = 1, message = "Name must not be empty") String name,
+        @Size(min = 1, message = "Brand must not be empty") String brand,
+        @PastOrPresent(message = "Creation time must be in the past or present") LocalDateTime creationTime) {
+
+    /**
+     * Media type of a JSON Merge Patch (RFC 7396).
+     */
+    public static final String MEDIA_TYPE = "application/merge-patch+json";
+
+    /**
+     * Creates a patch that replaces every field of a device, as a PUT does.
+     * A missing creation time is set to the current time.
+     *
+     * @param device The new state of the device.
+     * @return A patch setting every field.
+     */
+    public static DevicePatch of(DeviceDTO device) {
+        return new DevicePatch(device.name(), device.brand(),
+                device.creationTime() != null ? device.creationTime() : LocalDateTime.now());
+    }
+
+    /**
+     * Tells whether this patch changes no field.
+     *
+     * @return {@code true} if every field is {@code null}.
+     */
+    public boolean isEmpty() {
+        return name == null && brand == null && creationTime == null;
+    }
+}
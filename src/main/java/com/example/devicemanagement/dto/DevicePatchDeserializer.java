@@ -0,0 +1,80 @@
+package com.example.devicemanagement.dto;
+
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonToken;
+import com.fasterxml.jackson.databind.DeserializationContext;
+import com.fasterxml.jackson.databind.JsonDeserializer;
+import com.fasterxml.jackson.databind.JsonMappingException;
+import com.fasterxml.jackson.databind.deser.ResolvableDeserializer;
+import com.fasterxml.jackson.databind.deser.std.StdDeserializer;
+
+import java.io.IOException;
+import java.time.LocalDateTime;
+
+/**
+ * Reads a JSON Merge Patch (RFC 7396) of a device straight from the token stream into a {@link DevicePatch}.
+ *
+ * Members that are present replace the device's fields; absent members leave them unchanged. A {@code null}
+ * member would remove the field, which no field of a device allows, so it is rejected, as are unknown members,
+ * members given twice and values of the wrong type. No intermediate map or tree is built: each value is read
+ * as the type of its field, creation times with the application's own date-time handling.
+ */
+public class DevicePatchDeserializer extends StdDeserializer<DevicePatch> implements ResolvableDeserializer {
+
+    private JsonDeserializer<Object> dateTimeDeserializer; // Looked up once, not for every patch.
+
+    public DevicePatchDeserializer() {
+        super(DevicePatch.class);
+    }
+
+    @Override
+    public void resolve(DeserializationContext context) throws JsonMappingException {
+        dateTimeDeserializer = context.findRootValueDeserializer(context.constructType(LocalDateTime.class));
+    }
+
+    @Override
+    public DevicePatch deserialize(JsonParser parser, DeserializationContext context) throws IOException {
+        if (!parser.isExpectedStartObjectToken()) {
+            return (DevicePatch) context.handleUnexpectedToken(DevicePatch.class, parser); // RFC 7396 patches of a device are objects.
+        }
+        String name = null;
+        String brand = null;
+        LocalDateTime creationTime = null;
+        for (String field = parser.nextFieldName(); field != null; field = parser.nextFieldName()) {
+            JsonToken token = parser.nextToken();
+            if (token == JsonToken.VALUE_NULL) {
+                context.reportInputMismatch(DevicePatch.class, "Field must not be null: %s", field);
+            }
+            switch (field) {
+                case "name" -> name = once(context, field, name, text(parser, context, field));
+                case "brand" -> brand = once(context, field, brand, text(parser, context, field));
+                case "creationTime" -> creationTime = once(context, field, creationTime, dateTime(parser, context));
+                default -> context.reportInputMismatch(DevicePatch.class, "Invalid field: %s", field);
+            }
+        }
+        return new DevicePatch(name, brand, creationTime);
+    }
+
+    private static String text(JsonParser parser, DeserializationContext context, String field) throws IOException {
+        if (parser.currentToken() != JsonToken.VALUE_STRING) {
+            context.reportInputMismatch(DevicePatch.class, "Field must be a string: %s", field);
+        }
+        return parser.getText();
+    }
+
+    private LocalDateTime dateTime(JsonParser parser, DeserializationContext context) throws IOException {
+        String value = parser.getText();
+        try {
+            return (LocalDateTime) dateTimeDeserializer.deserialize(parser, context);
+        } catch (JsonMappingException e) {
+            return context.reportInputMismatch(DevicePatch.class, "Invalid creationTime: %s", value);
+        }
+    }
+
+    private static <T> T once(DeserializationContext context, String field, T current, T value) throws IOException {
+        if (current != null) {
+            context.reportInputMismatch(DevicePatch.class, "Duplicate field: %s", field);
+        }
+        return value;
+    }
+}
@@ -0,0 +1,31 @@
+package com.example.devicemanagement.dto;
+
+/**
+ * Progress of a device accepted for asynchronous creation.
+ *
+ * @param id    The id assigned to the device when it was accepted.
+ * @param state Whether the device has been written yet.
+ */
+public record IngestionStatus(Long id, State state) {
+
+    /**
+     * Where an accepted device is in the write-behind pipeline.
+     */
+    public enum State {
+
+        /**
+         * Queued, not written yet.
+         */
+        PENDING,
+
+        /**
+         * Written and committed; the device can be read.
+         */
+        PERSISTED,
+
+        /**
+         * Could not be written; the device has to be created again.
+         */
+        FAILED
+    }
+}
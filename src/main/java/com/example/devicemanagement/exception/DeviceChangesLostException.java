@@ -0,0 +1,7 @@
+package com.example.devicemanagement.exception;
+
+public class DeviceChangesLostException extends RuntimeException {
+    public DeviceChangesLostException(long after) {
+        super("The changes after " + after + " are no longer available; reload the devices and follow the feed from its current position");
+    }
+}
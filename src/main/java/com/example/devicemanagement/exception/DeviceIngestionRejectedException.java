@@ -0,0 +1,7 @@
+package com.example.devicemanagement.exception;
+
+public class DeviceIngestionRejectedException extends RuntimeException {
+    public DeviceIngestionRejectedException(String message) {
+        super(message);
+    }
+}
@@ -1,9 +1,24 @@
 package com.example.devicemanagement.exception;
 
+/**
+ * Thrown when a device does not exist. Answered with 404, often for ids that scanners or stale clients guess,
+ * so it is cheap to throw: no stack trace is captured and the message is only built when asked for.
+ */
 public class DeviceNotFoundException extends RuntimeException {
+
+    private final Long id;
+
     public DeviceNotFoundException(Long id) {
-        super("Device not found with id: " + id);
+        super(null, null, false, false); // No suppressed exceptions, no stack trace.
+        this.id = id;
     }
-}
 
+    public Long getId() {
+        return id;
+    }
 
+    @Override
+    public String getMessage() {
+        return "Device not found with id: " + id;
+    }
+}
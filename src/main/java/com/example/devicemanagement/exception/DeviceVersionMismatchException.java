@@ -0,0 +1,7 @@
+package com.example.devicemanagement.exception;
+
+public class DeviceVersionMismatchException extends RuntimeException {
+    public DeviceVersionMismatchException(Long id, Long expectedVersion) {
+        super("Device with id " + id + " is no longer at version " + expectedVersion);
+    }
+}
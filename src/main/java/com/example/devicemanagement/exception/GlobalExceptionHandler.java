@@ -1,24 +1,78 @@
 package com.example.devicemanagement.exception;
 
+import com.example.devicemanagement.dto.DevicePatch;
+import com.fasterxml.jackson.databind.exc.MismatchedInputException;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.TypeMismatchException;
+import org.springframework.context.MessageSourceResolvable;
+import org.springframework.core.codec.DecodingException;
+import org.springframework.dao.OptimisticLockingFailureException;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.http.converter.HttpMessageNotReadableException;
+import org.springframework.web.HttpMediaTypeNotAcceptableException;
+import org.springframework.web.HttpMediaTypeNotSupportedException;
 import org.springframework.web.bind.MethodArgumentNotValidException;
+import org.springframework.web.bind.MissingServletRequestParameterException;
 import org.springframework.web.bind.annotation.ExceptionHandler;
 import org.springframework.web.bind.annotation.RestControllerAdvice;
+import org.springframework.web.bind.support.WebExchangeBindException;
+import org.springframework.web.method.annotation.HandlerMethodValidationException;
 import org.springframework.web.method.annotation.MethodArgumentTypeMismatchException;
+import org.springframework.web.server.NotAcceptableStatusException;
+import org.springframework.web.server.ServerWebInputException;
+import org.springframework.web.server.UnsupportedMediaTypeStatusException;
+
+import java.util.Optional;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.stream.Collectors;
 
 @Slf4j
 @RestControllerAdvice
 public class GlobalExceptionHandler {
 
+    private static final long NOT_FOUND_LOG_INTERVAL_NANOS = TimeUnit.SECONDS.toNanos(1);
+
+    private final AtomicLong nextNotFoundLog = new AtomicLong(System.nanoTime());
+
+    private final LongAdder suppressedNotFound = new LongAdder();
+
     @ExceptionHandler(DeviceNotFoundException.class)
     public ResponseEntity<String> handleDeviceNotFoundException(DeviceNotFoundException ex) {
-        log.error("Device Not Found Exception: {}", ex.getMessage());
+        // Unknown ids are a client's mistake and come in floods from scanners: at most one line per second.
+        long now = System.nanoTime();
+        long next = nextNotFoundLog.get();
+        if (now - next >= 0 && nextNotFoundLog.compareAndSet(next, now + NOT_FOUND_LOG_INTERVAL_NANOS)) {
+            log.warn("Device Not Found Exception: {} ({} more since the last message)", ex.getMessage(), suppressedNotFound.sumThenReset());
+        } else {
+            suppressedNotFound.increment();
+        }
         return ResponseEntity.status(HttpStatus.NOT_FOUND).body(ex.getMessage());
     }
 
+    @ExceptionHandler(DeviceVersionMismatchException.class)
+    public ResponseEntity<String> handleDeviceVersionMismatchException(DeviceVersionMismatchException ex) {
+        log.error("Precondition Failed: {}", ex.getMessage());
+        return ResponseEntity.status(HttpStatus.PRECONDITION_FAILED).body(ex.getMessage());
+    }
+
+    @ExceptionHandler(OptimisticLockingFailureException.class)
+    public ResponseEntity<String> handleOptimisticLockingFailureException(OptimisticLockingFailureException ex) {
+        log.error("Concurrent Modification: {}", ex.getMessage());
+        return ResponseEntity.status(HttpStatus.CONFLICT).body("The device was modified concurrently, please retry");
+    }
+
+    @ExceptionHandler(DeviceIngestionRejectedException.class)
+    public ResponseEntity<String> handleDeviceIngestionRejectedException(DeviceIngestionRejectedException ex) {
+        log.warn("Too Many Requests: {}", ex.getMessage());
+        return ResponseEntity.status(HttpStatus.TOO_MANY_REQUESTS)
+                .header(HttpHeaders.RETRY_AFTER, "1") // The writer keeps draining the queue, so a short back-off is enough.
+                .body(ex.getMessage());
+    }
+
     @ExceptionHandler(DeviceServiceException.class)
     public ResponseEntity<String> handleDeviceServiceException(DeviceServiceException ex) {
         log.error("Internal Error - Device Service Exception: {}", ex.getMessage(), ex);
@@ -36,6 +90,15 @@ public class GlobalExceptionHandler {
         return ResponseEntity.status(HttpStatus.BAD_REQUEST).body("Validation error: " + ex.getMessage());
     }
 
+    @ExceptionHandler(HandlerMethodValidationException.class)
+    public ResponseEntity<String> handleMethodValidationExceptions(HandlerMethodValidationException ex) {
+        String errors = ex.getAllErrors().stream()
+                .map(MessageSourceResolvable::getDefaultMessage)
+                .collect(Collectors.joining(", "));
+        log.error("Validation Error: {}", errors);
+        return ResponseEntity.status(HttpStatus.BAD_REQUEST).body("Validation error: " + errors);
+    }
+
     @ExceptionHandler(MethodArgumentTypeMismatchException.class)
     public ResponseEntity<String> handleTypeMismatchException(MethodArgumentTypeMismatchException ex) {
         log.error("Type Mismatch Error: {}", ex.getMessage());
@@ -43,10 +106,83 @@ public class GlobalExceptionHandler {
         return ResponseEntity.status(HttpStatus.BAD_REQUEST).body(error);
     }
 
+    @ExceptionHandler(InvalidRequestException.class)
+    public ResponseEntity<String> handleInvalidRequestException(InvalidRequestException ex) {
+        log.error("Invalid Request: {}", ex.getMessage());
+        return ResponseEntity.status(HttpStatus.BAD_REQUEST).body(ex.getMessage());
+    }
+
+    @ExceptionHandler(MissingServletRequestParameterException.class)
+    public ResponseEntity<String> handleMissingParameterException(MissingServletRequestParameterException ex) {
+        log.error("Invalid Request: {}", ex.getMessage());
+        return ResponseEntity.status(HttpStatus.BAD_REQUEST).body(ex.getMessage());
+    }
+
     @ExceptionHandler(HttpMessageNotReadableException.class)
     public ResponseEntity<String> handleHttpMessageNotReadableException(HttpMessageNotReadableException ex) {
         log.error("Malformed JSON request: {}", ex.getMessage());
-        return ResponseEntity.status(HttpStatus.BAD_REQUEST).body("Malformed JSON request");
+        return ResponseEntity.status(HttpStatus.BAD_REQUEST).body(invalidPatch(ex).orElse("Malformed JSON request"));
+    }
+
+    @ExceptionHandler(HttpMediaTypeNotAcceptableException.class)
+    public ResponseEntity<Void> handleHttpMediaTypeNotAcceptableException(HttpMediaTypeNotAcceptableException ex) {
+        log.error("Not Acceptable: {}", ex.getMessage());
+        return ResponseEntity.status(HttpStatus.NOT_ACCEPTABLE).build(); // No body, as no accepted type can carry the message.
+    }
+
+    @ExceptionHandler(HttpMediaTypeNotSupportedException.class)
+    public ResponseEntity<String> handleHttpMediaTypeNotSupportedException(HttpMediaTypeNotSupportedException ex) {
+        log.error("Unsupported Media Type: {}", ex.getMessage());
+        return ResponseEntity.status(HttpStatus.UNSUPPORTED_MEDIA_TYPE).body(ex.getMessage());
+    }
+
+    // WebFlux reports invalid bodies and parameters of the reactive controller with the exceptions below.
+
+    @ExceptionHandler(WebExchangeBindException.class)
+    public ResponseEntity<String> handleWebExchangeBindException(WebExchangeBindException ex) {
+        String errors = ex.getAllErrors().stream()
+                .map(MessageSourceResolvable::getDefaultMessage)
+                .collect(Collectors.joining(", "));
+        log.error("Validation Error: {}", errors);
+        return ResponseEntity.status(HttpStatus.BAD_REQUEST).body("Validation error: " + errors);
     }
 
+    @ExceptionHandler(NotAcceptableStatusException.class)
+    public ResponseEntity<Void> handleNotAcceptableStatusException(NotAcceptableStatusException ex) {
+        log.error("Not Acceptable: {}", ex.getMessage());
+        return ResponseEntity.status(HttpStatus.NOT_ACCEPTABLE).build();
+    }
+
+    @ExceptionHandler(UnsupportedMediaTypeStatusException.class)
+    public ResponseEntity<String> handleUnsupportedMediaTypeStatusException(UnsupportedMediaTypeStatusException ex) {
+        log.error("Unsupported Media Type: {}", ex.getMessage());
+        return ResponseEntity.status(HttpStatus.UNSUPPORTED_MEDIA_TYPE).body(ex.getReason());
+    }
+
+    @ExceptionHandler(ServerWebInputException.class)
+    public ResponseEntity<String> handleServerWebInputException(ServerWebInputException ex) {
+        log.error("Invalid Request: {}", ex.getMessage());
+        // Answer with the same messages as the servlet variant for the same mistakes.
+        if (ex.getCause() instanceof DecodingException) {
+            return ResponseEntity.status(HttpStatus.BAD_REQUEST).body(invalidPatch(ex).orElse("Malformed JSON request"));
+        }
+        if (ex.getCause() instanceof TypeMismatchException mismatch && ex.getMethodParameter() != null
+                && mismatch.getRequiredType() != null) {
+            String error = String.format("The parameter '%s' of value '%s' could not be converted to type '%s'", ex.getMethodParameter().getParameterName(), mismatch.getValue(), mismatch.getRequiredType().getSimpleName());
+            return ResponseEntity.status(HttpStatus.BAD_REQUEST).body(error);
+        }
+        return ResponseEntity.status(HttpStatus.BAD_REQUEST).body(ex.getReason());
+    }
+
+    /**
+     * Finds why a merge patch was rejected while it was read, such as an unknown or null field.
+     */
+    private static Optional<String> invalidPatch(Throwable ex) {
+        for (Throwable cause = ex; cause != null; cause = cause.getCause()) {
+            if (cause instanceof MismatchedInputException mismatch && mismatch.getTargetType() == DevicePatch.class) {
+                return Optional.of(mismatch.getOriginalMessage());
+            }
+        }
+        return Optional.empty();
+    }
 }
@@ -0,0 +1,14 @@
+package com.example.devicemanagement.exception;
+
+/**
+ * Thrown when a page cursor sent by a client was not produced by this API.
+ */
+public class InvalidCursorException extends InvalidRequestException {
+    public InvalidCursorException(String cursor) {
+        super("Invalid cursor: " + cursor);
+    }
+
+    public InvalidCursorException(String cursor, Throwable cause) {
+        super("Invalid cursor: " + cursor, cause);
+    }
+}
@@ -0,0 +1,15 @@
+package com.example.devicemanagement.exception;
+
+/**
+ * Thrown when a request carries a value the API cannot accept, such as a malformed header or an empty range.
+ * Answered with 400; other illegal arguments are programming errors and stay 500s.
+ */
+public class InvalidRequestException extends RuntimeException {
+    public InvalidRequestException(String message) {
+        super(message);
+    }
+
+    public InvalidRequestException(String message, Throwable cause) {
+        super(message, cause);
+    }
+}
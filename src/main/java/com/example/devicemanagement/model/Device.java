@@ -5,7 +5,6 @@ import lombok.AllArgsConstructor;
 import lombok.Builder;
 import lombok.Data;
 import lombok.NoArgsConstructor;
-import org.hibernate.annotations.CreationTimestamp;
 
 import java.time.LocalDateTime;
 
@@ -13,15 +12,27 @@ import java.time.LocalDateTime;
  * Entity class representing a device in the database.
  */
 @Entity // Marks this class as a JPA entity.
-@Table(name = "devices") // Maps the entity to the "devices" table.
+@Table(name = "devices", indexes = { // Maps the entity to the "devices" table.
+        @Index(name = "idx_devices_brand_id", columnList = "brand, id"), // Exact brand search, ordered by id.
+        @Index(name = "idx_devices_brand_normalized_id", columnList = "brand_normalized, id"), // Case-insensitive and prefix brand search.
+        @Index(name = "idx_devices_creation_time_id", columnList = "creation_time, id"), // Creation time ranges, ordered by time.
+        @Index(name = "idx_devices_brand_creation_time_id", columnList = "brand, creation_time, id") // The same within a brand.
+})
 @Data // Lombok annotation to generate getters, setters, equals, hashCode, and toString methods.
 @NoArgsConstructor // Lombok annotation to generate a no-argument constructor.
 @AllArgsConstructor // Lombok annotation to generate an all-argument constructor.
 @Builder // Lombok annotation to implement the Builder pattern.
 public class Device {
 
+    /**
+     * Number of ids handed out per call of the devices_seq sequence. Every writer that takes ids from
+     * the sequence outside of JPA must interpret its values the same way.
+     */
+    public static final int ID_ALLOCATION_SIZE = 50;
+
     @Id // Marks this field as the primary key.
-    @GeneratedValue(strategy = GenerationType.IDENTITY) // Specifies the primary key generation strategy.
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "devices_seq") // Sequence ids allow Hibernate to batch inserts.
+    @SequenceGenerator(name = "devices_seq", sequenceName = "devices_seq", allocationSize = ID_ALLOCATION_SIZE) // Pooled: one sequence call per 50 ids.
     private Long id;
 
     @Column(nullable = false) // Maps this field to a column that cannot be null.
@@ -30,6 +41,14 @@ public class Device {
     @Column(nullable = false)
     private String brand;
 
-    @CreationTimestamp // Automatically sets this field to the current timestamp when the entity is created.
+    // Lower-cased copy of the brand, computed by the database so every write path keeps it current.
+    @Column(name = "brand_normalized", insertable = false, updatable = false,
+            columnDefinition = "varchar(255) generated always as (lower(brand))")
+    private String brandNormalized;
+
+    // Set by the service: the time sent by the client, or the time of the request.
     private LocalDateTime creationTime;
+
+    @Version // Incremented on every update; used for optimistic locking and as the device's ETag.
+    private Long version;
 }
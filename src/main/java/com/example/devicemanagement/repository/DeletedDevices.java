@@ -0,0 +1,43 @@
+package com.example.devicemanagement.repository;
+
+import com.example.devicemanagement.dto.BrandCount;
+
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+
+/**
+ * Devices removed by a set-based delete.
+ *
+ * @param ids    The ids of the deleted devices; requested ids of devices that did not exist are left out.
+ * @param brands The number of deleted devices per brand.
+ */
+public record DeletedDevices(List<Long> ids, List<BrandCount> brands) {
+
+    /**
+     * The result of a delete that matched no device.
+     */
+    public static final DeletedDevices NONE = new DeletedDevices(List.of(), List.of());
+
+    /**
+     * Collects the ids and brands of the rows read before a delete.
+     * @param ids    The ids of the rows.
+     * @param brands The brands of the rows, in the same order.
+     * @return The deleted devices.
+     */
+    static DeletedDevices of(List<Long> ids, List<String> brands) {
+        Map<String, Long> counts = new TreeMap<>();
+        brands.forEach(brand -> counts.merge(brand, 1L, Long::sum));
+        return new DeletedDevices(List.copyOf(ids), counts.entrySet().stream()
+                .map(count -> new BrandCount(count.getKey(), count.getValue()))
+                .toList());
+    }
+
+    /**
+     * Returns how many devices were deleted.
+     * @return The number of deleted devices.
+     */
+    public int count() {
+        return ids.size();
+    }
+}
@@ -0,0 +1,133 @@
+package com.example.devicemanagement.repository;
+
+import com.example.devicemanagement.dto.DeviceDTO;
+import lombok.RequiredArgsConstructor;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowMapper;
+import org.springframework.stereotype.Repository;
+
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.time.YearMonth;
+import java.time.format.DateTimeFormatter;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.stream.Stream;
+
+/**
+ * Plain JDBC access to the monthly archive tables.
+ *
+ * Devices of a month that has been archived are moved out of the {@code devices} table into a table of
+ * their own, {@code devices_archive_yyyymm}, with the same columns and the same creation time indexes.
+ * The archive tables are found through the database's information schema, so they need no bookkeeping
+ * of their own.
+ */
+@Repository
+@RequiredArgsConstructor
+public class DeviceArchiveRepository {
+
+    private static final String TABLE_PREFIX = "devices_archive_";
+
+    private static final DateTimeFormatter MONTH = DateTimeFormatter.ofPattern("yyyyMM");
+
+    private static final String COLUMNS = "id, name, brand, creation_time, version";
+
+    private static final RowMapper<DeviceDTO> DEVICE = (row, rowNum) -> new DeviceDTO(row.getLong("id"),
+            row.getString("name"), row.getString("brand"), row.getTimestamp("creation_time").toLocalDateTime(),
+            row.getLong("version"));
+
+    private final JdbcTemplate jdbcTemplate;
+
+    /**
+     * Returns the name of the archive table of a month.
+     * @param month The month.
+     * @return The table name, such as {@code devices_archive_202401}.
+     */
+    public static String tableName(YearMonth month) {
+        return TABLE_PREFIX + MONTH.format(month); // Built from a YearMonth only, so safe to put into SQL.
+    }
+
+    /**
+     * Finds the months that have an archive table.
+     * @return The archived months, in no particular order.
+     */
+    public List<YearMonth> findArchivedMonths() {
+        return jdbcTemplate.queryForList("select table_name from information_schema.tables "
+                        + "where table_schema = schema() and table_name like 'DEVICES\\_ARCHIVE\\_%' escape '\\'", String.class)
+                .stream()
+                .map(table -> YearMonth.parse(table.substring(TABLE_PREFIX.length()), MONTH))
+                .toList();
+    }
+
+    /**
+     * Creates the archive table of a month and its indexes, unless they exist. DDL commits on its own,
+     * so this must not be called inside a transaction that moves devices.
+     * @param month The month.
+     */
+    public void createArchive(YearMonth month) {
+        String table = tableName(month);
+        jdbcTemplate.execute("create table if not exists " + table + " (id bigint primary key, "
+                + "name varchar(255) not null, brand varchar(255) not null, creation_time timestamp(6), version bigint)");
+        jdbcTemplate.execute("create index if not exists idx_" + table + "_creation_time_id on " + table + " (creation_time, id)");
+        jdbcTemplate.execute("create index if not exists idx_" + table + "_brand_creation_time_id on " + table
+                + " (brand, creation_time, id)");
+    }
+
+    /**
+     * Moves the oldest devices of a month from the devices table into its archive table: one SELECT that locks
+     * the rows, then one batch DELETE and one batch INSERT. Must run inside a transaction.
+     * @param month The month; its archive table must exist.
+     * @param limit The maximum number of devices to move.
+     * @return The moved devices.
+     */
+    public List<DeviceDTO> moveToArchive(YearMonth month, int limit) {
+        List<DeviceDTO> moved = jdbcTemplate.query("select " + COLUMNS + " from devices "
+                        + "where creation_time >= ? and creation_time < ? order by creation_time, id limit ? for update",
+                DEVICE, Timestamp.valueOf(month.atDay(1).atStartOfDay()),
+                Timestamp.valueOf(month.plusMonths(1).atDay(1).atStartOfDay()), limit);
+        jdbcTemplate.batchUpdate("delete from devices where id = ?", moved, moved.size(),
+                (statement, device) -> statement.setLong(1, device.id()));
+        jdbcTemplate.batchUpdate("insert into " + tableName(month) + " (" + COLUMNS + ") values (?, ?, ?, ?, ?)",
+                moved, moved.size(), (statement, device) -> {
+                    statement.setLong(1, device.id());
+                    statement.setString(2, device.name());
+                    statement.setString(3, device.brand());
+                    statement.setTimestamp(4, Timestamp.valueOf(device.creationTime()));
+                    statement.setLong(5, device.version());
+                });
+        return moved;
+    }
+
+    /**
+     * Streams every archived device of a month, ordered by id, over a database cursor; the stream must be closed.
+     * @param month The archived month.
+     * @return The archived devices of the month.
+     */
+    public Stream<DeviceDTO> streamAll(YearMonth month) {
+        return jdbcTemplate.queryForStream("select " + COLUMNS + " from " + tableName(month) + " order by id", DEVICE);
+    }
+
+    /**
+     * Finds the next page of archived devices of a month created in a time range, ordered by creation time and then id.
+     * Same keyset conditions as {@link DeviceRepository#findDtosCreatedBetweenAfter}.
+     * @param month     The archived month.
+     * @param brand     The brand of the devices to find, matched exactly, or {@code null} for every brand.
+     * @param afterTime The creation time of the last device of the previous page, or the start of the range.
+     * @param to        The end of the range, exclusive.
+     * @param afterId   The id of the last device of the previous page (0 for the first page).
+     * @param limit     The maximum number of devices to return.
+     * @return The matching devices, ordered by creation time and id.
+     */
+    public List<DeviceDTO> findCreatedBetweenAfter(YearMonth month, String brand, LocalDateTime afterTime,
+                                                   LocalDateTime to, long afterId, int limit) {
+        List<Object> arguments = new ArrayList<>();
+        StringBuilder sql = new StringBuilder("select " + COLUMNS + " from " + tableName(month) + " where ");
+        if (brand != null) {
+            sql.append("brand = ? and ");
+            arguments.add(brand);
+        }
+        sql.append("creation_time >= ? and creation_time < ? and (creation_time > ? or id > ?) order by creation_time, id limit ?");
+        arguments.addAll(List.of(Timestamp.valueOf(afterTime), Timestamp.valueOf(to), Timestamp.valueOf(afterTime), afterId, limit));
+        return jdbcTemplate.query(sql.toString(), DEVICE, arguments.toArray());
+    }
+}
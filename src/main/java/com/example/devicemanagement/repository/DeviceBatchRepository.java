@@ -0,0 +1,35 @@
+package com.example.devicemanagement.repository;
+
+import com.example.devicemanagement.dto.DeviceDTO;
+import lombok.RequiredArgsConstructor;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Repository;
+
+import java.sql.Timestamp;
+import java.util.List;
+
+/**
+ * Plain JDBC inserts of devices that already have an id, used by the write-behind ingestion.
+ * Bypasses the persistence context entirely: one prepared statement, sent as a single JDBC batch.
+ */
+@Repository
+@RequiredArgsConstructor
+public class DeviceBatchRepository {
+
+    private static final String INSERT = "insert into devices (id, name, brand, creation_time, version) values (?, ?, ?, ?, 0)";
+
+    private final JdbcTemplate jdbcTemplate;
+
+    /**
+     * Inserts the given devices as one JDBC batch. Must run inside a transaction to be committed as a group.
+     * @param devices The devices to insert, with their ids and creation times set.
+     */
+    public void insertAll(List<DeviceDTO> devices) {
+        jdbcTemplate.batchUpdate(INSERT, devices, devices.size(), (statement, device) -> {
+            statement.setLong(1, device.id());
+            statement.setString(2, device.name());
+            statement.setString(3, device.brand());
+            statement.setTimestamp(4, Timestamp.valueOf(device.creationTime()));
+        });
+    }
+}
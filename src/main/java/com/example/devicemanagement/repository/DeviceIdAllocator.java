@@ -0,0 +1,49 @@
+package com.example.devicemanagement.repository;
+
+import com.example.devicemanagement.model.Device;
+import lombok.RequiredArgsConstructor;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Repository;
+
+import java.util.concurrent.locks.Lock;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Hands out device ids before the device is written, for writers that insert without JPA.
+ *
+ * Ids come from the devices_seq sequence in blocks of {@link Device#ID_ALLOCATION_SIZE}, read exactly like
+ * Hibernate's pooled optimizer reads them: a sequence value {@code v} owns the ids {@code v - 49} to {@code v}.
+ * The sequence starts at 51, so Hibernate never sees its initial value and reads every value that way; ids
+ * allocated here therefore never collide with ids assigned by JPA, and a new block costs one sequence call.
+ */
+@Repository
+@RequiredArgsConstructor
+public class DeviceIdAllocator {
+
+    private final JdbcTemplate jdbcTemplate;
+
+    // A lock rather than synchronized, so a virtual thread waiting for the sequence does not pin its carrier.
+    private final Lock lock = new ReentrantLock();
+
+    private long next = 1;
+
+    private long last = 0; // The last id of the current block; next > last means the block is used up.
+
+    /**
+     * Returns a new device id.
+     * @return An id that has not been handed out before, by this allocator or by JPA.
+     */
+    public long nextId() {
+        lock.lock();
+        try {
+            if (next > last) {
+                Long value = jdbcTemplate.queryForObject("select next value for devices_seq", Long.class);
+                last = value;
+                next = value - Device.ID_ALLOCATION_SIZE + 1;
+            }
+            return next++;
+        } finally {
+            lock.unlock();
+        }
+    }
+}
@@ -1,18 +1,34 @@
 package com.example.devicemanagement.repository;
 
+import com.example.devicemanagement.dto.BrandCount;
+import com.example.devicemanagement.dto.DeviceDTO;
 import com.example.devicemanagement.model.Device;
+import jakarta.persistence.QueryHint;
+import org.springframework.data.domain.Limit;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.time.LocalDateTime;
+import java.util.Collection;
 import java.util.List;
+import java.util.Optional;
+import java.util.stream.Stream;
+
+import static org.hibernate.jpa.HibernateHints.HINT_CACHEABLE;
+import static org.hibernate.jpa.HibernateHints.HINT_FETCH_SIZE;
 
 /**
  * The DeviceRepository interface extends JpaRepository to provide CRUD operations for the Device entity.
- * It also includes a custom query method to find devices by their brand.
+ * It also includes a custom query method to find devices by their brand, and read-only
+ * query methods that project rows directly into {@link DeviceDTO} for the read paths.
+ * Single-statement updates and deletes come from {@link DeviceRepositoryCustom}.
  */
 
 @Repository
-public interface DeviceRepository extends JpaRepository<Device, Long> {
+public interface DeviceRepository extends JpaRepository<Device, Long>, DeviceRepositoryCustom {
     /**
      * Finds a list of devices by their brand.
      *
@@ -21,4 +37,160 @@ public interface DeviceRepository extends JpaRepository<Device, Long> {
      */
 
     List<Device> findByBrand(String brand);
+
+    /**
+     * Select clause shared by the read-only queries: projects rows straight into {@link DeviceDTO}
+     * through a constructor expression, so no entity is loaded into the persistence context.
+     */
+    String DTO_SELECT = "select new com.example.devicemanagement.dto.DeviceDTO(d.id, d.name, d.brand, d.creationTime, d.version) from Device d ";
+
+    /**
+     * Finds a device by id, projected into a DTO.
+     *
+     * @param id the id of the device to find
+     * @return the device, if it exists
+     */
+    @Query(DTO_SELECT + "where d.id = :id")
+    Optional<DeviceDTO> findDtoById(@Param("id") Long id);
+
+    /**
+     * Finds the devices with the given ids, projected into DTOs, in no particular order.
+     *
+     * @param ids the ids of the devices to find; unknown ids are ignored
+     * @return the devices that exist
+     */
+    @Query(DTO_SELECT + "where d.id in :ids")
+    List<DeviceDTO> findDtosByIdIn(@Param("ids") Collection<Long> ids);
+
+    /**
+     * Finds the next page of devices after the given id, ordered by id.
+     * Runs as an index seek on the primary key, so the cost of a page does not
+     * depend on how deep into the table it is.
+     *
+     * @param afterId the id of the last device of the previous page (0 for the first page)
+     * @param limit   the maximum number of devices to return
+     * @return the devices with an id greater than the given one, in ascending id order
+     */
+    @Query(DTO_SELECT + "where d.id > :afterId order by d.id")
+    List<DeviceDTO> findDtosAfter(@Param("afterId") Long afterId, Limit limit);
+
+    /**
+     * Finds the next page of devices with exactly the given brand, ordered by id.
+     * Served by the (brand, id) index.
+     *
+     * @param brand   the brand of the devices to find
+     * @param afterId the id of the last device of the previous page (0 for the first page)
+     * @param limit   the maximum number of devices to return
+     * @return the matching devices, in ascending id order
+     */
+    @Query(DTO_SELECT + "where d.brand = :brand and d.id > :afterId order by d.id")
+    List<DeviceDTO> findDtosByBrandAfter(@Param("brand") String brand, @Param("afterId") Long afterId, Limit limit);
+
+    /**
+     * Finds the next page of devices whose brand equals the given one ignoring case, ordered by id.
+     * The value is lower-cased by the database, exactly like the generated brand_normalized column,
+     * and the lookup is served by the (brand_normalized, id) index.
+     *
+     * @param brand   the brand of the devices to find, in any case
+     * @param afterId the id of the last device of the previous page (0 for the first page)
+     * @param limit   the maximum number of devices to return
+     * @return the matching devices, in ascending id order
+     */
+    @Query(DTO_SELECT + "where d.brandNormalized = lower(:brand) and d.id > :afterId order by d.id")
+    List<DeviceDTO> findDtosByBrandIgnoreCaseAfter(@Param("brand") String brand, @Param("afterId") Long afterId, Limit limit);
+
+    /**
+     * Finds the next page of devices whose brand starts with a prefix ignoring case,
+     * ordered by lower-cased brand and then id so the (brand_normalized, id) index serves
+     * both the range scan and the ordering.
+     *
+     * @param pattern    the escaped prefix followed by '%', using '\' as escape character
+     * @param afterBrand the brand of the last device of the previous page ("" for the first page)
+     * @param afterId    the id of the last device of the previous page (0 for the first page)
+     * @param limit      the maximum number of devices to return
+     * @return the matching devices, ordered by lower-cased brand and id
+     */
+    @Query(DTO_SELECT + "where d.brandNormalized like lower(:pattern) escape '\\' "
+            + "and d.brandNormalized >= lower(:afterBrand) "
+            + "and (d.brandNormalized > lower(:afterBrand) or d.id > :afterId) "
+            + "order by d.brandNormalized, d.id")
+    List<DeviceDTO> findDtosByBrandPrefixAfter(@Param("pattern") String pattern, @Param("afterBrand") String afterBrand,
+                                               @Param("afterId") Long afterId, Limit limit);
+
+    /**
+     * Finds the next page of devices created in a time range, ordered by creation time and then id.
+     * Served by the (creation_time, id) index, which covers both the range scan and the ordering.
+     *
+     * @param afterTime the creation time of the last device of the previous page, or the start of the range (inclusive)
+     *                  for the first page
+     * @param to        the end of the range, exclusive
+     * @param afterId   the id of the last device of the previous page (0 for the first page)
+     * @param limit     the maximum number of devices to return
+     * @return the matching devices, ordered by creation time and id
+     */
+    @Query(DTO_SELECT + "where d.creationTime >= :afterTime and d.creationTime < :to "
+            + "and (d.creationTime > :afterTime or d.id > :afterId) "
+            + "order by d.creationTime, d.id")
+    List<DeviceDTO> findDtosCreatedBetweenAfter(@Param("afterTime") LocalDateTime afterTime, @Param("to") LocalDateTime to,
+                                                @Param("afterId") Long afterId, Limit limit);
+
+    /**
+     * Finds the next page of devices of a brand created in a time range, ordered by creation time and then id.
+     * Served by the (brand, creation_time, id) index.
+     *
+     * @param brand     the brand of the devices to find, matched exactly
+     * @param afterTime the creation time of the last device of the previous page, or the start of the range (inclusive)
+     *                  for the first page
+     * @param to        the end of the range, exclusive
+     * @param afterId   the id of the last device of the previous page (0 for the first page)
+     * @param limit     the maximum number of devices to return
+     * @return the matching devices, ordered by creation time and id
+     */
+    @Query(DTO_SELECT + "where d.brand = :brand and d.creationTime >= :afterTime and d.creationTime < :to "
+            + "and (d.creationTime > :afterTime or d.id > :afterId) "
+            + "order by d.creationTime, d.id")
+    List<DeviceDTO> findDtosByBrandCreatedBetweenAfter(@Param("brand") String brand, @Param("afterTime") LocalDateTime afterTime,
+                                                       @Param("to") LocalDateTime to, @Param("afterId") Long afterId, Limit limit);
+
+    /**
+     * Finds the creation time of the oldest device, read from the first entry of the (creation_time, id) index.
+     *
+     * @return the oldest creation time, or empty if there are no devices
+     */
+    @Query("select min(d.creationTime) from Device d")
+    Optional<LocalDateTime> findOldestCreationTime();
+
+    /**
+     * Counts the devices of every brand with one GROUP BY over the (brand, id) index.
+     *
+     * @return the number of devices per brand, for every brand that has devices
+     */
+    @Query("select new com.example.devicemanagement.dto.BrandCount(d.brand, count(d)) from Device d group by d.brand")
+    List<BrandCount> countDevicesByBrand();
+
+    /**
+     * Finds the ids of the first devices with exactly the given brand, ordered by id.
+     * Served by the (brand, id) index alone.
+     *
+     * @param brand the brand of the devices to find
+     * @param limit the maximum number of ids to return
+     * @return the ids of the matching devices, in ascending order
+     */
+    @Query("select d.id from Device d where d.brand = :brand order by d.id")
+    List<Long> findIdsByBrand(@Param("brand") String brand, Limit limit);
+
+    /**
+     * Streams every device in id order over a scrollable JDBC cursor, projected into DTOs.
+     * Rows are fetched from the driver in chunks of the configured fetch size instead of
+     * being materialized as one list, and nothing is kept in the persistence context.
+     * Must be consumed inside a transaction and closed afterwards.
+     *
+     * @return a stream over all devices, ordered by id
+     */
+    @QueryHints({
+            @QueryHint(name = HINT_FETCH_SIZE, value = "500"),
+            @QueryHint(name = HINT_CACHEABLE, value = "false")
+    })
+    @Query(DTO_SELECT + "order by d.id")
+    Stream<DeviceDTO> streamAllDtos();
 }
@@ -0,0 +1,55 @@
+package com.example.devicemanagement.repository;
+
+import com.example.devicemanagement.dto.DevicePatch;
+
+import java.util.Collection;
+import java.util.Optional;
+
+/**
+ * Write operations of {@link DeviceRepository} that are built at runtime, implemented in {@link DeviceRepositoryCustomImpl}.
+ *
+ * The per-brand device counts need the brands that deleted or rebranded rows had before the change. Those are
+ * read with {@code select ... for update} in the caller's transaction, which locks the rows until the write, and
+ * only where needed: an update that keeps the brand is a single statement.
+ */
+public interface DeviceRepositoryCustom {
+
+    /**
+     * Applies a patch to a device with one UPDATE statement that sets only the patched columns and
+     * increments the version, without loading the device first.
+     *
+     * @param id              the id of the device to update
+     * @param patch           the fields to set
+     * @param expectedVersion the version the device must still have, or {@code null} to update unconditionally
+     * @return the number of updated rows: 0 if the device does not exist or has another version
+     */
+    int updateFields(Long id, DevicePatch patch, Long expectedVersion);
+
+    /**
+     * Reads the brand of a device and locks its row until the end of the transaction, so a write that follows
+     * in the same transaction still finds the device with that brand and version.
+     *
+     * @param id              the id of the device
+     * @param expectedVersion the version the device must have, or {@code null} for any version
+     * @return the brand of the device, or empty if the device does not exist or has another version
+     */
+    Optional<String> findBrandForUpdate(Long id, Long expectedVersion);
+
+    /**
+     * Deletes a device with one DELETE statement, after reading its brand with {@link #findBrandForUpdate}.
+     *
+     * @param id              the id of the device to delete
+     * @param expectedVersion the version the device must still have, or {@code null} to delete unconditionally
+     * @return the brand of the deleted device, or empty if the device does not exist or has another version
+     */
+    Optional<String> deleteDevice(Long id, Long expectedVersion);
+
+    /**
+     * Deletes the devices with the given ids with one set-based DELETE statement, after reading and locking
+     * their ids and brands. Ids of devices that do not exist are ignored.
+     *
+     * @param ids the ids of the devices to delete
+     * @return the ids of the deleted devices and their number per brand
+     */
+    DeletedDevices deleteDevices(Collection<Long> ids);
+}
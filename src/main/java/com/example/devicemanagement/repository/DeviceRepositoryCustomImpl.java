@@ -0,0 +1,95 @@
+package com.example.devicemanagement.repository;
+
+import com.example.devicemanagement.dto.DevicePatch;
+import com.example.devicemanagement.model.Device;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+import jakarta.persistence.Query;
+import jakarta.persistence.criteria.CriteriaBuilder;
+import jakarta.persistence.criteria.CriteriaUpdate;
+import jakarta.persistence.criteria.Predicate;
+import jakarta.persistence.criteria.Root;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.Optional;
+
+/**
+ * Criteria API and SQL implementation of {@link DeviceRepositoryCustom}, mixed into {@link DeviceRepository} by Spring Data.
+ *
+ * Brands are read with {@code select ... for update} in the caller's transaction, which locks the rows until the
+ * write that follows; the writes themselves are plain UPDATE and DELETE statements.
+ */
+class DeviceRepositoryCustomImpl implements DeviceRepositoryCustom {
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    @Override
+    public int updateFields(Long id, DevicePatch patch, Long expectedVersion) {
+        CriteriaBuilder cb = entityManager.getCriteriaBuilder();
+        CriteriaUpdate<Device> update = cb.createCriteriaUpdate(Device.class);
+        Root<Device> device = update.from(Device.class);
+        if (patch.name() != null) {
+            update.set(device.<String>get("name"), patch.name());
+        }
+        if (patch.brand() != null) {
+            update.set(device.<String>get("brand"), patch.brand());
+        }
+        if (patch.creationTime() != null) {
+            update.set(device.get("creationTime"), patch.creationTime());
+        }
+        // A bulk update bypasses Hibernate's versioning, so the version is incremented explicitly.
+        update.set(device.<Long>get("version"), cb.sum(device.<Long>get("version"), 1L));
+        Predicate where = cb.equal(device.get("id"), id);
+        if (expectedVersion != null) {
+            where = cb.and(where, cb.equal(device.get("version"), expectedVersion));
+        }
+        return entityManager.createQuery(update.where(where)).executeUpdate();
+    }
+
+    @Override
+    public Optional<String> findBrandForUpdate(Long id, Long expectedVersion) {
+        Query query = entityManager.createNativeQuery("select brand from devices where id = :id"
+                        + (expectedVersion != null ? " and version = :version" : "") + " for update", String.class)
+                .setParameter("id", id);
+        if (expectedVersion != null) {
+            query.setParameter("version", expectedVersion);
+        }
+        List<?> brands = query.getResultList();
+        return brands.isEmpty() ? Optional.empty() : Optional.of((String) brands.get(0));
+    }
+
+    @Override
+    public Optional<String> deleteDevice(Long id, Long expectedVersion) {
+        Optional<String> brand = findBrandForUpdate(id, expectedVersion);
+        if (brand.isPresent()) {
+            entityManager.createQuery("delete from Device d where d.id = :id")
+                    .setParameter("id", id)
+                    .executeUpdate();
+        }
+        return brand;
+    }
+
+    @Override
+    public DeletedDevices deleteDevices(Collection<Long> ids) {
+        List<?> rows = entityManager.createNativeQuery("select id, brand from devices where id in (:ids) for update")
+                .setParameter("ids", ids)
+                .getResultList();
+        if (rows.isEmpty()) {
+            return DeletedDevices.NONE;
+        }
+        List<Long> found = new ArrayList<>(rows.size());
+        List<String> brands = new ArrayList<>(rows.size());
+        for (Object row : rows) {
+            Object[] columns = (Object[]) row;
+            found.add(((Number) columns[0]).longValue());
+            brands.add((String) columns[1]);
+        }
+        entityManager.createQuery("delete from Device d where d.id in :ids")
+                .setParameter("ids", found)
+                .executeUpdate();
+        return DeletedDevices.of(found, brands);
+    }
+}
@@ -0,0 +1,301 @@
+package com.example.devicemanagement.repository;
+
+import com.example.devicemanagement.dto.DeviceDTO;
+import com.example.devicemanagement.dto.DevicePatch;
+import io.r2dbc.spi.Readable;
+import lombok.RequiredArgsConstructor;
+import org.springframework.context.annotation.Profile;
+import org.springframework.r2dbc.core.DatabaseClient;
+import org.springframework.stereotype.Repository;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.List;
+
+/**
+ * Reactive repository for the devices table, used by the reactive profile.
+ *
+ * Mirrors the queries of {@link DeviceRepository} in SQL, so both variants of the API read the same
+ * rows through the same indexes. Results are emitted as the driver reads them; a {@link Flux} is
+ * only pulled from the database as fast as its subscriber requests elements.
+ */
+@Repository
+@Profile("reactive")
+@RequiredArgsConstructor
+public class ReactiveDeviceRepository {
+
+    private static final String SELECT = "select id, name, brand, creation_time, version from devices ";
+
+    private final DatabaseClient databaseClient;
+
+    /**
+     * Inserts a device, taking its id from the same sequence as JPA.
+     * Every insert draws a new sequence value, i.e. a whole block of JPA's pooled id allocation,
+     * so ids handed out by both variants never collide.
+     * @param device The device to insert; its id is ignored.
+     * @return The inserted device with its id.
+     */
+    public Mono<DeviceDTO> insert(DeviceDTO device) {
+        return databaseClient.sql("select next value for devices_seq")
+                .map(row -> row.get(0, Long.class))
+                .one()
+                .flatMap(id -> databaseClient.sql("insert into devices (id, name, brand, creation_time, version) "
+                                + "values (:id, :name, :brand, :creationTime, 0)")
+                        .bind("id", id)
+                        .bind("name", device.name())
+                        .bind("brand", device.brand())
+                        .bind("creationTime", device.creationTime())
+                        .then()
+                        .thenReturn(new DeviceDTO(id, device.name(), device.brand(), device.creationTime(), 0L)));
+    }
+
+    /**
+     * Finds a device by its ID.
+     * @param id The ID of the device.
+     * @return The device, or empty if it does not exist.
+     */
+    public Mono<DeviceDTO> findById(Long id) {
+        return databaseClient.sql(SELECT + "where id = :id")
+                .bind("id", id)
+                .map(ReactiveDeviceRepository::toDto)
+                .one();
+    }
+
+    /**
+     * Finds the devices with the given ids, in no particular order.
+     * @param ids The IDs of the devices; unknown IDs are ignored.
+     * @return The devices that exist.
+     */
+    public Flux<DeviceDTO> findByIds(Collection<Long> ids) {
+        return databaseClient.sql(SELECT + "where id in (:ids)")
+                .bind("ids", ids)
+                .map(ReactiveDeviceRepository::toDto)
+                .all();
+    }
+
+    /**
+     * Finds the devices after the given id, ordered by id.
+     * @param afterId The id to start after.
+     * @param limit   The maximum number of devices, or 0 for no limit.
+     * @return The devices.
+     */
+    public Flux<DeviceDTO> findAfter(long afterId, int limit) {
+        return databaseClient.sql(limited(SELECT + "where id > :afterId order by id", limit))
+                .bind("afterId", afterId)
+                .map(ReactiveDeviceRepository::toDto)
+                .all();
+    }
+
+    /**
+     * Finds every device of a table, ordered by id.
+     * @param table The devices table, or an archive table named by {@link DeviceArchiveRepository#tableName}.
+     * @return The devices.
+     */
+    public Flux<DeviceDTO> findAllIn(String table) {
+        return databaseClient.sql("select id, name, brand, creation_time, version from " + table + " order by id")
+                .map(ReactiveDeviceRepository::toDto)
+                .all();
+    }
+
+    /**
+     * Finds the devices of a brand after the given id, ordered by id.
+     * @param brand   The brand, matched exactly.
+     * @param afterId The id to start after.
+     * @param limit   The maximum number of devices, or 0 for no limit.
+     * @return The devices.
+     */
+    public Flux<DeviceDTO> findByBrandAfter(String brand, long afterId, int limit) {
+        return databaseClient.sql(limited(SELECT + "where brand = :brand and id > :afterId order by id", limit))
+                .bind("brand", brand)
+                .bind("afterId", afterId)
+                .map(ReactiveDeviceRepository::toDto)
+                .all();
+    }
+
+    /**
+     * Finds the devices of a brand, ignoring case, after the given id, ordered by id.
+     * @param brand   The brand, in any case.
+     * @param afterId The id to start after.
+     * @param limit   The maximum number of devices, or 0 for no limit.
+     * @return The devices.
+     */
+    public Flux<DeviceDTO> findByBrandIgnoreCaseAfter(String brand, long afterId, int limit) {
+        return databaseClient.sql(limited(SELECT + "where brand_normalized = lower(:brand) and id > :afterId order by id", limit))
+                .bind("brand", brand)
+                .bind("afterId", afterId)
+                .map(ReactiveDeviceRepository::toDto)
+                .all();
+    }
+
+    /**
+     * Finds the devices whose brand matches a LIKE pattern, ignoring case, ordered by lower-cased brand and id.
+     * @param pattern    The LIKE pattern, with backslash as escape character.
+     * @param afterBrand The brand of the last device of the previous page, or an empty string for the first page.
+     * @param afterId    The id of the last device of the previous page.
+     * @param limit      The maximum number of devices, or 0 for no limit.
+     * @return The devices.
+     */
+    public Flux<DeviceDTO> findByBrandPrefixAfter(String pattern, String afterBrand, long afterId, int limit) {
+        return databaseClient.sql(limited(SELECT + "where brand_normalized like lower(:pattern) escape '\\' "
+                        + "and brand_normalized >= lower(:afterBrand) "
+                        + "and (brand_normalized > lower(:afterBrand) or id > :afterId) "
+                        + "order by brand_normalized, id", limit))
+                .bind("pattern", pattern)
+                .bind("afterBrand", afterBrand)
+                .bind("afterId", afterId)
+                .map(ReactiveDeviceRepository::toDto)
+                .all();
+    }
+
+    /**
+     * Finds the devices of a table created in a time range after the given one, ordered by creation time and id.
+     * @param table     The devices table, or an archive table named by {@link DeviceArchiveRepository#tableName}.
+     * @param brand     The brand, matched exactly, or {@code null} for every brand.
+     * @param afterTime The creation time of the last device of the previous page, or the start of the range.
+     * @param to        The end of the range, exclusive.
+     * @param afterId   The id of the last device of the previous page.
+     * @param limit     The maximum number of devices, or 0 for no limit.
+     * @return The devices.
+     */
+    public Flux<DeviceDTO> findCreatedBetweenAfter(String table, String brand, LocalDateTime afterTime, LocalDateTime to,
+                                                   long afterId, int limit) {
+        String sql = "select id, name, brand, creation_time, version from " + table + " where "
+                + (brand != null ? "brand = :brand and " : "")
+                + "creation_time >= :afterTime and creation_time < :to and (creation_time > :afterTime or id > :afterId) "
+                + "order by creation_time, id";
+        DatabaseClient.GenericExecuteSpec spec = databaseClient.sql(limited(sql, limit))
+                .bind("afterTime", afterTime)
+                .bind("to", to)
+                .bind("afterId", afterId);
+        if (brand != null) {
+            spec = spec.bind("brand", brand);
+        }
+        return spec.map(ReactiveDeviceRepository::toDto).all();
+    }
+
+    /**
+     * Applies a patch with one UPDATE statement that sets only the patched columns and increments the version.
+     * @param id              The ID of the device.
+     * @param patch           The fields to set.
+     * @param expectedVersion The version the device must still have, or {@code null} to update unconditionally.
+     * @return The number of updated rows, 0 if the device does not exist or has another version.
+     */
+    public Mono<Long> update(Long id, DevicePatch patch, Long expectedVersion) {
+        StringBuilder sql = new StringBuilder("update devices set ");
+        if (patch.name() != null) {
+            sql.append("name = :name, ");
+        }
+        if (patch.brand() != null) {
+            sql.append("brand = :brand, ");
+        }
+        if (patch.creationTime() != null) {
+            sql.append("creation_time = :creationTime, ");
+        }
+        sql.append("version = version + 1 where id = :id");
+        DatabaseClient.GenericExecuteSpec spec = databaseClient.sql(versioned(sql.toString(), expectedVersion))
+                .bind("id", id);
+        if (patch.name() != null) {
+            spec = spec.bind("name", patch.name());
+        }
+        if (patch.brand() != null) {
+            spec = spec.bind("brand", patch.brand());
+        }
+        if (patch.creationTime() != null) {
+            spec = spec.bind("creationTime", patch.creationTime());
+        }
+        if (expectedVersion != null) {
+            spec = spec.bind("version", expectedVersion);
+        }
+        return spec.fetch().rowsUpdated();
+    }
+
+    /**
+     * Reads the brand of a device and locks its row until the end of the caller's transaction.
+     * @param id              The ID of the device.
+     * @param expectedVersion The version the device must have, or {@code null} for any version.
+     * @return The brand of the device, or empty if the device does not exist or has another version.
+     */
+    public Mono<String> findBrandForUpdate(Long id, Long expectedVersion) {
+        DatabaseClient.GenericExecuteSpec spec = databaseClient
+                .sql(versioned("select brand from devices where id = :id", expectedVersion) + " for update")
+                .bind("id", id);
+        if (expectedVersion != null) {
+            spec = spec.bind("version", expectedVersion);
+        }
+        return spec.map(row -> row.get("brand", String.class)).one();
+    }
+
+    /**
+     * Deletes a device by its ID, after reading its brand with {@link #findBrandForUpdate}; call it in a transaction.
+     * @param id              The ID of the device.
+     * @param expectedVersion The version the device must still have, or {@code null} to delete unconditionally.
+     * @return The brand of the deleted device, or empty if the device does not exist or has another version.
+     */
+    public Mono<String> deleteById(Long id, Long expectedVersion) {
+        return findBrandForUpdate(id, expectedVersion)
+                .flatMap(brand -> databaseClient.sql("delete from devices where id = :id")
+                        .bind("id", id)
+                        .fetch().rowsUpdated()
+                        .thenReturn(brand));
+    }
+
+    /**
+     * Deletes the devices with the given ids with one set-based DELETE statement, after reading and locking their
+     * ids and brands; call it in a transaction.
+     * @param ids The IDs of the devices; unknown IDs are ignored.
+     * @return The IDs of the deleted devices and their number per brand.
+     */
+    public Mono<DeletedDevices> deleteByIds(Collection<Long> ids) {
+        record Row(Long id, String brand) {
+        }
+        return databaseClient.sql("select id, brand from devices where id in (:ids) for update")
+                .bind("ids", ids)
+                .map(row -> new Row(row.get("id", Long.class), row.get("brand", String.class)))
+                .all()
+                .collectList()
+                .flatMap(rows -> {
+                    if (rows.isEmpty()) {
+                        return Mono.just(DeletedDevices.NONE);
+                    }
+                    List<Long> found = rows.stream().map(Row::id).toList();
+                    return databaseClient.sql("delete from devices where id in (:ids)")
+                            .bind("ids", found)
+                            .fetch().rowsUpdated()
+                            .thenReturn(DeletedDevices.of(found, rows.stream().map(Row::brand).toList()));
+                });
+    }
+
+    /**
+     * Deletes the first devices of a brand, in id order, after reading and locking their ids; call it in a transaction.
+     * @param brand The brand, matched exactly.
+     * @param limit The maximum number of devices to delete.
+     * @return The ids of the deleted devices.
+     */
+    public Flux<Long> deleteByBrand(String brand, int limit) {
+        return databaseClient.sql(limited("select id from devices where brand = :brand order by id", limit) + " for update")
+                .bind("brand", brand)
+                .map(row -> row.get("id", Long.class))
+                .all()
+                .collectList()
+                .filter(ids -> !ids.isEmpty())
+                .flatMapMany(ids -> databaseClient.sql("delete from devices where id in (:ids)")
+                        .bind("ids", ids)
+                        .fetch().rowsUpdated()
+                        .thenMany(Flux.fromIterable(ids)));
+    }
+
+    private static String versioned(String sql, Long expectedVersion) {
+        return expectedVersion != null ? sql + " and version = :version" : sql;
+    }
+
+    private static String limited(String sql, int limit) {
+        return limit > 0 ? sql + " limit " + limit : sql;
+    }
+
+    private static DeviceDTO toDto(Readable row) {
+        return new DeviceDTO(row.get("id", Long.class), row.get("name", String.class),
+                row.get("brand", String.class), row.get("creation_time", LocalDateTime.class), row.get("version", Long.class));
+    }
+}
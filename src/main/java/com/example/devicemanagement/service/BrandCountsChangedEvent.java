@@ -0,0 +1,48 @@
+package com.example.devicemanagement.service;
+
+import com.example.devicemanagement.dto.BrandCount;
+
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Published whenever devices are created, deleted or moved to another brand.
+ * Carries the change of the device count per brand; brands whose count did not change are left out.
+ *
+ * @param deltas The change of the device count per brand, positive or negative.
+ */
+public record BrandCountsChangedEvent(Map<String, Long> deltas) {
+
+    /**
+     * Creates the event for devices that were created.
+     * @param brands The brand of every created device.
+     * @return The event.
+     */
+    public static BrandCountsChangedEvent created(Collection<String> brands) {
+        Map<String, Long> deltas = new HashMap<>();
+        brands.forEach(brand -> deltas.merge(brand, 1L, Long::sum));
+        return new BrandCountsChangedEvent(deltas);
+    }
+
+    /**
+     * Creates the event for devices that were deleted.
+     * @param counts The number of deleted devices per brand.
+     * @return The event.
+     */
+    public static BrandCountsChangedEvent deleted(Collection<BrandCount> counts) {
+        Map<String, Long> deltas = new HashMap<>();
+        counts.forEach(count -> deltas.merge(count.brand(), -count.count(), Long::sum));
+        return new BrandCountsChangedEvent(deltas);
+    }
+
+    /**
+     * Creates the event for a device whose brand was changed.
+     * @param oldBrand The brand before the change.
+     * @param newBrand The brand after the change.
+     * @return The event.
+     */
+    public static BrandCountsChangedEvent rebranded(String oldBrand, String newBrand) {
+        return new BrandCountsChangedEvent(Map.of(oldBrand, -1L, newBrand, 1L));
+    }
+}
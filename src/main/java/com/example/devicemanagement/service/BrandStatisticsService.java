@@ -0,0 +1,63 @@
+package com.example.devicemanagement.service;
+
+import com.example.devicemanagement.dto.BrandCount;
+import com.example.devicemanagement.repository.DeviceRepository;
+import lombok.RequiredArgsConstructor;
+import org.springframework.beans.factory.SmartInitializingSingleton;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Keeps the number of devices per brand in memory.
+ *
+ * The counts are loaded with one GROUP BY once all beans are created, before the web server accepts
+ * requests, and from then on follow the {@link BrandCountsChangedEvent}s of committed writes. Each brand
+ * has a {@link LongAdder}, so concurrent writes of the same brand do not contend on one counter. Reading
+ * the counts never touches the devices table. Changes that bypass the services, such as SQL run in the
+ * H2 console, are only picked up after a restart.
+ */
+@Service
+@RequiredArgsConstructor
+public class BrandStatisticsService implements SmartInitializingSingleton {
+
+    private final DeviceRepository deviceRepository;
+
+    private final Map<String, LongAdder> counts = new ConcurrentHashMap<>();
+
+    @Override
+    public void afterSingletonsInstantiated() {
+        deviceRepository.countDevicesByBrand().forEach(count -> add(count.brand(), count.count()));
+    }
+
+    /**
+     * Applies a change of the counts once the transaction that made it has committed; a rolled back
+     * write leaves the counts untouched. Changes made outside a transaction are applied right away.
+     * @param event The change of the device count per brand.
+     */
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onBrandCountsChanged(BrandCountsChangedEvent event) {
+        event.deltas().forEach(this::add);
+    }
+
+    /**
+     * Returns the number of devices per brand.
+     * @return The brands that have devices, ordered by brand.
+     */
+    public List<BrandCount> getDeviceCountsByBrand() {
+        return counts.entrySet().stream()
+                .map(entry -> new BrandCount(entry.getKey(), entry.getValue().sum()))
+                .filter(count -> count.count() > 0) // Brands whose last device is gone keep a counter at zero.
+                .sorted(Comparator.comparing(BrandCount::brand))
+                .toList();
+    }
+
+    private void add(String brand, long delta) {
+        counts.computeIfAbsent(brand, key -> new LongAdder()).add(delta);
+    }
+}
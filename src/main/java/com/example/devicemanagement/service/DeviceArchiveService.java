@@ -0,0 +1,171 @@
+package com.example.devicemanagement.service;
+
+import com.example.devicemanagement.config.CacheConfiguration;
+import com.example.devicemanagement.dto.ArchiveResult;
+import com.example.devicemanagement.dto.DeviceDTO;
+import com.example.devicemanagement.exception.InvalidRequestException;
+import com.example.devicemanagement.repository.DeviceArchiveRepository;
+import com.example.devicemanagement.repository.DeviceRepository;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.SmartInitializingSingleton;
+import org.springframework.cache.Cache;
+import org.springframework.cache.CacheManager;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.LocalDateTime;
+import java.time.YearMonth;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.NavigableSet;
+import java.util.concurrent.ConcurrentSkipListSet;
+import java.util.stream.Stream;
+
+/**
+ * Moves devices of past months out of the devices table into monthly archive tables.
+ *
+ * Once a month is archived, its devices no longer weigh on the indexes of the devices table: lookups by
+ * id, brand and name only see the remaining devices, and creation time ranges only read an archive table
+ * when they overlap its month. Devices are moved in chunks of {@link DeviceService#DELETE_CHUNK_SIZE}, each
+ * in its own short transaction, so archiving a large month never locks all of its rows at once.
+ *
+ * Archived devices leave the device cache, the brand counts and the name index like deleted devices do,
+ * and are announced as archived on the change feed. They are still exported, but no longer found by id: the
+ * by-id endpoints answer 404 for them.
+ * A device created later with a creation time in an archived month stays in the devices table until
+ * that month is archived again.
+ */
+@Slf4j
+@Service
+@RequiredArgsConstructor
+public class DeviceArchiveService implements SmartInitializingSingleton {
+
+    private final DeviceRepository deviceRepository;
+
+    private final DeviceArchiveRepository archiveRepository;
+
+    private final TransactionTemplate transactionTemplate;
+
+    private final CacheManager cacheManager;
+
+    private final DeviceChangePublisher changePublisher;
+
+    private final NavigableSet<YearMonth> archivedMonths = new ConcurrentSkipListSet<>();
+
+    @Override
+    public void afterSingletonsInstantiated() {
+        archivedMonths.addAll(archiveRepository.findArchivedMonths());
+    }
+
+    /**
+     * Moves every device created before the given month into the archive table of its month.
+     * @param before The first month to keep in the devices table; must not be later than the current month.
+     * @return The number of archived devices and the months they belonged to.
+     * @throws InvalidRequestException if the month has not started yet.
+     */
+    public ArchiveResult archiveBefore(YearMonth before) {
+        if (before.isAfter(YearMonth.now())) {
+            throw new InvalidRequestException("Only months that have started can be kept, not " + before);
+        }
+        LocalDateTime oldest = deviceRepository.findOldestCreationTime().orElse(null);
+        if (oldest == null) {
+            return new ArchiveResult(0, List.of());
+        }
+        int archived = 0;
+        List<YearMonth> months = new ArrayList<>();
+        for (YearMonth month = YearMonth.from(oldest); month.isBefore(before); month = month.plusMonths(1)) {
+            int moved = archiveMonth(month);
+            if (moved > 0) {
+                archived += moved;
+                months.add(month);
+            }
+        }
+        return new ArchiveResult(archived, months);
+    }
+
+    /**
+     * Moves the devices of one month, one chunk per transaction.
+     */
+    private int archiveMonth(YearMonth month) {
+        if (!archivedMonths.contains(month)) {
+            archiveRepository.createArchive(month);
+            archivedMonths.add(month); // Before moving, so no range query misses a device that has just been moved.
+        }
+        int archived = 0;
+        int chunk;
+        do {
+            chunk = transactionTemplate.execute(status -> moveChunk(month));
+            archived += chunk;
+        } while (chunk == DeviceService.DELETE_CHUNK_SIZE);
+        if (archived > 0) {
+            log.info("Archived {} devices created in {} to {}", archived, month, DeviceArchiveRepository.tableName(month));
+        }
+        return archived;
+    }
+
+    private int moveChunk(YearMonth month) {
+        List<DeviceDTO> moved = archiveRepository.moveToArchive(month, DeviceService.DELETE_CHUNK_SIZE);
+        if (moved.isEmpty()) {
+            return 0;
+        }
+        List<Long> ids = moved.stream().map(DeviceDTO::id).toList();
+        Cache cache = cacheManager.getCache(CacheConfiguration.DEVICES_CACHE);
+        if (cache != null) {
+            ids.forEach(cache::evict); // Applied after commit.
+        }
+        changePublisher.archived(moved);
+        return moved.size();
+    }
+
+    /**
+     * Returns every archived month.
+     * @return The archived months, oldest first.
+     */
+    public List<YearMonth> archivedMonths() {
+        return List.copyOf(archivedMonths);
+    }
+
+    /**
+     * Streams every archived device, month by month and within a month by id, over one database cursor per
+     * month; the stream must be closed.
+     * @return The archived devices.
+     */
+    public Stream<DeviceDTO> streamArchived() {
+        return archivedMonths().stream().flatMap(archiveRepository::streamAll); // Each month's cursor is closed when read.
+    }
+
+    /**
+     * Returns the archived months that overlap a time range.
+     * @param from The start of the range, inclusive.
+     * @param to   The end of the range, exclusive.
+     * @return The archived months, oldest first.
+     */
+    public List<YearMonth> archivedMonthsBetween(LocalDateTime from, LocalDateTime to) {
+        if (!from.isBefore(to)) {
+            return List.of();
+        }
+        return List.copyOf(archivedMonths.subSet(YearMonth.from(from), true, YearMonth.from(to.minusNanos(1)), true));
+    }
+
+    /**
+     * Finds the next page of archived devices created in a time range, across the archive tables of the range.
+     * @param brand     The brand of the devices to find, matched exactly, or {@code null} for every brand.
+     * @param afterTime The creation time of the last device of the previous page, or the start of the range.
+     * @param to        The end of the range, exclusive.
+     * @param afterId   The id of the last device of the previous page (0 for the first page).
+     * @param limit     The maximum number of devices to return from each archive table.
+     * @return The matching devices, ordered by creation time and id.
+     */
+    public List<DeviceDTO> findCreatedBetweenAfter(String brand, LocalDateTime afterTime, LocalDateTime to,
+                                                   long afterId, int limit) {
+        List<DeviceDTO> devices = new ArrayList<>();
+        for (YearMonth month : archivedMonthsBetween(afterTime, to)) { // Months are disjoint and in order.
+            devices.addAll(archiveRepository.findCreatedBetweenAfter(month, brand, afterTime, to, afterId, limit - devices.size()));
+            if (devices.size() >= limit) {
+                break;
+            }
+        }
+        return devices;
+    }
+}
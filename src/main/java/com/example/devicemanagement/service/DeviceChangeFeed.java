@@ -0,0 +1,115 @@
+package com.example.devicemanagement.service;
+
+import com.example.devicemanagement.config.ChangeFeedConfiguration.DeviceChangeFeedProperties;
+import com.example.devicemanagement.dto.DeviceChange;
+import com.example.devicemanagement.exception.DeviceChangesLostException;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.event.TransactionalEventListener;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.core.publisher.Sinks;
+import reactor.core.scheduler.Schedulers;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Feed of committed device changes that clients can follow and resume.
+ *
+ * Every change gets the next sequence number and is written into a ring buffer of the most recent
+ * {@link DeviceChangeFeedProperties#capacity()} changes. Writers only append to the ring and send a wake-up
+ * signal; they never wait for subscribers. Each subscriber keeps its own position and copies the changes
+ * after it from the ring on its own thread, so a slow client only delays itself. A client that falls so
+ * far behind that its next change has been overwritten gets a {@link DeviceChangesLostException} and has
+ * to reload the devices.
+ *
+ * Sequence numbers start at 1 with every start of the application; a position beyond the current one
+ * therefore belongs to an earlier run and is treated like a lost position.
+ */
+@Service
+public class DeviceChangeFeed {
+
+    private final DeviceChange[] ring;
+
+    private long head; // Sequence of the latest change, guarded by the ring.
+
+    private final Sinks.Many<Long> appended = Sinks.many().multicast().directBestEffort(); // Emitted while holding the ring.
+
+    public DeviceChangeFeed(DeviceChangeFeedProperties properties) {
+        this.ring = new DeviceChange[properties.capacity()];
+    }
+
+    /**
+     * Appends the changes once the transaction that made them has committed; a rolled back write is never
+     * seen by clients. Changes made outside a transaction are appended right away.
+     * @param event The changed devices.
+     */
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onDevicesChanged(DevicesChangedEvent event) {
+        if (event.ids().isEmpty()) {
+            return;
+        }
+        synchronized (ring) {
+            for (Long id : event.ids()) {
+                head++;
+                ring[(int) (head % ring.length)] = new DeviceChange(head, event.type(), id);
+            }
+            appended.tryEmitNext(head); // Never blocks; subscribers keep only the latest signal.
+        }
+    }
+
+    /**
+     * Returns the sequence number of the latest change.
+     * @return The current position of the feed, 0 if nothing has changed yet.
+     */
+    public long head() {
+        synchronized (ring) {
+            return head;
+        }
+    }
+
+    /**
+     * Copies every change after a position out of the ring.
+     * @param after The sequence number of the last change the caller has seen.
+     * @return The changes after it, oldest first; empty if the caller is up to date.
+     * @throws DeviceChangesLostException if changes after the position have been overwritten, or the
+     *                                    position is unknown to this run of the application.
+     */
+    public List<DeviceChange> readAfter(long after) {
+        synchronized (ring) {
+            if (after < 0 || after > head || head - after > ring.length) {
+                throw new DeviceChangesLostException(after);
+            }
+            List<DeviceChange> changes = new ArrayList<>((int) (head - after));
+            for (long sequence = after + 1; sequence <= head; sequence++) {
+                changes.add(ring[(int) (sequence % ring.length)]);
+            }
+            return changes;
+        }
+    }
+
+    /**
+     * Follows the feed from a position. The returned flux never completes on its own; it fails with
+     * {@link DeviceChangesLostException} once the subscriber has fallen behind the ring.
+     * @param after The sequence number of the last change the client has seen, or {@code null} to receive
+     *              only changes made from now on.
+     * @return The changes after the position, in sequence order.
+     */
+    public Flux<DeviceChange> changesAfter(Long after) {
+        return Flux.defer(() -> {
+            long[] position = {after != null ? after : head()};
+            // Subscribes to the signals before the first read, so no change can slip in between unnoticed.
+            return appended.asFlux()
+                    .onBackpressureLatest()
+                    .mergeWith(Mono.just(position[0]))
+                    .publishOn(Schedulers.boundedElastic(), 1) // Reads and writes to the client off the writer's thread.
+                    .concatMapIterable(signal -> {
+                        List<DeviceChange> changes = readAfter(position[0]);
+                        if (!changes.isEmpty()) {
+                            position[0] = changes.get(changes.size() - 1).sequence();
+                        }
+                        return changes;
+                    });
+        });
+    }
+}
@@ -0,0 +1,115 @@
+package com.example.devicemanagement.service;
+
+import com.example.devicemanagement.dto.BrandCount;
+import com.example.devicemanagement.dto.DeviceDTO;
+import com.example.devicemanagement.dto.DevicePatch;
+import lombok.RequiredArgsConstructor;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.stereotype.Service;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Collectors;
+
+/**
+ * Announces written devices to everything that follows the devices table: the brand counts, the name index,
+ * the id filter, the read replica and the change feed.
+ *
+ * Every write path, blocking, reactive, write-behind or archiving, calls one method here per change, which
+ * publishes the {@link BrandCountsChangedEvent}, {@link DeviceNamesChangedEvent} and {@link DevicesChangedEvent}
+ * together, so the listeners always hear about the same devices. Listeners bound to a transaction receive the
+ * events once it commits.
+ */
+@Service
+@RequiredArgsConstructor
+public class DeviceChangePublisher {
+
+    private final ApplicationEventPublisher eventPublisher;
+
+    /**
+     * Announces created devices.
+     * @param devices The created devices, with their ids.
+     */
+    public void created(Collection<DeviceDTO> devices) {
+        if (devices.isEmpty()) {
+            return;
+        }
+        Map<Long, String> names = new HashMap<>();
+        devices.forEach(device -> names.put(device.id(), device.name()));
+        eventPublisher.publishEvent(BrandCountsChangedEvent.created(devices.stream().map(DeviceDTO::brand).toList()));
+        eventPublisher.publishEvent(DeviceNamesChangedEvent.named(names));
+        eventPublisher.publishEvent(DevicesChangedEvent.created(devices.stream().map(DeviceDTO::id).toList()));
+    }
+
+    /**
+     * Announces created devices whose ids were assigned on insert.
+     * @param ids     The ids of the created devices, in the order of {@code devices}.
+     * @param devices The created devices as requested, without ids.
+     */
+    public void created(List<Long> ids, List<DeviceDTO> devices) {
+        List<DeviceDTO> created = new ArrayList<>(ids.size());
+        for (int i = 0; i < ids.size(); i++) {
+            DeviceDTO device = devices.get(i);
+            created.add(new DeviceDTO(ids.get(i), device.name(), device.brand(), device.creationTime()));
+        }
+        created(created);
+    }
+
+    /**
+     * Announces an updated device.
+     * @param id       The id of the device.
+     * @param oldBrand The brand before the update, or {@code null} if the patch did not set the brand.
+     * @param patch    The fields that were set.
+     */
+    public void updated(Long id, String oldBrand, DevicePatch patch) {
+        if (oldBrand != null && !oldBrand.equals(patch.brand())) {
+            eventPublisher.publishEvent(BrandCountsChangedEvent.rebranded(oldBrand, patch.brand()));
+        }
+        if (patch.name() != null) {
+            eventPublisher.publishEvent(DeviceNamesChangedEvent.named(id, patch.name()));
+        }
+        eventPublisher.publishEvent(DevicesChangedEvent.updated(id));
+    }
+
+    /**
+     * Announces one deleted device.
+     * @param id    The id of the device.
+     * @param brand The brand the device had.
+     */
+    public void deleted(Long id, String brand) {
+        deleted(List.of(id), List.of(new BrandCount(brand, 1)));
+    }
+
+    /**
+     * Announces deleted devices; nothing is published if no device was deleted.
+     * @param ids    The ids of the devices that were actually deleted.
+     * @param brands The number of deleted devices per brand.
+     */
+    public void deleted(Collection<Long> ids, Collection<BrandCount> brands) {
+        if (ids.isEmpty()) {
+            return;
+        }
+        eventPublisher.publishEvent(BrandCountsChangedEvent.deleted(brands));
+        eventPublisher.publishEvent(DeviceNamesChangedEvent.removed(ids));
+        eventPublisher.publishEvent(DevicesChangedEvent.deleted(ids));
+    }
+
+    /**
+     * Announces devices moved from the devices table to an archive table.
+     * @param devices The archived devices.
+     */
+    public void archived(Collection<DeviceDTO> devices) {
+        if (devices.isEmpty()) {
+            return;
+        }
+        List<Long> ids = devices.stream().map(DeviceDTO::id).toList();
+        Map<String, Long> brands = devices.stream().collect(Collectors.groupingBy(DeviceDTO::brand, Collectors.counting()));
+        eventPublisher.publishEvent(BrandCountsChangedEvent.deleted(
+                brands.entrySet().stream().map(entry -> new BrandCount(entry.getKey(), entry.getValue())).toList()));
+        eventPublisher.publishEvent(DeviceNamesChangedEvent.removed(ids));
+        eventPublisher.publishEvent(DevicesChangedEvent.archived(ids));
+    }
+}
@@ -0,0 +1,76 @@
+package com.example.devicemanagement.service;
+
+import com.example.devicemanagement.exception.InvalidCursorException;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Base64;
+
+/**
+ * Position of the last device of a page, used for keyset pagination.
+ *
+ * A cursor always carries the id of the last device. Listings that are ordered by another
+ * column first (for example the normalized brand) also carry that column's value as the key.
+ * Clients only ever see the encoded form and must treat it as an opaque string; the encoding
+ * is an implementation detail and may change.
+ *
+ * @param id  The id of the last device returned.
+ * @param key The value of the leading sort column of the last device, or {@code null} when ordered by id only.
+ */
+public record DeviceCursor(long id, String key) {
+
+    private static final String PREFIX = "id:";
+
+    /**
+     * Creates a cursor for a listing ordered by id only.
+     * @param id The id of the last device returned.
+     * @return The cursor.
+     */
+    public static DeviceCursor after(long id) {
+        return new DeviceCursor(id, null);
+    }
+
+    /**
+     * Creates a cursor for a listing ordered by a key column and then by id.
+     * @param key The value of the leading sort column of the last device returned.
+     * @param id  The id of the last device returned.
+     * @return The cursor.
+     */
+    public static DeviceCursor after(String key, long id) {
+        return new DeviceCursor(id, key);
+    }
+
+    /**
+     * Encodes this cursor into the opaque form handed to clients.
+     * @return The opaque cursor.
+     */
+    public String encode() {
+        String raw = key == null ? PREFIX + id : PREFIX + id + ':' + key;
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(raw.getBytes(StandardCharsets.UTF_8));
+    }
+
+    /**
+     * Decodes a cursor previously produced by {@link #encode()}.
+     * @param cursor The opaque cursor.
+     * @return The decoded cursor.
+     * @throws InvalidCursorException if the cursor is malformed.
+     */
+    public static DeviceCursor decode(String cursor) {
+        String raw;
+        try {
+            raw = new String(Base64.getUrlDecoder().decode(cursor), StandardCharsets.UTF_8);
+        } catch (IllegalArgumentException e) {
+            throw new InvalidCursorException(cursor, e);
+        }
+        if (!raw.startsWith(PREFIX)) {
+            throw new InvalidCursorException(cursor);
+        }
+        int separator = raw.indexOf(':', PREFIX.length());
+        String id = separator < 0 ? raw.substring(PREFIX.length()) : raw.substring(PREFIX.length(), separator);
+        String key = separator < 0 ? null : raw.substring(separator + 1);
+        try {
+            return new DeviceCursor(Long.parseLong(id), key);
+        } catch (NumberFormatException e) {
+            throw new InvalidCursorException(cursor, e);
+        }
+    }
+}
@@ -0,0 +1,281 @@
+package com.example.devicemanagement.service;
+
+import com.example.devicemanagement.config.IdFilterConfiguration;
+import com.example.devicemanagement.dto.DeviceChange;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.context.SmartLifecycle;
+import org.springframework.context.event.EventListener;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * Bloom filter over the ids of the stored devices, so lookups of ids that do not exist are answered without a query.
+ *
+ * The filter answers "maybe" for every stored id and "no" for most others; a "maybe" is checked against the
+ * database as before. It is filled from the devices table on startup, before the web server accepts requests,
+ * and every created id is added when its {@link DevicesChangedEvent} is published, before the creating
+ * transaction commits, and again after the commit, so a stored device is never filtered out.
+ *
+ * Ids cannot be taken out of a Bloom filter: deleted and archived ids keep answering "maybe" and cost a query,
+ * and a filter holding more ids than it was sized for answers "maybe" ever more often. Once either has grown
+ * too far, a background thread builds a new filter from the table, adding the ids created meanwhile to both.
+ */
+@Slf4j
+@Service
+public class DeviceIdFilter implements SmartLifecycle {
+
+    private static final long POLL_MILLIS = 100;
+
+    private final JdbcTemplate jdbcTemplate;
+
+    private final IdFilterConfiguration.DeviceIdFilterProperties properties;
+
+    private final Counter filteredCounter;
+
+    private final Semaphore rebuildRequests = new Semaphore(0);
+
+    private final AtomicBoolean rebuildRequested = new AtomicBoolean();
+
+    private volatile Bits current; // Null until loaded: every id may exist.
+
+    private volatile Bits next; // The filter being built, if any; created ids go to both.
+
+    private volatile boolean running;
+
+    private Thread rebuilder;
+
+    public DeviceIdFilter(JdbcTemplate jdbcTemplate, IdFilterConfiguration.DeviceIdFilterProperties properties,
+                          MeterRegistry meterRegistry) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.properties = properties;
+        this.filteredCounter = Counter.builder("device.lookups.filtered")
+                .description("Device lookups answered as not found by the id filter, without a query")
+                .register(meterRegistry);
+    }
+
+    /**
+     * Checks whether a device with the given id may exist.
+     * @param id The id of the device.
+     * @return {@code false} if the device certainly does not exist, {@code true} if it has to be looked up.
+     */
+    public boolean mightContain(long id) {
+        Bits bits = current;
+        if (bits == null || bits.mightContain(id)) {
+            return true;
+        }
+        filteredCounter.increment();
+        return false;
+    }
+
+    /**
+     * Adds created ids as soon as the event is published, i.e. before their transaction commits, so a committed
+     * device is never filtered out. Ids of a transaction that is rolled back only cost a query when looked up.
+     * @param event The changed devices.
+     */
+    @EventListener
+    public void onDevicesChanging(DevicesChangedEvent event) {
+        if (event.type() == DeviceChange.Type.CREATED) {
+            add(event);
+        }
+    }
+
+    /**
+     * Adds created ids once more after commit, now also to a filter whose load started before the event was
+     * published but read the table before the commit. Counts deleted and archived ids.
+     * @param event The changed devices.
+     */
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onDevicesChanged(DevicesChangedEvent event) {
+        Bits bits = current;
+        if (event.type() == DeviceChange.Type.CREATED) {
+            add(event);
+            if (bits != null) {
+                bits.added.addAndGet(event.ids().size());
+            }
+        } else if (event.type() != DeviceChange.Type.UPDATED && bits != null) {
+            bits.removed.addAndGet(event.ids().size());
+        }
+        if (bits != null && bits.isStale() && rebuildRequested.compareAndSet(false, true)) {
+            rebuildRequests.release();
+        }
+    }
+
+    private void add(DevicesChangedEvent event) {
+        Bits building = next; // Read before current: a rebuild publishes current before clearing next.
+        Bits bits = current;
+        for (Long id : event.ids()) {
+            if (bits != null) {
+                bits.add(id);
+            }
+            if (building != null) {
+                building.add(id);
+            }
+        }
+    }
+
+    /**
+     * Fills the filter with the stored ids, then starts the thread that rebuilds it.
+     */
+    @Override
+    public void start() {
+        if (!properties.enabled()) {
+            return;
+        }
+        current = load();
+        next = null;
+        log.info("Loaded {} device ids into the id filter", current.added.get());
+        running = true;
+        rebuilder = new Thread(this::rebuildWhenRequested, "device-id-filter");
+        rebuilder.setDaemon(true);
+        rebuilder.start();
+    }
+
+    @Override
+    public void stop() {
+        running = false;
+        if (rebuilder != null) {
+            try {
+                rebuilder.join(TimeUnit.SECONDS.toMillis(5));
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }
+    }
+
+    @Override
+    public boolean isRunning() {
+        return running;
+    }
+
+    @Override
+    public int getPhase() {
+        // Lower than the web server's phases: loaded before it accepts requests.
+        return SmartLifecycle.DEFAULT_PHASE - 4096;
+    }
+
+    private void rebuildWhenRequested() {
+        while (running) {
+            try {
+                if (rebuildRequests.tryAcquire(POLL_MILLIS, TimeUnit.MILLISECONDS)) {
+                    rebuild();
+                }
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return;
+            }
+        }
+    }
+
+    private void rebuild() {
+        try {
+            Bits rebuilt = load();
+            current = rebuilt; // Before next is cleared, so no id added meanwhile misses the new filter.
+            log.info("Rebuilt the id filter with {} device ids", rebuilt.added.get());
+        } catch (RuntimeException e) {
+            log.error("Rebuilding the id filter failed; keeping the current one", e);
+        } finally {
+            next = null;
+            rebuildRequested.set(false);
+        }
+    }
+
+    /**
+     * Builds a filter from the devices table, sized for twice the stored ids so it does not fill up right away.
+     * The caller publishes it and then clears {@link #next}.
+     */
+    private Bits load() {
+        long count = jdbcTemplate.queryForObject("select count(*) from devices", Long.class);
+        Bits bits = new Bits(Math.max(properties.expectedDevices(), 2 * count), properties.falsePositiveProbability());
+        next = bits; // Created ids are added from now on; those committed already are read below.
+        jdbcTemplate.query("select id from devices", row -> {
+            bits.add(row.getLong(1));
+            bits.added.incrementAndGet();
+        });
+        return bits;
+    }
+
+    /**
+     * The bit array of one filter, set with atomic ORs so adding needs no lock.
+     */
+    static final class Bits {
+
+        private final AtomicLongArray words;
+
+        private final long size; // Number of bits.
+
+        private final int hashes;
+
+        private final long capacity;
+
+        private final AtomicLong added = new AtomicLong();
+
+        private final AtomicLong removed = new AtomicLong();
+
+        /**
+         * Sizes the filter with the usual formulas: {@code m = -n ln p / (ln 2)^2} bits and {@code k = m / n ln 2} hashes.
+         * @param capacity                 The number of ids the filter is sized for.
+         * @param falsePositiveProbability The share of absent ids answered with "maybe" when the filter is full.
+         */
+        Bits(long capacity, double falsePositiveProbability) {
+            this.capacity = capacity;
+            long bits = (long) Math.ceil(-capacity * Math.log(falsePositiveProbability) / (Math.log(2) * Math.log(2)));
+            this.words = new AtomicLongArray((int) Math.max(1, (bits + 63) / 64));
+            this.size = words.length() * 64L;
+            this.hashes = (int) Math.max(1, Math.round((double) size / capacity * Math.log(2)));
+        }
+
+        void add(long id) {
+            long h1 = mix(id);
+            long h2 = mix(h1) | 1; // Odd, so the probes do not repeat.
+            for (int i = 0; i < hashes; i++) {
+                long bit = Math.floorMod(h1 + i * h2, size);
+                long mask = 1L << bit;
+                int word = (int) (bit >>> 6);
+                if ((words.get(word) & mask) == 0) { // Reading first spares the cache line a write when already set.
+                    words.getAndAccumulate(word, mask, (value, m) -> value | m);
+                }
+            }
+        }
+
+        boolean mightContain(long id) {
+            long h1 = mix(id);
+            long h2 = mix(h1) | 1;
+            for (int i = 0; i < hashes; i++) {
+                long bit = Math.floorMod(h1 + i * h2, size);
+                if ((words.get((int) (bit >>> 6)) & (1L << bit)) == 0) {
+                    return false;
+                }
+            }
+            return true;
+        }
+
+        /**
+         * Too many ids for the size, or a quarter of the capacity spent on ids that no longer exist.
+         */
+        boolean isStale() {
+            return added.get() > capacity || removed.get() > capacity / 4;
+        }
+
+        /**
+         * The finalizer of MurmurHash3, so consecutive ids land on unrelated bits.
+         */
+        private static long mix(long value) {
+            long hash = value;
+            hash ^= hash >>> 33;
+            hash *= 0xff51afd7ed558ccdL;
+            hash ^= hash >>> 33;
+            hash *= 0xc4ceb93fe1a85a63L;
+            hash ^= hash >>> 33;
+            return hash;
+        }
+    }
+}
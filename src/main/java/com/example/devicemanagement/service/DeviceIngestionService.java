@@ -0,0 +1,239 @@
+package com.example.devicemanagement.service;
+
+import com.example.devicemanagement.config.IngestionConfiguration.DeviceIngestionProperties;
+import com.example.devicemanagement.dto.DeviceDTO;
+import com.example.devicemanagement.dto.IngestionStatus;
+import com.example.devicemanagement.exception.DeviceIngestionRejectedException;
+import com.example.devicemanagement.exception.DeviceNotFoundException;
+import com.example.devicemanagement.repository.DeviceBatchRepository;
+import com.example.devicemanagement.repository.DeviceIdAllocator;
+import com.example.devicemanagement.repository.DeviceRepository;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.SmartLifecycle;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Write-behind creation of devices, enabled with {@code device.ingestion.enabled=true}.
+ *
+ * An accepted device gets its id right away and is put on a bounded in-memory queue. A single writer
+ * thread drains the queue and inserts whatever has accumulated, up to the batch size, as one JDBC batch
+ * in one transaction. Under load, devices queue up while the previous batch commits, so many requests
+ * share one commit instead of paying for their own. When the queue is full, new devices are rejected
+ * instead of waiting, so the caller can back off.
+ *
+ * The writer is stopped after the web server: every device accepted before shutdown is written before
+ * the database goes away, unless that takes longer than the configured shutdown timeout.
+ */
+@Slf4j
+@Service
+@ConditionalOnProperty(prefix = "device.ingestion", name = "enabled", havingValue = "true")
+public class DeviceIngestionService implements SmartLifecycle {
+
+    /**
+     * How long the ids of devices that could not be written are remembered for status requests.
+     */
+    private static final Duration FAILED_RETENTION = Duration.ofHours(1);
+
+    /**
+     * How long the writer waits for a device before checking whether it has been stopped.
+     */
+    private static final long POLL_MILLIS = 100;
+
+    private final DeviceIdAllocator idAllocator;
+
+    private final DeviceBatchRepository batchRepository;
+
+    private final DeviceRepository deviceRepository;
+
+    private final TransactionTemplate transactionTemplate;
+
+    private final DeviceChangePublisher changePublisher;
+
+    private final DeviceIngestionProperties properties;
+
+    private final BlockingQueue<DeviceDTO> queue;
+
+    private final Set<Long> pending = ConcurrentHashMap.newKeySet(); // Accepted, not yet committed.
+
+    private final Cache<Long, Boolean> failed;
+
+    private final Counter persistedCounter;
+
+    private final Counter failedCounter;
+
+    private volatile boolean running;
+
+    private Thread writer;
+
+    public DeviceIngestionService(DeviceIdAllocator idAllocator, DeviceBatchRepository batchRepository,
+                                  DeviceRepository deviceRepository, TransactionTemplate transactionTemplate,
+                                  DeviceChangePublisher changePublisher, DeviceIngestionProperties properties,
+                                  MeterRegistry meterRegistry) {
+        this.idAllocator = idAllocator;
+        this.batchRepository = batchRepository;
+        this.deviceRepository = deviceRepository;
+        this.transactionTemplate = transactionTemplate;
+        this.changePublisher = changePublisher;
+        this.properties = properties;
+        this.queue = new ArrayBlockingQueue<>(properties.capacity());
+        this.failed = Caffeine.newBuilder()
+                .maximumSize(properties.capacity())
+                .expireAfterWrite(FAILED_RETENTION)
+                .build();
+        Gauge.builder("device.ingestion.queue", queue, Collection::size)
+                .description("Devices accepted and waiting to be written")
+                .register(meterRegistry);
+        this.persistedCounter = Counter.builder("device.ingestion.devices").tag("outcome", "persisted")
+                .description("Devices written by the ingestion writer").register(meterRegistry);
+        this.failedCounter = Counter.builder("device.ingestion.devices").tag("outcome", "failed")
+                .description("Devices written by the ingestion writer").register(meterRegistry);
+    }
+
+    /**
+     * Accepts a device for asynchronous creation.
+     * @param deviceDTO Data transfer object containing device details.
+     * @return The device as it will be written, including its id.
+     * @throws DeviceIngestionRejectedException if the queue is full or the writer is not running.
+     */
+    public DeviceDTO submit(DeviceDTO deviceDTO) {
+        if (!running) {
+            throw new DeviceIngestionRejectedException("Device ingestion is not running");
+        }
+        if (queue.remainingCapacity() == 0) { // Spares the id of a device that would be rejected anyway.
+            throw new DeviceIngestionRejectedException("Device ingestion queue is full, please retry later");
+        }
+        DeviceDTO device = new DeviceDTO(idAllocator.nextId(), deviceDTO.name(), deviceDTO.brand(),
+                deviceDTO.creationTime() != null ? deviceDTO.creationTime() : LocalDateTime.now(), 0L);
+        pending.add(device.id());
+        if (!queue.offer(device)) {
+            pending.remove(device.id());
+            throw new DeviceIngestionRejectedException("Device ingestion queue is full, please retry later");
+        }
+        return device;
+    }
+
+    /**
+     * Tells whether a device accepted by {@link #submit(DeviceDTO)} has been written.
+     * @param id The id returned when the device was accepted.
+     * @return The state of the device.
+     * @throws DeviceNotFoundException if the id is neither queued, failed nor stored.
+     */
+    public IngestionStatus getStatus(Long id) {
+        if (pending.contains(id)) {
+            return new IngestionStatus(id, IngestionStatus.State.PENDING);
+        }
+        if (failed.getIfPresent(id) != null) {
+            return new IngestionStatus(id, IngestionStatus.State.FAILED);
+        }
+        if (deviceRepository.existsById(id)) {
+            return new IngestionStatus(id, IngestionStatus.State.PERSISTED);
+        }
+        throw new DeviceNotFoundException(id);
+    }
+
+    @Override
+    public void start() {
+        running = true;
+        writer = new Thread(this::drain, "device-ingestion-writer");
+        writer.setDaemon(true); // Never keeps the JVM alive once the shutdown timeout has passed.
+        writer.start();
+    }
+
+    @Override
+    public void stop() {
+        running = false;
+        try {
+            writer.join(properties.shutdownTimeout().toMillis());
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        if (writer.isAlive()) {
+            log.warn("Device ingestion did not finish within {}, {} accepted devices were not written",
+                    properties.shutdownTimeout(), queue.size());
+        }
+    }
+
+    @Override
+    public boolean isRunning() {
+        return running;
+    }
+
+    @Override
+    public int getPhase() {
+        // Lower than the web server's phases: stopped after it, so no request can be accepted and then dropped.
+        return SmartLifecycle.DEFAULT_PHASE - 4096;
+    }
+
+    /**
+     * Writer loop: keeps writing batches until it has been stopped and the queue is empty.
+     */
+    private void drain() {
+        List<DeviceDTO> batch = new ArrayList<>(properties.batchSize());
+        while (running || !queue.isEmpty()) {
+            try {
+                DeviceDTO first = queue.poll(POLL_MILLIS, TimeUnit.MILLISECONDS);
+                if (first == null) {
+                    continue;
+                }
+                batch.add(first);
+                queue.drainTo(batch, properties.batchSize() - 1); // Everything that queued up meanwhile shares the commit.
+                write(batch);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return;
+            } finally {
+                batch.clear();
+            }
+        }
+    }
+
+    /**
+     * Writes a batch in one transaction. If that fails, the devices are written one by one, so a
+     * single bad device does not fail the others.
+     */
+    private void write(List<DeviceDTO> batch) {
+        try {
+            transactionTemplate.executeWithoutResult(status -> insert(batch));
+            persistedCounter.increment(batch.size());
+        } catch (RuntimeException e) {
+            log.warn("Writing a batch of {} devices failed, retrying them one by one: {}", batch.size(), e.getMessage());
+            batch.forEach(this::writeOne);
+        } finally {
+            batch.forEach(device -> pending.remove(device.id())); // Only after commit, so PERSISTED is always readable.
+        }
+    }
+
+    private void insert(List<DeviceDTO> devices) {
+        batchRepository.insertAll(devices);
+        changePublisher.created(devices);
+    }
+
+    private void writeOne(DeviceDTO device) {
+        try {
+            transactionTemplate.executeWithoutResult(status -> insert(List.of(device)));
+            persistedCounter.increment();
+        } catch (RuntimeException e) {
+            log.error("Device with id {} could not be written: {}", device.id(), e.getMessage());
+            failed.put(device.id(), Boolean.TRUE);
+            failedCounter.increment();
+        }
+    }
+}
@@ -0,0 +1,271 @@
+package com.example.devicemanagement.service;
+
+import com.example.devicemanagement.dto.DeviceDTO;
+import com.example.devicemanagement.exception.InvalidRequestException;
+import com.example.devicemanagement.repository.DeviceRepository;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.SmartInitializingSingleton;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.event.TransactionalEventListener;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.function.LongConsumer;
+import java.util.stream.Stream;
+
+/**
+ * In-memory trigram index over the device names, answering "name contains" searches without scanning
+ * the devices table.
+ *
+ * Every lower-cased name is split into its overlapping three-character sequences, and each trigram keeps
+ * a sorted array of the ids whose name contains it. A search intersects the arrays of the query's
+ * trigrams, starting with the shortest, and checks the few remaining candidates against the name kept
+ * in memory, so only real substring matches are returned.
+ *
+ * The index is built with one pass over the table once all beans are created, before the web server
+ * accepts requests, and from then on follows the {@link DeviceNamesChangedEvent}s of committed writes.
+ * Changes that bypass the services, such as SQL run in the H2 console, are only picked up after a restart.
+ */
+@Slf4j
+@Service
+@RequiredArgsConstructor
+public class DeviceNameIndex implements SmartInitializingSingleton {
+
+    /**
+     * Length of the indexed character sequences, and therefore the shortest query that can be answered.
+     */
+    public static final int MIN_QUERY_LENGTH = 3;
+
+    private final DeviceRepository deviceRepository;
+
+    private final TransactionTemplate transactionTemplate;
+
+    private final Map<Long, String> names = new HashMap<>(); // Lower-cased name by id.
+
+    private final Map<Long, Postings> postings = new HashMap<>(); // Ids by packed trigram.
+
+    private final ReadWriteLock lock = new ReentrantReadWriteLock(); // Searches share the index, writes are exclusive.
+
+    /**
+     * A device whose name contains the query, with its position in the ranking.
+     * @param id   The id of the device.
+     * @param rank Lower ranks first: exact matches, then prefixes, then matches at a word start, then any
+     *             other match; within each, shorter names first.
+     */
+    public record Match(long id, long rank) {
+
+        /**
+         * Order of the search results: by rank, then by id.
+         */
+        public static final Comparator<Match> ORDER = Comparator.comparingLong(Match::rank).thenComparingLong(Match::id);
+    }
+
+    @Override
+    public void afterSingletonsInstantiated() {
+        lock.writeLock().lock();
+        try {
+            transactionTemplate.executeWithoutResult(status -> {
+                try (Stream<DeviceDTO> devices = deviceRepository.streamAllDtos()) {
+                    devices.forEach(device -> put(device.id(), device.name()));
+                }
+            });
+        } finally {
+            lock.writeLock().unlock();
+        }
+        log.info("Indexed the names of {} devices with {} trigrams", names.size(), postings.size());
+    }
+
+    /**
+     * Applies created, renamed and deleted devices once the transaction that made the change has committed;
+     * a rolled back write leaves the index untouched. Changes made outside a transaction are applied right away.
+     * @param event The changed device names.
+     */
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onDeviceNamesChanged(DeviceNamesChangedEvent event) {
+        lock.writeLock().lock();
+        try {
+            event.names().forEach(this::put);
+            event.removed().forEach(this::remove);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Finds the devices whose name contains the query, ignoring case.
+     * @param query The text to search for, at least {@link #MIN_QUERY_LENGTH} characters long.
+     * @param after The rank and id of the last match of the previous page, or {@code null} for the first page.
+     * @param limit The maximum number of matches to return.
+     * @return The matches after the given one, in {@link Match#ORDER}.
+     * @throws InvalidRequestException if the query is too short.
+     */
+    public List<Match> search(String query, Match after, int limit) {
+        String needle = normalize(query);
+        if (needle.length() < MIN_QUERY_LENGTH) {
+            throw new InvalidRequestException("The name to search for must have at least " + MIN_QUERY_LENGTH + " characters");
+        }
+        List<Match> matches = new ArrayList<>();
+        lock.readLock().lock();
+        try {
+            for (long id : candidates(needle)) {
+                String name = names.get(id);
+                int position = name.indexOf(needle); // Rules out names that have all trigrams, but not in sequence.
+                if (position >= 0) {
+                    Match match = new Match(id, rank(name, needle, position));
+                    if (after == null || Match.ORDER.compare(match, after) > 0) {
+                        matches.add(match);
+                    }
+                }
+            }
+        } finally {
+            lock.readLock().unlock();
+        }
+        matches.sort(Match.ORDER);
+        return matches.size() > limit ? matches.subList(0, limit) : matches;
+    }
+
+    /**
+     * Intersects the id arrays of the query's trigrams, shortest first, so the work is bounded by the rarest trigram.
+     */
+    private long[] candidates(String needle) {
+        List<Postings> lists = new ArrayList<>();
+        for (int i = 0; i + MIN_QUERY_LENGTH <= needle.length(); i++) {
+            Postings list = postings.get(trigram(needle, i));
+            if (list == null) {
+                return new long[0];
+            }
+            lists.add(list);
+        }
+        lists.sort(Comparator.comparingInt(list -> list.size));
+        Postings rarest = lists.get(0);
+        long[] result = Arrays.copyOf(rarest.ids, rarest.size);
+        int size = result.length;
+        for (int l = 1; l < lists.size() && size > 0; l++) {
+            Postings list = lists.get(l);
+            int kept = 0;
+            for (int i = 0; i < size; i++) {
+                if (list.contains(result[i])) {
+                    result[kept++] = result[i];
+                }
+            }
+            size = kept;
+        }
+        return Arrays.copyOf(result, size);
+    }
+
+    private static long rank(String name, String needle, int position) {
+        int tier;
+        if (position == 0) {
+            tier = name.length() == needle.length() ? 0 : 1;
+        } else {
+            tier = Character.isLetterOrDigit(name.charAt(position - 1)) ? 3 : 2;
+        }
+        return (long) tier << 32 | name.length();
+    }
+
+    /**
+     * Indexes a device under its current name. Callers hold the write lock.
+     */
+    private void put(Long id, String name) {
+        String normalized = normalize(name);
+        String previous = names.put(id, normalized);
+        if (normalized.equals(previous)) {
+            return;
+        }
+        if (previous != null) {
+            forEachTrigram(previous, trigram -> removePosting(trigram, id));
+        }
+        forEachTrigram(normalized, trigram -> postings.computeIfAbsent(trigram, key -> new Postings()).add(id));
+    }
+
+    private void remove(Long id) {
+        String previous = names.remove(id);
+        if (previous != null) {
+            forEachTrigram(previous, trigram -> removePosting(trigram, id));
+        }
+    }
+
+    private void removePosting(long trigram, long id) {
+        Postings list = postings.get(trigram);
+        if (list != null && list.remove(id) && list.size == 0) {
+            postings.remove(trigram);
+        }
+    }
+
+    private static void forEachTrigram(String name, LongConsumer action) {
+        long previous = -1;
+        for (int i = 0; i + MIN_QUERY_LENGTH <= name.length(); i++) {
+            long trigram = trigram(name, i);
+            if (trigram != previous) { // Skips the obvious repeats, such as in "aaaa"; the others are ignored by add.
+                action.accept(trigram);
+            }
+            previous = trigram;
+        }
+    }
+
+    /**
+     * Packs three UTF-16 characters into one long, so trigrams are hashed and compared without creating strings.
+     */
+    private static long trigram(String text, int start) {
+        return (long) text.charAt(start) << 32 | (long) text.charAt(start + 1) << 16 | text.charAt(start + 2);
+    }
+
+    private static String normalize(String text) {
+        return text.toLowerCase(Locale.ROOT);
+    }
+
+    /**
+     * Sorted, duplicate-free list of ids backed by a primitive array. Ids mostly arrive in ascending order,
+     * so adding usually appends.
+     */
+    private static final class Postings {
+
+        private long[] ids = new long[4];
+
+        private int size;
+
+        void add(long id) {
+            if (size > 0 && ids[size - 1] >= id) {
+                int index = Arrays.binarySearch(ids, 0, size, id);
+                if (index >= 0) {
+                    return;
+                }
+                insertAt(-index - 1, id);
+            } else {
+                insertAt(size, id);
+            }
+        }
+
+        boolean remove(long id) {
+            int index = Arrays.binarySearch(ids, 0, size, id);
+            if (index < 0) {
+                return false;
+            }
+            System.arraycopy(ids, index + 1, ids, index, size - index - 1);
+            size--;
+            return true;
+        }
+
+        boolean contains(long id) {
+            return Arrays.binarySearch(ids, 0, size, id) >= 0;
+        }
+
+        private void insertAt(int index, long id) {
+            if (size == ids.length) {
+                ids = Arrays.copyOf(ids, size + (size >> 1));
+            }
+            System.arraycopy(ids, index, ids, index + 1, size - index);
+            ids[index] = id;
+            size++;
+        }
+    }
+}
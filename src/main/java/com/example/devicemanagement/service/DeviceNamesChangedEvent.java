@@ -0,0 +1,42 @@
+package com.example.devicemanagement.service;
+
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Published whenever devices are created, renamed or deleted.
+ *
+ * @param names   The current name of every created or renamed device, by id.
+ * @param removed The ids of the deleted devices.
+ */
+public record DeviceNamesChangedEvent(Map<Long, String> names, Collection<Long> removed) {
+
+    /**
+     * Creates the event for one created or renamed device.
+     * @param id   The id of the device.
+     * @param name The name of the device after the change.
+     * @return The event.
+     */
+    public static DeviceNamesChangedEvent named(Long id, String name) {
+        return new DeviceNamesChangedEvent(Map.of(id, name), List.of());
+    }
+
+    /**
+     * Creates the event for several created devices.
+     * @param names The name of every created device, by id.
+     * @return The event.
+     */
+    public static DeviceNamesChangedEvent named(Map<Long, String> names) {
+        return new DeviceNamesChangedEvent(names, List.of());
+    }
+
+    /**
+     * Creates the event for deleted devices.
+     * @param ids The ids of the deleted devices.
+     * @return The event.
+     */
+    public static DeviceNamesChangedEvent removed(Collection<Long> ids) {
+        return new DeviceNamesChangedEvent(Map.of(), ids);
+    }
+}
@@ -0,0 +1,224 @@
+package com.example.devicemanagement.service;
+
+import com.example.devicemanagement.config.ReplicaConfiguration;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.SmartLifecycle;
+import org.springframework.jdbc.core.RowMapper;
+import org.springframework.jdbc.core.namedparam.MapSqlParameterSource;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+import org.springframework.jdbc.core.namedparam.SqlParameterSource;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import javax.sql.DataSource;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Keeps the devices table of the read replica in sync with the primary, enabled with {@code device.datasource.replica.url}.
+ *
+ * The replica is filled with a copy of the primary's devices on startup, before the web server accepts
+ * requests. After that, every committed {@link DevicesChangedEvent} is queued with its position in the
+ * sequence of commits, and a single thread copies the current rows of the changed ids from the primary,
+ * deleting those that are gone. Copying current rows instead of replaying the changes makes applying the
+ * same ids twice harmless, and lets the thread merge everything that queued up into one pass.
+ *
+ * The replica has caught up when it has applied every commit counted so far; until then, and for good
+ * after a failure, reads are routed to the primary. Archive tables are not replicated.
+ */
+@Slf4j
+@Service
+@ConditionalOnProperty(prefix = "device.datasource.replica", name = "url")
+public class DeviceReplicator implements SmartLifecycle {
+
+    private static final int CHUNK_SIZE = 1000;
+
+    private static final long POLL_MILLIS = 100;
+
+    private static final String SELECT = "select id, name, brand, creation_time, version from devices ";
+
+    private static final String MERGE = "merge into devices (id, name, brand, creation_time, version) key (id) "
+            + "values (:id, :name, :brand, :creationTime, :version)";
+
+    private static final RowMapper<SqlParameterSource> ROW = (row, rowNum) -> new MapSqlParameterSource()
+            .addValue("id", row.getLong("id"))
+            .addValue("name", row.getString("name"))
+            .addValue("brand", row.getString("brand"))
+            .addValue("creationTime", row.getTimestamp("creation_time"))
+            .addValue("version", row.getObject("version", Long.class));
+
+    private final NamedParameterJdbcTemplate primary;
+
+    private final NamedParameterJdbcTemplate replica;
+
+    private final BlockingQueue<Change> queue = new LinkedBlockingQueue<>(); // Unbounded: committed changes are never dropped.
+
+    private final AtomicLong committed = new AtomicLong(); // Incremented together with queue.add, under this replicator's lock.
+
+    private volatile long applied = -1; // Nothing, not even the initial copy.
+
+    private volatile boolean failed;
+
+    private volatile boolean running;
+
+    private Thread applier;
+
+    /**
+     * A committed change and its position in the sequence of commits.
+     */
+    private record Change(long position, List<Long> ids) {
+    }
+
+    public DeviceReplicator(@Qualifier(ReplicaConfiguration.PRIMARY_DATA_SOURCE) DataSource primary,
+                            @Qualifier(ReplicaConfiguration.REPLICA_DATA_SOURCE) DataSource replica,
+                            MeterRegistry meterRegistry) {
+        this.primary = new NamedParameterJdbcTemplate(primary);
+        this.replica = new NamedParameterJdbcTemplate(replica);
+        Gauge.builder("device.replica.lag", this, DeviceReplicator::getLag)
+                .description("Committed changes the read replica has not applied yet")
+                .register(meterRegistry);
+    }
+
+    /**
+     * Queues the changed devices once their transaction has committed. Changes made outside a transaction are queued right away.
+     * Taking the position and queueing happen under one lock, so the queue is in position order and the applier never
+     * reports a position as applied while an earlier one is still waiting.
+     * @param event The changed devices.
+     */
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onDevicesChanged(DevicesChangedEvent event) {
+        List<Long> ids = List.copyOf(event.ids());
+        synchronized (this) {
+            queue.add(new Change(committed.incrementAndGet(), ids));
+        }
+    }
+
+    /**
+     * Checks whether reads can be served by the replica.
+     * @return {@code true} if the replica has applied every change committed so far.
+     */
+    public boolean isCaughtUp() {
+        return !failed && applied == committed.get();
+    }
+
+    /**
+     * Returns how far the replica lags behind.
+     * @return The number of committed changes the replica has not applied yet.
+     */
+    public long getLag() {
+        return applied < 0 ? committed.get() : committed.get() - applied;
+    }
+
+    /**
+     * Copies the primary's devices, then starts following the changes.
+     */
+    @Override
+    public void start() {
+        long position = committed.get(); // Everything committed later is queued and applied on top.
+        int copied = copyAll();
+        applied = position;
+        log.info("Copied {} devices to the read replica", copied);
+        running = true;
+        applier = new Thread(this::drain, "device-replicator");
+        applier.setDaemon(true);
+        applier.start();
+    }
+
+    @Override
+    public void stop() {
+        running = false;
+        try {
+            applier.join(TimeUnit.SECONDS.toMillis(5));
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    @Override
+    public boolean isRunning() {
+        return running;
+    }
+
+    @Override
+    public int getPhase() {
+        // Lower than the web server's phases: started before it accepts requests.
+        return SmartLifecycle.DEFAULT_PHASE - 4096;
+    }
+
+    /**
+     * Applier loop: merges whatever has queued up into one pass over the changed ids.
+     */
+    private void drain() {
+        List<Change> changes = new ArrayList<>();
+        while (running) {
+            try {
+                Change first = queue.poll(POLL_MILLIS, TimeUnit.MILLISECONDS);
+                if (first == null) {
+                    continue;
+                }
+                changes.add(first);
+                queue.drainTo(changes);
+                Set<Long> ids = new HashSet<>();
+                changes.forEach(change -> ids.addAll(change.ids()));
+                if (!failed) {
+                    sync(new ArrayList<>(ids));
+                    applied = changes.get(changes.size() - 1).position();
+                }
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return;
+            } catch (RuntimeException e) {
+                failed = true;
+                log.error("Replicating {} changes failed; reads stay on the primary until a restart", changes.size(), e);
+            } finally {
+                changes.clear();
+            }
+        }
+    }
+
+    /**
+     * Copies the current rows of the given ids to the replica and deletes those that are no longer on the primary.
+     */
+    private void sync(List<Long> ids) {
+        for (int from = 0; from < ids.size(); from += CHUNK_SIZE) {
+            List<Long> chunk = ids.subList(from, Math.min(ids.size(), from + CHUNK_SIZE));
+            List<SqlParameterSource> rows = primary.query(SELECT + "where id in (:ids)", Map.of("ids", chunk), ROW);
+            Set<Long> gone = new HashSet<>(chunk);
+            rows.forEach(row -> gone.remove((Long) row.getValue("id")));
+            if (!rows.isEmpty()) {
+                replica.batchUpdate(MERGE, rows.toArray(SqlParameterSource[]::new));
+            }
+            if (!gone.isEmpty()) {
+                replica.update("delete from devices where id in (:ids)", Map.of("ids", gone));
+            }
+        }
+    }
+
+    private int copyAll() {
+        replica.getJdbcTemplate().update("delete from devices");
+        List<SqlParameterSource> rows = new ArrayList<>(CHUNK_SIZE);
+        int[] copied = new int[1];
+        primary.getJdbcTemplate().query(SELECT + "order by id", row -> {
+            rows.add(ROW.mapRow(row, copied[0]++));
+            if (rows.size() == CHUNK_SIZE) {
+                replica.batchUpdate(MERGE, rows.toArray(SqlParameterSource[]::new));
+                rows.clear();
+            }
+        });
+        if (!rows.isEmpty()) {
+            replica.batchUpdate(MERGE, rows.toArray(SqlParameterSource[]::new));
+        }
+        return copied[0];
+    }
+}
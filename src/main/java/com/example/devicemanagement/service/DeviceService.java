@@ -1,29 +1,93 @@
 package com.example.devicemanagement.service;
 
+import com.example.devicemanagement.config.CacheConfiguration;
+import com.example.devicemanagement.dto.BrandMatch;
 import com.example.devicemanagement.dto.DeviceDTO;
+import com.example.devicemanagement.dto.DevicePage;
+import com.example.devicemanagement.dto.DevicePatch;
 import com.example.devicemanagement.exception.DeviceNotFoundException;
 import com.example.devicemanagement.exception.DeviceServiceException;
+import com.example.devicemanagement.exception.DeviceVersionMismatchException;
+import com.example.devicemanagement.exception.InvalidCursorException;
+import com.example.devicemanagement.exception.InvalidRequestException;
 import com.example.devicemanagement.model.Device;
+import com.example.devicemanagement.repository.DeletedDevices;
 import com.example.devicemanagement.repository.DeviceRepository;
-import jakarta.transaction.Transactional;
+import io.micrometer.core.annotation.Timed;
+import jakarta.persistence.EntityManager;
 import lombok.RequiredArgsConstructor;
+import org.springframework.cache.Cache;
+import org.springframework.cache.CacheManager;
+import org.springframework.cache.annotation.CacheEvict;
+import org.springframework.cache.annotation.Cacheable;
+import org.springframework.data.domain.Limit;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
 
 import java.time.LocalDateTime;
+import java.time.format.DateTimeParseException;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.LinkedHashSet;
 import java.util.List;
 import java.util.Map;
-import java.util.Optional;
+import java.util.Objects;
+import java.util.function.Consumer;
+import java.util.function.Function;
 import java.util.stream.Collectors;
+import java.util.stream.Stream;
 
 /**
  * Service class for managing devices.
  */
 @Service
 @RequiredArgsConstructor
+@Timed(value = DeviceService.TIMER_NAME, description = "Time spent in DeviceService methods") // Tagged by method.
 public class DeviceService {
 
+    /**
+     * Name of the timer recorded for every public service method.
+     */
+    public static final String TIMER_NAME = "device.service";
+
+    /**
+     * Upper bound for the page size, so a single request cannot load the whole table.
+     */
+    public static final int MAX_PAGE_SIZE = 1000;
+
+    /**
+     * Upper bound for the number of devices accepted by a single batch create.
+     */
+    public static final int MAX_BATCH_SIZE = 10_000;
+
+    /**
+     * Number of devices inserted between two flushes of the persistence context during a batch create.
+     */
+    private static final int BATCH_FLUSH_SIZE = 500;
+
+    /**
+     * Number of devices removed by one DELETE statement of a bulk delete.
+     */
+    static final int DELETE_CHUNK_SIZE = 500;
+
     private final DeviceRepository deviceRepository;
 
+    private final EntityManager entityManager;
+
+    private final TransactionTemplate transactionTemplate;
+
+    private final CacheManager cacheManager;
+
+    private final DeviceNameIndex deviceNameIndex;
+
+    private final DeviceArchiveService deviceArchiveService;
+
+    private final DeviceChangePublisher changePublisher;
+
+    private final DeviceIdFilter deviceIdFilter;
+
     /**
      * Adds a new device.
      * @param deviceDTO Data transfer object containing device details.
@@ -37,99 +101,406 @@ public class DeviceService {
                     .brand(deviceDTO.brand())
                     .creationTime(deviceDTO.creationTime() != null ? deviceDTO.creationTime() : LocalDateTime.now())
                     .build();
-            device = deviceRepository.save(device);
-            return new DeviceDTO(device.getId(), device.getName(), device.getBrand(), device.getCreationTime());
+            DeviceDTO created = DeviceDTO.fromEntity(deviceRepository.save(device));
+            changePublisher.created(List.of(created));
+            return created;
         } catch (Exception e) {
             throw new DeviceServiceException("Error adding device", e);
         }
     }
 
+    /**
+     * Adds several devices in one transaction.
+     * Inserts are sent as JDBC batches, and the persistence context is flushed and cleared
+     * regularly so it does not grow with the size of the request.
+     * @param deviceDTOs Data transfer objects containing the device details.
+     * @return The ids of the created devices, in the order of the request.
+     */
+    @Transactional // All devices of the batch are created, or none.
+    public List<Long> addDevices(List<DeviceDTO> deviceDTOs) {
+        try {
+            List<Long> ids = new ArrayList<>(deviceDTOs.size());
+            List<Device> chunk = new ArrayList<>(BATCH_FLUSH_SIZE);
+            for (DeviceDTO deviceDTO : deviceDTOs) {
+                chunk.add(Device.builder()
+                        .name(deviceDTO.name())
+                        .brand(deviceDTO.brand())
+                        .creationTime(deviceDTO.creationTime() != null ? deviceDTO.creationTime() : LocalDateTime.now())
+                        .build());
+                if (chunk.size() == BATCH_FLUSH_SIZE) {
+                    saveChunk(chunk, ids);
+                }
+            }
+            if (!chunk.isEmpty()) {
+                saveChunk(chunk, ids);
+            }
+            changePublisher.created(ids, deviceDTOs);
+            return ids;
+        } catch (Exception e) {
+            throw new DeviceServiceException("Error adding devices", e);
+        }
+    }
+
+    private void saveChunk(List<Device> chunk, List<Long> ids) {
+        deviceRepository.saveAll(chunk).forEach(device -> ids.add(device.getId()));
+        deviceRepository.flush();
+        entityManager.clear();
+        chunk.clear();
+    }
+
     /**
      * Retrieves a device by its ID.
+     * Results are served from the device cache when possible; misses are not cached, but most ids that
+     * do not exist are rejected by the {@link DeviceIdFilter} without a query. A device read before a
+     * concurrent write committed is returned but not cached if that write's eviction came in meanwhile.
      * @param id The ID of the device.
      * @return The device data.
      */
+    @Cacheable(cacheNames = CacheConfiguration.DEVICES_CACHE, key = "#id", sync = true) // Loaded inside the cache, which drops stale stores.
+    // No transaction of its own: the query runs in the repository's read-only one, so a filtered id borrows no connection.
     public DeviceDTO getDeviceById(Long id) {
-        return deviceRepository.findById(id)
-                .map(d -> new DeviceDTO(d.getId(), d.getName(), d.getBrand(), d.getCreationTime()))
+        if (!deviceIdFilter.mightContain(id)) {
+            throw new DeviceNotFoundException(id);
+        }
+        return deviceRepository.findDtoById(id)
                 .orElseThrow(() -> new DeviceNotFoundException(id));
     }
 
     /**
-     * Retrieves all devices.
-     * @return A list of all devices.
+     * Retrieves one page of devices, ordered by id.
+     * Uses keyset pagination: the page is located by seeking past the id carried in the cursor,
+     * so every page costs the same regardless of its position.
+     * @param after Opaque cursor returned with the previous page, or {@code null} for the first page.
+     * @param limit The maximum number of devices to return, capped at {@link #MAX_PAGE_SIZE}.
+     * @return The page of devices and the cursor for the next page.
      */
-    public List<DeviceDTO> getAllDevices() {
+    @Transactional(readOnly = true) // Projection query; nothing is loaded into the persistence context.
+    public DevicePage getAllDevices(String after, int limit) {
+        DeviceCursor cursor = decodeCursor(after);
+        int pageSize = pageSize(limit);
         try {
-            return deviceRepository.findAll().stream()
-                    .map(d -> new DeviceDTO(d.getId(), d.getName(), d.getBrand(), d.getCreationTime()))
-                    .collect(Collectors.toList());
+            // Fetch one extra row to find out whether another page follows without a count query.
+            List<DeviceDTO> devices = deviceRepository.findDtosAfter(cursor.id(), Limit.of(pageSize + 1));
+            return toPage(devices, pageSize, false);
         } catch (Exception e) {
             throw new DeviceServiceException("Error retrieving devices", e);
         }
     }
     /**
-     * Updates an existing device.
+     * Streams every device to the given consumer: those of the devices table ordered by id, then the archived
+     * ones, month by month and ordered by id within a month.
+     * Devices are read over database cursors and projected straight into DTOs, so nothing
+     * accumulates in the persistence context and memory use stays flat regardless of the table size.
+     * @param consumer Receives each device as it is read.
+     */
+    // Keeps the connection and cursors open while the stream is consumed. Not read-only: archive tables are not
+    // replicated, so this must not be routed to a read replica.
+    @Transactional
+    public void exportDevices(Consumer<DeviceDTO> consumer) {
+        try (Stream<DeviceDTO> devices = Stream.concat(deviceRepository.streamAllDtos(), deviceArchiveService.streamArchived())) {
+            devices.forEach(consumer);
+        }
+    }
+    /**
+     * Updates an existing device with a single UPDATE statement; only its brand is read first, to keep the brand counts.
      * @param id The ID of the device to update.
      * @param updatedDeviceDTO Data transfer object containing updated device details.
-     * @return The updated device data.
+     * @param expectedVersion The version the client last saw, or {@code null} to update unconditionally.
      */
+    @CacheEvict(cacheNames = CacheConfiguration.DEVICES_CACHE, key = "#id") // Applied after commit.
     @Transactional // Ensures atomicity and consistency of the update operation.
-    public DeviceDTO updateDevice(Long id, DeviceDTO updatedDeviceDTO) {
-        Device device = deviceRepository.findById(id)
-                .orElseThrow(() -> new DeviceNotFoundException(id));
-        device.setName(updatedDeviceDTO.name());
-        device.setBrand(updatedDeviceDTO.brand());
-        device.setCreationTime(updatedDeviceDTO.creationTime() != null ? updatedDeviceDTO.creationTime() : LocalDateTime.now());
-        device = deviceRepository.save(device);
-        return new DeviceDTO(device.getId(), device.getName(), device.getBrand(), device.getCreationTime());
+    public void updateDevice(Long id, DeviceDTO updatedDeviceDTO, Long expectedVersion) {
+        applyPatch(id, DevicePatch.of(updatedDeviceDTO), expectedVersion);
     }
     /**
-     * Partially updates an existing device.
+     * Partially updates an existing device with a single UPDATE statement that only sets the patched columns.
      * @param id The ID of the device to update.
-     * @param updates A map containing the fields to update.
-     * @return The updated device data.
+     * @param patch The fields to update.
+     * @param expectedVersion The version the client last saw, or {@code null} to update unconditionally.
      */
+    @CacheEvict(cacheNames = CacheConfiguration.DEVICES_CACHE, key = "#id") // Applied after commit.
     @Transactional // Ensures atomicity and consistency of the partial update operation.
-    public DeviceDTO updateDevicePartially(Long id, Map<String, Object> updates) {
-        Device device = deviceRepository.findById(id)
-                .orElseThrow(() -> new DeviceNotFoundException(id));
-
-        updates.forEach((key, value) -> {
-            switch (key) {
-                case "name" -> device.setName((String) value);
-                case "brand" -> device.setBrand((String) value);
-                case "creationTime" -> device.setCreationTime((LocalDateTime) value);
-                default -> throw new IllegalArgumentException("Invalid field: " + key);
-            }
-        });
+    public void updateDevicePartially(Long id, DevicePatch patch, Long expectedVersion) {
+        applyPatch(id, patch, expectedVersion);
+    }
 
-        Device savedDevice = deviceRepository.save(device);
-        return new DeviceDTO(savedDevice.getId(), savedDevice.getName(), savedDevice.getBrand(), savedDevice.getCreationTime());
+    /**
+     * Runs the update; the version condition is part of the statement, so no concurrent write can be lost.
+     * Only a patch that sets the brand reads the old one first, locking the row until the update.
+     */
+    private void applyPatch(Long id, DevicePatch patch, Long expectedVersion) {
+        String oldBrand = null;
+        if (patch.brand() != null) {
+            oldBrand = deviceRepository.findBrandForUpdate(id, expectedVersion)
+                    .orElseThrow(() -> missingOrModified(id, expectedVersion));
+        }
+        if (deviceRepository.updateFields(id, patch, expectedVersion) == 0) {
+            throw missingOrModified(id, expectedVersion);
+        }
+        changePublisher.updated(id, oldBrand, patch);
     }
     /**
-     * Deletes a device by its ID.
+     * Deletes a device by its ID with a single DELETE statement, without reading it first.
      * @param id The ID of the device to delete.
+     * @param expectedVersion The version the client last saw, or {@code null} to delete unconditionally.
      */
+    @CacheEvict(cacheNames = CacheConfiguration.DEVICES_CACHE, key = "#id") // Applied after commit.
     @Transactional // Ensures atomicity and consistency of the delete operation.
-    public void deleteDevice(Long id) {
-        if (!deviceRepository.existsById(id)) {
-            throw new DeviceNotFoundException(id);
+    public void deleteDevice(Long id, Long expectedVersion) {
+        String brand = deviceRepository.deleteDevice(id, expectedVersion)
+                .orElseThrow(() -> missingOrModified(id, expectedVersion));
+        changePublisher.deleted(id, brand);
+    }
+
+    /**
+     * Tells apart why a write matched no row. Only a failed write pays for this extra query.
+     */
+    private RuntimeException missingOrModified(Long id, Long expectedVersion) {
+        if (expectedVersion != null && deviceRepository.existsById(id)) {
+            return new DeviceVersionMismatchException(id, expectedVersion);
+        }
+        return new DeviceNotFoundException(id);
+    }
+
+    /**
+     * Deletes the devices with the given ids in one transaction.
+     * The ids are deleted with one set-based DELETE per chunk of {@link #DELETE_CHUNK_SIZE}; unknown ids are ignored.
+     * @param ids The IDs of the devices to delete, at most {@link #MAX_BATCH_SIZE}.
+     * @return The number of deleted devices.
+     */
+    @Transactional // All devices of the request are deleted, or none.
+    public int deleteDevices(Collection<Long> ids) {
+        List<Long> distinctIds = List.copyOf(new LinkedHashSet<>(ids));
+        int deleted = 0;
+        for (int from = 0; from < distinctIds.size(); from += DELETE_CHUNK_SIZE) {
+            deleted += deleteChunk(distinctIds.subList(from, Math.min(from + DELETE_CHUNK_SIZE, distinctIds.size())));
+        }
+        return deleted;
+    }
+
+    /**
+     * Deletes every device with exactly the given brand.
+     * Devices are deleted in chunks of {@link #DELETE_CHUNK_SIZE}, each in its own short transaction, so
+     * decommissioning a large fleet never holds locks on all of its rows at once. If a chunk fails, the
+     * chunks before it stay deleted.
+     * @param brand The brand of the devices to delete.
+     * @return The number of deleted devices.
+     */
+    public int deleteDevicesByBrand(String brand) {
+        record Chunk(int found, int deleted) {
         }
-        deviceRepository.deleteById(id);
+        int deleted = 0;
+        Chunk chunk;
+        do {
+            chunk = transactionTemplate.execute(status -> {
+                List<Long> ids = deviceRepository.findIdsByBrand(brand, Limit.of(DELETE_CHUNK_SIZE));
+                return new Chunk(ids.size(), ids.isEmpty() ? 0 : deleteChunk(ids));
+            });
+            deleted += chunk.deleted();
+        } while (chunk.found() == DELETE_CHUNK_SIZE); // Not the deleted count: rows deleted concurrently must not end the loop.
+        return deleted;
     }
+
     /**
-     * Searches devices by brand.
-     * @param brand The brand of the devices to search for.
-     * @return A list of devices with the specified brand.
+     * Deletes one chunk of devices and evicts exactly those ids; the cache applies the evictions when the
+     * surrounding transaction commits, so a chunk that is rolled back leaves the cache untouched.
      */
-    public List<DeviceDTO> searchDevicesByBrand(String brand) {
+    private int deleteChunk(List<Long> ids) {
+        DeletedDevices deleted = deviceRepository.deleteDevices(ids);
+        Cache cache = cacheManager.getCache(CacheConfiguration.DEVICES_CACHE);
+        if (cache != null) {
+            ids.forEach(cache::evict);
+        }
+        changePublisher.deleted(deleted.ids(), deleted.brands()); // Only the rows that were actually deleted.
+        return deleted.count();
+    }
+
+    /**
+     * Searches devices by brand, one page at a time.
+     * Exact and case-insensitive matches are ordered by id; prefix matches are ordered by
+     * lower-cased brand and then id. Every mode is answered by an index seek.
+     * @param brand The brand, or brand prefix, of the devices to search for.
+     * @param match How the brand is matched.
+     * @param after Opaque cursor returned with the previous page, or {@code null} for the first page.
+     * @param limit The maximum number of devices to return, capped at {@link #MAX_PAGE_SIZE}.
+     * @return The page of devices with a matching brand and the cursor for the next page.
+     */
+    @Transactional(readOnly = true) // Projection queries; nothing is loaded into the persistence context.
+    public DevicePage searchDevicesByBrand(String brand, BrandMatch match, String after, int limit) {
+        DeviceCursor cursor = decodeCursor(after);
+        int pageSize = pageSize(limit);
+        Limit fetchLimit = Limit.of(pageSize + 1);
         try {
-            return deviceRepository.findByBrand(brand).stream()
-                    .map(d -> new DeviceDTO(d.getId(), d.getName(), d.getBrand(), d.getCreationTime()))
-                    .collect(Collectors.toList());
+            List<DeviceDTO> devices = switch (match) {
+                case EXACT -> deviceRepository.findDtosByBrandAfter(brand, cursor.id(), fetchLimit);
+                case IGNORE_CASE -> deviceRepository.findDtosByBrandIgnoreCaseAfter(brand, cursor.id(), fetchLimit);
+                case PREFIX -> deviceRepository.findDtosByBrandPrefixAfter(
+                        likePrefix(brand), cursor.key() != null ? cursor.key() : "", cursor.id(), fetchLimit);
+            };
+            return toPage(devices, pageSize, match == BrandMatch.PREFIX);
         } catch (Exception e) {
             throw new DeviceServiceException("Error finding devices by brand", e);
         }
     }
+
+    /**
+     * Searches devices whose name contains the given text, ignoring case, one page at a time.
+     * The matches come from the in-memory {@link DeviceNameIndex}; only the devices of the page are read,
+     * with one query by id. Exact matches come first, then names starting with the text, then names with a
+     * word starting with it, then any other match; shorter names first within each group.
+     * @param name The text to search for, at least {@link DeviceNameIndex#MIN_QUERY_LENGTH} characters long.
+     * @param after Opaque cursor returned with the previous page, or {@code null} for the first page.
+     * @param limit The maximum number of devices to return, capped at {@link #MAX_PAGE_SIZE}.
+     * @return The page of devices with a matching name and the cursor for the next page.
+     */
+    @Transactional(readOnly = true) // Projection query; nothing is loaded into the persistence context.
+    public DevicePage searchDevicesByName(String name, String after, int limit) {
+        DeviceNameIndex.Match cursor = decodeNameCursor(after);
+        int pageSize = pageSize(limit);
+        // Fetch one extra match to find out whether another page follows.
+        List<DeviceNameIndex.Match> matches = deviceNameIndex.search(name, cursor, pageSize + 1);
+        List<DeviceNameIndex.Match> page = matches.subList(0, Math.min(matches.size(), pageSize));
+        try {
+            List<DeviceDTO> devices = page.isEmpty() ? List.of()
+                    : deviceRepository.findDtosByIdIn(page.stream().map(DeviceNameIndex.Match::id).toList());
+            return toRankedPage(matches, devices, pageSize);
+        } catch (Exception e) {
+            throw new DeviceServiceException("Error finding devices by name", e);
+        }
+    }
+
+    /**
+     * Searches devices created in a time range, optionally of one brand, one page at a time, ordered by
+     * creation time and then id. The devices table is read through its creation time indexes; archive tables
+     * are only read for archived months that overlap the range.
+     * @param from The start of the range, inclusive.
+     * @param to The end of the range, exclusive.
+     * @param brand The brand of the devices, matched exactly, or {@code null} for every brand.
+     * @param after Opaque cursor returned with the previous page, or {@code null} for the first page.
+     * @param limit The maximum number of devices to return, capped at {@link #MAX_PAGE_SIZE}.
+     * @return The page of devices created in the range and the cursor for the next page.
+     */
+    @Transactional // Not read-only: archive tables are not replicated, so this must not be routed to a read replica.
+    public DevicePage searchDevicesByCreationTime(LocalDateTime from, LocalDateTime to, String brand, String after, int limit) {
+        DeviceCursor cursor = decodeCursor(after);
+        LocalDateTime afterTime = creationTimeAfter(from, to, cursor);
+        int pageSize = pageSize(limit);
+        Limit fetchLimit = Limit.of(pageSize + 1);
+        try {
+            List<DeviceDTO> devices = brand == null
+                    ? deviceRepository.findDtosCreatedBetweenAfter(afterTime, to, cursor.id(), fetchLimit)
+                    : deviceRepository.findDtosByBrandCreatedBetweenAfter(brand, afterTime, to, cursor.id(), fetchLimit);
+            List<DeviceDTO> archived = deviceArchiveService.findCreatedBetweenAfter(brand, afterTime, to, cursor.id(), pageSize + 1);
+            return toPage(mergeByCreationTime(devices, archived, pageSize + 1), pageSize, DeviceService::creationTimeKey);
+        } catch (Exception e) {
+            throw new DeviceServiceException("Error finding devices by creation time", e);
+        }
+    }
+
+    // The paging helpers below are shared with ReactiveDeviceService.
+
+    /**
+     * Returns where a creation time range page starts: the start of the range, or the creation time in the cursor.
+     */
+    static LocalDateTime creationTimeAfter(LocalDateTime from, LocalDateTime to, DeviceCursor cursor) {
+        if (!from.isBefore(to)) {
+            throw new InvalidRequestException("The start of the range must be before its end");
+        }
+        if (cursor.key() == null) {
+            return from;
+        }
+        try {
+            LocalDateTime last = LocalDateTime.parse(cursor.key());
+            return last.isAfter(from) ? last : from;
+        } catch (DateTimeParseException e) {
+            throw new InvalidCursorException(cursor.encode(), e);
+        }
+    }
+
+    static String creationTimeKey(DeviceDTO device) {
+        return device.creationTime().toString();
+    }
+
+    /**
+     * Merges devices of the devices table and of archive tables, both ordered by creation time and id,
+     * keeping the first {@code limit}. Devices created with a past creation time after their month was archived
+     * live in the devices table, so both lists can interleave.
+     */
+    static List<DeviceDTO> mergeByCreationTime(List<DeviceDTO> devices, List<DeviceDTO> archived, int limit) {
+        if (archived.isEmpty()) {
+            return devices;
+        }
+        return Stream.concat(devices.stream(), archived.stream())
+                .sorted(Comparator.comparing(DeviceDTO::creationTime).thenComparing(DeviceDTO::id))
+                .limit(limit)
+                .toList();
+    }
+
+    static DeviceCursor decodeCursor(String after) {
+        return after == null || after.isBlank() ? DeviceCursor.after(0L) : DeviceCursor.decode(after);
+    }
+
+    static int pageSize(int limit) {
+        return Math.min(Math.max(limit, 1), MAX_PAGE_SIZE);
+    }
+
+    /**
+     * Builds a page from up to {@code pageSize + 1} devices; the extra device only signals that another page follows.
+     */
+    static DevicePage toPage(List<DeviceDTO> devices, int pageSize, boolean keyedByBrand) {
+        // Prefix matches are ordered by brand first; the database lower-cases the brand key when resuming.
+        return toPage(devices, pageSize, keyedByBrand ? DeviceDTO::brand : null);
+    }
+
+    /**
+     * Builds a page like {@link #toPage(List, int, boolean)} for a listing ordered by the given key and then id.
+     */
+    static DevicePage toPage(List<DeviceDTO> devices, int pageSize, Function<DeviceDTO, String> keyOf) {
+        if (devices.size() <= pageSize) {
+            return new DevicePage(devices, null);
+        }
+        List<DeviceDTO> items = devices.subList(0, pageSize);
+        DeviceDTO last = items.get(pageSize - 1);
+        DeviceCursor cursor = keyOf != null ? DeviceCursor.after(keyOf.apply(last), last.id()) : DeviceCursor.after(last.id());
+        return new DevicePage(items, cursor.encode());
+    }
+
+    static DeviceNameIndex.Match decodeNameCursor(String after) {
+        if (after == null || after.isBlank()) {
+            return null;
+        }
+        DeviceCursor cursor = DeviceCursor.decode(after);
+        if (cursor.key() == null) {
+            throw new InvalidCursorException(after);
+        }
+        try {
+            return new DeviceNameIndex.Match(cursor.id(), Long.parseLong(cursor.key()));
+        } catch (NumberFormatException e) {
+            throw new InvalidCursorException(after, e);
+        }
+    }
+
+    /**
+     * Builds a page of name matches from up to {@code pageSize + 1} matches and the devices read for them.
+     * The devices are put in the order of the matches; a device deleted since the search is left out.
+     */
+    static DevicePage toRankedPage(List<DeviceNameIndex.Match> matches, List<DeviceDTO> devices, int pageSize) {
+        Map<Long, DeviceDTO> byId = devices.stream().collect(Collectors.toMap(DeviceDTO::id, Function.identity()));
+        List<DeviceDTO> items = matches.stream().limit(pageSize)
+                .map(match -> byId.get(match.id()))
+                .filter(Objects::nonNull)
+                .toList();
+        if (matches.size() <= pageSize) {
+            return new DevicePage(items, null);
+        }
+        DeviceNameIndex.Match last = matches.get(pageSize - 1);
+        return new DevicePage(items, DeviceCursor.after(String.valueOf(last.rank()), last.id()).encode());
+    }
+
+    /**
+     * Escapes LIKE wildcards in the prefix so it is matched literally, then appends the trailing wildcard.
+     */
+    static String likePrefix(String prefix) {
+        return prefix.replace("\\", "\\\\").replace("%", "\\%").replace("_", "\\_") + "%";
+    }
 }
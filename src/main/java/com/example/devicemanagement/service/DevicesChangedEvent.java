@@ -0,0 +1,51 @@
+package com.example.devicemanagement.service;
+
+import com.example.devicemanagement.dto.DeviceChange;
+
+import java.util.Collection;
+import java.util.List;
+
+/**
+ * Published whenever devices are created, updated, deleted or archived.
+ *
+ * @param type The kind of change.
+ * @param ids  The ids of the changed devices.
+ */
+public record DevicesChangedEvent(DeviceChange.Type type, Collection<Long> ids) {
+
+    /**
+     * Creates the event for created devices.
+     * @param ids The ids of the created devices.
+     * @return The event.
+     */
+    public static DevicesChangedEvent created(Collection<Long> ids) {
+        return new DevicesChangedEvent(DeviceChange.Type.CREATED, ids);
+    }
+
+    /**
+     * Creates the event for one updated device.
+     * @param id The id of the device.
+     * @return The event.
+     */
+    public static DevicesChangedEvent updated(Long id) {
+        return new DevicesChangedEvent(DeviceChange.Type.UPDATED, List.of(id));
+    }
+
+    /**
+     * Creates the event for deleted devices.
+     * @param ids The ids of the deleted devices.
+     * @return The event.
+     */
+    public static DevicesChangedEvent deleted(Collection<Long> ids) {
+        return new DevicesChangedEvent(DeviceChange.Type.DELETED, ids);
+    }
+
+    /**
+     * Creates the event for devices moved to an archive table.
+     * @param ids The ids of the archived devices.
+     * @return The event.
+     */
+    public static DevicesChangedEvent archived(Collection<Long> ids) {
+        return new DevicesChangedEvent(DeviceChange.Type.ARCHIVED, ids);
+    }
+}
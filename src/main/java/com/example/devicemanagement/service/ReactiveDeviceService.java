@@ -0,0 +1,325 @@
+package com.example.devicemanagement.service;
+
+import com.example.devicemanagement.dto.BrandCount;
+import com.example.devicemanagement.dto.BrandMatch;
+import com.example.devicemanagement.dto.DeviceDTO;
+import com.example.devicemanagement.dto.DevicePage;
+import com.example.devicemanagement.dto.DevicePatch;
+import com.example.devicemanagement.exception.DeviceNotFoundException;
+import com.example.devicemanagement.exception.DeviceServiceException;
+import com.example.devicemanagement.exception.DeviceVersionMismatchException;
+import com.example.devicemanagement.exception.InvalidRequestException;
+import com.example.devicemanagement.repository.DeviceArchiveRepository;
+import com.example.devicemanagement.repository.DeletedDevices;
+import com.example.devicemanagement.repository.ReactiveDeviceRepository;
+import lombok.RequiredArgsConstructor;
+import org.springframework.context.annotation.Profile;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.reactive.TransactionalOperator;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Optional;
+
+/**
+ * Non-blocking counterpart of {@link DeviceService}, used by the reactive profile.
+ *
+ * Offers the same operations with the same results and exceptions, but never blocks the calling
+ * thread. Paging follows the same keyset rules, so cursors are interchangeable between both variants.
+ * The list and search operations also come as unbounded streams, which only read from the database
+ * as fast as the subscriber consumes them.
+ */
+@Service
+@Profile("reactive")
+@RequiredArgsConstructor
+public class ReactiveDeviceService {
+
+    private final ReactiveDeviceRepository deviceRepository;
+
+    private final TransactionalOperator transactionalOperator;
+
+    private final DeviceNameIndex deviceNameIndex;
+
+    private final DeviceArchiveService deviceArchiveService; // Only its in-memory list of archived months is used.
+
+    private final DeviceChangePublisher changePublisher; // Changes are announced once the reactive transaction is done.
+
+    private final DeviceIdFilter deviceIdFilter;
+
+    /**
+     * Adds a new device.
+     * @param deviceDTO Data transfer object containing device details.
+     * @return The saved device data.
+     */
+    public Mono<DeviceDTO> addDevice(DeviceDTO deviceDTO) {
+        return deviceRepository.insert(withCreationTime(deviceDTO))
+                .doOnNext(device -> changePublisher.created(List.of(device)))
+                .onErrorMap(e -> new DeviceServiceException("Error adding device", e));
+    }
+
+    /**
+     * Adds several devices in one transaction.
+     * @param deviceDTOs Data transfer objects containing the device details.
+     * @return The ids of the created devices, in the order of the request.
+     */
+    public Mono<List<Long>> addDevices(List<DeviceDTO> deviceDTOs) {
+        return Flux.fromIterable(deviceDTOs)
+                .concatMap(deviceDTO -> deviceRepository.insert(withCreationTime(deviceDTO))) // Keeps request order.
+                .map(DeviceDTO::id)
+                .collectList()
+                .as(transactionalOperator::transactional) // All devices of the batch are created, or none.
+                .doOnNext(ids -> changePublisher.created(ids, deviceDTOs))
+                .onErrorMap(e -> new DeviceServiceException("Error adding devices", e));
+    }
+
+    /**
+     * Retrieves a device by its ID.
+     * Most ids that do not exist are rejected by the {@link DeviceIdFilter} without a query.
+     * @param id The ID of the device.
+     * @return The device data, or a {@link DeviceNotFoundException} if it does not exist.
+     */
+    public Mono<DeviceDTO> getDeviceById(Long id) {
+        if (!deviceIdFilter.mightContain(id)) {
+            return Mono.error(new DeviceNotFoundException(id));
+        }
+        return deviceRepository.findById(id)
+                .switchIfEmpty(Mono.error(() -> new DeviceNotFoundException(id)));
+    }
+
+    /**
+     * Retrieves one page of devices, ordered by id.
+     * @param after Opaque cursor returned with the previous page, or {@code null} for the first page.
+     * @param limit The maximum number of devices to return, capped at {@link DeviceService#MAX_PAGE_SIZE}.
+     * @return The page of devices and the cursor for the next page.
+     */
+    public Mono<DevicePage> getAllDevices(String after, int limit) {
+        return Mono.defer(() -> {
+            DeviceCursor cursor = DeviceService.decodeCursor(after);
+            int pageSize = DeviceService.pageSize(limit);
+            // Fetch one extra row to find out whether another page follows without a count query.
+            return deviceRepository.findAfter(cursor.id(), pageSize + 1)
+                    .collectList()
+                    .map(devices -> DeviceService.toPage(devices, pageSize, false))
+                    .onErrorMap(e -> new DeviceServiceException("Error retrieving devices", e));
+        });
+    }
+
+    /**
+     * Streams the devices after the cursor, ordered by id.
+     * @param after Opaque cursor returned with a page, or {@code null} to start at the beginning.
+     * @return The devices, read from the database as they are requested.
+     */
+    public Flux<DeviceDTO> streamDevices(String after) {
+        return Flux.defer(() -> deviceRepository.findAfter(DeviceService.decodeCursor(after).id(), 0))
+                .onErrorMap(e -> !(e instanceof InvalidRequestException),
+                        e -> new DeviceServiceException("Error retrieving devices", e));
+    }
+
+    /**
+     * Streams every device: those of the devices table ordered by id, then the archived ones, month by month.
+     * @return All devices, read from the database as they are requested.
+     */
+    public Flux<DeviceDTO> exportDevices() {
+        return deviceRepository.findAfter(0L, 0)
+                .concatWith(Flux.defer(() -> Flux.fromIterable(deviceArchiveService.archivedMonths()))
+                        .concatMap(month -> deviceRepository.findAllIn(DeviceArchiveRepository.tableName(month))));
+    }
+
+    /**
+     * Updates an existing device with a single UPDATE statement.
+     * @param id The ID of the device to update.
+     * @param updatedDeviceDTO Data transfer object containing updated device details.
+     * @param expectedVersion The version the client last saw, or {@code null} to update unconditionally.
+     * @return Completes when updated, or a {@link DeviceNotFoundException} or {@link DeviceVersionMismatchException}.
+     */
+    public Mono<Void> updateDevice(Long id, DeviceDTO updatedDeviceDTO, Long expectedVersion) {
+        return applyPatch(id, DevicePatch.of(updatedDeviceDTO), expectedVersion);
+    }
+
+    /**
+     * Partially updates an existing device with a single UPDATE statement that only sets the patched columns.
+     * @param id The ID of the device to update.
+     * @param patch The fields to update.
+     * @param expectedVersion The version the client last saw, or {@code null} to update unconditionally.
+     * @return Completes when updated, or a {@link DeviceNotFoundException} or {@link DeviceVersionMismatchException}.
+     */
+    public Mono<Void> updateDevicePartially(Long id, DevicePatch patch, Long expectedVersion) {
+        return applyPatch(id, patch, expectedVersion);
+    }
+
+    /**
+     * Runs the update; only a patch that sets the brand reads the old one first, in a transaction that keeps the
+     * row locked until the update.
+     */
+    private Mono<Void> applyPatch(Long id, DevicePatch patch, Long expectedVersion) {
+        Mono<Optional<String>> updated = patch.brand() == null
+                ? deviceRepository.update(id, patch, expectedVersion)
+                        .filter(rows -> rows > 0)
+                        .map(rows -> Optional.<String>empty())
+                : deviceRepository.findBrandForUpdate(id, expectedVersion)
+                        .flatMap(oldBrand -> deviceRepository.update(id, patch, expectedVersion)
+                                .filter(rows -> rows > 0)
+                                .map(rows -> Optional.of(oldBrand)))
+                        .as(transactionalOperator::transactional);
+        return updated
+                .switchIfEmpty(Mono.defer(() -> missingOrModified(id, expectedVersion)))
+                .doOnNext(oldBrand -> changePublisher.updated(id, oldBrand.orElse(null), patch))
+                .then();
+    }
+
+    /**
+     * Deletes a device by its ID.
+     * @param id The ID of the device to delete.
+     * @param expectedVersion The version the client last saw, or {@code null} to delete unconditionally.
+     * @return Completes when deleted, or a {@link DeviceNotFoundException} or {@link DeviceVersionMismatchException}.
+     */
+    public Mono<Void> deleteDevice(Long id, Long expectedVersion) {
+        return deviceRepository.deleteById(id, expectedVersion)
+                .as(transactionalOperator::transactional) // The brand is read with the row locked until the delete.
+                .switchIfEmpty(Mono.defer(() -> missingOrModified(id, expectedVersion)))
+                .doOnNext(brand -> changePublisher.deleted(id, brand))
+                .then();
+    }
+
+    /**
+     * Deletes several devices by their IDs in one transaction, with one set-based DELETE per chunk.
+     * @param ids The IDs of the devices to delete; unknown IDs are ignored.
+     * @return The number of deleted devices.
+     */
+    public Mono<Integer> deleteDevices(Collection<Long> ids) {
+        Collection<Long> distinctIds = new LinkedHashSet<>(ids);
+        return Flux.fromIterable(distinctIds)
+                .buffer(DeviceService.DELETE_CHUNK_SIZE)
+                .concatMap(deviceRepository::deleteByIds)
+                .collectList()
+                .as(transactionalOperator::transactional) // All devices of the request are deleted, or none.
+                .doOnNext(chunks -> changePublisher.deleted( // Only the rows that were actually deleted.
+                        chunks.stream().flatMap(chunk -> chunk.ids().stream()).toList(),
+                        chunks.stream().flatMap(chunk -> chunk.brands().stream()).toList()))
+                .map(chunks -> chunks.stream().mapToInt(DeletedDevices::count).sum())
+                .onErrorMap(e -> new DeviceServiceException("Error deleting devices", e));
+    }
+
+    /**
+     * Deletes every device with exactly the given brand, one chunk per transaction.
+     * @param brand The brand of the devices to delete.
+     * @return The number of deleted devices.
+     */
+    public Mono<Integer> deleteDevicesByBrand(String brand) {
+        Mono<Integer> chunk = deviceRepository.deleteByBrand(brand, DeviceService.DELETE_CHUNK_SIZE)
+                .collectList()
+                .as(transactionalOperator::transactional)
+                .doOnNext(deleted -> changePublisher.deleted(deleted, List.of(new BrandCount(brand, deleted.size()))))
+                .map(List::size);
+        return chunk.expand(deleted -> deleted == DeviceService.DELETE_CHUNK_SIZE ? chunk : Mono.empty())
+                .reduce(0, Integer::sum)
+                .onErrorMap(e -> new DeviceServiceException("Error deleting devices by brand", e));
+    }
+
+    /**
+     * Tells apart why a conditional write matched no row: the device is gone, or it has another version.
+     */
+    private <T> Mono<T> missingOrModified(Long id, Long expectedVersion) {
+        return expectedVersion == null ? Mono.error(new DeviceNotFoundException(id))
+                : getDeviceById(id).then(Mono.error(() -> new DeviceVersionMismatchException(id, expectedVersion)));
+    }
+
+    /**
+     * Searches devices by brand, one page at a time.
+     * @param brand The brand, or brand prefix, of the devices to search for.
+     * @param match How the brand is matched.
+     * @param after Opaque cursor returned with the previous page, or {@code null} for the first page.
+     * @param limit The maximum number of devices to return, capped at {@link DeviceService#MAX_PAGE_SIZE}.
+     * @return The page of devices with a matching brand and the cursor for the next page.
+     */
+    public Mono<DevicePage> searchDevicesByBrand(String brand, BrandMatch match, String after, int limit) {
+        return Mono.defer(() -> {
+            DeviceCursor cursor = DeviceService.decodeCursor(after);
+            int pageSize = DeviceService.pageSize(limit);
+            return findByBrand(brand, match, cursor, pageSize + 1)
+                    .collectList()
+                    .map(devices -> DeviceService.toPage(devices, pageSize, match == BrandMatch.PREFIX))
+                    .onErrorMap(e -> new DeviceServiceException("Error finding devices by brand", e));
+        });
+    }
+
+    /**
+     * Streams the devices with a matching brand after the cursor, in the order of {@link #searchDevicesByBrand}.
+     * @param brand The brand, or brand prefix, of the devices to search for.
+     * @param match How the brand is matched.
+     * @param after Opaque cursor returned with a page, or {@code null} to start at the beginning.
+     * @return The devices, read from the database as they are requested.
+     */
+    public Flux<DeviceDTO> streamDevicesByBrand(String brand, BrandMatch match, String after) {
+        return Flux.defer(() -> findByBrand(brand, match, DeviceService.decodeCursor(after), 0))
+                .onErrorMap(e -> !(e instanceof InvalidRequestException),
+                        e -> new DeviceServiceException("Error finding devices by brand", e));
+    }
+
+    /**
+     * Searches devices whose name contains the given text, ignoring case, one page at a time.
+     * The matches come from the in-memory {@link DeviceNameIndex}, in the order of {@link DeviceService#searchDevicesByName}.
+     * @param name The text to search for, at least {@link DeviceNameIndex#MIN_QUERY_LENGTH} characters long.
+     * @param after Opaque cursor returned with the previous page, or {@code null} for the first page.
+     * @param limit The maximum number of devices to return, capped at {@link DeviceService#MAX_PAGE_SIZE}.
+     * @return The page of devices with a matching name and the cursor for the next page.
+     */
+    public Mono<DevicePage> searchDevicesByName(String name, String after, int limit) {
+        return Mono.defer(() -> {
+            int pageSize = DeviceService.pageSize(limit);
+            List<DeviceNameIndex.Match> matches = deviceNameIndex.search(name, DeviceService.decodeNameCursor(after), pageSize + 1);
+            List<Long> ids = matches.stream().limit(pageSize).map(DeviceNameIndex.Match::id).toList();
+            Mono<List<DeviceDTO>> devices = ids.isEmpty() ? Mono.just(List.of()) : deviceRepository.findByIds(ids).collectList();
+            return devices.map(found -> DeviceService.toRankedPage(matches, found, pageSize))
+                    .onErrorMap(e -> new DeviceServiceException("Error finding devices by name", e));
+        });
+    }
+
+    /**
+     * Searches devices created in a time range, optionally of one brand, one page at a time, ordered by
+     * creation time and then id. Archive tables are only read for archived months that overlap the range.
+     * @param from The start of the range, inclusive.
+     * @param to The end of the range, exclusive.
+     * @param brand The brand of the devices, matched exactly, or {@code null} for every brand.
+     * @param after Opaque cursor returned with the previous page, or {@code null} for the first page.
+     * @param limit The maximum number of devices to return, capped at {@link DeviceService#MAX_PAGE_SIZE}.
+     * @return The page of devices created in the range and the cursor for the next page.
+     */
+    public Mono<DevicePage> searchDevicesByCreationTime(LocalDateTime from, LocalDateTime to, String brand, String after, int limit) {
+        return Mono.defer(() -> {
+            DeviceCursor cursor = DeviceService.decodeCursor(after);
+            LocalDateTime afterTime = DeviceService.creationTimeAfter(from, to, cursor);
+            int pageSize = DeviceService.pageSize(limit);
+            Mono<List<DeviceDTO>> devices = deviceRepository
+                    .findCreatedBetweenAfter("devices", brand, afterTime, to, cursor.id(), pageSize + 1)
+                    .collectList();
+            Mono<List<DeviceDTO>> archived = Flux.fromIterable(deviceArchiveService.archivedMonthsBetween(afterTime, to))
+                    .concatMap(month -> deviceRepository.findCreatedBetweenAfter(
+                            DeviceArchiveRepository.tableName(month), brand, afterTime, to, cursor.id(), pageSize + 1))
+                    .take(pageSize + 1) // Months are disjoint and in order, so later months are not read once the page is full.
+                    .collectList();
+            return Mono.zip(devices, archived)
+                    .map(both -> DeviceService.toPage(DeviceService.mergeByCreationTime(both.getT1(), both.getT2(), pageSize + 1),
+                            pageSize, DeviceService::creationTimeKey))
+                    .onErrorMap(e -> new DeviceServiceException("Error finding devices by creation time", e));
+        });
+    }
+
+    private Flux<DeviceDTO> findByBrand(String brand, BrandMatch match, DeviceCursor cursor, int limit) {
+        return switch (match) {
+            case EXACT -> deviceRepository.findByBrandAfter(brand, cursor.id(), limit);
+            case IGNORE_CASE -> deviceRepository.findByBrandIgnoreCaseAfter(brand, cursor.id(), limit);
+            case PREFIX -> deviceRepository.findByBrandPrefixAfter(DeviceService.likePrefix(brand),
+                    cursor.key() != null ? cursor.key() : "", cursor.id(), limit);
+        };
+    }
+
+    private static DeviceDTO withCreationTime(DeviceDTO deviceDTO) {
+        return deviceDTO.creationTime() != null ? deviceDTO
+                : new DeviceDTO(deviceDTO.id(), deviceDTO.name(), deviceDTO.brand(), LocalDateTime.now());
+    }
+}
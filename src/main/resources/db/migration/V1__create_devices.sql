@@ -0,0 +1,18 @@
+-- Ids are handed out in blocks of 50 (Device.ID_ALLOCATION_SIZE) by JPA and the JDBC writers alike. The sequence
+-- starts at the end of the first block: Hibernate reads its initial value (1) specially, with a second call whose
+-- block it also claims, so a writer taking a value between those two calls would get ids JPA hands out too.
+create sequence devices_seq start with 51 increment by 50;
+
+create table devices (
+    id               bigint       not null primary key,
+    name             varchar(255) not null,
+    brand            varchar(255) not null,
+    brand_normalized varchar(255) generated always as (lower(brand)), -- Kept current by the database on every write.
+    creation_time    timestamp(6),
+    version          bigint
+);
+
+create index idx_devices_brand_id on devices (brand, id);
+create index idx_devices_brand_normalized_id on devices (brand_normalized, id);
+create index idx_devices_creation_time_id on devices (creation_time, id);
+create index idx_devices_brand_creation_time_id on devices (brand, creation_time, id);
@@ -0,0 +1,84 @@
+package com.example.devicemanagement.config;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Test class for AdaptiveConcurrencyLimiter.
+ */
+class AdaptiveConcurrencyLimiterTest {
+
+    private static final long FAST = TimeUnit.MILLISECONDS.toNanos(5);
+
+    private static final long SLOW = TimeUnit.MILLISECONDS.toNanos(100);
+
+    private final AdaptiveConcurrencyLimiter limiter = new AdaptiveConcurrencyLimiter(2, 10, 2.0);
+
+    /**
+     * Test for shedding requests over the limit.
+     * Ensures that no more requests than the limit are admitted, and that completed ones make room again.
+     */
+    @Test
+    void tryAcquire_shouldShedRequestsOverLimit() {
+        // Arrange
+        for (int i = 0; i < 10; i++) {
+            assertThat(limiter.tryAcquire()).isTrue();
+        }
+
+        // Act & Assert
+        assertThat(limiter.tryAcquire()).isFalse();
+        limiter.release(FAST);
+        assertThat(limiter.tryAcquire()).isTrue();
+    }
+
+    /**
+     * Test for adapting the limit to latency.
+     * Ensures that the limit shrinks towards the minimum when requests under full load get much slower than usual.
+     */
+    @Test
+    void release_shouldShrinkLimitWhenLatencyRises() {
+        // Arrange
+        runAtLimit(50, FAST); // Establishes the usual latency.
+
+        // Act
+        runAtLimit(50, SLOW);
+
+        // Assert
+        assertThat(limiter.getLimit()).isEqualTo(2);
+        assertThat(limiter.getInFlight()).isZero();
+    }
+
+    /**
+     * Test for ignoring light load.
+     * Ensures that slow requests do not shrink the limit while far less than half of it is in use.
+     */
+    @Test
+    void release_shouldKeepLimitUnderLightLoad() {
+        // Act
+        for (int i = 0; i < 50; i++) {
+            limiter.tryAcquire();
+            limiter.release(i < 25 ? FAST : SLOW);
+        }
+
+        // Assert
+        assertThat(limiter.getLimit()).isEqualTo(10);
+    }
+
+    /**
+     * Fills the limiter and completes every request with the given latency, the given number of times.
+     */
+    private void runAtLimit(int rounds, long latency) {
+        for (int round = 0; round < rounds; round++) {
+            int admitted = 0;
+            while (limiter.tryAcquire()) {
+                admitted++;
+            }
+            for (int i = 0; i < admitted; i++) {
+                limiter.release(latency);
+            }
+        }
+    }
+}
@@ -0,0 +1,69 @@
+package com.example.devicemanagement.config;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Test class for ClientRateLimiter, with a clock that only moves when told to.
+ */
+class ClientRateLimiterTest {
+
+    private final AtomicLong now = new AtomicLong(1_000);
+
+    private final ClientRateLimiter rateLimiter = new ClientRateLimiter(10, 3, now::get); // One token every 100ms.
+
+    /**
+     * Test for admitting a burst.
+     * Ensures that an idle client may make as many requests as the burst at once, and has to wait one interval after that.
+     */
+    @Test
+    void tryAcquire_shouldAdmitBurstThenAskToWait() {
+        // Act & Assert
+        assertThat(rateLimiter.tryAcquire("ip:10.0.0.1")).isZero();
+        assertThat(rateLimiter.tryAcquire("ip:10.0.0.1")).isZero();
+        assertThat(rateLimiter.tryAcquire("ip:10.0.0.1")).isZero();
+        assertThat(rateLimiter.tryAcquire("ip:10.0.0.1")).isEqualTo(TimeUnit.MILLISECONDS.toNanos(100));
+        assertThat(rateLimiter.tryAcquire("ip:10.0.0.2")).isZero(); // Other clients have buckets of their own.
+    }
+
+    /**
+     * Test for refilling the bucket.
+     * Ensures that a client that has used up its burst gets one token back per interval.
+     */
+    @Test
+    void tryAcquire_shouldRefillAtRate() {
+        // Arrange
+        for (int i = 0; i < 3; i++) {
+            rateLimiter.tryAcquire("user:alice");
+        }
+
+        // Act
+        now.addAndGet(TimeUnit.MILLISECONDS.toNanos(150));
+
+        // Assert
+        assertThat(rateLimiter.tryAcquire("user:alice")).isZero();
+        assertThat(rateLimiter.tryAcquire("user:alice")).isEqualTo(TimeUnit.MILLISECONDS.toNanos(50));
+    }
+
+    /**
+     * Test for forgetting idle clients.
+     * Ensures that clients whose bucket is full again are removed once a second.
+     */
+    @Test
+    void tryAcquire_shouldSweepClientsWithFullBuckets() {
+        // Arrange
+        rateLimiter.tryAcquire("ip:10.0.0.1");
+        rateLimiter.tryAcquire("ip:10.0.0.2");
+
+        // Act
+        now.addAndGet(TimeUnit.SECONDS.toNanos(2));
+        rateLimiter.tryAcquire("ip:10.0.0.3");
+
+        // Assert
+        assertThat(rateLimiter.clients()).isEqualTo(1);
+    }
+}
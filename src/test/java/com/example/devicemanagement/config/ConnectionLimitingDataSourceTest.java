@@ -0,0 +1,59 @@
+package com.example.devicemanagement.config;
+
+import org.junit.jupiter.api.Test;
+
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.sql.SQLTransientConnectionException;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+/**
+ * Test class for ConnectionLimitingDataSource.
+ */
+class ConnectionLimitingDataSourceTest {
+
+    /**
+     * Test for obtaining more connections than permitted.
+     * Ensures that the caller times out instead of being handed another connection.
+     */
+    @Test
+    void getConnection_shouldTimeOutWhenAllConnectionsAreInUse() throws Exception {
+        // Arrange
+        DataSource target = mock(DataSource.class);
+        when(target.getConnection()).thenReturn(mock(Connection.class));
+        ConnectionLimitingDataSource dataSource = new ConnectionLimitingDataSource(target, 1, 10);
+        dataSource.getConnection();
+
+        // Act & Assert
+        assertThatThrownBy(dataSource::getConnection).isInstanceOf(SQLTransientConnectionException.class);
+        verify(target, times(1)).getConnection();
+    }
+
+    /**
+     * Test for closing a connection.
+     * Ensures that the permit is returned once, however often the connection is closed.
+     */
+    @Test
+    void close_shouldReturnPermitOnce() throws Exception {
+        // Arrange
+        DataSource target = mock(DataSource.class);
+        Connection connection = mock(Connection.class);
+        when(target.getConnection()).thenReturn(connection);
+        ConnectionLimitingDataSource dataSource = new ConnectionLimitingDataSource(target, 2, 10);
+        Connection limited = dataSource.getConnection();
+
+        // Act
+        limited.close();
+        limited.close();
+
+        // Assert
+        assertThat(dataSource.availablePermits()).isEqualTo(2);
+        verify(connection, times(2)).close();
+    }
+}
@@ -0,0 +1,95 @@
+package com.example.devicemanagement.config;
+
+import com.example.devicemanagement.dto.DeviceDTO;
+import com.example.devicemanagement.dto.DevicePage;
+import com.google.protobuf.UnknownFieldSet;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.converter.HttpMessageNotReadableException;
+import org.springframework.mock.http.MockHttpInputMessage;
+import org.springframework.mock.http.MockHttpOutputMessage;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+/**
+ * Test class for DeviceProtobufHttpMessageConverter.
+ */
+class DeviceProtobufHttpMessageConverterTest {
+
+    private final DeviceProtobufHttpMessageConverter converter = new DeviceProtobufHttpMessageConverter();
+
+    /**
+     * Test for writing and reading back a device.
+     * Ensures that every field, including the nanoseconds of the creation time, survives the round trip.
+     */
+    @Test
+    void write_shouldEncodeDeviceThatCanBeReadBack() throws Exception {
+        // Arrange
+        DeviceDTO device = new DeviceDTO(7L, "Device1", "BrandA", LocalDateTime.of(2024, 1, 5, 10, 30, 15, 123_456_789), 3L);
+        MockHttpOutputMessage output = new MockHttpOutputMessage();
+
+        // Act
+        converter.write(device, DeviceProtobufHttpMessageConverter.PROTOBUF, output);
+        Object read = converter.read(DeviceDTO.class, new MockHttpInputMessage(output.getBodyAsBytes()));
+
+        // Assert
+        assertThat(read).isEqualTo(device);
+    }
+
+    /**
+     * Test for writing a page.
+     * Ensures that the bytes follow the DevicePage message of device.proto: repeated items, then the cursor.
+     */
+    @Test
+    void write_shouldEncodePageAsDevicePageMessage() throws Exception {
+        // Arrange
+        LocalDateTime creationTime = LocalDateTime.of(1970, 1, 1, 0, 1);
+        DevicePage page = new DevicePage(List.of(
+                new DeviceDTO(1L, "Device1", "BrandA", creationTime, 0L),
+                new DeviceDTO(2L, "Device2", "BrandB", creationTime, 1L)), "cursor");
+        MockHttpOutputMessage output = new MockHttpOutputMessage();
+
+        // Act
+        converter.write(page, DeviceProtobufHttpMessageConverter.PROTOBUF, output);
+
+        // Assert
+        UnknownFieldSet message = UnknownFieldSet.parseFrom(output.getBodyAsBytes());
+        assertThat(message.getField(1).getLengthDelimitedList()).hasSize(2);
+        assertThat(message.getField(2).getLengthDelimitedList().get(0).toStringUtf8()).isEqualTo("cursor");
+        UnknownFieldSet second = UnknownFieldSet.parseFrom(message.getField(1).getLengthDelimitedList().get(1));
+        assertThat(second.getField(1).getVarintList()).containsExactly(2L);
+        assertThat(second.getField(3).getLengthDelimitedList().get(0).toStringUtf8()).isEqualTo("BrandB");
+        UnknownFieldSet timestamp = UnknownFieldSet.parseFrom(second.getField(4).getLengthDelimitedList().get(0));
+        assertThat(timestamp.getField(1).getVarintList()).containsExactly(60L);
+        assertThat(second.getField(5).getVarintList()).containsExactly(1L);
+    }
+
+    /**
+     * Test for reading a truncated message.
+     * Ensures that it is rejected as unreadable, which is answered with status 400.
+     */
+    @Test
+    void read_shouldRejectTruncatedMessage() {
+        // Arrange
+        byte[] truncated = {0x12, 0x05, 'D', 'e'}; // The name announces five bytes, but only two follow.
+
+        // Act & Assert
+        assertThatThrownBy(() -> converter.read(DeviceDTO.class, new MockHttpInputMessage(truncated)))
+                .isInstanceOf(HttpMessageNotReadableException.class);
+    }
+
+    /**
+     * Test for the supported types.
+     * Ensures that types without a schema are left to the other converters, and pages are only written.
+     */
+    @Test
+    void canReadAndWrite_shouldOnlySupportDevicesAndPages() {
+        assertThat(converter.canRead(DeviceDTO.class, DeviceProtobufHttpMessageConverter.PROTOBUF)).isTrue();
+        assertThat(converter.canRead(DevicePage.class, DeviceProtobufHttpMessageConverter.PROTOBUF)).isFalse();
+        assertThat(converter.canWrite(DevicePage.class, DeviceProtobufHttpMessageConverter.PROTOBUF)).isTrue();
+        assertThat(converter.canWrite(List.class, DeviceProtobufHttpMessageConverter.PROTOBUF)).isFalse();
+    }
+}
@@ -0,0 +1,48 @@
+package com.example.devicemanagement.config;
+
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.web.servlet.HandlerMapping;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Test class for QueryCountFilter.
+ */
+class QueryCountFilterTest {
+
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+
+    private final QueryCountFilter queryCountFilter = new QueryCountFilter(meterRegistry);
+
+    private final QueryCounter queryCounter = new QueryCounter();
+
+    /**
+     * Test for counting the statements of a request.
+     * Ensures that the statements issued while handling the request are recorded under the endpoint's URI template.
+     */
+    @Test
+    void doFilter_shouldRecordStatementsPerRequest() throws Exception {
+        // Arrange
+        queryCounter.inspect("select 1"); // Issued before the request, must not be counted.
+        MockHttpServletRequest request = new MockHttpServletRequest("GET", "/devices/1");
+
+        // Act
+        queryCountFilter.doFilter(request, new MockHttpServletResponse(), (req, res) -> {
+            req.setAttribute(HandlerMapping.BEST_MATCHING_PATTERN_ATTRIBUTE, "/devices/{id}");
+            queryCounter.inspect("select d.id from devices d");
+            queryCounter.inspect("select d.id from devices d");
+        });
+
+        // Assert
+        DistributionSummary summary = meterRegistry.get(QueryCountFilter.METRIC_NAME)
+                .tag("method", "GET")
+                .tag("uri", "/devices/{id}")
+                .summary();
+        assertThat(summary.count()).isEqualTo(1);
+        assertThat(summary.totalAmount()).isEqualTo(2);
+    }
+}
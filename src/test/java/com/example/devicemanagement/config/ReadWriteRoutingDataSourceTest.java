@@ -0,0 +1,80 @@
+package com.example.devicemanagement.config;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+/**
+ * Test class for ReadWriteRoutingDataSource.
+ */
+class ReadWriteRoutingDataSourceTest {
+
+    private final Connection primaryConnection = mock(Connection.class);
+
+    private final Connection replicaConnection = mock(Connection.class);
+
+    private final AtomicBoolean caughtUp = new AtomicBoolean(true);
+
+    private final ReadWriteRoutingDataSource dataSource = new ReadWriteRoutingDataSource(
+            dataSource(primaryConnection), dataSource(replicaConnection), caughtUp::get);
+
+    @AfterEach
+    void tearDown() {
+        TransactionSynchronizationManager.setCurrentTransactionReadOnly(false);
+    }
+
+    /**
+     * Test for routing a read-only transaction.
+     * Ensures that it is served by the replica once the replica has caught up.
+     */
+    @Test
+    void getConnection_shouldUseReplicaForReadOnlyTransaction() throws Exception {
+        // Arrange
+        TransactionSynchronizationManager.setCurrentTransactionReadOnly(true);
+
+        // Act & Assert
+        assertThat(dataSource.getConnection()).isSameAs(replicaConnection);
+    }
+
+    /**
+     * Test for falling back to the primary.
+     * Ensures that a read-only transaction goes to the primary while the replica lags behind, so writes can be read back.
+     */
+    @Test
+    void getConnection_shouldUsePrimaryWhileReplicaLags() throws Exception {
+        // Arrange
+        TransactionSynchronizationManager.setCurrentTransactionReadOnly(true);
+        caughtUp.set(false);
+
+        // Act & Assert
+        assertThat(dataSource.getConnection()).isSameAs(primaryConnection);
+    }
+
+    /**
+     * Test for routing writes.
+     * Ensures that read-write transactions, and work outside a transaction, go to the primary.
+     */
+    @Test
+    void getConnection_shouldUsePrimaryForWrites() throws Exception {
+        // Act & Assert
+        assertThat(dataSource.getConnection()).isSameAs(primaryConnection);
+    }
+
+    private static DataSource dataSource(Connection connection) {
+        DataSource dataSource = mock(DataSource.class);
+        try {
+            when(dataSource.getConnection()).thenReturn(connection);
+        } catch (Exception e) {
+            throw new IllegalStateException(e);
+        }
+        return dataSource;
+    }
+}
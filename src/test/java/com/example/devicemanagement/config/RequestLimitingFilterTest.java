@@ -0,0 +1,96 @@
+package com.example.devicemanagement.config;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import jakarta.servlet.ServletException;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.mock.web.MockFilterChain;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+
+import java.io.IOException;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Test class for RequestLimitingFilter, with separate read and write limits and a clock that does not move.
+ */
+class RequestLimitingFilterTest {
+
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+
+    private final AtomicLong now = new AtomicLong();
+
+    private final RequestLimitingFilter filter = new RequestLimitingFilter(new RequestLimits(
+            new RequestLimitConfiguration.RequestLimitProperties(true, 2.0,
+                    new RequestLimitConfiguration.EndpointLimits(10, 2, 1, 1),
+                    new RequestLimitConfiguration.EndpointLimits(1, 1, 1, 1)),
+            now::get, meterRegistry));
+
+    /**
+     * Test for the rate limit.
+     * Ensures that a client over its rate gets 429 with Retry-After, and that reads and writes are limited separately.
+     */
+    @Test
+    void doFilter_shouldRejectClientOverItsRate() throws Exception {
+        // Act
+        MockHttpServletResponse write = filter(request("POST", "/devices"));
+        MockHttpServletResponse secondWrite = filter(request("POST", "/devices"));
+        MockHttpServletResponse read = filter(request("GET", "/devices/1"));
+
+        // Assert
+        assertThat(write.getStatus()).isEqualTo(HttpStatus.OK.value());
+        assertThat(secondWrite.getStatus()).isEqualTo(HttpStatus.TOO_MANY_REQUESTS.value());
+        assertThat(secondWrite.getHeader(HttpHeaders.RETRY_AFTER)).isEqualTo("1");
+        assertThat(read.getStatus()).isEqualTo(HttpStatus.OK.value());
+        assertThat(meterRegistry.get(RequestLimits.REJECTED_METRIC).tag("endpoint", "write").tag("reason", "rate-limit")
+                .counter().count()).isEqualTo(1);
+    }
+
+    /**
+     * Test for shedding load.
+     * Ensures that a request arriving while its endpoint class is at its concurrency limit gets 503.
+     */
+    @Test
+    void doFilter_shouldShedRequestOverConcurrencyLimit() throws Exception {
+        // Arrange
+        MockHttpServletResponse[] nested = new MockHttpServletResponse[1];
+        MockHttpServletRequest other = request("GET", "/devices/2");
+        other.setRemoteAddr("10.0.0.2");
+
+        // Act
+        MockHttpServletResponse outer = new MockHttpServletResponse();
+        filter.doFilter(request("GET", "/devices/1"), outer, (req, res) -> nested[0] = filter(other));
+
+        // Assert
+        assertThat(outer.getStatus()).isEqualTo(HttpStatus.OK.value());
+        assertThat(nested[0].getStatus()).isEqualTo(HttpStatus.SERVICE_UNAVAILABLE.value());
+        assertThat(nested[0].getHeader(HttpHeaders.RETRY_AFTER)).isEqualTo("1");
+    }
+
+    /**
+     * Test for the paths that are not limited.
+     * Ensures that requests outside the devices API pass however many there are.
+     */
+    @Test
+    void doFilter_shouldNotLimitOtherPaths() throws Exception {
+        // Act & Assert
+        for (int i = 0; i < 5; i++) {
+            assertThat(filter(request("POST", "/actuator/health")).getStatus()).isEqualTo(HttpStatus.OK.value());
+        }
+    }
+
+    private MockHttpServletResponse filter(MockHttpServletRequest request) throws ServletException, IOException {
+        MockHttpServletResponse response = new MockHttpServletResponse();
+        filter.doFilter(request, response, new MockFilterChain());
+        return response;
+    }
+
+    private static MockHttpServletRequest request(String method, String path) {
+        MockHttpServletRequest request = new MockHttpServletRequest(method, path);
+        request.setRemoteAddr("10.0.0.1");
+        return request;
+    }
+}
@@ -1,22 +1,43 @@
 package com.example.devicemanagement.controller;
 
+import com.example.devicemanagement.dto.BrandMatch;
+import com.example.devicemanagement.dto.BrandCount;
+import com.example.devicemanagement.dto.DeleteResult;
 import com.example.devicemanagement.dto.DeviceDTO;
+import com.example.devicemanagement.dto.DevicePage;
+import com.example.devicemanagement.dto.DevicePatch;
 import com.example.devicemanagement.exception.DeviceNotFoundException;
+import com.example.devicemanagement.exception.DeviceVersionMismatchException;
+import com.example.devicemanagement.exception.InvalidCursorException;
+import com.example.devicemanagement.exception.InvalidRequestException;
+import com.example.devicemanagement.service.BrandStatisticsService;
+import com.example.devicemanagement.service.DeviceCursor;
+import com.example.devicemanagement.service.DeviceIngestionService;
 import com.example.devicemanagement.service.DeviceService;
+import com.fasterxml.jackson.databind.ObjectMapper;
 import org.junit.jupiter.api.AfterEach;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.MockitoAnnotations;
+import org.mockito.Spy;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
+import java.io.ByteArrayOutputStream;
+import java.nio.charset.StandardCharsets;
 import java.time.LocalDateTime;
 import java.util.*;
+import java.util.function.Consumer;
 
 import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
 import static org.mockito.ArgumentMatchers.any;
 import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.ArgumentMatchers.isNull;
 import static org.mockito.Mockito.*;
 
 /**
@@ -27,6 +48,18 @@ class DeviceControllerTest {
     @Mock
     private DeviceService deviceService;
 
+    @Spy
+    private ObjectMapper objectMapper = new ObjectMapper().findAndRegisterModules();
+
+    @Mock
+    private ObjectProvider<DeviceIngestionService> ingestionServiceProvider;
+
+    @Mock
+    private DeviceIngestionService ingestionService;
+
+    @Mock
+    private BrandStatisticsService brandStatisticsService;
+
     @InjectMocks
     private DeviceController deviceController;
 
@@ -60,13 +93,58 @@ class DeviceControllerTest {
         when(deviceService.addDevice(any(DeviceDTO.class))).thenReturn(createdDeviceDTO);
 
         // Act
-        ResponseEntity<DeviceDTO> responseEntity = deviceController.addDevice(deviceDTO);
+        ResponseEntity<DeviceDTO> responseEntity = deviceController.addDevice(deviceDTO, null);
 
         // Assert
         assertThat(responseEntity.getStatusCode().value()).isEqualTo(201);
         assertThat(responseEntity.getBody()).isEqualTo(createdDeviceDTO);
         verify(deviceService, times(1)).addDevice(any(DeviceDTO.class));
     }
+    /**
+     * Test for adding a device asynchronously.
+     * Ensures that the device is queued instead of created and a 202 status points to its ingestion status.
+     */
+
+    @Test
+    void addDevice_shouldQueueDeviceIfAsyncResponseIsPreferred() {
+        // Arrange
+        DeviceDTO deviceDTO = new DeviceDTO(null, "Device1", "BrandA", LocalDateTime.now());
+        DeviceDTO acceptedDeviceDTO = new DeviceDTO(7L, "Device1", "BrandA", deviceDTO.creationTime(), 0L);
+        when(ingestionServiceProvider.getIfAvailable()).thenReturn(ingestionService);
+        when(ingestionService.submit(deviceDTO)).thenReturn(acceptedDeviceDTO);
+
+        // Act
+        ResponseEntity<DeviceDTO> responseEntity = deviceController.addDevice(deviceDTO, "respond-async");
+
+        // Assert
+        assertThat(responseEntity.getStatusCode().value()).isEqualTo(202);
+        assertThat(responseEntity.getBody()).isEqualTo(acceptedDeviceDTO);
+        assertThat(responseEntity.getHeaders().getLocation()).hasToString("/devices/ingestion/7");
+        assertThat(responseEntity.getHeaders().getFirst("Preference-Applied")).isEqualTo("respond-async");
+        verify(deviceService, never()).addDevice(any(DeviceDTO.class));
+    }
+    /**
+     * Test for adding devices in bulk.
+     * Ensures that the ids of the created devices are returned with a 201 status.
+     */
+
+    @Test
+    void addDevices_shouldCreateDevices() {
+        // Arrange
+        List<DeviceDTO> deviceDTOs = List.of(
+                new DeviceDTO(null, "Device1", "BrandA", LocalDateTime.now()),
+                new DeviceDTO(null, "Device2", "BrandB", LocalDateTime.now())
+        );
+        when(deviceService.addDevices(deviceDTOs)).thenReturn(List.of(1L, 2L));
+
+        // Act
+        ResponseEntity<List<Long>> responseEntity = deviceController.addDevices(deviceDTOs);
+
+        // Assert
+        assertThat(responseEntity.getStatusCode().value()).isEqualTo(201);
+        assertThat(responseEntity.getBody()).containsExactly(1L, 2L);
+        verify(deviceService, times(1)).addDevices(deviceDTOs);
+    }
     /**
      * Test for retrieving a device by ID.
      * Ensures that the device is returned correctly if it exists.
@@ -80,7 +158,7 @@ class DeviceControllerTest {
         when(deviceService.getDeviceById(id)).thenReturn(deviceDTO);
 
         // Act
-        ResponseEntity<DeviceDTO> responseEntity = deviceController.getDeviceById(id);
+        ResponseEntity<DeviceDTO> responseEntity = deviceController.getDeviceById(id, null);
 
         // Assert
         assertThat(responseEntity.getStatusCode().value()).isEqualTo(200);
@@ -100,33 +178,110 @@ class DeviceControllerTest {
         when(deviceService.getDeviceById(id)).thenThrow(new DeviceNotFoundException(id));
 
         // Act
-        ResponseEntity<DeviceDTO> responseEntity = deviceController.getDeviceById(id);
+        ResponseEntity<DeviceDTO> responseEntity = deviceController.getDeviceById(id, null);
 
         // Assert
         assertThat(responseEntity.getStatusCode().value()).isEqualTo(404);
         verify(deviceService, times(1)).getDeviceById(id);
     }
     /**
-     * Test for retrieving all devices.
-     * Ensures that all devices are returned correctly.
+     * Test for retrieving a device whose version the client already has.
+     * Ensures that a 304 status with the ETag and no body is returned.
      */
 
     @Test
-    void getAllDevices_shouldReturnAllDevices() {
+    void getDeviceById_shouldReturnNotModifiedIfETagMatches() {
         // Arrange
-        List<DeviceDTO> devices = Arrays.asList(
+        Long id = 1L;
+        DeviceDTO deviceDTO = new DeviceDTO(id, "Device1", "BrandA", LocalDateTime.now(), 4L);
+        when(deviceService.getDeviceById(id)).thenReturn(deviceDTO);
+
+        // Act
+        ResponseEntity<DeviceDTO> current = deviceController.getDeviceById(id, "W/\"4\"");
+        ResponseEntity<DeviceDTO> stale = deviceController.getDeviceById(id, "\"3\"");
+
+        // Assert
+        assertThat(current.getStatusCode().value()).isEqualTo(304);
+        assertThat(current.getHeaders().getETag()).isEqualTo("\"4\"");
+        assertThat(current.getBody()).isNull();
+        assertThat(stale.getStatusCode().value()).isEqualTo(200);
+        assertThat(stale.getBody()).isEqualTo(deviceDTO);
+    }
+
+    /**
+     * Test for retrieving a page of devices that has not changed.
+     * Ensures that the page ETag depends on the versions of its devices.
+     */
+
+    @Test
+    void getAllDevices_shouldReturnNotModifiedIfETagMatches() {
+        // Arrange
+        DevicePage page = new DevicePage(List.of(new DeviceDTO(1L, "Device1", "BrandA", LocalDateTime.now(), 0L)), null);
+        DevicePage updatedPage = new DevicePage(List.of(new DeviceDTO(1L, "Device1", "BrandA", LocalDateTime.now(), 1L)), null);
+        when(deviceService.getAllDevices(null, 1)).thenReturn(page, page, updatedPage);
+        String eTag = deviceController.getAllDevices(null, 1, null).getHeaders().getETag();
+
+        // Act
+        ResponseEntity<DevicePage> unchanged = deviceController.getAllDevices(null, 1, eTag);
+        ResponseEntity<DevicePage> changed = deviceController.getAllDevices(null, 1, eTag);
+
+        // Assert
+        assertThat(unchanged.getStatusCode().value()).isEqualTo(304);
+        assertThat(changed.getStatusCode().value()).isEqualTo(200);
+        assertThat(changed.getHeaders().getETag()).isNotEqualTo(eTag);
+    }
+
+    /**
+     * Test for retrieving a page of devices.
+     * Ensures that the page and its cursor are returned correctly.
+     */
+
+    @Test
+    void getAllDevices_shouldReturnPageOfDevices() {
+        // Arrange
+        DevicePage page = new DevicePage(Arrays.asList(
                 new DeviceDTO(1L, "Device1", "BrandA", LocalDateTime.now()),
                 new DeviceDTO(2L, "Device2", "BrandB", LocalDateTime.now())
-        );
-        when(deviceService.getAllDevices()).thenReturn(devices);
+        ), "cursor");
+        when(deviceService.getAllDevices(null, 2)).thenReturn(page);
 
         // Act
-        ResponseEntity<List<DeviceDTO>> responseEntity = deviceController.getAllDevices();
+        ResponseEntity<DevicePage> responseEntity = deviceController.getAllDevices(null, 2, null);
 
         // Assert
         assertThat(responseEntity.getStatusCode().value()).isEqualTo(200);
-        assertThat(responseEntity.getBody()).isEqualTo(devices);
-        verify(deviceService, times(1)).getAllDevices();
+        assertThat(responseEntity.getBody()).isEqualTo(page);
+        verify(deviceService, times(1)).getAllDevices(null, 2);
+    }
+    /**
+     * Test for exporting all devices.
+     * Ensures that each device is written as one JSON document per line.
+     */
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void exportDevices_shouldWriteOneJsonLinePerDevice() throws Exception {
+        // Arrange
+        LocalDateTime creationTime = LocalDateTime.of(2024, 1, 1, 12, 0);
+        doAnswer(invocation -> {
+            Consumer<DeviceDTO> consumer = invocation.getArgument(0);
+            consumer.accept(new DeviceDTO(1L, "Device1", "BrandA", creationTime));
+            consumer.accept(new DeviceDTO(2L, "Device2", "BrandB", creationTime));
+            return null;
+        }).when(deviceService).exportDevices(any(Consumer.class));
+        ByteArrayOutputStream outputStream = new ByteArrayOutputStream();
+
+        // Act
+        ResponseEntity<StreamingResponseBody> responseEntity = deviceController.exportDevices();
+        responseEntity.getBody().writeTo(outputStream);
+
+        // Assert
+        assertThat(responseEntity.getHeaders().getContentType()).isEqualTo(MediaType.APPLICATION_NDJSON);
+        String[] lines = outputStream.toString(StandardCharsets.UTF_8).split("\n");
+        assertThat(lines).hasSize(2);
+        assertThat(lines).allMatch(line -> line.startsWith("{") && line.endsWith("}"));
+        assertThat(objectMapper.readValue(lines[0], DeviceDTO.class)).isEqualTo(new DeviceDTO(1L, "Device1", "BrandA", creationTime));
+        assertThat(objectMapper.readValue(lines[1], DeviceDTO.class).id()).isEqualTo(2L);
     }
     /**
      * Test for updating a device.
@@ -137,16 +292,16 @@ class DeviceControllerTest {
     void updateDevice_shouldUpdateDeviceIfExists() {
         // Arrange
         Long id = 1L;
-        DeviceDTO updatedDeviceDTO = new DeviceDTO(id, "Device1 Updated", "BrandA", LocalDateTime.now());
-        when(deviceService.updateDevice(eq(id), any(DeviceDTO.class))).thenReturn(updatedDeviceDTO);
+        DeviceDTO updatedDeviceDTO = new DeviceDTO(id, "Device1 Updated", "BrandA", LocalDateTime.now(), 1L);
+        when(deviceService.getDeviceById(id)).thenReturn(updatedDeviceDTO);
 
         // Act
-        ResponseEntity<DeviceDTO> responseEntity = deviceController.updateDevice(id, updatedDeviceDTO);
+        ResponseEntity<DeviceDTO> responseEntity = deviceController.updateDevice(id, updatedDeviceDTO, null, null);
 
         // Assert
         assertThat(responseEntity.getStatusCode().value()).isEqualTo(200);
         assertThat(responseEntity.getBody()).isEqualTo(updatedDeviceDTO);
-        verify(deviceService, times(1)).updateDevice(eq(id), any(DeviceDTO.class));
+        verify(deviceService, times(1)).updateDevice(eq(id), any(DeviceDTO.class), isNull());
     }
     /**
      * Test for updating a device when it does not exist.
@@ -158,15 +313,89 @@ class DeviceControllerTest {
         // Arrange
         Long id = 1L;
         DeviceDTO updatedDeviceDTO = new DeviceDTO(id, "Device1 Updated", "BrandA", LocalDateTime.now());
-        when(deviceService.updateDevice(eq(id), any(DeviceDTO.class))).thenThrow(new DeviceNotFoundException(id));
+        doThrow(new DeviceNotFoundException(id)).when(deviceService).updateDevice(eq(id), any(DeviceDTO.class), isNull());
 
         // Act
-        ResponseEntity<DeviceDTO> responseEntity = deviceController.updateDevice(id, updatedDeviceDTO);
+        ResponseEntity<DeviceDTO> responseEntity = deviceController.updateDevice(id, updatedDeviceDTO, null, null);
 
         // Assert
         assertThat(responseEntity.getStatusCode().value()).isEqualTo(404);
-        verify(deviceService, times(1)).updateDevice(eq(id), any(DeviceDTO.class));
+        verify(deviceService, times(1)).updateDevice(eq(id), any(DeviceDTO.class), isNull());
+    }
+    /**
+     * Test for a conditional update that prefers a minimal response.
+     * Ensures that 204 with the new ETag is returned without reading the device back.
+     */
+
+    @Test
+    void updateDevice_shouldReturnNoContentIfMinimalResponsePreferred() {
+        // Arrange
+        Long id = 1L;
+        DeviceDTO updatedDeviceDTO = new DeviceDTO(id, "Device1 Updated", "BrandA", LocalDateTime.now());
+
+        // Act
+        ResponseEntity<DeviceDTO> responseEntity = deviceController.updateDevice(id, updatedDeviceDTO, "\"5\"", "return=minimal");
+
+        // Assert
+        assertThat(responseEntity.getStatusCode().value()).isEqualTo(204);
+        assertThat(responseEntity.getHeaders().getETag()).isEqualTo("\"6\"");
+        assertThat(responseEntity.getHeaders().getFirst("Preference-Applied")).isEqualTo("return=minimal");
+        verify(deviceService, times(1)).updateDevice(eq(id), any(DeviceDTO.class), eq(5L));
+        verify(deviceService, never()).getDeviceById(id);
+    }
+
+    /**
+     * Test for an update conditional on a list of ETags.
+     * Ensures that the update is tried with each listed version until one matches.
+     */
+    @Test
+    void updateDevice_shouldMatchAnyVersionOfIfMatchList() {
+        // Arrange
+        Long id = 1L;
+        DeviceDTO updatedDeviceDTO = new DeviceDTO(id, "Device1 Updated", "BrandA", LocalDateTime.now());
+        doThrow(new DeviceVersionMismatchException(id, 4L)).when(deviceService).updateDevice(eq(id), any(DeviceDTO.class), eq(4L));
+
+        // Act
+        ResponseEntity<DeviceDTO> responseEntity = deviceController.updateDevice(id, updatedDeviceDTO, "\"4\", W/\"7\", \"5\"", "return=minimal");
+
+        // Assert
+        assertThat(responseEntity.getStatusCode().value()).isEqualTo(204);
+        assertThat(responseEntity.getHeaders().getETag()).isEqualTo("\"6\"");
+        verify(deviceService, times(1)).updateDevice(eq(id), any(DeviceDTO.class), eq(4L));
+        verify(deviceService, times(1)).updateDevice(eq(id), any(DeviceDTO.class), eq(5L));
+        verify(deviceService, never()).updateDevice(eq(id), any(DeviceDTO.class), eq(7L));
+    }
+
+    /**
+     * Test for an update conditional on a weak ETag.
+     * Ensures that the weak tag never matches, so the update fails with a version mismatch (412) instead of 400.
+     */
+    @Test
+    void updateDevice_shouldNotMatchWeakETag() {
+        // Arrange
+        Long id = 1L;
+        DeviceDTO updatedDeviceDTO = new DeviceDTO(id, "Device1 Updated", "BrandA", LocalDateTime.now());
+        doThrow(new DeviceVersionMismatchException(id, ETags.NO_VERSION))
+                .when(deviceService).updateDevice(eq(id), any(DeviceDTO.class), eq(ETags.NO_VERSION));
+
+        // Act & Assert
+        assertThatThrownBy(() -> deviceController.updateDevice(id, updatedDeviceDTO, "W/\"5\"", null))
+                .isInstanceOf(DeviceVersionMismatchException.class);
+        verify(deviceService, never()).updateDevice(eq(id), any(DeviceDTO.class), eq(5L));
     }
+
+    /**
+     * Test for a delete with a malformed If-Match header.
+     * Ensures that the request is rejected (400) without deleting anything.
+     */
+    @Test
+    void deleteDevice_shouldRejectMalformedIfMatch() {
+        // Act & Assert
+        assertThatThrownBy(() -> deviceController.deleteDevice(1L, "\"5\" \"6\""))
+                .isInstanceOf(InvalidRequestException.class);
+        verify(deviceService, never()).deleteDevice(any(), any());
+    }
+
     /**
      * Test for partially updating a device.
      * Ensures that the device is updated correctly if it exists.
@@ -176,19 +405,17 @@ class DeviceControllerTest {
     void updateDevicePartially_shouldUpdateDeviceIfExists() {
         // Arrange
         Long id = 1L;
-        Map<String, Object> fields = new HashMap<>();
-        fields.put("name", "Device1 Updated");
-        fields.put("brand", "BrandA");
+        DevicePatch patch = new DevicePatch("Device1 Updated", "BrandA", null);
         DeviceDTO updatedDeviceDTO = new DeviceDTO(id, "Device1 Updated", "BrandA", LocalDateTime.now());
-        when(deviceService.updateDevicePartially(eq(id), any(Map.class))).thenReturn(updatedDeviceDTO);
+        when(deviceService.getDeviceById(id)).thenReturn(updatedDeviceDTO);
 
         // Act
-        ResponseEntity<DeviceDTO> responseEntity = deviceController.updateDevicePartially(id, fields);
+        ResponseEntity<DeviceDTO> responseEntity = deviceController.updateDevicePartially(id, patch, null, null);
 
         // Assert
         assertThat(responseEntity.getStatusCode().value()).isEqualTo(200);
         assertThat(responseEntity.getBody()).isEqualTo(updatedDeviceDTO);
-        verify(deviceService, times(1)).updateDevicePartially(eq(id), any(Map.class));
+        verify(deviceService, times(1)).updateDevicePartially(id, new DevicePatch("Device1 Updated", "BrandA", null), null);
     }
     /**
      * Test for partially updating a device when it does not exist.
@@ -199,15 +426,15 @@ class DeviceControllerTest {
     void updateDevicePartially_shouldReturnNotFoundIfDeviceDoesNotExist() {
         // Arrange
         Long id = 1L;
-        Map<String, Object> fields = new HashMap<>();
-        when(deviceService.updateDevicePartially(eq(id), any(Map.class))).thenThrow(new DeviceNotFoundException(id));
+        DevicePatch patch = new DevicePatch("Device1 Updated", null, null);
+        doThrow(new DeviceNotFoundException(id)).when(deviceService).updateDevicePartially(eq(id), any(DevicePatch.class), isNull());
 
         // Act
-        ResponseEntity<DeviceDTO> responseEntity = deviceController.updateDevicePartially(id, fields);
+        ResponseEntity<DeviceDTO> responseEntity = deviceController.updateDevicePartially(id, patch, null, null);
 
         // Assert
         assertThat(responseEntity.getStatusCode().value()).isEqualTo(404);
-        verify(deviceService, times(1)).updateDevicePartially(eq(id), any(Map.class));
+        verify(deviceService, times(1)).updateDevicePartially(eq(id), any(DevicePatch.class), isNull());
     }
     /**
      * Test for deleting a device.
@@ -218,14 +445,14 @@ class DeviceControllerTest {
     void deleteDevice_shouldDeleteDeviceIfExists() {
         // Arrange
         Long id = 1L;
-        doNothing().when(deviceService).deleteDevice(id);
+        doNothing().when(deviceService).deleteDevice(id, null);
 
         // Act
-        ResponseEntity<Void> responseEntity = deviceController.deleteDevice(id);
+        ResponseEntity<Void> responseEntity = deviceController.deleteDevice(id, null);
 
         // Assert
         assertThat(responseEntity.getStatusCode().value()).isEqualTo(204);
-        verify(deviceService, times(1)).deleteDevice(id);
+        verify(deviceService, times(1)).deleteDevice(id, null);
     }
     /**
      * Test for deleting a device when it does not exist.
@@ -236,14 +463,33 @@ class DeviceControllerTest {
     void deleteDevice_shouldReturnNotFoundIfDeviceDoesNotExist() {
         // Arrange
         Long id = 1L;
-        doThrow(new DeviceNotFoundException(id)).when(deviceService).deleteDevice(id);
+        doThrow(new DeviceNotFoundException(id)).when(deviceService).deleteDevice(id, null);
 
         // Act
-        ResponseEntity<Void> responseEntity = deviceController.deleteDevice(id);
+        ResponseEntity<Void> responseEntity = deviceController.deleteDevice(id, null);
 
         // Assert
         assertThat(responseEntity.getStatusCode().value()).isEqualTo(404);
-        verify(deviceService, times(1)).deleteDevice(id);
+        verify(deviceService, times(1)).deleteDevice(id, null);
+    }
+    /**
+     * Test for deleting devices in bulk.
+     * Ensures that the number of deleted devices is returned.
+     */
+
+    @Test
+    void deleteDevices_shouldReturnDeletedCount() {
+        // Arrange
+        List<Long> ids = List.of(1L, 2L, 3L);
+        when(deviceService.deleteDevices(ids)).thenReturn(2);
+
+        // Act
+        ResponseEntity<DeleteResult> responseEntity = deviceController.deleteDevices(ids);
+
+        // Assert
+        assertThat(responseEntity.getStatusCode().value()).isEqualTo(200);
+        assertThat(responseEntity.getBody()).isEqualTo(new DeleteResult(2));
+        verify(deviceService, times(1)).deleteDevices(ids);
     }
     /**
      * Test for searching devices by brand.
@@ -254,19 +500,19 @@ class DeviceControllerTest {
     void searchDevicesByBrand_shouldReturnDevicesIfFound() {
         // Arrange
         String brand = "BrandA";
-        List<DeviceDTO> devices = Arrays.asList(
+        DevicePage page = new DevicePage(Arrays.asList(
                 new DeviceDTO(1L, "Device1", "BrandA", LocalDateTime.now()),
                 new DeviceDTO(2L, "Device2", "BrandA", LocalDateTime.now())
-        );
-        when(deviceService.searchDevicesByBrand(brand)).thenReturn(devices);
+        ), null);
+        when(deviceService.searchDevicesByBrand(brand, BrandMatch.IGNORE_CASE, null, 100)).thenReturn(page);
 
         // Act
-        ResponseEntity<List<DeviceDTO>> responseEntity = deviceController.searchDevicesByBrand(brand);
+        ResponseEntity<DevicePage> responseEntity = deviceController.searchDevicesByBrand(brand, BrandMatch.IGNORE_CASE, null, 100);
 
         // Assert
         assertThat(responseEntity.getStatusCode().value()).isEqualTo(200);
-        assertThat(responseEntity.getBody()).isEqualTo(devices);
-        verify(deviceService, times(1)).searchDevicesByBrand(brand);
+        assertThat(responseEntity.getBody()).isEqualTo(page);
+        verify(deviceService, times(1)).searchDevicesByBrand(brand, BrandMatch.IGNORE_CASE, null, 100);
     }
     /**
      * Test for searching devices by brand when no devices are found.
@@ -277,13 +523,65 @@ class DeviceControllerTest {
     void searchDevicesByBrand_shouldReturnNotFoundIfNoDevicesFound() {
         // Arrange
         String brand = "BrandA";
-        when(deviceService.searchDevicesByBrand(brand)).thenReturn(Collections.emptyList());
+        when(deviceService.searchDevicesByBrand(brand, BrandMatch.EXACT, null, 100))
+                .thenReturn(new DevicePage(Collections.emptyList(), null));
 
         // Act
-        ResponseEntity<List<DeviceDTO>> responseEntity = deviceController.searchDevicesByBrand(brand);
+        ResponseEntity<DevicePage> responseEntity = deviceController.searchDevicesByBrand(brand, BrandMatch.EXACT, null, 100);
 
         // Assert
         assertThat(responseEntity.getStatusCode().value()).isEqualTo(404);
-        verify(deviceService, times(1)).searchDevicesByBrand(brand);
+        verify(deviceService, times(1)).searchDevicesByBrand(brand, BrandMatch.EXACT, null, 100);
+    }
+
+    /**
+     * Test for counting devices per brand.
+     * Ensures that the in-memory counts are returned as they are.
+     */
+
+    @Test
+    void getDeviceCountsByBrand_shouldReturnCounts() {
+        // Arrange
+        List<BrandCount> counts = List.of(new BrandCount("BrandA", 2), new BrandCount("BrandB", 1));
+        when(brandStatisticsService.getDeviceCountsByBrand()).thenReturn(counts);
+
+        // Act
+        ResponseEntity<List<BrandCount>> responseEntity = deviceController.getDeviceCountsByBrand();
+
+        // Assert
+        assertThat(responseEntity.getStatusCode().value()).isEqualTo(200);
+        assertThat(responseEntity.getBody()).isEqualTo(counts);
+    }
+
+    /**
+     * Test for searching devices by name.
+     * Ensures that a 404 status is returned when no name matches.
+     */
+
+    @Test
+    void searchDevicesByName_shouldReturnNotFoundIfNoDevicesMatch() {
+        // Arrange
+        when(deviceService.searchDevicesByName("sensor", null, 100)).thenReturn(new DevicePage(Collections.emptyList(), null));
+
+        // Act
+        ResponseEntity<DevicePage> responseEntity = deviceController.searchDevicesByName("sensor", null, 100);
+
+        // Assert
+        assertThat(responseEntity.getStatusCode().value()).isEqualTo(404);
+    }
+
+    /**
+     * Test for searching devices by name with a cursor whose rank is not a number.
+     * Ensures that the request is rejected (400) instead of failing with an internal error.
+     */
+    @Test
+    void searchDevicesByName_shouldRejectCursorWithNonNumericRank() {
+        // Arrange
+        String cursor = DeviceCursor.after("not-a-rank", 1L).encode();
+        when(deviceService.searchDevicesByName("sensor", cursor, 100)).thenCallRealMethod();
+
+        // Act & Assert
+        assertThatThrownBy(() -> deviceController.searchDevicesByName("sensor", cursor, 100))
+                .isInstanceOf(InvalidCursorException.class);
     }
 }
@@ -0,0 +1,186 @@
+package com.example.devicemanagement.controller;
+
+import com.example.devicemanagement.dto.BrandMatch;
+import com.example.devicemanagement.dto.DeviceChange;
+import com.example.devicemanagement.dto.DeviceDTO;
+import com.example.devicemanagement.dto.DevicePage;
+import com.example.devicemanagement.exception.DeviceChangesLostException;
+import com.example.devicemanagement.exception.DeviceNotFoundException;
+import com.example.devicemanagement.exception.DeviceVersionMismatchException;
+import com.example.devicemanagement.service.BrandStatisticsService;
+import com.example.devicemanagement.service.DeviceChangeFeed;
+import com.example.devicemanagement.service.ReactiveDeviceService;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.MockitoAnnotations;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.test.StepVerifier;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.List;
+
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.when;
+
+/**
+ * Unit tests for ReactiveDeviceController.
+ */
+class ReactiveDeviceControllerTest {
+
+    @Mock
+    private ReactiveDeviceService deviceService;
+
+    @Mock
+    private BrandStatisticsService brandStatisticsService;
+
+    @Mock
+    private DeviceChangeFeed changeFeed;
+
+    @InjectMocks
+    private ReactiveDeviceController deviceController;
+
+    private AutoCloseable closeable;
+
+    /**
+     * Initializes mocks before each test.
+     */
+    @BeforeEach
+    void setUp() {
+        closeable = MockitoAnnotations.openMocks(this);
+    }
+
+    /**
+     * Closes mocks after each test.
+     */
+    @AfterEach
+    void tearDown() throws Exception {
+        closeable.close();
+    }
+
+    /**
+     * Tests that a created device is returned with status 201.
+     */
+    @Test
+    void addDevice_shouldCreateDevice() {
+        // Arrange
+        DeviceDTO createdDeviceDTO = new DeviceDTO(1L, "Device1", "BrandA", LocalDateTime.now());
+        when(deviceService.addDevice(any(DeviceDTO.class))).thenReturn(Mono.just(createdDeviceDTO));
+
+        // Act & Assert
+        StepVerifier.create(deviceController.addDevice(new DeviceDTO(null, "Device1", "BrandA", null)))
+                .expectNextMatches(response -> response.getStatusCode().value() == 201
+                        && createdDeviceDTO.equals(response.getBody()))
+                .verifyComplete();
+    }
+
+    /**
+     * Tests that a missing device is answered with status 404, like the blocking controller.
+     */
+    @Test
+    void getDeviceById_shouldReturnNotFound() {
+        // Arrange
+        when(deviceService.getDeviceById(1L)).thenReturn(Mono.error(new DeviceNotFoundException(1L)));
+
+        // Act & Assert
+        StepVerifier.create(deviceController.getDeviceById(1L, null))
+                .expectNextMatches(response -> response.getStatusCode().value() == 404)
+                .verifyComplete();
+    }
+
+    /**
+     * Tests that deleting a device is answered with status 204, and with 404 when it does not exist.
+     */
+    @Test
+    void deleteDevice_shouldReturnNoContentOrNotFound() {
+        // Arrange
+        when(deviceService.deleteDevice(1L, null)).thenReturn(Mono.empty());
+        when(deviceService.deleteDevice(2L, null)).thenReturn(Mono.error(new DeviceNotFoundException(2L)));
+
+        // Act & Assert
+        StepVerifier.create(deviceController.deleteDevice(1L, null))
+                .expectNextMatches(response -> response.getStatusCode().value() == 204)
+                .verifyComplete();
+        StepVerifier.create(deviceController.deleteDevice(2L, null))
+                .expectNextMatches(response -> response.getStatusCode().value() == 404)
+                .verifyComplete();
+    }
+
+    /**
+     * Tests that a delete conditional on a list of ETags is tried with each listed version until one matches,
+     * and that a list with only weak tags never matches.
+     */
+    @Test
+    void deleteDevice_shouldMatchAnyStrongVersionOfIfMatchList() {
+        // Arrange
+        when(deviceService.deleteDevice(1L, 4L)).thenReturn(Mono.error(new DeviceVersionMismatchException(1L, 4L)));
+        when(deviceService.deleteDevice(1L, 5L)).thenReturn(Mono.empty());
+        when(deviceService.deleteDevice(1L, ETags.NO_VERSION))
+                .thenReturn(Mono.error(new DeviceVersionMismatchException(1L, ETags.NO_VERSION)));
+
+        // Act & Assert
+        StepVerifier.create(deviceController.deleteDevice(1L, "\"4\", \"5\""))
+                .expectNextMatches(response -> response.getStatusCode().value() == 204)
+                .verifyComplete();
+        StepVerifier.create(deviceController.deleteDevice(1L, "W/\"4\", W/\"5\""))
+                .expectError(DeviceVersionMismatchException.class)
+                .verify();
+    }
+
+    /**
+     * Tests that a search without results is answered with status 404.
+     */
+    @Test
+    void searchDevicesByBrand_shouldReturnNotFoundWhenEmpty() {
+        // Arrange
+        when(deviceService.searchDevicesByBrand("BrandX", BrandMatch.EXACT, null, 100))
+                .thenReturn(Mono.just(new DevicePage(List.of(), null)));
+
+        // Act & Assert
+        StepVerifier.create(deviceController.searchDevicesByBrand("BrandX", BrandMatch.EXACT, null, 100))
+                .expectNextMatches(response -> response.getStatusCode().value() == 404)
+                .verifyComplete();
+    }
+
+    /**
+     * Tests that the streaming endpoint only pulls as many devices as the subscriber requests.
+     */
+    @Test
+    void streamDevices_shouldHonourBackpressure() {
+        // Arrange
+        Flux<DeviceDTO> devices = Flux.range(1, 1000)
+                .map(i -> new DeviceDTO((long) i, "Device" + i, "BrandA", LocalDateTime.now()));
+        when(deviceService.streamDevices(null)).thenReturn(devices);
+
+        // Act & Assert
+        StepVerifier.create(deviceController.streamDevices(null), 2)
+                .expectNextCount(2)
+                .expectNoEvent(Duration.ofMillis(50))
+                .thenRequest(3)
+                .expectNextCount(3)
+                .thenCancel()
+                .verify();
+    }
+
+    /**
+     * Tests that changes are sent as events with their sequence number as id, resuming after the Last-Event-ID,
+     * and that a client that fell behind gets a reset event that ends the stream.
+     */
+    @Test
+    void getChanges_shouldSendChangesAndEndWithResetIfChangesWereLost() {
+        // Arrange
+        when(changeFeed.changesAfter(41L)).thenReturn(Flux.just(new DeviceChange(42L, DeviceChange.Type.CREATED, 7L))
+                .concatWith(Flux.error(new DeviceChangesLostException(42L))));
+
+        // Act & Assert
+        StepVerifier.create(deviceController.getChanges(null, "41"))
+                .expectNextMatches(event -> "42".equals(event.id()) && "CREATED".equals(event.event())
+                        && new DeviceChange(42L, DeviceChange.Type.CREATED, 7L).equals(event.data()))
+                .expectNextMatches(event -> ChangeEvents.RESET.equals(event.event()))
+                .verifyComplete();
+    }
+}
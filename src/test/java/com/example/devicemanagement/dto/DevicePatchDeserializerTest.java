@@ -0,0 +1,75 @@
+package com.example.devicemanagement.dto;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.exc.MismatchedInputException;
+import org.junit.jupiter.api.Test;
+
+import java.time.LocalDateTime;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+/**
+ * Test class for DevicePatchDeserializer.
+ */
+class DevicePatchDeserializerTest {
+
+    private final ObjectMapper objectMapper = new ObjectMapper().findAndRegisterModules();
+
+    /**
+     * Test for reading a merge patch.
+     * Ensures that present members are read as typed fields and absent ones are left unchanged.
+     */
+    @Test
+    void deserialize_shouldReadPresentFields() throws Exception {
+        // Act
+        DevicePatch patch = objectMapper.readValue("{\"brand\":\"BrandB\",\"creationTime\":\"2024-01-02T03:04:05\"}", DevicePatch.class);
+
+        // Assert
+        assertThat(patch).isEqualTo(new DevicePatch(null, "BrandB", LocalDateTime.of(2024, 1, 2, 3, 4, 5)));
+    }
+
+    /**
+     * Test for reading an empty merge patch.
+     * Ensures that it changes no field.
+     */
+    @Test
+    void deserialize_shouldReadEmptyPatch() throws Exception {
+        // Act
+        DevicePatch patch = objectMapper.readValue("{}", DevicePatch.class);
+
+        // Assert
+        assertThat(patch.isEmpty()).isTrue();
+    }
+
+    /**
+     * Test for rejecting invalid merge patches.
+     * Ensures that null, unknown, duplicate and mistyped members are rejected with a message naming the member.
+     */
+    @Test
+    void deserialize_shouldRejectInvalidMembers() {
+        assertRejected("{\"name\":null}", "Field must not be null: name");
+        assertRejected("{\"color\":\"red\"}", "Invalid field: color");
+        assertRejected("{\"name\":\"A\",\"name\":\"B\"}", "Duplicate field: name");
+        assertRejected("{\"brand\":{\"name\":\"B\"}}", "Field must be a string: brand");
+        assertRejected("{\"creationTime\":\"yesterday\"}", "Invalid creationTime: yesterday");
+    }
+
+    /**
+     * Test for rejecting a merge patch that is not an object.
+     * Ensures that an array is not read as a patch.
+     */
+    @Test
+    void deserialize_shouldRejectNonObject() {
+        assertThatThrownBy(() -> objectMapper.readValue("[\"name\"]", DevicePatch.class))
+                .isInstanceOf(MismatchedInputException.class);
+    }
+
+    private void assertRejected(String json, String message) {
+        assertThatThrownBy(() -> objectMapper.readValue(json, DevicePatch.class))
+                .isInstanceOfSatisfying(MismatchedInputException.class, e -> {
+                    assertThat(e.getOriginalMessage()).isEqualTo(message);
+                    assertThat(e.getTargetType()).isEqualTo(DevicePatch.class);
+                });
+    }
+}
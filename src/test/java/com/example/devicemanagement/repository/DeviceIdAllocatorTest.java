@@ -0,0 +1,73 @@
+package com.example.devicemanagement.repository;
+
+import com.example.devicemanagement.model.Device;
+import org.hibernate.id.IdentifierGeneratorHelper;
+import org.hibernate.id.IntegralDataTypeHolder;
+import org.hibernate.id.enhanced.AccessCallback;
+import org.hibernate.id.enhanced.Optimizer;
+import org.hibernate.id.enhanced.OptimizerFactory;
+import org.hibernate.id.enhanced.StandardOptimizerDescriptor;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Tests for DeviceIdAllocator against JPA's id generation, on a database of its own so the sequence is new.
+ */
+@SpringBootTest(properties = "spring.datasource.url=jdbc:h2:mem:id-allocation")
+@ActiveProfiles("test")
+class DeviceIdAllocatorTest {
+
+    @Autowired
+    private DeviceIdAllocator idAllocator;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    /**
+     * Tests that ids taken while Hibernate starts reading a new sequence are not also handed out by JPA.
+     * Hibernate's pooled optimizer is driven directly, configured like Device's id, and the allocator takes
+     * its block right after Hibernate's first sequence call.
+     */
+    @Test
+    void nextId_shouldNotCollideWithJpaOnNewSequence() {
+        Optimizer jpa = OptimizerFactory.buildOptimizer(StandardOptimizerDescriptor.POOLED, Long.class, Device.ID_ALLOCATION_SIZE, 1);
+        List<Long> allocated = new ArrayList<>();
+        AccessCallback sequence = new AccessCallback() {
+            @Override
+            public IntegralDataTypeHolder getNextValue() {
+                IntegralDataTypeHolder value = IdentifierGeneratorHelper.getIntegralDataTypeHolder(Long.class);
+                value.initialize(jdbcTemplate.queryForObject("select next value for devices_seq", Long.class));
+                if (allocated.isEmpty()) {
+                    allocated.add(idAllocator.nextId());
+                }
+                return value;
+            }
+
+            @Override
+            public String getTenantIdentifier() {
+                return null;
+            }
+        };
+
+        Set<Long> jpaIds = new HashSet<>();
+        for (int i = 0; i < 2 * Device.ID_ALLOCATION_SIZE; i++) {
+            jpaIds.add((Long) jpa.generate(sequence));
+        }
+        for (int i = 1; i < Device.ID_ALLOCATION_SIZE; i++) {
+            allocated.add(idAllocator.nextId());
+        }
+
+        assertThat(jpaIds).hasSize(2 * Device.ID_ALLOCATION_SIZE).doesNotContainAnyElementsOf(allocated);
+        assertThat(allocated).doesNotHaveDuplicates();
+    }
+}
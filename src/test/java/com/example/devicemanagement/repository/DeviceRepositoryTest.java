@@ -1,10 +1,15 @@
 package com.example.devicemanagement.repository;
 
+import com.example.devicemanagement.dto.BrandCount;
+import com.example.devicemanagement.dto.DeviceDTO;
+import com.example.devicemanagement.dto.DevicePatch;
 import com.example.devicemanagement.model.Device;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.boot.test.autoconfigure.orm.jpa.TestEntityManager;
+import org.springframework.data.domain.Limit;
 import org.springframework.test.context.ActiveProfiles;
 
 import java.time.LocalDateTime;
@@ -22,6 +27,10 @@ public class DeviceRepositoryTest {
 
     @Autowired
     private DeviceRepository deviceRepository;
+
+    @Autowired
+    private TestEntityManager entityManager;
+
     /**
      * Sets up the test data before each test.
      * Clears the repository and adds some initial devices.
@@ -65,6 +74,60 @@ public class DeviceRepositoryTest {
         assertThat(devices).extracting(Device::getName).containsExactlyInAnyOrder("Device1", "Device2");
     }
 
+    /**
+     * Tests case-insensitive brand search.
+     * Ensures the database-maintained lower-cased brand is matched.
+     */
+
+    @Test
+    void whenFindDtosByBrandIgnoreCase_thenReturnDevicesIgnoringCase() {
+        deviceRepository.flush(); // The generated column is only filled in once the rows are inserted.
+
+        List<DeviceDTO> devices = deviceRepository.findDtosByBrandIgnoreCaseAfter("BRANDA", 0L, Limit.of(10));
+
+        assertThat(devices).extracting(DeviceDTO::name).containsExactly("Device1", "Device2");
+        assertThat(devices).extracting(DeviceDTO::brand).containsOnly("BrandA");
+    }
+
+    /**
+     * Tests brand prefix search.
+     * Ensures results are ordered by brand and id, and the next page resumes after the given key.
+     */
+
+    @Test
+    void whenFindDtosByBrandPrefix_thenReturnDevicesInBrandOrder() {
+        deviceRepository.save(Device.builder()
+                .name("Device7")
+                .brand("Brand_X")
+                .creationTime(LocalDateTime.now())
+                .build());
+        deviceRepository.flush();
+
+        List<DeviceDTO> firstPage = deviceRepository.findDtosByBrandPrefixAfter("BRAND%", "", 0L, Limit.of(2));
+        DeviceDTO last = firstPage.get(1);
+        List<DeviceDTO> secondPage = deviceRepository.findDtosByBrandPrefixAfter("BRAND%", last.brand(), last.id(), Limit.of(10));
+        List<DeviceDTO> literalUnderscore = deviceRepository.findDtosByBrandPrefixAfter("brand\\_%", "", 0L, Limit.of(10));
+
+        // "brand_x" sorts before "branda" because '_' precedes 'a'.
+        assertThat(firstPage).extracting(DeviceDTO::name).containsExactly("Device7", "Device1");
+        assertThat(secondPage).extracting(DeviceDTO::name).containsExactly("Device2", "Device3");
+        assertThat(literalUnderscore).extracting(DeviceDTO::name).containsExactly("Device7");
+    }
+
+    /**
+     * Tests keyset pagination.
+     * Ensures pages are ordered by id, start after the given id and respect the limit.
+     */
+
+    @Test
+    void whenFindDtosAfter_thenReturnNextPage() {
+        List<DeviceDTO> firstPage = deviceRepository.findDtosAfter(0L, Limit.of(2));
+        List<DeviceDTO> secondPage = deviceRepository.findDtosAfter(firstPage.get(1).id(), Limit.of(2));
+
+        assertThat(firstPage).extracting(DeviceDTO::name).containsExactly("Device1", "Device2");
+        assertThat(secondPage).extracting(DeviceDTO::name).containsExactly("Device3");
+    }
+
     /**
      * Tests finding a device by ID.
      * Ensures the device is found and its details match.
@@ -85,6 +148,25 @@ public class DeviceRepositoryTest {
         assertThat(foundDevice).isPresent();
         assertThat(foundDevice.get().getName()).isEqualTo(device.getName());
     }
+    /**
+     * Tests projecting a device by ID.
+     * Ensures the DTO carries the stored values without loading the entity.
+     */
+
+    @Test
+    void whenFindDtoById_thenReturnProjection() {
+        Device device = deviceRepository.save(Device.builder()
+                .name("Device8")
+                .brand("BrandF")
+                .creationTime(LocalDateTime.now())
+                .build());
+
+        Optional<DeviceDTO> foundDevice = deviceRepository.findDtoById(device.getId());
+
+        assertThat(foundDevice).isPresent();
+        assertThat(foundDevice.get().name()).isEqualTo("Device8");
+        assertThat(foundDevice.get().brand()).isEqualTo("BrandF");
+    }
     /**
      * Tests saving a device.
      * Ensures the device is saved and can be retrieved correctly.
@@ -126,4 +208,98 @@ public class DeviceRepositoryTest {
 
         assertThat(foundDevice).isNotPresent();
     }
+    /**
+     * Tests the single-statement update.
+     * Ensures only the patched columns change, the version is incremented, the brand read for update is the old
+     * one and a stale version matches no row.
+     */
+
+    @Test
+    void whenUpdateFields_thenOnlyPatchedColumnsAndVersionChange() {
+        Device device = deviceRepository.saveAndFlush(Device.builder()
+                .name("Device7")
+                .brand("BrandF")
+                .creationTime(LocalDateTime.now())
+                .build());
+
+        Optional<String> oldBrand = deviceRepository.findBrandForUpdate(device.getId(), device.getVersion());
+        int updated = deviceRepository.updateFields(device.getId(), new DevicePatch(null, "BrandG", null), device.getVersion());
+        int stale = deviceRepository.updateFields(device.getId(), new DevicePatch("Stale", null, null), device.getVersion());
+
+        assertThat(oldBrand).contains("BrandF");
+        assertThat(updated).isEqualTo(1);
+        assertThat(stale).isZero();
+        assertThat(deviceRepository.findBrandForUpdate(device.getId(), device.getVersion())).isEmpty();
+        DeviceDTO found = deviceRepository.findDtoById(device.getId()).orElseThrow();
+        assertThat(found.name()).isEqualTo("Device7");
+        assertThat(found.brand()).isEqualTo("BrandG");
+        assertThat(found.version()).isEqualTo(device.getVersion() + 1);
+    }
+    /**
+     * Tests the single-statement and set-based deletes.
+     * Ensures a stale version deletes nothing and the deletes report the ids and brands of the removed rows only.
+     */
+
+    @Test
+    void whenDeleteByStatement_thenDeletedBrandsAreReturned() {
+        List<Long> brandA = deviceRepository.findIdsByBrand("BrandA", Limit.of(10));
+        Device device3 = deviceRepository.findByBrand("BrandB").get(0);
+
+        Optional<String> stale = deviceRepository.deleteDevice(device3.getId(), device3.getVersion() + 1);
+        Optional<String> deleted = deviceRepository.deleteDevice(device3.getId(), device3.getVersion());
+        DeletedDevices bulk = deviceRepository.deleteDevices(List.of(brandA.get(0), brandA.get(1), -1L));
+
+        assertThat(brandA).hasSize(2).isSorted();
+        assertThat(stale).isEmpty();
+        assertThat(deleted).contains("BrandB");
+        assertThat(bulk.ids()).containsExactlyInAnyOrderElementsOf(brandA);
+        assertThat(bulk.brands()).containsExactly(new BrandCount("BrandA", 2));
+        assertThat(deviceRepository.deleteDevice(device3.getId(), null)).isEmpty();
+        assertThat(deviceRepository.count()).isZero();
+    }
+    /**
+     * Tests counting devices per brand.
+     * Ensures every brand is counted in one grouped query.
+     */
+
+    @Test
+    void whenCountDevicesByBrand_thenReturnCountPerBrand() {
+        List<BrandCount> counts = deviceRepository.countDevicesByBrand();
+
+        assertThat(counts).containsExactlyInAnyOrder(new BrandCount("BrandA", 2), new BrandCount("BrandB", 1));
+    }
+    /**
+     * Tests the creation time range search.
+     * Ensures the range end is exclusive, the brand filter applies and pages continue after the cursor.
+     */
+
+    @Test
+    void whenFindCreatedBetween_thenReturnDevicesInTimeOrder() {
+        LocalDateTime start = LocalDateTime.of(2020, 5, 1, 0, 0);
+        Device early = deviceRepository.save(Device.builder().name("Early").brand("BrandT").build());
+        Device late = deviceRepository.save(Device.builder().name("Late").brand("BrandU").build());
+        Device outside = deviceRepository.save(Device.builder().name("Outside").brand("BrandT").build());
+        deviceRepository.flush();
+        // Creation times are stamped on insert, so they are moved into the past afterwards.
+        setCreationTime(early.getId(), start);
+        setCreationTime(late.getId(), start.plusDays(1));
+        setCreationTime(outside.getId(), start.plusDays(2));
+        LocalDateTime end = start.plusDays(2);
+
+        List<DeviceDTO> all = deviceRepository.findDtosCreatedBetweenAfter(start, end, 0L, Limit.of(10));
+        List<DeviceDTO> afterEarly = deviceRepository.findDtosCreatedBetweenAfter(start, end, early.getId(), Limit.of(10));
+        List<DeviceDTO> brandT = deviceRepository.findDtosByBrandCreatedBetweenAfter("BrandT", start, end, 0L, Limit.of(10));
+
+        assertThat(all).extracting(DeviceDTO::name).containsExactly("Early", "Late");
+        assertThat(afterEarly).extracting(DeviceDTO::name).containsExactly("Late");
+        assertThat(brandT).extracting(DeviceDTO::name).containsExactly("Early");
+        assertThat(deviceRepository.findOldestCreationTime()).contains(start);
+    }
+
+    private void setCreationTime(Long id, LocalDateTime creationTime) {
+        entityManager.getEntityManager().createQuery("update Device d set d.creationTime = :time where d.id = :id")
+                .setParameter("time", creationTime)
+                .setParameter("id", id)
+                .executeUpdate();
+    }
 }
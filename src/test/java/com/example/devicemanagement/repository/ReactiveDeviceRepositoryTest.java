@@ -0,0 +1,138 @@
+package com.example.devicemanagement.repository;
+
+import com.example.devicemanagement.dto.BrandCount;
+import com.example.devicemanagement.dto.DeviceDTO;
+import com.example.devicemanagement.dto.DevicePatch;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.ActiveProfiles;
+import reactor.test.StepVerifier;
+
+import java.time.LocalDateTime;
+import java.time.temporal.ChronoUnit;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Test class for ReactiveDeviceRepository.
+ * Runs the reactive profile against its own in-memory database, shared by R2DBC and the JPA schema setup.
+ */
+@SpringBootTest(properties = {
+        "spring.datasource.url=jdbc:h2:mem:reactivedb",
+        "spring.r2dbc.url=r2dbc:pool:h2:mem:///reactivedb"
+})
+@ActiveProfiles({"test", "reactive"})
+class ReactiveDeviceRepositoryTest {
+
+    @Autowired
+    private ReactiveDeviceRepository reactiveDeviceRepository;
+
+    @Autowired
+    private DeviceRepository deviceRepository;
+
+    private final LocalDateTime now = LocalDateTime.now().truncatedTo(ChronoUnit.MILLIS);
+
+    /**
+     * Clears the table and inserts three devices through R2DBC.
+     */
+    @BeforeEach
+    void setUp() {
+        deviceRepository.deleteAll();
+        reactiveDeviceRepository.insert(new DeviceDTO(null, "Device1", "BrandA", now)).block();
+        reactiveDeviceRepository.insert(new DeviceDTO(null, "Device2", "branda", now)).block();
+        reactiveDeviceRepository.insert(new DeviceDTO(null, "Device3", "BrandB", now)).block();
+    }
+
+    /**
+     * Tests that devices inserted reactively are visible through JPA and found by id.
+     */
+    @Test
+    void whenInsert_thenFoundByIdAndByJpa() {
+        DeviceDTO saved = reactiveDeviceRepository.insert(new DeviceDTO(null, "Device4", "BrandC", now)).block();
+
+        assertThat(saved.id()).isNotNull();
+        StepVerifier.create(reactiveDeviceRepository.findById(saved.id()))
+                .expectNext(saved)
+                .verifyComplete();
+        assertThat(deviceRepository.findDtoById(saved.id())).contains(saved);
+    }
+
+    /**
+     * Tests the keyset listing and its limit.
+     */
+    @Test
+    void whenFindAfter_thenReturnDevicesOrderedById() {
+        StepVerifier.create(reactiveDeviceRepository.findAfter(0L, 2).map(DeviceDTO::name))
+                .expectNext("Device1", "Device2")
+                .verifyComplete();
+        StepVerifier.create(reactiveDeviceRepository.findAfter(0L, 0))
+                .expectNextCount(3)
+                .verifyComplete();
+    }
+
+    /**
+     * Tests the exact, case-insensitive and prefix brand searches.
+     */
+    @Test
+    void whenFindByBrand_thenMatchAsRequested() {
+        StepVerifier.create(reactiveDeviceRepository.findByBrandAfter("BrandA", 0L, 0).map(DeviceDTO::name))
+                .expectNext("Device1")
+                .verifyComplete();
+        StepVerifier.create(reactiveDeviceRepository.findByBrandIgnoreCaseAfter("BRANDA", 0L, 0).map(DeviceDTO::name))
+                .expectNext("Device1", "Device2")
+                .verifyComplete();
+        StepVerifier.create(reactiveDeviceRepository.findByBrandPrefixAfter("brand%", "", 0L, 0).map(DeviceDTO::name))
+                .expectNext("Device1", "Device2", "Device3")
+                .verifyComplete();
+    }
+
+    /**
+     * Tests that a conditional update matches only the current version, and that the brand read for update and
+     * the delete return the brand the device has, and nothing if no row matched.
+     */
+    @Test
+    void whenUpdateAndDelete_thenReturnPreviousBrand() {
+        DeviceDTO device = reactiveDeviceRepository.findAfter(0L, 1).blockFirst();
+
+        StepVerifier.create(reactiveDeviceRepository.findBrandForUpdate(device.id(), 0L))
+                .expectNext("BrandA")
+                .verifyComplete();
+        StepVerifier.create(reactiveDeviceRepository.update(device.id(), new DevicePatch("Renamed", null, null), 0L))
+                .expectNext(1L)
+                .verifyComplete();
+        StepVerifier.create(reactiveDeviceRepository.update(device.id(), new DevicePatch("Stale", null, null), 0L))
+                .expectNext(0L)
+                .verifyComplete();
+        StepVerifier.create(reactiveDeviceRepository.findBrandForUpdate(device.id(), 0L))
+                .verifyComplete();
+        assertThat(reactiveDeviceRepository.findById(device.id()).block())
+                .isEqualTo(new DeviceDTO(device.id(), "Renamed", "BrandA", now, 1L));
+        StepVerifier.create(reactiveDeviceRepository.deleteById(device.id(), null))
+                .expectNext("BrandA")
+                .verifyComplete();
+        StepVerifier.create(reactiveDeviceRepository.deleteById(device.id(), null))
+                .verifyComplete();
+    }
+
+    /**
+     * Tests that the bulk deletes remove at most the requested chunk and report what they deleted.
+     */
+    @Test
+    void whenDeleteByBrandAndIds_thenReturnDeletedRows() {
+        DeviceDTO device3 = reactiveDeviceRepository.findByBrandAfter("BrandB", 0L, 0).blockFirst();
+        reactiveDeviceRepository.insert(new DeviceDTO(null, "Device4", "BrandA", now)).block();
+
+        StepVerifier.create(reactiveDeviceRepository.deleteByBrand("BrandA", 1).count())
+                .expectNext(1L)
+                .verifyComplete();
+        StepVerifier.create(reactiveDeviceRepository.findByBrandAfter("BrandA", 0L, 0).map(DeviceDTO::name))
+                .expectNext("Device4")
+                .verifyComplete();
+        StepVerifier.create(reactiveDeviceRepository.deleteByIds(List.of(device3.id(), -1L)))
+                .expectNext(new DeletedDevices(List.of(device3.id()), List.of(new BrandCount("BrandB", 1))))
+                .verifyComplete();
+    }
+}
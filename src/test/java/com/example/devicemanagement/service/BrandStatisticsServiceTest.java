@@ -0,0 +1,72 @@
+package com.example.devicemanagement.service;
+
+import com.example.devicemanagement.dto.BrandCount;
+import com.example.devicemanagement.dto.DeviceDTO;
+import com.example.devicemanagement.dto.DevicePatch;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Collectors;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Tests for the per-brand device counters kept by BrandStatisticsService.
+ * Uses the full application context so the events are delivered after commit. Every test uses its own
+ * brands, as the database is shared with other tests.
+ */
+@SpringBootTest
+@ActiveProfiles("test")
+class BrandStatisticsServiceTest {
+
+    @Autowired
+    private BrandStatisticsService brandStatisticsService;
+
+    @Autowired
+    private DeviceService deviceService;
+
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+
+    /**
+     * Tests that creates, brand changes and deletes move the counts of the brands involved.
+     */
+    @Test
+    void writes_shouldUpdateCountsOfAffectedBrands() {
+        DeviceDTO device1 = deviceService.addDevice(new DeviceDTO(null, "Device1", "StatsA", LocalDateTime.now()));
+        deviceService.addDevices(List.of(new DeviceDTO(null, "Device2", "StatsA", LocalDateTime.now()),
+                new DeviceDTO(null, "Device3", "StatsB", LocalDateTime.now())));
+        assertThat(counts()).containsEntry("StatsA", 2L).containsEntry("StatsB", 1L);
+
+        deviceService.updateDevicePartially(device1.id(), new DevicePatch(null, "StatsB", null), null);
+        assertThat(counts()).containsEntry("StatsA", 1L).containsEntry("StatsB", 2L);
+
+        deviceService.deleteDevice(device1.id(), null);
+        deviceService.deleteDevicesByBrand("StatsA");
+        assertThat(counts()).doesNotContainKey("StatsA").containsEntry("StatsB", 1L);
+    }
+
+    /**
+     * Tests that a rolled back create is never counted.
+     */
+    @Test
+    void addDevice_shouldNotCountDeviceWhenRolledBack() {
+        transactionTemplate.executeWithoutResult(status -> {
+            deviceService.addDevice(new DeviceDTO(null, "Device1", "StatsC", LocalDateTime.now()));
+            status.setRollbackOnly();
+        });
+
+        assertThat(counts()).doesNotContainKey("StatsC");
+    }
+
+    private Map<String, Long> counts() {
+        return brandStatisticsService.getDeviceCountsByBrand().stream()
+                .collect(Collectors.toMap(BrandCount::brand, BrandCount::count));
+    }
+}
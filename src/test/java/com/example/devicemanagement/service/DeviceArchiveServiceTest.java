@@ -0,0 +1,110 @@
+package com.example.devicemanagement.service;
+
+import com.example.devicemanagement.dto.ArchiveResult;
+import com.example.devicemanagement.dto.DeviceDTO;
+import com.example.devicemanagement.dto.DevicePage;
+import com.example.devicemanagement.exception.DeviceNotFoundException;
+import com.example.devicemanagement.exception.InvalidRequestException;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.time.LocalDateTime;
+import java.time.YearMonth;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+/**
+ * Tests for moving old devices into monthly archive tables and finding them by creation time.
+ * Uses the full application context and devices created long ago, as the database is shared with other tests.
+ */
+@SpringBootTest
+@ActiveProfiles("test")
+class DeviceArchiveServiceTest {
+
+    @Autowired
+    private DeviceArchiveService archiveService;
+
+    @Autowired
+    private DeviceService deviceService;
+
+    /**
+     * Tests that past months are moved out of the devices table and are still found by creation time, in order.
+     */
+    @Test
+    void archiveBefore_shouldMoveOldMonthsAndKeepThemSearchable() {
+        DeviceDTO january1 = create("ArchiveA", LocalDateTime.of(2001, 1, 5, 10, 0));
+        DeviceDTO january2 = create("ArchiveB", LocalDateTime.of(2001, 1, 20, 10, 0));
+        DeviceDTO february = create("ArchiveA", LocalDateTime.of(2001, 2, 1, 0, 0));
+        DeviceDTO march = create("ArchiveA", LocalDateTime.of(2001, 3, 31, 23, 59));
+
+        ArchiveResult result = archiveService.archiveBefore(YearMonth.of(2001, 3));
+
+        assertThat(result).isEqualTo(new ArchiveResult(3, List.of(YearMonth.of(2001, 1), YearMonth.of(2001, 2))));
+        assertThatThrownBy(() -> deviceService.getDeviceById(january1.id())).isInstanceOf(DeviceNotFoundException.class);
+        LocalDateTime from = LocalDateTime.of(2001, 1, 1, 0, 0);
+        LocalDateTime to = LocalDateTime.of(2001, 4, 1, 0, 0);
+        DevicePage first = deviceService.searchDevicesByCreationTime(from, to, null, null, 2);
+        DevicePage second = deviceService.searchDevicesByCreationTime(from, to, null, first.nextCursor(), 2);
+        assertThat(first.items()).extracting(DeviceDTO::id).containsExactly(january1.id(), january2.id());
+        assertThat(second.items()).extracting(DeviceDTO::id).containsExactly(february.id(), march.id());
+        assertThat(second.nextCursor()).isNull();
+        assertThat(deviceService.searchDevicesByCreationTime(from, to, "ArchiveB", null, 10).items())
+                .extracting(DeviceDTO::id).containsExactly(january2.id());
+        assertThat(archiveService.archivedMonthsBetween(LocalDateTime.of(2001, 2, 1, 0, 0), to))
+                .containsExactly(YearMonth.of(2001, 2));
+    }
+
+    /**
+     * Tests that the export still contains archived devices, after those of the devices table.
+     */
+    @Test
+    void exportDevices_shouldIncludeArchivedDevices() {
+        DeviceDTO archived = create("ArchiveC", LocalDateTime.of(2002, 6, 1, 12, 0));
+        DeviceDTO current = deviceService.addDevice(new DeviceDTO(null, "Device", "ArchiveC", LocalDateTime.now()));
+        archiveService.archiveBefore(YearMonth.of(2002, 7));
+
+        List<Long> exported = new ArrayList<>();
+        deviceService.exportDevices(device -> exported.add(device.id()));
+
+        assertThat(exported).contains(archived.id(), current.id()).doesNotHaveDuplicates();
+        assertThat(exported.indexOf(archived.id())).isGreaterThan(exported.indexOf(current.id()));
+    }
+
+    /**
+     * Tests that months which have not started yet cannot be archived.
+     */
+    @Test
+    void archiveBefore_shouldRejectFutureMonth() {
+        assertThatThrownBy(() -> archiveService.archiveBefore(YearMonth.now().plusMonths(1)))
+                .isInstanceOf(InvalidRequestException.class);
+    }
+
+    /**
+     * Tests that the creation times sent by the client are stored, by both create endpoints, and not replaced
+     * with the time of the insert.
+     */
+    @Test
+    void addDevice_shouldStoreCreationTimeOfRequest() {
+        LocalDateTime single = LocalDateTime.of(2003, 5, 1, 10, 0);
+        LocalDateTime batched = LocalDateTime.of(2003, 5, 2, 10, 0);
+
+        DeviceDTO created = create("ArchiveD", single);
+        List<Long> ids = deviceService.addDevices(List.of(new DeviceDTO(null, "Device", "ArchiveD", batched)));
+
+        assertThat(created.creationTime()).isEqualTo(single);
+        assertThat(deviceService.getDeviceById(created.id()).creationTime()).isEqualTo(single);
+        assertThat(deviceService.getDeviceById(ids.get(0)).creationTime()).isEqualTo(batched);
+        assertThat(deviceService.searchDevicesByCreationTime(LocalDateTime.of(2003, 5, 1, 0, 0),
+                LocalDateTime.of(2003, 6, 1, 0, 0), "ArchiveD", null, 10).items())
+                .extracting(DeviceDTO::id).containsExactly(created.id(), ids.get(0));
+    }
+
+    private DeviceDTO create(String brand, LocalDateTime creationTime) {
+        return deviceService.addDevice(new DeviceDTO(null, "Device", brand, creationTime));
+    }
+}
@@ -0,0 +1,88 @@
+package com.example.devicemanagement.service;
+
+import com.example.devicemanagement.config.ChangeFeedConfiguration.DeviceChangeFeedProperties;
+import com.example.devicemanagement.dto.DeviceChange;
+import com.example.devicemanagement.exception.DeviceChangesLostException;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import reactor.test.StepVerifier;
+
+import java.time.Duration;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+/**
+ * Unit tests for DeviceChangeFeed, with a ring of four changes.
+ */
+class DeviceChangeFeedTest {
+
+    private DeviceChangeFeed feed;
+
+    /**
+     * Creates an empty feed before each test.
+     */
+    @BeforeEach
+    void setUp() {
+        feed = new DeviceChangeFeed(new DeviceChangeFeedProperties(4));
+    }
+
+    /**
+     * Tests that every changed device gets the next sequence number, in the order of the events.
+     */
+    @Test
+    void onDevicesChanged_shouldNumberChangesInOrder() {
+        feed.onDevicesChanged(DevicesChangedEvent.created(List.of(10L, 11L)));
+        feed.onDevicesChanged(DevicesChangedEvent.updated(10L));
+
+        assertThat(feed.head()).isEqualTo(3);
+        assertThat(feed.readAfter(1)).containsExactly(
+                new DeviceChange(2, DeviceChange.Type.CREATED, 11L),
+                new DeviceChange(3, DeviceChange.Type.UPDATED, 10L));
+        assertThat(feed.readAfter(3)).isEmpty();
+    }
+
+    /**
+     * Tests that positions whose next change has been overwritten, or that lie beyond the feed, are rejected.
+     */
+    @Test
+    void readAfter_shouldRejectOverwrittenAndUnknownPositions() {
+        feed.onDevicesChanged(DevicesChangedEvent.created(List.of(1L, 2L, 3L, 4L, 5L)));
+
+        assertThat(feed.readAfter(1)).extracting(DeviceChange::id).containsExactly(2L, 3L, 4L, 5L);
+        assertThatThrownBy(() -> feed.readAfter(0)).isInstanceOf(DeviceChangesLostException.class);
+        assertThatThrownBy(() -> feed.readAfter(6)).isInstanceOf(DeviceChangesLostException.class);
+    }
+
+    /**
+     * Tests that a subscriber first receives the changes after its position, then the ones appended later.
+     */
+    @Test
+    void changesAfter_shouldReplayFromPositionAndFollowNewChanges() {
+        feed.onDevicesChanged(DevicesChangedEvent.created(List.of(1L, 2L)));
+
+        StepVerifier.create(feed.changesAfter(1L))
+                .expectNext(new DeviceChange(2, DeviceChange.Type.CREATED, 2L))
+                .then(() -> feed.onDevicesChanged(DevicesChangedEvent.deleted(List.of(1L))))
+                .expectNext(new DeviceChange(3, DeviceChange.Type.DELETED, 1L))
+                .thenCancel()
+                .verify(Duration.ofSeconds(5));
+    }
+
+    /**
+     * Tests that a subscriber that does not keep up fails once its next change has been overwritten,
+     * while the writer is never held up.
+     */
+    @Test
+    void changesAfter_shouldFailSlowSubscriberInsteadOfBlockingWriter() {
+        StepVerifier.create(feed.changesAfter(null), 1)
+                .then(() -> feed.onDevicesChanged(DevicesChangedEvent.created(List.of(1L, 2L))))
+                .expectNext(new DeviceChange(1, DeviceChange.Type.CREATED, 1L))
+                .then(() -> feed.onDevicesChanged(DevicesChangedEvent.created(List.of(3L, 4L, 5L, 6L, 7L))))
+                .thenRequest(Long.MAX_VALUE)
+                .expectNext(new DeviceChange(2, DeviceChange.Type.CREATED, 2L))
+                .expectError(DeviceChangesLostException.class)
+                .verify(Duration.ofSeconds(5));
+    }
+}
@@ -0,0 +1,115 @@
+package com.example.devicemanagement.service;
+
+import com.example.devicemanagement.config.IdFilterConfiguration;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowCallbackHandler;
+
+import java.sql.ResultSet;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.stream.LongStream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.timeout;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+/**
+ * Test class for DeviceIdFilter, over a mocked devices table.
+ */
+class DeviceIdFilterTest {
+
+    private final JdbcTemplate jdbcTemplate = mock(JdbcTemplate.class);
+
+    private final AtomicReference<List<Long>> storedIds = new AtomicReference<>(List.of());
+
+    private DeviceIdFilter filter;
+
+    @AfterEach
+    void tearDown() {
+        filter.stop();
+    }
+
+    /**
+     * Test for looking up ids.
+     * Ensures that stored and created ids are never filtered out, and that nearly all other ids are.
+     */
+    @Test
+    void mightContain_shouldFilterOutMostUnknownIds() throws Exception {
+        // Arrange
+        storedIds.set(LongStream.rangeClosed(1, 1000).boxed().toList());
+        filter = filter(true, 10_000);
+        filter.start();
+
+        // Act
+        filter.onDevicesChanging(DevicesChangedEvent.created(List.of(5000L)));
+        long unknownAllowed = LongStream.range(100_000, 200_000).filter(filter::mightContain).count();
+
+        // Assert
+        assertThat(LongStream.rangeClosed(1, 1000)).allMatch(filter::mightContain);
+        assertThat(filter.mightContain(5000L)).isTrue();
+        assertThat(unknownAllowed).isLessThan(2000); // Below 2% for a filter sized for 1%.
+    }
+
+    /**
+     * Test for a disabled filter.
+     * Ensures that every id is looked up and the table is not read.
+     */
+    @Test
+    void mightContain_shouldAllowEveryIdIfDisabled() throws Exception {
+        // Arrange
+        filter = filter(false, 10_000);
+
+        // Act
+        filter.start();
+
+        // Assert
+        assertThat(LongStream.range(1, 1000)).allMatch(filter::mightContain);
+        verify(jdbcTemplate, times(0)).query(eq("select id from devices"), any(RowCallbackHandler.class));
+    }
+
+    /**
+     * Test for deleting devices.
+     * Ensures that the filter is rebuilt from the table once a quarter of its capacity (200: twice the stored ids) has been deleted.
+     */
+    @Test
+    void onDevicesChanged_shouldRebuildAfterManyDeletes() throws Exception {
+        // Arrange
+        storedIds.set(LongStream.rangeClosed(1, 100).boxed().toList());
+        filter = filter(true, 100);
+        filter.start();
+        List<Long> deleted = LongStream.rangeClosed(1, 60).boxed().toList();
+        storedIds.set(LongStream.rangeClosed(61, 100).boxed().toList());
+
+        // Act
+        filter.onDevicesChanged(DevicesChangedEvent.deleted(deleted));
+
+        // Assert
+        verify(jdbcTemplate, timeout(5000).times(2)).query(eq("select id from devices"), any(RowCallbackHandler.class));
+        assertThat(LongStream.rangeClosed(61, 100)).allMatch(filter::mightContain);
+    }
+
+    private DeviceIdFilter filter(boolean enabled, long expectedDevices) throws Exception {
+        when(jdbcTemplate.queryForObject("select count(*) from devices", Long.class))
+                .thenAnswer(invocation -> (long) storedIds.get().size());
+        doAnswer(invocation -> {
+            RowCallbackHandler handler = invocation.getArgument(1);
+            for (Long id : storedIds.get()) {
+                ResultSet row = mock(ResultSet.class);
+                when(row.getLong(1)).thenReturn(id);
+                handler.processRow(row);
+            }
+            return null;
+        }).when(jdbcTemplate).query(eq("select id from devices"), any(RowCallbackHandler.class));
+        return new DeviceIdFilter(jdbcTemplate, new IdFilterConfiguration.DeviceIdFilterProperties(enabled, expectedDevices, 0.01),
+                new SimpleMeterRegistry());
+    }
+}
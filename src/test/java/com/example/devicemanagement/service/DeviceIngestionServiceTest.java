@@ -0,0 +1,172 @@
+package com.example.devicemanagement.service;
+
+import com.example.devicemanagement.config.IngestionConfiguration.DeviceIngestionProperties;
+import com.example.devicemanagement.dto.DeviceDTO;
+import com.example.devicemanagement.dto.IngestionStatus;
+import com.example.devicemanagement.exception.DeviceIngestionRejectedException;
+import com.example.devicemanagement.repository.DeviceBatchRepository;
+import com.example.devicemanagement.repository.DeviceIdAllocator;
+import com.example.devicemanagement.repository.DeviceRepository;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.Mock;
+import org.mockito.MockitoAnnotations;
+import org.springframework.transaction.TransactionStatus;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Consumer;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.Mockito.*;
+
+/**
+ * Unit tests for DeviceIngestionService.
+ * Runs the real writer thread against mocked repositories.
+ */
+class DeviceIngestionServiceTest {
+
+    @Mock
+    private DeviceIdAllocator idAllocator;
+
+    @Mock
+    private DeviceBatchRepository batchRepository;
+
+    @Mock
+    private DeviceRepository deviceRepository;
+
+    @Mock
+    private TransactionTemplate transactionTemplate;
+
+    @Mock
+    private DeviceChangePublisher changePublisher;
+
+    private DeviceIngestionService ingestionService;
+
+    private AutoCloseable mocks;
+
+    /**
+     * Hands out ascending ids and runs transaction callbacks directly.
+     */
+    @BeforeEach
+    void setUp() {
+        mocks = MockitoAnnotations.openMocks(this);
+        AtomicLong ids = new AtomicLong();
+        when(idAllocator.nextId()).thenAnswer(invocation -> ids.incrementAndGet());
+        doAnswer(invocation -> {
+            invocation.<Consumer<TransactionStatus>>getArgument(0).accept(null);
+            return null;
+        }).when(transactionTemplate).executeWithoutResult(any());
+        ingestionService = new DeviceIngestionService(idAllocator, batchRepository, deviceRepository, transactionTemplate,
+                changePublisher, new DeviceIngestionProperties(true, 2, 500, Duration.ofSeconds(10)), new SimpleMeterRegistry());
+    }
+
+    /**
+     * Stops the writer and closes mocks after each test.
+     */
+    @AfterEach
+    void tearDown() throws Exception {
+        if (ingestionService.isRunning()) {
+            ingestionService.stop();
+        }
+        mocks.close();
+    }
+
+    /**
+     * Test for stopping the ingestion.
+     * Ensures that every accepted device is written before stop returns.
+     */
+    @Test
+    void stop_shouldWriteAcceptedDevices() {
+        // Arrange
+        List<Long> written = new CopyOnWriteArrayList<>();
+        doAnswer(invocation -> {
+            invocation.<List<DeviceDTO>>getArgument(0).forEach(device -> written.add(device.id()));
+            return null;
+        }).when(batchRepository).insertAll(anyList());
+        when(deviceRepository.existsById(1L)).thenReturn(true);
+        ingestionService.start();
+
+        // Act
+        DeviceDTO accepted = ingestionService.submit(dto("Device1"));
+        ingestionService.submit(dto("Device2"));
+        ingestionService.stop();
+
+        // Assert
+        assertThat(accepted.id()).isEqualTo(1L);
+        assertThat(accepted.version()).isZero();
+        assertThat(written).containsExactly(1L, 2L);
+        assertThat(ingestionService.getStatus(1L)).isEqualTo(new IngestionStatus(1L, IngestionStatus.State.PERSISTED));
+    }
+
+    /**
+     * Test for submitting a device while the queue is full.
+     * Ensures that the device is rejected instead of waiting for space.
+     */
+    @Test
+    void submit_shouldRejectDeviceIfQueueIsFull() throws InterruptedException {
+        // Arrange
+        CountDownLatch writing = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        doAnswer(invocation -> {
+            writing.countDown();
+            release.await(10, TimeUnit.SECONDS);
+            return null;
+        }).when(batchRepository).insertAll(anyList());
+        ingestionService.start();
+        ingestionService.submit(dto("Device1"));
+        assertThat(writing.await(10, TimeUnit.SECONDS)).isTrue(); // The writer is busy with Device1.
+
+        // Act
+        ingestionService.submit(dto("Device2"));
+        ingestionService.submit(dto("Device3"));
+
+        // Assert
+        assertThatThrownBy(() -> ingestionService.submit(dto("Device4")))
+                .isInstanceOf(DeviceIngestionRejectedException.class);
+        assertThat(ingestionService.getStatus(3L)).isEqualTo(new IngestionStatus(3L, IngestionStatus.State.PENDING));
+        release.countDown();
+    }
+
+    /**
+     * Test for a batch that cannot be written.
+     * Ensures that the devices are retried one by one and only the failing one is reported as failed.
+     */
+    @Test
+    void write_shouldRetryFailedBatchDeviceByDevice() {
+        // Arrange
+        doAnswer(invocation -> {
+            List<DeviceDTO> devices = invocation.getArgument(0);
+            if (devices.stream().anyMatch(device -> device.name().equals("Broken"))) {
+                throw new IllegalStateException("constraint violation");
+            }
+            return null;
+        }).when(batchRepository).insertAll(anyList());
+        when(deviceRepository.existsById(1L)).thenReturn(true);
+        ingestionService.start();
+
+        // Act
+        ingestionService.submit(dto("Device1"));
+        ingestionService.submit(dto("Broken"));
+        ingestionService.stop();
+
+        // Assert
+        assertThat(ingestionService.getStatus(1L)).isEqualTo(new IngestionStatus(1L, IngestionStatus.State.PERSISTED));
+        assertThat(ingestionService.getStatus(2L)).isEqualTo(new IngestionStatus(2L, IngestionStatus.State.FAILED));
+    }
+
+    private static DeviceDTO dto(String name) {
+        return new DeviceDTO(null, name, "BrandA", LocalDateTime.now());
+    }
+}
@@ -0,0 +1,91 @@
+package com.example.devicemanagement.service;
+
+import com.example.devicemanagement.exception.InvalidRequestException;
+import com.example.devicemanagement.repository.DeviceRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.List;
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.Mockito.mock;
+
+/**
+ * Unit tests for DeviceNameIndex.
+ * The index is filled through its change events; the initial load from the database is not exercised.
+ */
+class DeviceNameIndexTest {
+
+    private DeviceNameIndex index;
+
+    /**
+     * Indexes a few devices before each test.
+     */
+    @BeforeEach
+    void setUp() {
+        index = new DeviceNameIndex(mock(DeviceRepository.class), mock(TransactionTemplate.class));
+        index.onDeviceNamesChanged(DeviceNamesChangedEvent.named(Map.of(
+                1L, "Temperature Sensor",
+                2L, "sensor",
+                3L, "Sensorhub",
+                4L, "Multisensor",
+                5L, "Gateway")));
+    }
+
+    /**
+     * Tests that matches are case-insensitive and ranked: exact, prefix, word start, then anywhere.
+     */
+    @Test
+    void search_shouldRankExactThenPrefixThenWordStartThenAnyMatch() {
+        List<DeviceNameIndex.Match> matches = index.search("SENSOR", null, 10);
+
+        assertThat(matches).extracting(DeviceNameIndex.Match::id).containsExactly(2L, 3L, 1L, 4L);
+    }
+
+    /**
+     * Tests that names containing every trigram of the query, but not the query itself, are not returned.
+     */
+    @Test
+    void search_shouldNotReturnNamesWithTrigramsOutOfSequence() {
+        index.onDeviceNamesChanged(DeviceNamesChangedEvent.named(6L, "abcd bcde"));
+
+        assertThat(index.search("abcde", null, 10)).isEmpty();
+        assertThat(index.search("bcde", null, 10)).extracting(DeviceNameIndex.Match::id).containsExactly(6L);
+    }
+
+    /**
+     * Tests that pages continue after the last match of the previous page.
+     */
+    @Test
+    void search_shouldContinueAfterGivenMatch() {
+        List<DeviceNameIndex.Match> first = index.search("sensor", null, 2);
+
+        List<DeviceNameIndex.Match> second = index.search("sensor", first.get(1), 2);
+
+        assertThat(first).extracting(DeviceNameIndex.Match::id).containsExactly(2L, 3L);
+        assertThat(second).extracting(DeviceNameIndex.Match::id).containsExactly(1L, 4L);
+    }
+
+    /**
+     * Tests that renamed and deleted devices are found under their new name only, or not at all.
+     */
+    @Test
+    void onDeviceNamesChanged_shouldReplaceRenamedAndDropRemovedDevices() {
+        index.onDeviceNamesChanged(DeviceNamesChangedEvent.named(2L, "Gateway 2"));
+        index.onDeviceNamesChanged(DeviceNamesChangedEvent.removed(List.of(5L, 42L)));
+
+        assertThat(index.search("sensor", null, 10)).extracting(DeviceNameIndex.Match::id).containsExactly(3L, 1L, 4L);
+        assertThat(index.search("gateway", null, 10)).extracting(DeviceNameIndex.Match::id).containsExactly(2L);
+    }
+
+    /**
+     * Tests that queries shorter than a trigram are rejected.
+     */
+    @Test
+    void search_shouldRejectTooShortQuery() {
+        assertThatThrownBy(() -> index.search("se", null, 10)).isInstanceOf(InvalidRequestException.class);
+    }
+}
@@ -0,0 +1,121 @@
+package com.example.devicemanagement.service;
+
+import com.example.devicemanagement.config.ReplicaConfiguration;
+import com.example.devicemanagement.dto.BrandMatch;
+import com.example.devicemanagement.dto.DeviceDTO;
+import com.example.devicemanagement.dto.DevicePatch;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.ActiveProfiles;
+
+import javax.sql.DataSource;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Tests for the read replica: two embedded H2 databases, kept in sync by DeviceReplicator, with read-only
+ * transactions routed to the second one.
+ */
+@SpringBootTest(properties = {
+        "spring.datasource.url=jdbc:h2:mem:replication-primary",
+        "device.datasource.replica.url=jdbc:h2:mem:replication-replica"})
+@ActiveProfiles("test")
+class DeviceReplicatorTest {
+
+    @Autowired
+    private DeviceService deviceService;
+
+    @Autowired
+    private DeviceReplicator replicator;
+
+    @Autowired
+    @Qualifier(ReplicaConfiguration.REPLICA_DATA_SOURCE)
+    private DataSource replicaDataSource;
+
+    /**
+     * Tests that created, updated and deleted devices are applied to the replica.
+     */
+    @Test
+    void onDevicesChanged_shouldApplyChangesToReplica() throws InterruptedException {
+        DeviceDTO created = deviceService.addDevice(new DeviceDTO(null, "Sensor", "ReplicaA", LocalDateTime.now()));
+        DeviceDTO deleted = deviceService.addDevice(new DeviceDTO(null, "Gateway", "ReplicaA", LocalDateTime.now()));
+
+        deviceService.updateDevicePartially(created.id(), new DevicePatch("Renamed sensor", null, null), null);
+        deviceService.deleteDevice(deleted.id(), null);
+        awaitCaughtUp();
+
+        assertThat(replica().queryForList("select name from devices where brand = 'ReplicaA'", String.class))
+                .containsExactly("Renamed sensor");
+    }
+
+    /**
+     * Tests that read-only transactions are served by the replica once it has caught up, and that a device
+     * that has just been created is always found, whether or not it has been replicated yet.
+     */
+    @Test
+    void searchDevicesByBrand_shouldReadReplicaAndOwnWrites() throws InterruptedException {
+        DeviceDTO first = deviceService.addDevice(new DeviceDTO(null, "Sensor", "ReplicaB", LocalDateTime.now()));
+        awaitCaughtUp();
+        replica().update("update devices set name = 'Only on the replica' where id = ?", first.id());
+
+        List<DeviceDTO> fromReplica = deviceService.searchDevicesByBrand("ReplicaB", BrandMatch.EXACT, null, 10).items();
+        DeviceDTO second = deviceService.addDevice(new DeviceDTO(null, "Gateway", "ReplicaB", LocalDateTime.now()));
+        List<DeviceDTO> afterWrite = deviceService.searchDevicesByBrand("ReplicaB", BrandMatch.EXACT, null, 10).items();
+
+        assertThat(fromReplica).extracting(DeviceDTO::name).containsExactly("Only on the replica");
+        assertThat(afterWrite).extracting(DeviceDTO::id).contains(second.id());
+    }
+
+    /**
+     * Tests that, with many writers committing at once, the replica is never reported as caught up while a
+     * writer's own device is still missing from it.
+     */
+    @Test
+    void isCaughtUp_shouldNotBeReportedBeforeEarlierChangesAreApplied() throws Exception {
+        ExecutorService executor = Executors.newFixedThreadPool(8);
+        try {
+            List<Future<Long>> misses = new ArrayList<>();
+            for (int t = 0; t < 8; t++) {
+                misses.add(executor.submit(() -> {
+                    long missed = 0;
+                    for (int i = 0; i < 50; i++) {
+                        DeviceDTO created = deviceService.addDevice(new DeviceDTO(null, "Sensor", "ReplicaC", LocalDateTime.now()));
+                        if (replicator.isCaughtUp() && replica().queryForObject(
+                                "select count(*) from devices where id = ?", Long.class, created.id()) == 0) {
+                            missed++;
+                        }
+                    }
+                    return missed;
+                }));
+            }
+            for (Future<Long> missed : misses) {
+                assertThat(missed.get(60, TimeUnit.SECONDS)).isZero();
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+        awaitCaughtUp();
+        assertThat(replicator.getLag()).isZero();
+    }
+
+    private JdbcTemplate replica() {
+        return new JdbcTemplate(replicaDataSource);
+    }
+
+    private void awaitCaughtUp() throws InterruptedException {
+        for (int i = 0; i < 100 && !replicator.isCaughtUp(); i++) {
+            Thread.sleep(50);
+        }
+        assertThat(replicator.isCaughtUp()).isTrue();
+    }
+}
@@ -0,0 +1,203 @@
+package com.example.devicemanagement.service;
+
+import com.example.devicemanagement.config.CacheConfiguration;
+import com.example.devicemanagement.dto.DeviceDTO;
+import com.example.devicemanagement.repository.DeviceRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.mock.mockito.SpyBean;
+import org.springframework.cache.Cache;
+import org.springframework.cache.CacheManager;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.clearInvocations;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.reset;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+
+/**
+ * Tests for the device cache in front of DeviceService.
+ * Uses the full application context so the cache and transaction proxies are in place.
+ */
+@SpringBootTest
+@ActiveProfiles("test")
+class DeviceServiceCacheTest {
+
+    @Autowired
+    private DeviceService deviceService;
+
+    @SpyBean
+    private DeviceRepository deviceRepository;
+
+    @Autowired
+    private CacheManager cacheManager;
+
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+
+    private Cache cache;
+
+    private Long id;
+
+    /**
+     * Creates a device and clears the cache before each test.
+     */
+    @BeforeEach
+    void setUp() {
+        cache = cacheManager.getCache(CacheConfiguration.DEVICES_CACHE);
+        cache.clear();
+        id = deviceService.addDevice(new DeviceDTO(null, "Device1", "BrandA", LocalDateTime.now())).id();
+        clearInvocations(deviceRepository);
+    }
+
+    /**
+     * Tests that repeated lookups of the same device are served from the cache.
+     */
+    @Test
+    void getDeviceById_shouldQueryRepositoryOnlyOnce() {
+        DeviceDTO first = deviceService.getDeviceById(id);
+        DeviceDTO second = deviceService.getDeviceById(id);
+
+        assertThat(second).isEqualTo(first);
+        verify(deviceRepository, times(1)).findDtoById(id);
+    }
+
+    /**
+     * Tests that an update only invalidates the cached device once its transaction has committed.
+     */
+    @Test
+    void updateDevice_shouldEvictCachedDeviceAfterCommit() {
+        deviceService.getDeviceById(id);
+
+        transactionTemplate.executeWithoutResult(status -> {
+            deviceService.updateDevice(id, new DeviceDTO(id, "Device1 Updated", "BrandA", LocalDateTime.now()), null);
+            assertThat(cache.get(id)).isNotNull();
+        });
+
+        assertThat(cache.get(id)).isNull();
+        assertThat(deviceService.getDeviceById(id).name()).isEqualTo("Device1 Updated");
+    }
+
+    /**
+     * Tests that a rolled back delete leaves the cached device in place.
+     */
+    @Test
+    void deleteDevice_shouldKeepCachedDeviceWhenRolledBack() {
+        deviceService.getDeviceById(id);
+
+        transactionTemplate.executeWithoutResult(status -> {
+            deviceService.deleteDevice(id, null);
+            status.setRollbackOnly();
+        });
+
+        assertThat(cache.get(id)).isNotNull();
+    }
+
+    /**
+     * Tests that a device read before a concurrent update committed is not left in the cache by the update's eviction.
+     */
+    @Test
+    void getDeviceById_shouldNotCacheDeviceReadBeforeConcurrentUpdate() throws Exception {
+        Optional<DeviceDTO> before = deviceRepository.findDtoById(id);
+        CountDownLatch read = new CountDownLatch(1);
+        CountDownLatch committed = new CountDownLatch(1);
+        doAnswer(invocation -> {
+            read.countDown(); // The row as read before the update.
+            committed.await(10, TimeUnit.SECONDS); // The update commits before the read stores its device.
+            return before;
+        }).when(deviceRepository).findDtoById(id);
+        ExecutorService reader = Executors.newSingleThreadExecutor();
+        ExecutorService writer = Executors.newSingleThreadExecutor();
+        try {
+            Future<DeviceDTO> stale = reader.submit(() -> deviceService.getDeviceById(id));
+            assertThat(read.await(10, TimeUnit.SECONDS)).isTrue();
+            Future<?> update = writer.submit(() -> transactionTemplate.executeWithoutResult(status -> {
+                TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                    @Override
+                    public void afterCommit() {
+                        committed.countDown(); // Runs before the cache's eviction, which was registered later.
+                    }
+                });
+                deviceService.updateDevice(id, new DeviceDTO(id, "Device1 Updated", "BrandA", LocalDateTime.now()), null);
+            }));
+
+            assertThat(stale.get(10, TimeUnit.SECONDS).name()).isEqualTo("Device1");
+            update.get(10, TimeUnit.SECONDS);
+        } finally {
+            reader.shutdownNow();
+            writer.shutdownNow();
+        }
+
+        assertThat(cache.get(id)).isNull();
+        reset(deviceRepository);
+        assertThat(deviceService.getDeviceById(id).name()).isEqualTo("Device1 Updated");
+    }
+
+    /**
+     * Tests that concurrent lookups of a device that is not cached load it from the repository only once.
+     */
+    @Test
+    void getDeviceById_shouldLoadConcurrentMissesOnce() throws Exception {
+        int readers = 8;
+        Optional<DeviceDTO> device = deviceRepository.findDtoById(id);
+        AtomicInteger loads = new AtomicInteger();
+        CountDownLatch loading = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        doAnswer(invocation -> {
+            loads.incrementAndGet();
+            loading.countDown();
+            release.await(10, TimeUnit.SECONDS);
+            return device;
+        }).when(deviceRepository).findDtoById(id);
+        Queue<Thread> threads = new ConcurrentLinkedQueue<>();
+        ExecutorService executor = Executors.newFixedThreadPool(readers);
+        try {
+            List<Future<DeviceDTO>> results = new ArrayList<>();
+            for (int i = 0; i < readers; i++) {
+                results.add(executor.submit(() -> {
+                    threads.add(Thread.currentThread());
+                    return deviceService.getDeviceById(id);
+                }));
+            }
+            assertThat(loading.await(10, TimeUnit.SECONDS)).isTrue();
+            // The other readers wait for the load on the cache entry rather than loading themselves.
+            long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(10);
+            while (threads.size() < readers
+                    || threads.stream().filter(thread -> thread.getState() == Thread.State.BLOCKED).count() < readers - 1) {
+                assertThat(System.nanoTime() - deadline).isNegative();
+                Thread.onSpinWait();
+            }
+            release.countDown();
+
+            for (Future<DeviceDTO> result : results) {
+                assertThat(result.get(10, TimeUnit.SECONDS).name()).isEqualTo("Device1");
+            }
+        } finally {
+            release.countDown();
+            executor.shutdownNow();
+        }
+
+        assertThat(loads).hasValue(1);
+        reset(deviceRepository);
+    }
+}
@@ -1,22 +1,43 @@
 package com.example.devicemanagement.service;
 
+import com.example.devicemanagement.config.CacheConfiguration;
+import com.example.devicemanagement.dto.BrandCount;
+import com.example.devicemanagement.dto.BrandMatch;
 import com.example.devicemanagement.dto.DeviceDTO;
+import com.example.devicemanagement.dto.DevicePage;
+import com.example.devicemanagement.dto.DevicePatch;
 import com.example.devicemanagement.exception.DeviceNotFoundException;
 import com.example.devicemanagement.exception.DeviceServiceException;
+import com.example.devicemanagement.exception.DeviceVersionMismatchException;
+import com.example.devicemanagement.exception.InvalidCursorException;
+import com.example.devicemanagement.exception.InvalidRequestException;
 import com.example.devicemanagement.model.Device;
+import com.example.devicemanagement.repository.DeletedDevices;
 import com.example.devicemanagement.repository.DeviceRepository;
+import jakarta.persistence.EntityManager;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.MockitoAnnotations;
+import org.mockito.Spy;
+import org.springframework.cache.Cache;
+import org.springframework.cache.CacheManager;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.data.domain.Limit;
+import org.springframework.transaction.support.TransactionCallback;
+import org.springframework.transaction.support.TransactionTemplate;
 
 import java.time.LocalDateTime;
 import java.util.*;
+import java.util.stream.Stream;
 
 import static org.assertj.core.api.Assertions.assertThat;
 import static org.assertj.core.api.Assertions.assertThatThrownBy;
 import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.ArgumentMatchers.isNull;
 import static org.mockito.Mockito.*;
 
 /**
@@ -28,6 +49,32 @@ class DeviceServiceTest implements AutoCloseable {
     @Mock
     private DeviceRepository deviceRepository;
 
+    @Mock
+    private EntityManager entityManager;
+
+    @Mock
+    private TransactionTemplate transactionTemplate;
+
+    @Mock
+    private CacheManager cacheManager;
+
+    @Mock
+    private Cache cache;
+
+    private final ApplicationEventPublisher eventPublisher = mock(ApplicationEventPublisher.class);
+
+    @Spy // Publishes the real events to the mocked publisher above.
+    private DeviceChangePublisher changePublisher = new DeviceChangePublisher(eventPublisher);
+
+    @Mock
+    private DeviceNameIndex deviceNameIndex;
+
+    @Mock
+    private DeviceArchiveService deviceArchiveService;
+
+    @Mock
+    private DeviceIdFilter deviceIdFilter;
+
     @InjectMocks
     private DeviceService deviceService;
 
@@ -36,6 +83,8 @@ class DeviceServiceTest implements AutoCloseable {
     @BeforeEach
     void setUp() {
         mocks = MockitoAnnotations.openMocks(this);
+        when(cacheManager.getCache(CacheConfiguration.DEVICES_CACHE)).thenReturn(cache);
+        when(deviceIdFilter.mightContain(anyLong())).thenReturn(true);
     }
     /**
      * Test for adding a device.
@@ -63,6 +112,38 @@ class DeviceServiceTest implements AutoCloseable {
         assertThat(savedDevice.name()).isEqualTo("Device1");
         verify(deviceRepository, times(1)).save(any(Device.class));
     }
+    /**
+     * Test for adding devices in bulk.
+     * Ensures that the devices are saved in one batch and their ids returned in request order.
+     */
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void addDevices_shouldSaveAllDevicesAndReturnIds() {
+        // Arrange
+        List<DeviceDTO> deviceDTOs = List.of(
+                new DeviceDTO(null, "Device1", "BrandA", null),
+                new DeviceDTO(null, "Device2", "BrandB", LocalDateTime.now())
+        );
+        when(deviceRepository.saveAll(any(List.class))).thenAnswer(invocation -> {
+            List<Device> devices = invocation.getArgument(0);
+            long id = 10L;
+            for (Device device : devices) {
+                assertThat(device.getCreationTime()).isNotNull();
+                device.setId(id++);
+            }
+            return devices;
+        });
+
+        // Act
+        List<Long> ids = deviceService.addDevices(deviceDTOs);
+
+        // Assert
+        assertThat(ids).containsExactly(10L, 11L);
+        verify(deviceRepository, times(1)).saveAll(any(List.class));
+        verify(deviceRepository, times(1)).flush();
+        verify(entityManager, times(1)).clear();
+    }
     /**
      * Test for retrieving a device by ID.
      * Ensures that the device is returned correctly if it exists.
@@ -72,8 +153,8 @@ class DeviceServiceTest implements AutoCloseable {
     void getDeviceById_shouldReturnDeviceIfExists() {
         // Arrange
         Long id = 1L;
-        Device device = new Device(id, "Device1", "BrandA", LocalDateTime.now());
-        when(deviceRepository.findById(id)).thenReturn(Optional.of(device));
+        DeviceDTO device = dto(id, "Device1", "BrandA");
+        when(deviceRepository.findDtoById(id)).thenReturn(Optional.of(device));
 
         // Act
         DeviceDTO foundDevice = deviceService.getDeviceById(id);
@@ -81,7 +162,7 @@ class DeviceServiceTest implements AutoCloseable {
         // Assert
         assertThat(foundDevice).isNotNull();
         assertThat(foundDevice.id()).isEqualTo(id);
-        verify(deviceRepository, times(1)).findById(id);
+        verify(deviceRepository, times(1)).findDtoById(id);
     }
     /**
      * Test for retrieving a device by ID when it does not exist.
@@ -92,33 +173,100 @@ class DeviceServiceTest implements AutoCloseable {
     void getDeviceById_shouldThrowExceptionIfDeviceNotFound() {
         // Arrange
         Long id = 1L;
-        when(deviceRepository.findById(id)).thenReturn(Optional.empty());
+        when(deviceRepository.findDtoById(id)).thenReturn(Optional.empty());
 
         // Act & Assert
         assertThatThrownBy(() -> deviceService.getDeviceById(id))
                 .isInstanceOf(DeviceNotFoundException.class);
-        verify(deviceRepository, times(1)).findById(id);
+        verify(deviceRepository, times(1)).findDtoById(id);
     }
     /**
-     * Test for retrieving all devices.
-     * Ensures that all devices are returned correctly.
+     * Test for retrieving a device by ID that the id filter rules out.
+     * Ensures that an exception is thrown without querying the repository.
      */
 
     @Test
-    void getAllDevices_shouldReturnAllDevices() {
+    void getDeviceById_shouldNotQueryRepositoryIfIdIsFilteredOut() {
         // Arrange
-        List<Device> devices = Arrays.asList(
-                new Device(1L, "Device1", "BrandA", LocalDateTime.now()),
-                new Device(2L, "Device2", "BrandB", LocalDateTime.now())
+        Long id = 1L;
+        when(deviceIdFilter.mightContain(id)).thenReturn(false);
+
+        // Act & Assert
+        assertThatThrownBy(() -> deviceService.getDeviceById(id))
+                .isInstanceOf(DeviceNotFoundException.class)
+                .hasMessage("Device not found with id: 1");
+        verify(deviceRepository, never()).findDtoById(any());
+    }
+    /**
+     * Test for retrieving the first page of devices.
+     * Ensures that the page is trimmed to the limit and a cursor to the last device is returned.
+     */
+
+    @Test
+    void getAllDevices_shouldReturnFirstPageWithCursor() {
+        // Arrange
+        List<DeviceDTO> devices = Arrays.asList(
+                dto(1L, "Device1", "BrandA"),
+                dto(2L, "Device2", "BrandB"),
+                dto(3L, "Device3", "BrandB")
         );
-        when(deviceRepository.findAll()).thenReturn(devices);
+        when(deviceRepository.findDtosAfter(0L, Limit.of(3))).thenReturn(devices);
 
         // Act
-        List<DeviceDTO> deviceDTOs = deviceService.getAllDevices();
+        DevicePage page = deviceService.getAllDevices(null, 2);
 
         // Assert
-        assertThat(deviceDTOs).hasSize(2);
-        verify(deviceRepository, times(1)).findAll();
+        assertThat(page.items()).extracting(DeviceDTO::id).containsExactly(1L, 2L);
+        assertThat(page.nextCursor()).isEqualTo(DeviceCursor.after(2L).encode());
+        verify(deviceRepository, times(1)).findDtosAfter(0L, Limit.of(3));
+    }
+    /**
+     * Test for retrieving the last page of devices.
+     * Ensures that the cursor is decoded and no next cursor is returned.
+     */
+
+    @Test
+    void getAllDevices_shouldReturnLastPageWithoutCursor() {
+        // Arrange
+        List<DeviceDTO> devices = List.of(dto(3L, "Device3", "BrandB"));
+        when(deviceRepository.findDtosAfter(2L, Limit.of(3))).thenReturn(devices);
+
+        // Act
+        DevicePage page = deviceService.getAllDevices(DeviceCursor.after(2L).encode(), 2);
+
+        // Assert
+        assertThat(page.items()).extracting(DeviceDTO::id).containsExactly(3L);
+        assertThat(page.nextCursor()).isNull();
+    }
+    /**
+     * Test for retrieving devices with a malformed cursor.
+     * Ensures that an exception is thrown before the repository is queried.
+     */
+
+    @Test
+    void getAllDevices_shouldRejectInvalidCursor() {
+        // Act & Assert
+        assertThatThrownBy(() -> deviceService.getAllDevices("not-a-cursor", 10))
+                .isInstanceOf(InvalidCursorException.class);
+        verifyNoInteractions(deviceRepository);
+    }
+    /**
+     * Test for exporting all devices.
+     * Ensures that every device is handed to the consumer in order.
+     */
+
+    @Test
+    void exportDevices_shouldStreamEveryDevice() {
+        // Arrange
+        when(deviceRepository.streamAllDtos()).thenReturn(Stream.of(dto(1L, "Device1", "BrandA"), dto(2L, "Device2", "BrandB")));
+        List<DeviceDTO> exported = new ArrayList<>();
+
+        // Act
+        deviceService.exportDevices(exported::add);
+
+        // Assert
+        assertThat(exported).extracting(DeviceDTO::id).containsExactly(1L, 2L);
+        verifyNoInteractions(entityManager);
     }
     /**
      * Test for updating a device.
@@ -128,21 +276,21 @@ class DeviceServiceTest implements AutoCloseable {
     void updateDevice_shouldUpdateDeviceIfExists() {
         // Arrange
         Long id = 1L;
-        Device existingDevice = new Device(id, "Device1", "BrandA", LocalDateTime.now());
-        Device updatedDevice = new Device(id, "Device1 Updated", "BrandA", LocalDateTime.now());
-        DeviceDTO updatedDeviceDTO = new DeviceDTO(id, "Device1 Updated", "BrandA", LocalDateTime.now());
-
-        when(deviceRepository.findById(id)).thenReturn(Optional.of(existingDevice));
-        when(deviceRepository.save(any(Device.class))).thenReturn(updatedDevice);
+        LocalDateTime creationTime = LocalDateTime.now();
+        DeviceDTO updatedDeviceDTO = new DeviceDTO(id, "Device1 Updated", "BrandA", creationTime);
+        when(deviceRepository.findBrandForUpdate(id, null)).thenReturn(Optional.of("BrandA"));
+        when(deviceRepository.updateFields(id, new DevicePatch("Device1 Updated", "BrandA", creationTime), null)).thenReturn(1);
 
         // Act
-        DeviceDTO result = deviceService.updateDevice(id, updatedDeviceDTO);
+        deviceService.updateDevice(id, updatedDeviceDTO, null);
 
         // Assert
-        assertThat(result).isNotNull();
-        assertThat(result.name()).isEqualTo("Device1 Updated");
-        verify(deviceRepository, times(1)).findById(id);
-        verify(deviceRepository, times(1)).save(any(Device.class));
+        verify(deviceRepository, times(1)).updateFields(id, new DevicePatch("Device1 Updated", "BrandA", creationTime), null);
+        verify(deviceRepository, never()).findById(id);
+        verify(deviceRepository, never()).save(any(Device.class));
+        verify(eventPublisher, never()).publishEvent(any(BrandCountsChangedEvent.class)); // The brand did not change.
+        verify(eventPublisher, times(1)).publishEvent(DeviceNamesChangedEvent.named(id, "Device1 Updated"));
+        verify(eventPublisher, times(1)).publishEvent(DevicesChangedEvent.updated(id));
     }
     /**
      * Test for updating a device when it does not exist.
@@ -154,31 +302,128 @@ class DeviceServiceTest implements AutoCloseable {
         // Arrange
         Long id = 1L;
         DeviceDTO updatedDeviceDTO = new DeviceDTO(id, "Device1 Updated", "BrandA", LocalDateTime.now());
-        when(deviceRepository.findById(id)).thenReturn(Optional.empty());
+        when(deviceRepository.findBrandForUpdate(id, null)).thenReturn(Optional.empty());
 
         // Act & Assert
-        assertThatThrownBy(() -> deviceService.updateDevice(id, updatedDeviceDTO))
+        assertThatThrownBy(() -> deviceService.updateDevice(id, updatedDeviceDTO, null))
                 .isInstanceOf(DeviceNotFoundException.class);
-        verify(deviceRepository, times(1)).findById(id);
+    }
+
+    /**
+     * Test for updating a device with an If-Match version that is no longer current.
+     * Ensures that the failed conditional update is reported as a version mismatch.
+     */
+
+    @Test
+    void updateDevice_shouldThrowExceptionIfVersionDoesNotMatch() {
+        // Arrange
+        Long id = 1L;
+        DeviceDTO updatedDeviceDTO = new DeviceDTO(id, "Device1 Updated", "BrandA", LocalDateTime.now());
+        when(deviceRepository.findBrandForUpdate(id, 2L)).thenReturn(Optional.empty());
+        when(deviceRepository.existsById(id)).thenReturn(true);
+
+        // Act & Assert
+        assertThatThrownBy(() -> deviceService.updateDevice(id, updatedDeviceDTO, 2L))
+                .isInstanceOf(DeviceVersionMismatchException.class);
+    }
+
+    /**
+     * Test for partially updating a device.
+     * Ensures that only the patched fields are passed to the single-statement update and the brand move is published.
+     */
+
+    @Test
+    void updateDevicePartially_shouldUpdateOnlyPatchedFields() {
+        // Arrange
+        Long id = 1L;
+        DevicePatch patch = new DevicePatch(null, "BrandB", null);
+        when(deviceRepository.findBrandForUpdate(id, 4L)).thenReturn(Optional.of("BrandA"));
+        when(deviceRepository.updateFields(id, patch, 4L)).thenReturn(1);
+
+        // Act
+        deviceService.updateDevicePartially(id, patch, 4L);
+
+        // Assert
+        verify(deviceRepository, times(1)).updateFields(id, patch, 4L);
+        verify(deviceRepository, never()).existsById(id);
+        verify(eventPublisher, times(1)).publishEvent(BrandCountsChangedEvent.rebranded("BrandA", "BrandB"));
+    }
+
+    /**
+     * Test for partially updating a device without changing its brand.
+     * Ensures that the old brand is not read, so the update is a single statement.
+     */
+    @Test
+    void updateDevicePartially_shouldNotReadBrandIfNotPatched() {
+        // Arrange
+        Long id = 1L;
+        DevicePatch patch = new DevicePatch("Renamed", null, null);
+        when(deviceRepository.updateFields(id, patch, 4L)).thenReturn(1);
+
+        // Act
+        deviceService.updateDevicePartially(id, patch, 4L);
+
+        // Assert
+        verify(deviceRepository, never()).findBrandForUpdate(any(), any());
+        verify(eventPublisher, never()).publishEvent(any(BrandCountsChangedEvent.class));
+        verify(eventPublisher, times(1)).publishEvent(DeviceNamesChangedEvent.named(id, "Renamed"));
+    }
+
+    /**
+     * Test for deleting a device with a matching If-Match version.
+     * Ensures that the version is part of the single DELETE statement and nothing is read.
+     */
+
+    @Test
+    void deleteDevice_shouldDeleteWithVersionCondition() {
+        // Arrange
+        Long id = 1L;
+        when(deviceRepository.deleteDevice(id, 3L)).thenReturn(Optional.of("BrandA"));
+
+        // Act
+        deviceService.deleteDevice(id, 3L);
+
+        // Assert
+        verify(deviceRepository, times(1)).deleteDevice(id, 3L);
+        verify(deviceRepository, never()).existsById(id);
+        verify(deviceRepository, never()).findById(id);
+    }
+
+    /**
+     * Test for deleting a device whose version has changed.
+     * Ensures that a version mismatch is reported when the device still exists.
+     */
+
+    @Test
+    void deleteDevice_shouldThrowExceptionIfVersionDoesNotMatch() {
+        // Arrange
+        Long id = 1L;
+        when(deviceRepository.deleteDevice(id, 3L)).thenReturn(Optional.empty());
+        when(deviceRepository.existsById(id)).thenReturn(true);
+
+        // Act & Assert
+        assertThatThrownBy(() -> deviceService.deleteDevice(id, 3L))
+                .isInstanceOf(DeviceVersionMismatchException.class);
     }
 
     /**
      * Test for deleting a device.
-     * Ensures that the device is deleted correctly if it exists.
+     * Ensures that the device is deleted with a single statement if it exists.
      */
 
     @Test
     void deleteDevice_shouldDeleteDeviceIfExists() {
         // Arrange
         Long id = 1L;
-        when(deviceRepository.existsById(id)).thenReturn(true);
+        when(deviceRepository.deleteDevice(id, null)).thenReturn(Optional.of("BrandA"));
 
         // Act
-        deviceService.deleteDevice(id);
+        deviceService.deleteDevice(id, null);
 
         // Assert
-        verify(deviceRepository, times(1)).existsById(id);
-        verify(deviceRepository, times(1)).deleteById(id);
+        verify(deviceRepository, times(1)).deleteDevice(id, null);
+        verify(deviceRepository, never()).existsById(id);
+        verify(eventPublisher, times(1)).publishEvent(BrandCountsChangedEvent.deleted(List.of(new BrandCount("BrandA", 1))));
     }
     /**
      * Test for deleting a device when it does not exist.
@@ -189,16 +434,132 @@ class DeviceServiceTest implements AutoCloseable {
     void deleteDevice_shouldThrowExceptionIfDeviceNotFound() {
         // Arrange
         Long id = 1L;
-        when(deviceRepository.existsById(id)).thenReturn(false);
+        when(deviceRepository.deleteDevice(id, null)).thenReturn(Optional.empty());
 
         // Act & Assert
-        assertThatThrownBy(() -> deviceService.deleteDevice(id))
+        assertThatThrownBy(() -> deviceService.deleteDevice(id, null))
                 .isInstanceOf(DeviceNotFoundException.class);
-        verify(deviceRepository, times(1)).existsById(id);
-        verify(deviceRepository, never()).deleteById(id);
+        verify(deviceRepository, never()).existsById(id);
+    }
+
+    /**
+     * Test for deleting devices in bulk.
+     * Ensures that duplicate ids are dropped, the ids are deleted in chunks and each id is evicted from the cache.
+     */
+
+    @Test
+    void deleteDevices_shouldDeleteInChunks() {
+        // Arrange
+        List<Long> ids = new ArrayList<>();
+        for (long id = 1; id <= DeviceService.DELETE_CHUNK_SIZE + 10; id++) {
+            ids.add(id);
+        }
+        ids.add(1L);
+        when(deviceRepository.deleteDevices(any())).thenAnswer(invocation -> deleted(invocation.getArgument(0)));
+
+        // Act
+        int deleted = deviceService.deleteDevices(ids);
+
+        // Assert
+        assertThat(deleted).isEqualTo(DeviceService.DELETE_CHUNK_SIZE + 10);
+        verify(deviceRepository, times(2)).deleteDevices(any());
+        verify(cache, times(DeviceService.DELETE_CHUNK_SIZE + 10)).evict(any());
+    }
+
+    /**
+     * Test for deleting devices in bulk with ids of devices that do not exist.
+     * Ensures that only the ids that were actually deleted are announced.
+     */
+    @Test
+    void deleteDevices_shouldPublishOnlyDeletedIds() {
+        // Arrange
+        when(deviceRepository.deleteDevices(List.of(1L, 2L, 3L))).thenReturn(deleted(List.of(2L)));
+
+        // Act
+        int deleted = deviceService.deleteDevices(List.of(1L, 2L, 3L));
+
+        // Assert
+        assertThat(deleted).isEqualTo(1);
+        verify(eventPublisher).publishEvent(DevicesChangedEvent.deleted(List.of(2L)));
+        verify(eventPublisher).publishEvent(DeviceNamesChangedEvent.removed(List.of(2L)));
+        verify(eventPublisher).publishEvent(BrandCountsChangedEvent.deleted(List.of(new BrandCount("BrandA", 1))));
+    }
+
+    /**
+     * Test for deleting devices in bulk when none of the ids exist.
+     * Ensures that nothing is announced.
+     */
+    @Test
+    void deleteDevices_shouldPublishNothingIfNoDeviceExists() {
+        // Arrange
+        when(deviceRepository.deleteDevices(List.of(1L, 2L))).thenReturn(DeletedDevices.NONE);
+
+        // Act
+        int deleted = deviceService.deleteDevices(List.of(1L, 2L));
+
+        // Assert
+        assertThat(deleted).isZero();
+        verifyNoInteractions(eventPublisher);
+    }
+
+    /**
+     * Test for deleting devices by brand.
+     * Ensures that chunks are deleted, each in its own transaction, until a chunk is not full.
+     */
+
+    @Test
+    void deleteDevicesByBrand_shouldDeleteChunksUntilNoneAreLeft() {
+        // Arrange
+        List<Long> fullChunk = new ArrayList<>();
+        for (long id = 1; id <= DeviceService.DELETE_CHUNK_SIZE; id++) {
+            fullChunk.add(id);
+        }
+        List<Long> lastChunk = List.of(1001L, 1002L);
+        when(transactionTemplate.execute(any())).thenAnswer(invocation ->
+                invocation.<TransactionCallback<?>>getArgument(0).doInTransaction(null));
+        when(deviceRepository.findIdsByBrand("BrandA", Limit.of(DeviceService.DELETE_CHUNK_SIZE)))
+                .thenReturn(fullChunk).thenReturn(lastChunk);
+        when(deviceRepository.deleteDevices(fullChunk)).thenReturn(deleted(fullChunk));
+        when(deviceRepository.deleteDevices(lastChunk)).thenReturn(deleted(lastChunk));
+
+        // Act
+        int deleted = deviceService.deleteDevicesByBrand("BrandA");
+
+        // Assert
+        assertThat(deleted).isEqualTo(DeviceService.DELETE_CHUNK_SIZE + 2);
+        verify(transactionTemplate, times(2)).execute(any());
+        verify(cache, times(1)).evict(1001L);
+    }
+
+    /**
+     * Test for deleting devices by brand while some of them are deleted concurrently.
+     * Ensures that a full chunk of found ids leads to the next chunk even if fewer of them were deleted.
+     */
+    @Test
+    void deleteDevicesByBrand_shouldContinueAfterFullChunkWithConcurrentDeletes() {
+        // Arrange
+        List<Long> fullChunk = new ArrayList<>();
+        for (long id = 1; id <= DeviceService.DELETE_CHUNK_SIZE; id++) {
+            fullChunk.add(id);
+        }
+        List<Long> lastChunk = List.of(1001L);
+        when(transactionTemplate.execute(any())).thenAnswer(invocation ->
+                invocation.<TransactionCallback<?>>getArgument(0).doInTransaction(null));
+        when(deviceRepository.findIdsByBrand("BrandA", Limit.of(DeviceService.DELETE_CHUNK_SIZE)))
+                .thenReturn(fullChunk).thenReturn(lastChunk);
+        when(deviceRepository.deleteDevices(fullChunk)).thenReturn(deleted(fullChunk.subList(1, fullChunk.size())));
+        when(deviceRepository.deleteDevices(lastChunk)).thenReturn(deleted(lastChunk));
+
+        // Act
+        int deleted = deviceService.deleteDevicesByBrand("BrandA");
+
+        // Assert
+        assertThat(deleted).isEqualTo(DeviceService.DELETE_CHUNK_SIZE);
+        verify(deviceRepository, times(1)).deleteDevices(lastChunk);
     }
+
     /**
-     * Test for searching devices by brand.
+     * Test for searching devices by exact brand.
      * Ensures that the correct devices are returned.
      */
 
@@ -206,19 +567,126 @@ class DeviceServiceTest implements AutoCloseable {
     void searchDevicesByBrand_shouldReturnMatchingDevices() {
         // Arrange
         String brand = "BrandA";
-        List<Device> devices = Arrays.asList(
-                new Device(1L, "Device1", "BrandA", LocalDateTime.now()),
-                new Device(2L, "Device2", "BrandA", LocalDateTime.now())
+        List<DeviceDTO> devices = Arrays.asList(
+                dto(1L, "Device1", "BrandA"),
+                dto(2L, "Device2", "BrandA")
         );
-        when(deviceRepository.findByBrand(brand)).thenReturn(devices);
+        when(deviceRepository.findDtosByBrandAfter(brand, 0L, Limit.of(11))).thenReturn(devices);
+
+        // Act
+        DevicePage page = deviceService.searchDevicesByBrand(brand, BrandMatch.EXACT, null, 10);
+
+        // Assert
+        assertThat(page.items()).hasSize(2);
+        assertThat(page.nextCursor()).isNull();
+        verify(deviceRepository, times(1)).findDtosByBrandAfter(brand, 0L, Limit.of(11));
+    }
+    /**
+     * Test for searching devices by brand ignoring case.
+     * Ensures that the case-insensitive lookup is used.
+     */
+
+    @Test
+    void searchDevicesByBrand_shouldUseCaseInsensitiveLookupWhenIgnoringCase() {
+        // Arrange
+        List<DeviceDTO> devices = List.of(dto(1L, "Device1", "BrandA"));
+        when(deviceRepository.findDtosByBrandIgnoreCaseAfter("BRANDA", 0L, Limit.of(11))).thenReturn(devices);
+
+        // Act
+        DevicePage page = deviceService.searchDevicesByBrand("BRANDA", BrandMatch.IGNORE_CASE, null, 10);
+
+        // Assert
+        assertThat(page.items()).extracting(DeviceDTO::id).containsExactly(1L);
+    }
+    /**
+     * Test for searching devices by brand prefix.
+     * Ensures that wildcards are escaped and the cursor carries the brand of the last device.
+     */
+
+    @Test
+    void searchDevicesByBrand_shouldEscapePrefixAndReturnKeyedCursor() {
+        // Arrange
+        List<DeviceDTO> devices = List.of(dto(1L, "Device1", "Brand_A"), dto(2L, "Device2", "Brand_B"));
+        when(deviceRepository.findDtosByBrandPrefixAfter("Brand\\_%", "", 0L, Limit.of(2))).thenReturn(devices);
+
+        // Act
+        DevicePage page = deviceService.searchDevicesByBrand("Brand_", BrandMatch.PREFIX, null, 1);
+
+        // Assert
+        assertThat(page.items()).extracting(DeviceDTO::id).containsExactly(1L);
+        assertThat(DeviceCursor.decode(page.nextCursor())).isEqualTo(DeviceCursor.after("Brand_A", 1L));
+    }
+    /**
+     * Test for searching devices by name.
+     * Ensures that the devices are returned in the order of the index, not of the query, and the cursor carries the rank.
+     */
+
+    @Test
+    void searchDevicesByName_shouldReturnDevicesInRankOrder() {
+        // Arrange
+        List<DeviceNameIndex.Match> matches = List.of(new DeviceNameIndex.Match(2L, 1), new DeviceNameIndex.Match(1L, 5),
+                new DeviceNameIndex.Match(3L, 7));
+        when(deviceNameIndex.search("sensor", null, 3)).thenReturn(matches);
+        when(deviceRepository.findDtosByIdIn(List.of(2L, 1L))).thenReturn(List.of(dto(1L, "Old sensor", "BrandA"),
+                dto(2L, "Sensor", "BrandA")));
+
+        // Act
+        DevicePage page = deviceService.searchDevicesByName("sensor", null, 2);
+
+        // Assert
+        assertThat(page.items()).extracting(DeviceDTO::id).containsExactly(2L, 1L);
+        assertThat(DeviceService.decodeNameCursor(page.nextCursor())).isEqualTo(new DeviceNameIndex.Match(1L, 5));
+    }
+
+    /**
+     * Test for searching devices by creation time.
+     * Ensures that the search resumes at the creation time in the cursor and the next cursor carries the last one.
+     */
+
+    @Test
+    void searchDevicesByCreationTime_shouldResumeAfterCursor() {
+        // Arrange
+        LocalDateTime from = LocalDateTime.of(2024, 1, 1, 0, 0);
+        LocalDateTime to = LocalDateTime.of(2024, 2, 1, 0, 0);
+        LocalDateTime resumeAt = LocalDateTime.of(2024, 1, 10, 8, 30);
+        DeviceDTO device = new DeviceDTO(8L, "Device8", "BrandA", LocalDateTime.of(2024, 1, 11, 0, 0), 0L);
+        when(deviceRepository.findDtosCreatedBetweenAfter(resumeAt, to, 7L, Limit.of(2)))
+                .thenReturn(List.of(device, dto(9L, "Device9", "BrandA")));
+        when(deviceArchiveService.findCreatedBetweenAfter(null, resumeAt, to, 7L, 2)).thenReturn(List.of());
 
         // Act
-        List<DeviceDTO> deviceDTOs = deviceService.searchDevicesByBrand(brand);
+        DevicePage page = deviceService.searchDevicesByCreationTime(from, to, null,
+                DeviceCursor.after(resumeAt.toString(), 7L).encode(), 1);
 
         // Assert
-        assertThat(deviceDTOs).hasSize(2);
-        verify(deviceRepository, times(1)).findByBrand(brand);
+        assertThat(page.items()).containsExactly(device);
+        assertThat(DeviceCursor.decode(page.nextCursor())).isEqualTo(DeviceCursor.after("2024-01-11T00:00", 8L));
     }
+
+    /**
+     * Test for searching devices by creation time with an empty range.
+     * Ensures that the range is rejected before any query runs.
+     */
+
+    @Test
+    void searchDevicesByCreationTime_shouldRejectEmptyRange() {
+        // Arrange
+        LocalDateTime time = LocalDateTime.of(2024, 1, 1, 0, 0);
+
+        // Act & Assert
+        assertThatThrownBy(() -> deviceService.searchDevicesByCreationTime(time, time, null, null, 10))
+                .isInstanceOf(InvalidRequestException.class);
+        verifyNoInteractions(deviceRepository);
+    }
+
+    private static DeviceDTO dto(Long id, String name, String brand) {
+        return new DeviceDTO(id, name, brand, LocalDateTime.now());
+    }
+
+    private static DeletedDevices deleted(List<Long> ids) {
+        return new DeletedDevices(List.copyOf(ids), List.of(new BrandCount("BrandA", ids.size())));
+    }
+
     /**
      * Closes mocks after each test.
      */